@@ -0,0 +1,44 @@
+package com.hsu_mafia.motoo.kisdatacollector;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "batch")
+@Data
+public class BatchConfig {
+    // false 이면 하루 단위로 API 를 호출 (기존 방식)
+    private boolean windowedFetch = true;
+    // KIS 기간별 시세 API 한 번의 응답에 담기는 최대 캔들 수
+    private int maxCandlesPerPage = 100;
+    // 한 윈도우에서 tr_cont 연속 조회를 따라갈 최대 페이지 수
+    private int maxPagesPerWindow = 20;
+    // 청크 커밋 간격. 둘 중 하나라도 넘으면 그때까지 모은 결과를 한 트랜잭션으로 커밋
+    private int commitIntervalDays = 100;
+    private int commitIntervalCandles = 1000;
+    // 기동 시 RUNNING 으로 남은 작업을 체크포인트부터 재개
+    private boolean recoverOnStartup = true;
+    // 서로 다른 종목에서 이 횟수 이상 캔들이 빠진 평일은 휴장일로 학습
+    private int holidayLearningThreshold = 2;
+    // 동시에 실행할 배치 작업 수. 호출 속도는 RateLimitManager 가 따로 제한
+    private int maxConcurrentJobs = 8;
+    // 윈도우(API 호출 단위)가 이보다 많은 작업은 이 개수씩 하위 작업으로 나눠 동시에 실행. 0 이면 나누지 않음
+    private int maxWindowsPerJob = 50;
+    // 작업 점유에 쓰는 노드 이름. 비어 있으면 호스트 이름으로 만든다
+    private String nodeId;
+    // 작업 점유 시간. 하트비트가 이 시간 동안 없으면 다른 노드가 작업을 가져간다
+    private long jobLeaseMillis = 300000;
+    private long jobHeartbeatMillis = 60000;
+    // 이 우선순위 이상으로 실행하는 작업은 실행 중인 더 낮은 우선순위 작업을 일시 중지시킴. 비어 있으면 선점하지 않음
+    private RequestPriority preemptionPriority = RequestPriority.INTERACTIVE;
+    // 문자열 시세 컬럼이 남은 기존 행을 숫자 컬럼으로, 기존 행을 파티션 테이블로 옮길 때 한 트랜잭션에서 옮기는 행 수
+    private int priceMigrationBatchSize = 5000;
+    // 분봉 월별 파티션을 이번 달부터 몇 달 뒤까지 미리 만들지. 파티션 생성은 부모 테이블을 잠깐 잠그므로 적재 중에 만들지 않도록 한다
+    private int partitionMonthsAhead = 3;
+    // 1분봉으로 만든 N분봉을 종목·날짜별로 메모리에 남겨 둘 간격과 최대 보관 수(종목·간격·날짜 하나가 1건)
+    private List<Integer> minuteBarCachedIntervals = List.of(3, 5, 10, 15, 30, 60);
+    private int minuteBarCacheSize = 5000;
+}
@@ -0,0 +1,34 @@
+package com.hsu_mafia.motoo.kisdatacollector;
+
+import com.hsu_mafia.motoo.kisdatacollector.service.KisHttpClient;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+@ConfigurationProperties(prefix = "http-client")
+@Data
+public class HttpClientConfig {
+    // TCP 연결 (TLS 핸드셰이크 포함) 제한 시간
+    private int connectTimeoutMillis = 3000;
+    // 응답을 기다리는 최대 시간
+    private int readTimeoutMillis = 10000;
+    // 풀에서 빈 연결을 기다리는 최대 시간
+    private int connectionRequestTimeoutMillis = 5000;
+    private int maxConnTotal = 20;
+    private int maxConnPerRoute = 10;
+    // 이 시간 이상 쉬던 연결은 재사용 전에 살아 있는지 확인
+    private int validateAfterInactivityMillis = 2000;
+    // 이 시간 이상 쉬는 연결은 정리 (서버가 먼저 끊은 연결을 재사용하지 않도록)
+    private int idleEvictSeconds = 30;
+    // 연결 최대 수명
+    private int timeToLiveSeconds = 300;
+
+    // 슬라이스 테스트(@DataJpaTest)에서는 KisHttpClient 와 함께 빠지도록 애플리케이션 클래스가 아닌 설정 클래스에 둔다
+    @Bean
+    public RestTemplate restTemplate(KisHttpClient kisHttpClient) {
+        return new RestTemplate(kisHttpClient.requestFactory());
+    }
+}
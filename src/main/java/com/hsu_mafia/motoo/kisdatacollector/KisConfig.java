@@ -1,5 +1,7 @@
 package com.hsu_mafia.motoo.kisdatacollector;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -17,4 +19,38 @@ public class KisConfig {
     private String baseUrl;
     private String sandboxUrl;
     private int tokenExpirationMinutes;
+    // 만료까지 이 시간보다 적게 남으면 백그라운드에서 미리 재발급
+    private int tokenRefreshAheadMinutes = 60;
+    // 기동 시 저장된 토큰을 불러오고, 없으면 미리 발급
+    private boolean tokenPrefetchOnStartup = true;
+    // 여러 계정의 키를 함께 쓸 때 지정. 비어 있으면 appKey/appSecret 하나만 사용
+    private List<Credential> credentials = new ArrayList<>();
+    // 키 하나당 호출 한도 (KIS: 초당 2회, 분당 20회)
+    private int requestsPerSecond = 2;
+    private int requestsPerMinute = 20;
+    // 호출 한도 초과 응답을 받은 키를 순환에서 빼 두는 시간
+    private long throttleCooldownMillis = 5000;
+    // 한도 초과/서버 오류 응답에 따라 키별 호출 속도를 자동 조절 (AIMD). 위 호출 한도가 상한
+    private boolean adaptiveRateControl = true;
+    // 감속해도 내려가지 않는 키당 분당 호출 수
+    private double minRequestsPerMinute = 4;
+    // 호출이 성공할 때마다 올리는 분당 호출 수
+    private double rateIncreasePerSuccess = 0.5;
+    // 감속할 때 호출 속도에 곱하는 값
+    private double rateDecreaseFactor = 0.5;
+    // 여러 인스턴스가 같은 키를 쓸 때 DB 의 공유 버킷으로 키별 호출 한도를 함께 지킴
+    private boolean sharedRateLimit = false;
+    // 공유 버킷에서 한 번에 임대하는 허가 수. 클수록 DB 를 덜 거치지만 인스턴스 간 몫이 고르지 않다
+    private int sharedRateLimitLeasePermits = 5;
+    // 같은 종목·봉 종류·기간의 시세 조회가 동시에 들어오면 호출 한 번의 결과를 나눠 씀
+    private boolean requestCoalescing = true;
+    // 끝난 조회 결과를 같은 요청에 다시 돌려주는 시간. 0 이면 진행 중인 호출만 나눠 씀
+    private long requestCoalescingTtlMillis = 2000;
+
+    @Data
+    public static class Credential {
+        private String name;
+        private String appKey;
+        private String appSecret;
+    }
 }
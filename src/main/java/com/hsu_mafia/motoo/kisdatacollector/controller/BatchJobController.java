@@ -3,7 +3,9 @@ package com.hsu_mafia.motoo.kisdatacollector.controller;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import com.hsu_mafia.motoo.kisdatacollector.dto.BatchJobRequest;
+import com.hsu_mafia.motoo.kisdatacollector.service.BatchJobExecutor;
 import com.hsu_mafia.motoo.kisdatacollector.service.BatchJobService;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -26,6 +28,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class BatchJobController {
 
     private final BatchJobService batchJobService;
+    private final BatchJobExecutor batchJobExecutor;
 
     @PostMapping
     public ResponseEntity<BatchJob> createBatchJob(@RequestBody BatchJobRequest request) {
@@ -41,7 +44,8 @@ public class BatchJobController {
     @PostMapping("/{id}/execute")
     public ResponseEntity<String> executeBatchJob(@PathVariable Long id) {
         try {
-            batchJobService.executeBatchJob(id);
+            // 사용자가 기다리는 작업이므로 가장 높은 우선순위로, 큰 작업이면 하위 작업으로 나눠 동시에 실행
+            batchJobExecutor.submit(id, RequestPriority.INTERACTIVE);
             return ResponseEntity.ok("배치 작업 실행 시작");
         } catch (Exception e) {
             log.error("배치 작업 실행 중 오류 발생", e);
@@ -49,6 +53,21 @@ public class BatchJobController {
         }
     }
 
+    /**
+     * 대기 중인 작업은 바로, 실행 중인 작업은 진행 중인 윈도우를 마치고 커밋한 뒤 취소된다.
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<BatchJob> cancelBatchJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(batchJobService.cancelBatchJob(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("배치 작업 취소 중 오류 발생", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BatchJob> getBatchJob(@PathVariable Long id) {
         try {
@@ -85,6 +104,7 @@ public class BatchJobController {
                     .startDate(yesterday)
                     .endDate(today)
                     .periodType(PeriodType.DAILY)
+                    .priority(RequestPriority.INTERACTIVE)
                     .build();
 
             BatchJob batchJob = batchJobService.createBatchJob(request);
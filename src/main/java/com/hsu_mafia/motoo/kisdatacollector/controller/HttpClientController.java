@@ -0,0 +1,36 @@
+package com.hsu_mafia.motoo.kisdatacollector.controller;
+
+import com.hsu_mafia.motoo.kisdatacollector.dto.HttpClientStatusResponse;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisHttpClient;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/http-client")
+@RequiredArgsConstructor
+public class HttpClientController {
+
+    private final KisHttpClient kisHttpClient;
+
+    @GetMapping("/status")
+    public ResponseEntity<HttpClientStatusResponse> getStatus() {
+        PoolStats poolStats = kisHttpClient.getPoolStats();
+        HttpClientStatusResponse status = HttpClientStatusResponse.builder()
+                .requestCount(kisHttpClient.getRequestCount())
+                .newConnectionCount(kisHttpClient.getNewConnectionCount())
+                .reusedConnectionCount(kisHttpClient.getReusedConnectionCount())
+                .connectionReuseRatio(kisHttpClient.getConnectionReuseRatio())
+                .handshakeCount(kisHttpClient.getHandshakeCount())
+                .averageHandshakeMillis(kisHttpClient.getAverageHandshakeMillis())
+                .leasedConnections(poolStats.getLeased())
+                .availableConnections(poolStats.getAvailable())
+                .pendingRequests(poolStats.getPending())
+                .maxConnections(poolStats.getMax())
+                .build();
+        return ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,83 @@
+package com.hsu_mafia.motoo.kisdatacollector.controller;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import com.hsu_mafia.motoo.kisdatacollector.dto.KisApiKeyStatusResponse;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisApiKey;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisApiKeyPool;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisRequestCoalescer;
+import com.hsu_mafia.motoo.kisdatacollector.service.RateLimitManager;
+import java.util.Arrays;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/kis-keys")
+@RequiredArgsConstructor
+public class KisApiKeyController {
+
+    private final KisApiKeyPool kisApiKeyPool;
+    private final KisRequestCoalescer kisRequestCoalescer;
+
+    @GetMapping("/status")
+    public ResponseEntity<KisApiKeyStatusResponse> getStatus() {
+        List<KisApiKeyStatusResponse.KeyStatus> keys = kisApiKeyPool.getKeys().stream()
+                .map(this::toKeyStatus)
+                .toList();
+
+        KisApiKeyStatusResponse status = KisApiKeyStatusResponse.builder()
+                .effectiveRequestsPerMinute(keys.stream()
+                        .mapToDouble(KisApiKeyStatusResponse.KeyStatus::getEffectiveRequestsPerMinute).sum())
+                .maxRequestsPerMinute(keys.stream()
+                        .mapToDouble(KisApiKeyStatusResponse.KeyStatus::getMaxRequestsPerMinute).sum())
+                .keys(keys)
+                .priorities(Arrays.stream(RequestPriority.values()).map(this::toPriorityStatus).toList())
+                .requestCoalescing(KisApiKeyStatusResponse.CoalescingStatus.builder()
+                        .inFlightHitCount(kisRequestCoalescer.getInFlightHitCount())
+                        .cachedHitCount(kisRequestCoalescer.getCachedHitCount())
+                        .missCount(kisRequestCoalescer.getMissCount())
+                        .permitsSaved(kisRequestCoalescer.getPermitsSaved())
+                        .build())
+                .build();
+        return ResponseEntity.ok(status);
+    }
+
+    private KisApiKeyStatusResponse.KeyStatus toKeyStatus(KisApiKey key) {
+        RateLimitManager rateLimitManager = key.getRateLimitManager();
+        return KisApiKeyStatusResponse.KeyStatus.builder()
+                .name(key.getName())
+                .effectiveRequestsPerMinute(rateLimitManager.getRequestsPerMinute())
+                .maxRequestsPerMinute(rateLimitManager.getMaxRequestsPerMinute())
+                .backoffCount(rateLimitManager.getBackoffCount())
+                .throttled(key.isThrottled())
+                .throttledCount(key.getThrottledCount().get())
+                .inFlight(key.getInFlight())
+                .queuedCount(rateLimitManager.getQueuedCount())
+                .grantedCount(rateLimitManager.getGrantedCount())
+                .totalWaitMillis(rateLimitManager.getTotalWaitMillis())
+                .leaseCount(rateLimitManager.getLeaseCount())
+                .build();
+    }
+
+    private KisApiKeyStatusResponse.PriorityStatus toPriorityStatus(RequestPriority priority) {
+        long grantedCount = 0;
+        long totalWaitMillis = 0;
+        long maxWaitMillis = 0;
+        for (KisApiKey key : kisApiKeyPool.getKeys()) {
+            RateLimitManager rateLimitManager = key.getRateLimitManager();
+            grantedCount += rateLimitManager.getGrantedCount(priority);
+            totalWaitMillis += rateLimitManager.getTotalWaitMillis(priority);
+            maxWaitMillis = Math.max(maxWaitMillis, rateLimitManager.getMaxWaitMillis(priority));
+        }
+
+        return KisApiKeyStatusResponse.PriorityStatus.builder()
+                .priority(priority)
+                .grantedCount(grantedCount)
+                .averageWaitMillis(grantedCount > 0 ? (double) totalWaitMillis / grantedCount : 0)
+                .maxWaitMillis(maxWaitMillis)
+                .build();
+    }
+}
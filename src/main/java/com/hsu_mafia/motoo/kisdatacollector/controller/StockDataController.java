@@ -5,6 +5,7 @@ import com.hsu_mafia.motoo.kisdatacollector.domain.Stock;
 import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
 import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
 import com.hsu_mafia.motoo.kisdatacollector.repository.StockRepository;
+import com.hsu_mafia.motoo.kisdatacollector.service.MinuteBarAggregator;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -27,6 +28,7 @@ public class StockDataController {
 
     private final StockRepository stockRepository;
     private final StockPriceRepository stockPriceRepository;
+    private final MinuteBarAggregator minuteBarAggregator;
 
     @GetMapping
     public ResponseEntity<List<Stock>> getAllStocks() {
@@ -50,16 +52,28 @@ public class StockDataController {
         }
     }
 
+    /**
+     * @param interval 분봉을 몇 분봉으로 묶어 받을지 (1~390). 분봉을 기간으로 조회할 때만 지정할 수 있다
+     */
     @GetMapping("/{stockCode}/prices")
     public ResponseEntity<List<StockPrice>> getStockPrices(
             @PathVariable String stockCode,
             @RequestParam PeriodType periodType,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Integer interval) {
+        if (interval != null && (periodType != PeriodType.MINUTE || startDate == null || endDate == null)) {
+            throw new IllegalArgumentException("interval 은 분봉을 startDate, endDate 와 함께 조회할 때만 지정할 수 있습니다");
+        }
+
         try {
             List<StockPrice> prices;
 
-            if (startDate != null && endDate != null) {
+            if (interval != null) {
+                prices = minuteBarAggregator.aggregate(stockCode,
+                        LocalDate.parse(startDate, DateTimeFormatter.ofPattern("yyyyMMdd")),
+                        LocalDate.parse(endDate, DateTimeFormatter.ofPattern("yyyyMMdd")), interval);
+            } else if (startDate != null && endDate != null) {
                 LocalDateTime start = LocalDate.parse(startDate, DateTimeFormatter.ofPattern("yyyyMMdd")).atStartOfDay();
                 LocalDateTime end = LocalDate.parse(endDate, DateTimeFormatter.ofPattern("yyyyMMdd")).atTime(23, 59, 59);
 
@@ -70,6 +84,9 @@ public class StockDataController {
             }
 
             return ResponseEntity.ok(prices);
+        } catch (IllegalArgumentException e) {
+            // 잘못된 분봉 간격은 400 으로 돌려준다 (GlobalExceptionHandler)
+            throw e;
         } catch (Exception e) {
             log.error("주식 가격 조회 중 오류 발생", e);
             return ResponseEntity.internalServerError().build();
@@ -0,0 +1,45 @@
+package com.hsu_mafia.motoo.kisdatacollector.controller;
+
+import com.hsu_mafia.motoo.kisdatacollector.dto.TradingCalendarStatusResponse;
+import com.hsu_mafia.motoo.kisdatacollector.service.TradingCalendar;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/trading-calendar")
+@RequiredArgsConstructor
+@Slf4j
+public class TradingCalendarController {
+
+    private final TradingCalendar tradingCalendar;
+
+    @GetMapping("/status")
+    public ResponseEntity<TradingCalendarStatusResponse> getStatus() {
+        TradingCalendarStatusResponse status = TradingCalendarStatusResponse.builder()
+                .seededHolidayCount(tradingCalendar.getSeededHolidayCount())
+                .learnedHolidayCount(tradingCalendar.getLearnedHolidayCount())
+                .learnedHolidays(tradingCalendar.getLearnedHolidays().stream().sorted().toList())
+                .skippedHolidayCount(tradingCalendar.getSkippedHolidayCount())
+                .avoidedCallCount(tradingCalendar.getAvoidedCallCount())
+                .build();
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/{date}")
+    public ResponseEntity<Boolean> isTradingDay(@PathVariable String date) {
+        try {
+            LocalDate localDate = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyyMMdd"));
+            return ResponseEntity.ok(tradingCalendar.isTradingDay(localDate));
+        } catch (Exception e) {
+            log.error("거래일 조회 중 오류 발생: {}", date, e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -49,6 +49,19 @@ public class BatchJob {
     @Column(name = "status")
     private BatchJobStatus status;
 
+    // 이 작업의 API 호출이 호출 한도를 나눠 받을 때의 우선순위
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority")
+    private RequestPriority priority;
+
+    // 큰 작업을 나눈 하위 작업이면 원래 작업의 ID
+    @Column(name = "parent_job_id")
+    private Long parentJobId;
+
+    // 다른 대기 작업에 합쳐져 취소됐으면 그 작업의 ID
+    @Column(name = "merged_into_job_id")
+    private Long mergedIntoJobId;
+
     @Column(name = "total_count")
     private int totalCount;
 
@@ -61,6 +74,30 @@ public class BatchJob {
     @Column(name = "failed_count")
     private int failedCount;
 
+    // 커밋이 끝난 가장 오래된 날짜 (yyyyMMdd). 재실행하면 이 날짜 이전부터 이어서 수집
+    @Column(name = "checkpoint_date")
+    private String checkpointDate;
+
+    // 작업을 점유한 노드와 점유 만료 시각. BatchJobLeaseRepository 만 갱신하며,
+    // 작업 진행 상황을 저장할 때 하트비트를 덮어쓰지 않도록 JPA 로는 쓰지 않는다
+    @Column(name = "lease_owner", insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at", insertable = false, updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "heartbeat_at", insertable = false, updatable = false)
+    private LocalDateTime heartbeatAt;
+
+    // 실행 중인 작업에 보낸 취소/선점 요청과 선점한 작업의 ID. 실행 중인 노드가 진행 상황을 저장하면서
+    // 요청을 지우지 않도록 점유 정보처럼 JPA 로는 쓰지 않는다
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stop_request", insertable = false, updatable = false)
+    private BatchJobStopRequest stopRequest;
+
+    @Column(name = "preempted_by_job_id", insertable = false, updatable = false)
+    private Long preemptedByJobId;
+
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
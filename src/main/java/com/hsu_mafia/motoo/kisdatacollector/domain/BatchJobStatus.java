@@ -8,6 +8,10 @@ public enum BatchJobStatus {
     RUNNING("실행중"),
     COMPLETED("완료"),
     FAILED("실패"),
+    // 하위 작업으로 나뉘어 하위 작업들이 실행 중. 진행 상황은 하위 작업의 합
+    SPLIT("분할됨"),
+    // 더 높은 우선순위 작업에 밀려 멈춤. 선점한 작업이 끝나면 체크포인트부터 이어서 실행
+    PAUSED("일시 중지"),
     CANCELLED("취소");
 
     private final String description;
@@ -0,0 +1,19 @@
+package com.hsu_mafia.motoo.kisdatacollector.domain;
+
+import lombok.Getter;
+
+/**
+ * 실행 중인 작업에 보내는 중지 요청. 작업은 윈도우 사이마다 요청을 확인하고, 모은 결과를 커밋한 뒤 멈춘다.
+ */
+@Getter
+public enum BatchJobStopRequest {
+    CANCEL("취소"),
+    // 체크포인트를 남기고 PAUSED 로 멈춘다
+    PREEMPT("선점");
+
+    private final String description;
+
+    BatchJobStopRequest(String description) {
+        this.description = description;
+    }
+}
@@ -9,6 +9,7 @@ public enum PeriodType {
     WEEKLY("W", "주봉"),
     MONTHLY("M", "월봉");
 
+    // KIS 기간별 시세(inquire-daily-itemchartprice)의 fid_period_div_code. 분봉은 별도 API 라 이 값을 쓰지 않는다
     private final String code;
     private final String description;
 
@@ -17,4 +18,17 @@ public enum PeriodType {
         this.description = description;
     }
 
+    /**
+     * 주봉/월봉은 KIS 에서 따로 받지 않고 저장된 일봉을 묶어 만든다
+     */
+    public boolean isRolledUpFromDaily() {
+        return this == WEEKLY || this == MONTHLY;
+    }
+
+    /**
+     * 이 봉을 채우려고 KIS 에서 받아 오는 봉 단위
+     */
+    public PeriodType fetchPeriodType() {
+        return isRolledUpFromDaily() ? DAILY : this;
+    }
 }
@@ -0,0 +1,37 @@
+package com.hsu_mafia.motoo.kisdatacollector.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 여러 인스턴스가 같은 앱 키의 호출 한도를 나눠 쓰기 위한 공유 버킷.
+ * 읽고 쓰는 것은 {@code RateLimitLeaseRepository} 가 행 잠금을 잡고 JDBC 로 한다.
+ */
+@Entity
+@Table(name = "kis_rate_limit_buckets")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RateLimitBucket {
+    // appKey 의 SHA-256
+    @Id
+    @Column(name = "app_key_hash", length = 64)
+    private String appKeyHash;
+
+    // 아직 어느 인스턴스에도 임대되지 않은 첫 허가 시각 (DB 시계 기준 epoch ms)
+    @Column(name = "next_permit_at", nullable = false)
+    private long nextPermitAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
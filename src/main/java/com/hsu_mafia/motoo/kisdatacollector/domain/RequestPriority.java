@@ -0,0 +1,23 @@
+package com.hsu_mafia.motoo.kisdatacollector.domain;
+
+import lombok.Getter;
+
+/**
+ * KIS API 호출 허가를 배정할 때의 우선순위. 선언 순서가 높은 우선순위 순이다.
+ * 모든 등급에 대기 중인 호출이 있으면 허가를 가중치 비율로 나눠 준다.
+ */
+@Getter
+public enum RequestPriority {
+    INTERACTIVE("즉시 실행", 8),
+    INCREMENTAL("증분 동기화", 3),
+    BACKFILL("백필", 1);
+
+    private final String description;
+    private final int weight;
+
+    RequestPriority(String description, int weight) {
+        this.description = description;
+        this.weight = weight;
+    }
+
+}
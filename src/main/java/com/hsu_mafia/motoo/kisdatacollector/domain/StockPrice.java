@@ -9,8 +9,10 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,8 +29,16 @@ import lombok.Setter;
 @AllArgsConstructor
 @Builder
 public class StockPrice {
+
+    // 시퀀스 값 하나로 id 를 ID_ALLOCATION_SIZE 개씩 미리 받아 insert 를 배치로 묶는다 (pooled).
+    // JDBC 적재도 같은 시퀀스에서 같은 규칙으로 id 를 받는다 (StockPriceBulkRepository).
+    // PostgreSQL 에서는 파티션 테이블이라 (stock_code, period_type, candle_date_time) 이 기본 키이고 id 는 키가 아니다
+    public static final String ID_SEQUENCE = "stock_prices_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "stock_code", nullable = false)
@@ -41,23 +51,25 @@ public class StockPrice {
     @Column(name = "period_type", nullable = false)
     private PeriodType periodType; // MINUTE, DAILY, WEEKLY, MONTHLY
 
+    // 가격과 거래량은 원 단위 정수, 거래대금은 bigint 를 넘을 수 있어 numeric 으로 저장.
+    // KIS 응답의 문자열은 StockDataProcessingService 가 적재할 때 한 번만 변환한다
     @Column(name = "open_price")
-    private String openPrice;
+    private Long openPrice;
 
     @Column(name = "high_price")
-    private String highPrice;
+    private Long highPrice;
 
     @Column(name = "low_price")
-    private String lowPrice;
+    private Long lowPrice;
 
     @Column(name = "close_price")
-    private String closePrice;
+    private Long closePrice;
 
     @Column(name = "volume")
-    private String volume;
+    private Long volume;
 
-    @Column(name = "trade_amount")
-    private String tradeAmount;
+    @Column(name = "trade_amount", precision = 20, scale = 0)
+    private BigDecimal tradeAmount;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -1,6 +1,7 @@
 package com.hsu_mafia.motoo.kisdatacollector.dto;
 
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,6 @@ public class BatchJobRequest {
     private String endDate;
     private PeriodType periodType;
     private String jobName;
+    // 비어 있으면 백필
+    private RequestPriority priority;
 }
@@ -0,0 +1,23 @@
+package com.hsu_mafia.motoo.kisdatacollector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpClientStatusResponse {
+    private long requestCount;
+    private long newConnectionCount;
+    private long reusedConnectionCount;
+    private double connectionReuseRatio;
+    private long handshakeCount;
+    private double averageHandshakeMillis;
+    private int leasedConnections;
+    private int availableConnections;
+    private int pendingRequests;
+    private int maxConnections;
+}
@@ -0,0 +1,64 @@
+package com.hsu_mafia.motoo.kisdatacollector.dto;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KisApiKeyStatusResponse {
+    // 모든 키의 현재 분당 호출 수 합
+    private double effectiveRequestsPerMinute;
+    private double maxRequestsPerMinute;
+    private List<KeyStatus> keys;
+    // 우선순위별 허가 대기 시간 (모든 키 합산)
+    private List<PriorityStatus> priorities;
+    // 같은 시세 조회를 합쳐서 아낀 호출
+    private CoalescingStatus requestCoalescing;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KeyStatus {
+        private String name;
+        private double effectiveRequestsPerMinute;
+        private double maxRequestsPerMinute;
+        private long backoffCount;
+        private boolean throttled;
+        private long throttledCount;
+        private int inFlight;
+        private int queuedCount;
+        private long grantedCount;
+        private long totalWaitMillis;
+        // 공유 한도에서 허가 구간을 임대한 횟수 (kis.shared-rate-limit 이 꺼져 있으면 0)
+        private long leaseCount;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriorityStatus {
+        private RequestPriority priority;
+        private long grantedCount;
+        private double averageWaitMillis;
+        private long maxWaitMillis;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CoalescingStatus {
+        private long inFlightHitCount;
+        private long cachedHitCount;
+        private long missCount;
+        private long permitsSaved;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hsu_mafia.motoo.kisdatacollector.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingCalendarStatusResponse {
+    private int seededHolidayCount;
+    private int learnedHolidayCount;
+    private List<LocalDate> learnedHolidays;
+    private long skippedHolidayCount;
+    private long avoidedCallCount;
+}
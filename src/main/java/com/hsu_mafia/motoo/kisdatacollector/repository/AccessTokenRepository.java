@@ -0,0 +1,11 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.AccessToken;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccessTokenRepository extends JpaRepository<AccessToken, Long> {
+    Optional<AccessToken> findByAppKeyHash(String appKeyHash);
+}
@@ -0,0 +1,87 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * batch_jobs 의 점유(lease) 컬럼을 다룬다.
+ *
+ * <p>여러 노드가 같은 작업을 가져가지 않도록 점유 대상을 FOR UPDATE SKIP LOCKED 로 잠그고 고른다. 다른 노드가 잠근 행은
+ * 기다리지 않고 건너뛰므로 노드들이 동시에 대기열을 훑어도 서로 다른 작업을 나눠 갖는다. 점유가 만료된 작업은
+ * 점유한 노드가 죽은 것으로 보고 다시 점유할 수 있다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BatchJobLeaseRepository {
+
+    private static final String SELECT_CLAIMABLE_SQL = """
+            SELECT id FROM batch_jobs
+            WHERE status = ? AND (lease_expires_at IS NULL OR lease_expires_at < ?)
+            ORDER BY created_at, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String LEASE_SQL =
+            "UPDATE batch_jobs SET lease_owner = ?, lease_expires_at = ?, heartbeat_at = ? WHERE id = ?";
+    private static final String ACQUIRE_SQL = """
+            UPDATE batch_jobs SET lease_owner = ?, lease_expires_at = ?, heartbeat_at = ?
+            WHERE id = ? AND (lease_owner = ? OR lease_expires_at IS NULL OR lease_expires_at < ?)
+            """;
+    private static final String RENEW_SQL =
+            "UPDATE batch_jobs SET lease_expires_at = ?, heartbeat_at = ? WHERE id = ? AND lease_owner = ?";
+    private static final String LOCK_OWNED_SQL =
+            "SELECT id FROM batch_jobs WHERE id = ? AND lease_owner = ? AND lease_expires_at >= ? FOR UPDATE";
+    private static final String RELEASE_SQL =
+            "UPDATE batch_jobs SET lease_owner = NULL, lease_expires_at = NULL WHERE id = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 점유되지 않은 작업을 오래된 순으로 최대 limit 개 점유한다.
+     *
+     * @return 점유한 작업 ID
+     */
+    @Transactional
+    public List<Long> claim(BatchJobStatus status, String owner, int limit, LocalDateTime now, LocalDateTime expiresAt) {
+        List<Long> jobIds = jdbcTemplate.queryForList(SELECT_CLAIMABLE_SQL, Long.class, status.name(), now, limit);
+        for (Long jobId : jobIds) {
+            jdbcTemplate.update(LEASE_SQL, owner, expiresAt, now, jobId);
+        }
+        return jobIds;
+    }
+
+    /**
+     * 작업 하나를 점유한다. 이미 이 노드가 점유한 작업이면 점유를 연장한다.
+     *
+     * @return 다른 노드가 점유 중이면 false
+     */
+    public boolean acquire(Long jobId, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update(ACQUIRE_SQL, owner, expiresAt, now, jobId, owner, now) > 0;
+    }
+
+    /**
+     * @return 점유를 잃었으면 (다른 노드가 가져갔으면) false
+     */
+    public boolean renew(Long jobId, String owner, LocalDateTime now, LocalDateTime expiresAt) {
+        return jdbcTemplate.update(RENEW_SQL, expiresAt, now, jobId, owner) > 0;
+    }
+
+    /**
+     * 이 노드가 점유 중인 작업 행을 현재 트랜잭션이 끝날 때까지 잠근다. 잠근 동안에는 다른 노드가 점유를 가져갈 수
+     * 없으므로, 같은 트랜잭션의 쓰기는 점유한 노드만 커밋한다.
+     *
+     * @return 점유를 잃었거나 점유가 만료되었으면 false
+     */
+    public boolean lockIfOwned(Long jobId, String owner, LocalDateTime now) {
+        return !jdbcTemplate.queryForList(LOCK_OWNED_SQL, Long.class, jobId, owner, now).isEmpty();
+    }
+
+    public void release(Long jobId, String owner) {
+        jdbcTemplate.update(RELEASE_SQL, jobId, owner);
+    }
+}
@@ -2,12 +2,17 @@ package com.hsu_mafia.motoo.kisdatacollector.repository;
 
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStopRequest;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
@@ -17,4 +22,104 @@ public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
 
     @Query("SELECT bj FROM BatchJob bj WHERE bj.status = :status ORDER BY bj.createdAt ASC")
     List<BatchJob> findPendingJobsOrderByCreatedAt(@Param("status") BatchJobStatus status);
+
+    List<BatchJob> findByParentJobId(Long parentJobId);
+
+    List<BatchJob> findByStockCodeAndPeriodTypeAndParentJobIdIsNullAndStatusIn(
+            String stockCode, PeriodType periodType, List<BatchJobStatus> statuses);
+
+    /**
+     * 하위 작업들의 진행 상황을 합산해 부모 작업에 쓴다. 여러 하위 작업이 동시에 불러도 한 문장으로 갱신하므로 합이 어긋나지 않는다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob p SET "
+            + "p.processedCount = (SELECT CAST(COALESCE(SUM(c.processedCount), 0) AS Integer) FROM BatchJob c WHERE c.parentJobId = p.id), "
+            + "p.successCount = (SELECT CAST(COALESCE(SUM(c.successCount), 0) AS Integer) FROM BatchJob c WHERE c.parentJobId = p.id), "
+            + "p.failedCount = (SELECT CAST(COALESCE(SUM(c.failedCount), 0) AS Integer) FROM BatchJob c WHERE c.parentJobId = p.id), "
+            + "p.updatedAt = :now "
+            + "WHERE p.id = :parentJobId")
+    int aggregateChildProgress(@Param("parentJobId") Long parentJobId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT bj.stopRequest FROM BatchJob bj WHERE bj.id = :id")
+    BatchJobStopRequest findStopRequestById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.stopRequest = :stopRequest, bj.updatedAt = :now WHERE bj.id = :id")
+    int requestStop(@Param("id") Long id, @Param("stopRequest") BatchJobStopRequest stopRequest,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.stopRequest = NULL WHERE bj.id = :id")
+    int clearStopRequest(@Param("id") Long id);
+
+    /**
+     * 점유한 노드가 없는 작업만 바로 취소한다. 실행 중인 작업은 {@link #requestStop} 으로 취소를 요청해야 한다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.status = :cancelled, bj.errorMessage = :message, bj.endTime = :now, bj.updatedAt = :now "
+            + "WHERE bj.id = :id AND bj.status IN :statuses AND (bj.leaseExpiresAt IS NULL OR bj.leaseExpiresAt < :now)")
+    int cancelIfIdle(@Param("id") Long id, @Param("statuses") List<BatchJobStatus> statuses,
+                     @Param("cancelled") BatchJobStatus cancelled, @Param("message") String message,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 점유되지 않은 대기 작업만 구간과 우선순위를 바꾼다. 읽은 뒤에 다른 노드가 점유하거나 병합한 작업이면 0 을 돌려준다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.startDate = :startDate, bj.endDate = :endDate, bj.priority = :priority, bj.updatedAt = :now "
+            + "WHERE bj.id = :id AND bj.status = :pending AND (bj.leaseExpiresAt IS NULL OR bj.leaseExpiresAt < :now)")
+    int extendIfUnclaimed(@Param("id") Long id, @Param("startDate") String startDate, @Param("endDate") String endDate,
+                          @Param("priority") RequestPriority priority, @Param("pending") BatchJobStatus pending,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 점유되지 않은 대기 작업만 다른 작업에 병합된 것으로 취소한다. 읽은 뒤에 다른 노드가 점유하거나 병합한 작업이면 0 을 돌려준다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.status = :cancelled, bj.mergedIntoJobId = :targetId, bj.errorMessage = :message, "
+            + "bj.endTime = :now, bj.updatedAt = :now "
+            + "WHERE bj.id = :id AND bj.status = :pending AND (bj.leaseExpiresAt IS NULL OR bj.leaseExpiresAt < :now)")
+    int mergeIfUnclaimed(@Param("id") Long id, @Param("targetId") Long targetId, @Param("message") String message,
+                         @Param("pending") BatchJobStatus pending, @Param("cancelled") BatchJobStatus cancelled,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * 주어진 우선순위로 실행 중인 작업에 선점 요청을 보낸다. 우선순위가 없는 예전 작업은 백필로 본다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.stopRequest = :stopRequest, bj.preemptedByJobId = :preemptorId, bj.updatedAt = :now "
+            + "WHERE bj.status = :running AND bj.stopRequest IS NULL "
+            + "AND (bj.priority IN :priorities OR bj.priority IS NULL)")
+    int requestPreemption(@Param("priorities") List<RequestPriority> priorities, @Param("preemptorId") Long preemptorId,
+                          @Param("running") BatchJobStatus running, @Param("stopRequest") BatchJobStopRequest stopRequest,
+                          @Param("now") LocalDateTime now);
+
+    List<BatchJob> findByStatusAndPriorityInAndLeaseExpiresAtAfter(
+            BatchJobStatus status, List<RequestPriority> priorities, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.status = :paused, bj.preemptedByJobId = :preemptorId, bj.updatedAt = :now "
+            + "WHERE bj.id = :id")
+    int pause(@Param("id") Long id, @Param("preemptorId") Long preemptorId, @Param("paused") BatchJobStatus paused,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * 선점한 작업이 더 이상 진행 중이 아니면 멈춘 작업을 점유가 풀린 RUNNING 으로 돌려 다른 중단된 작업처럼 체크포인트부터
+     * 이어서 실행되게 한다.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE BatchJob bj SET bj.status = :running, bj.preemptedByJobId = NULL, bj.updatedAt = :now "
+            + "WHERE bj.status = :paused AND NOT EXISTS "
+            + "(SELECT p.id FROM BatchJob p WHERE p.id = bj.preemptedByJobId AND p.status IN :activeStatuses)")
+    int resumePreempted(@Param("paused") BatchJobStatus paused, @Param("running") BatchJobStatus running,
+                        @Param("activeStatuses") List<BatchJobStatus> activeStatuses, @Param("now") LocalDateTime now);
 }
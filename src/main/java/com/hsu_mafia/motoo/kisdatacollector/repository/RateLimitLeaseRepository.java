@@ -0,0 +1,58 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * kis_rate_limit_buckets 에서 호출 허가 구간을 임대한다.
+ *
+ * <p>버킷 행을 SELECT ... FOR UPDATE 로 잠그고 다음 허가 시각을 구간 길이만큼 미루므로, 여러 인스턴스가 동시에
+ * 임대해도 구간이 겹치지 않는다. 시각은 인스턴스마다 시계가 다를 수 있으므로 DB 시계를 기준으로 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RateLimitLeaseRepository {
+
+    private static final String SELECT_FOR_UPDATE_SQL =
+            "SELECT next_permit_at FROM kis_rate_limit_buckets WHERE app_key_hash = ? FOR UPDATE";
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO kis_rate_limit_buckets (app_key_hash, next_permit_at, updated_at)
+            VALUES (?, 0, CURRENT_TIMESTAMP)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String UPDATE_SQL =
+            "UPDATE kis_rate_limit_buckets SET next_permit_at = ?, updated_at = CURRENT_TIMESTAMP WHERE app_key_hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param durationMillis 임대할 구간 길이
+     * @return 임대한 구간의 시작 시각과 임대 시점의 DB 시각
+     */
+    @Transactional
+    public LeasedWindow lease(String appKeyHash, long durationMillis) {
+        List<Long> nextPermitAt = jdbcTemplate.queryForList(SELECT_FOR_UPDATE_SQL, Long.class, appKeyHash);
+        if (nextPermitAt.isEmpty()) {
+            // 다른 인스턴스가 먼저 만들었으면 무시되고, 어느 쪽이든 이후 조회는 같은 행을 잠근다
+            jdbcTemplate.update(INSERT_IF_ABSENT_SQL, appKeyHash);
+            nextPermitAt = jdbcTemplate.queryForList(SELECT_FOR_UPDATE_SQL, Long.class, appKeyHash);
+        }
+
+        long now = jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class).getTime();
+        long startMillis = Math.max(nextPermitAt.get(0), now);
+        jdbcTemplate.update(UPDATE_SQL, startMillis + durationMillis, appKeyHash);
+
+        return new LeasedWindow(startMillis, now);
+    }
+
+    /**
+     * @param startMillis 구간 시작 (DB 시계 기준 epoch ms)
+     * @param dbNowMillis 임대 시점의 DB 시각. 로컬 시계로 옮길 때 기준으로 쓴다
+     */
+    public record LeasedWindow(long startMillis, long dbNowMillis) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * stock_prices 대량 적재/조회용 JDBC 저장소.
+ *
+ * <p>파싱된 캔들 묶음을 하나의 JDBC 배치로 보낸다. 이미 있는 캔들은 (stock_code, candle_date_time, period_type)
+ * 유니크 제약에 걸려 ON CONFLICT DO NOTHING 으로 무시된다.
+ *
+ * <p>id 는 Hibernate 와 같은 {@link StockPrice#ID_SEQUENCE} 에서 받는다. 시퀀스 값 v 하나가
+ * (v - {@link StockPrice#ID_ALLOCATION_SIZE}, v] 구간을 예약하므로, 행마다 nextval 을 부르지 않고
+ * 남은 구간을 다음 적재에 이어 쓴다. 다른 노드나 Hibernate 와 구간이 겹치지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockPriceBulkRepository {
+
+    private static final String INSERT_IGNORE_CONFLICT_SQL = """
+            INSERT INTO stock_prices (id, stock_code, candle_date_time, period_type,
+                                      open_price, high_price, low_price, close_price, volume, trade_amount,
+                                      created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String DELETE_RANGE_SQL = """
+            DELETE FROM stock_prices
+            WHERE stock_code = ? AND period_type = ? AND candle_date_time >= ? AND candle_date_time < ?
+            """;
+
+    private static final String SELECT_RANGE_SQL = """
+            SELECT candle_date_time, open_price, high_price, low_price, close_price, volume, trade_amount
+            FROM stock_prices
+            WHERE stock_code = ? AND period_type = ? AND candle_date_time >= ? AND candle_date_time < ?
+            ORDER BY candle_date_time
+            """;
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String LOCK_ROLLUP_SQL = "SELECT pg_advisory_xact_lock(hashtext('candle_rollup'), hashtext(?))";
+
+    private static final String NEXT_ID_BLOCKS_SQL =
+            "SELECT nextval('" + StockPrice.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    // 받아 두고 아직 쓰지 않은 id 구간 [nextId, hiId] 와 그 뒤에 쓸 구간들의 끝 값
+    private final Deque<Long> reservedBlocks = new ArrayDeque<>();
+    private long nextId = 1;
+    private long hiId = 0;
+
+    /**
+     * @return 실제로 추가된 행 수. 나머지는 이미 존재해 건너뛴 행이다.
+     *         (PostgreSQL 드라이버의 reWriteBatchedInserts 를 켜면 행별 결과를 알 수 없으므로 켜지 않는다)
+     */
+    public int insertIgnoringConflicts(List<StockPrice> stockPrices) {
+        if (stockPrices.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = allocateIds(stockPrices.size());
+
+        int[] results = jdbcTemplate.batchUpdate(INSERT_IGNORE_CONFLICT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockPrice stockPrice = stockPrices.get(i);
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, stockPrice.getStockCode());
+                ps.setTimestamp(3, Timestamp.valueOf(stockPrice.getCandleDateTime()));
+                ps.setString(4, stockPrice.getPeriodType().name());
+                ps.setObject(5, stockPrice.getOpenPrice(), Types.BIGINT);
+                ps.setObject(6, stockPrice.getHighPrice(), Types.BIGINT);
+                ps.setObject(7, stockPrice.getLowPrice(), Types.BIGINT);
+                ps.setObject(8, stockPrice.getClosePrice(), Types.BIGINT);
+                ps.setObject(9, stockPrice.getVolume(), Types.BIGINT);
+                ps.setObject(10, stockPrice.getTradeAmount(), Types.NUMERIC);
+                ps.setTimestamp(11, now);
+                ps.setTimestamp(12, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return stockPrices.size();
+            }
+        });
+
+        int insertedCount = 0;
+        for (int result : results) {
+            if (result > 0) {
+                insertedCount += result;
+            }
+        }
+        return insertedCount;
+    }
+
+    /**
+     * 구간 [start, end) 마다 기존 캔들을 지운다. 다시 계산한 주봉/월봉으로 바꿔 넣기 전에 쓴다.
+     */
+    public void deleteRanges(String stockCode, PeriodType periodType, List<CandleRange> ranges) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(DELETE_RANGE_SQL, ranges, ranges.size(), (ps, range) -> {
+            ps.setString(1, stockCode);
+            ps.setString(2, periodType.name());
+            ps.setTimestamp(3, Timestamp.valueOf(range.start()));
+            ps.setTimestamp(4, Timestamp.valueOf(range.end()));
+        });
+    }
+
+    /**
+     * 트랜잭션이 끝날 때까지 종목의 주봉/월봉 집계를 잠근다. 같은 종목을 집계하려는 다른 트랜잭션은 이 트랜잭션이 커밋한 뒤에
+     * 일봉을 읽으므로, 서로 다른 일봉을 넣은 두 트랜잭션이 상대의 일봉을 빠뜨린 봉을 쓰지 않는다.
+     * PostgreSQL 이 아니면(테스트용 H2) 잠그지 않는다.
+     */
+    public void lockRollup(String stockCode) {
+        if (isPostgreSql()) {
+            jdbcTemplate.queryForList(LOCK_ROLLUP_SQL, stockCode);
+        }
+    }
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            postgreSql = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgreSql;
+    }
+
+    /**
+     * 구간 [start, end) 의 캔들을 시각 순으로 하나씩 넘긴다. 결과를 목록이나 영속성 컨텍스트에 모으지 않으며,
+     * PostgreSQL 에서는 트랜잭션 안에서 불러야 fetch size 단위로 나눠 읽는다.
+     */
+    public void streamCandles(String stockCode, PeriodType periodType, LocalDateTime start, LocalDateTime end,
+                              Consumer<StockPrice> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_RANGE_SQL);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setString(1, stockCode);
+            ps.setString(2, periodType.name());
+            ps.setTimestamp(3, Timestamp.valueOf(start));
+            ps.setTimestamp(4, Timestamp.valueOf(end));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(StockPrice.builder()
+                .stockCode(stockCode)
+                .candleDateTime(rs.getTimestamp(1).toLocalDateTime())
+                .periodType(periodType)
+                .openPrice(rs.getObject(2, Long.class))
+                .highPrice(rs.getObject(3, Long.class))
+                .lowPrice(rs.getObject(4, Long.class))
+                .closePrice(rs.getObject(5, Long.class))
+                .volume(rs.getObject(6, Long.class))
+                .tradeAmount(rs.getBigDecimal(7))
+                .build()));
+    }
+
+    /**
+     * 남은 구간에서 id 를 꺼내고, 모자라면 필요한 구간 수만큼 시퀀스를 한 번에 당긴다
+     */
+    private synchronized List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            if (nextId > hiId) {
+                if (reservedBlocks.isEmpty()) {
+                    int blocks = Math.ceilDiv(count - ids.size(), StockPrice.ID_ALLOCATION_SIZE);
+                    reservedBlocks.addAll(jdbcTemplate.queryForList(NEXT_ID_BLOCKS_SQL, Long.class, blocks));
+                }
+                hiId = reservedBlocks.poll();
+                nextId = Math.max(1, hiId - StockPrice.ID_ALLOCATION_SIZE + 1);
+                continue;
+            }
+            ids.add(nextId++);
+        }
+        return ids;
+    }
+
+    public record CandleRange(LocalDateTime start, LocalDateTime end) {
+    }
+}
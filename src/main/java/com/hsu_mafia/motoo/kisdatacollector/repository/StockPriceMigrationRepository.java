@@ -0,0 +1,275 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * stock_prices 스키마 변경을 서비스를 멈추지 않고 적용하는 JDBC 저장소.
+ *
+ * <p>문자열 시세 컬럼을 숫자 컬럼으로 옮길 때, 컬럼 타입을 그 자리에서 바꾸면 PostgreSQL 이 테이블 전체를 다시 쓰는 동안 잠기므로, 기존 컬럼은 이름만
+ * {@code *_legacy} 로 바꾸고 같은 이름의 숫자 컬럼을 새로 만든다. 둘 다 카탈로그만 바꾸는 작업이라 바로 끝나고,
+ * 그 뒤로 들어오는 캔들은 숫자 컬럼에 저장된다. 기존 행은 id 순서로 조금씩 옮기고, 다 옮기면 문자열 컬럼을 지운다.
+ *
+ * <p>파티션 테이블로 바꿀 때도 같은 방식을 쓴다. 마이그레이션(V2__partition_stock_prices.sql)이 빈 파티션 테이블
+ * {@code stock_prices_partitioned} 를 만들고 기존 테이블의 쓰기를 트리거로 따라 쓰게 해 두면, 기존 행을 id 순서로
+ * 조금씩 복사한 뒤 마지막에만 잠깐 잠그고 테이블 이름을 바꾼다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockPriceMigrationRepository {
+
+    private static final List<String> PRICE_COLUMNS =
+            List.of("open_price", "high_price", "low_price", "close_price", "volume", "trade_amount");
+    private static final String LEGACY_SUFFIX = "_legacy";
+    private static final String PARTITIONED_TABLE = "stock_prices_partitioned";
+
+    private static final String COLUMN_TYPE_SQL = """
+            SELECT data_type FROM information_schema.columns
+            WHERE LOWER(table_name) = 'stock_prices' AND LOWER(column_name) = ? AND table_schema = CURRENT_SCHEMA
+            """;
+
+    private static final String SELECT_LEGACY_SQL = """
+            SELECT id, open_price_legacy, high_price_legacy, low_price_legacy, close_price_legacy,
+                   volume_legacy, trade_amount_legacy
+            FROM stock_prices
+            WHERE id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE_NUMERIC_SQL = """
+            UPDATE stock_prices
+            SET open_price = ?, high_price = ?, low_price = ?, close_price = ?, volume = ?, trade_amount = ?,
+                open_price_legacy = NULL, high_price_legacy = NULL, low_price_legacy = NULL,
+                close_price_legacy = NULL, volume_legacy = NULL, trade_amount_legacy = NULL
+            WHERE id = ?
+            """;
+
+    private static final String TABLE_EXISTS_SQL = """
+            SELECT COUNT(*) FROM information_schema.tables
+            WHERE LOWER(table_name) = 'stock_prices' AND table_schema = CURRENT_SCHEMA
+            """;
+
+    private static final String PARTITIONED_TABLE_EXISTS_SQL = """
+            SELECT COUNT(*) FROM information_schema.tables
+            WHERE LOWER(table_name) = 'stock_prices_partitioned' AND table_schema = CURRENT_SCHEMA
+            """;
+
+    private static final String BATCH_END_ID_SQL = """
+            SELECT MAX(id) FROM (SELECT id FROM stock_prices WHERE id > ? ORDER BY id LIMIT ?) batch
+            """;
+
+    private static final String MINUTE_MONTHS_SQL = """
+            SELECT DISTINCT CAST(DATE_TRUNC('MONTH', candle_date_time) AS DATE) FROM stock_prices
+            WHERE id > ? AND id <= ? AND period_type = 'MINUTE'
+            """;
+
+    // 트리거가 먼저 따라 쓴 행이 더 최신이므로 겹치면 건너뛴다
+    private static final String COPY_TO_PARTITIONED_SQL = """
+            INSERT INTO stock_prices_partitioned (id, stock_code, candle_date_time, period_type, open_price, high_price,
+                                                  low_price, close_price, volume, trade_amount, created_at, updated_at)
+            SELECT id, stock_code, candle_date_time, period_type, open_price, high_price,
+                   low_price, close_price, volume, trade_amount, created_at, updated_at
+            FROM stock_prices
+            WHERE id > ? AND id <= ?
+            ON CONFLICT DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 시세 컬럼이 아직 문자열이면 true
+     */
+    public boolean hasTextPriceColumns() {
+        List<String> types = jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, "open_price");
+        return !types.isEmpty() && types.get(0).toLowerCase().contains("char");
+    }
+
+    /**
+     * 옮기는 중인 문자열 컬럼이 남아 있으면 true
+     */
+    public boolean hasLegacyColumns() {
+        return !jdbcTemplate.queryForList(COLUMN_TYPE_SQL, String.class, "open_price" + LEGACY_SUFFIX).isEmpty();
+    }
+
+    /**
+     * 문자열 컬럼을 *_legacy 로 바꾸고 숫자 컬럼을 만든다. 한 트랜잭션이므로 중간 상태는 보이지 않는다.
+     */
+    @Transactional
+    public void switchToNumericColumns() {
+        for (String column : PRICE_COLUMNS) {
+            jdbcTemplate.execute("ALTER TABLE stock_prices RENAME COLUMN " + column + " TO " + column + LEGACY_SUFFIX);
+            jdbcTemplate.execute("ALTER TABLE stock_prices ADD COLUMN " + column
+                    + ("trade_amount".equals(column) ? " NUMERIC(20, 0)" : " BIGINT"));
+        }
+    }
+
+    /**
+     * @return id 가 afterId 보다 큰 행을 id 순으로 최대 limit 개. 이미 옮긴 행은 문자열 값이 모두 null 이다
+     */
+    public List<LegacyPriceRow> findLegacyRows(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_LEGACY_SQL, (rs, rowNum) -> new LegacyPriceRow(
+                rs.getLong("id"),
+                rs.getString("open_price_legacy"),
+                rs.getString("high_price_legacy"),
+                rs.getString("low_price_legacy"),
+                rs.getString("close_price_legacy"),
+                rs.getString("volume_legacy"),
+                rs.getString("trade_amount_legacy")), afterId, limit);
+    }
+
+    /**
+     * 변환한 값을 숫자 컬럼에 쓰고 문자열 값은 비운다
+     */
+    @Transactional
+    public void updateNumericValues(List<NumericPriceRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_NUMERIC_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NumericPriceRow row = rows.get(i);
+                ps.setObject(1, row.openPrice(), Types.BIGINT);
+                ps.setObject(2, row.highPrice(), Types.BIGINT);
+                ps.setObject(3, row.lowPrice(), Types.BIGINT);
+                ps.setObject(4, row.closePrice(), Types.BIGINT);
+                ps.setObject(5, row.volume(), Types.BIGINT);
+                ps.setObject(6, row.tradeAmount(), Types.NUMERIC);
+                ps.setLong(7, row.id());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    @Transactional
+    public void dropLegacyColumns() {
+        for (String column : PRICE_COLUMNS) {
+            jdbcTemplate.execute("ALTER TABLE stock_prices DROP COLUMN " + column + LEGACY_SUFFIX);
+        }
+    }
+
+    /**
+     * IDENTITY 로 채번하던 기존 행 뒤에서 id 시퀀스가 시작하도록 맞춘다. 시퀀스가 없으면 Hibernate 와 같은 설정으로 만든다.
+     * 기존 id 컬럼의 IDENTITY 기본값은 더 이상 쓰이지 않을 뿐 그대로 둔다.
+     *
+     * @return 시퀀스를 옮겼으면 true
+     */
+    @Transactional
+    public boolean alignIdSequence() {
+        Integer tables = jdbcTemplate.queryForObject(TABLE_EXISTS_SQL, Integer.class);
+        if (tables == null || tables == 0) {
+            return false;
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + StockPrice.ID_SEQUENCE
+                + " START WITH 1 INCREMENT BY " + StockPrice.ID_ALLOCATION_SIZE);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM stock_prices", Long.class);
+        if (maxId == null) {
+            return false;
+        }
+
+        // 시퀀스 값 v 는 (v - ID_ALLOCATION_SIZE, v] 를 예약하므로 그 구간이 기존 id 와 겹치지 않아야 한다
+        Long next = jdbcTemplate.queryForObject("SELECT nextval('" + StockPrice.ID_SEQUENCE + "')", Long.class);
+        if (next != null && next - StockPrice.ID_ALLOCATION_SIZE >= maxId) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE " + StockPrice.ID_SEQUENCE
+                + " RESTART WITH " + (maxId + StockPrice.ID_ALLOCATION_SIZE));
+        return true;
+    }
+
+    /**
+     * 기존 행을 옮길 파티션 테이블이 아직 남아 있으면 true
+     */
+    public boolean hasPartitionedTable() {
+        Integer tables = jdbcTemplate.queryForObject(PARTITIONED_TABLE_EXISTS_SQL, Integer.class);
+        return tables != null && tables > 0;
+    }
+
+    /**
+     * @return id 가 afterId 보다 큰 행을 id 순으로 최대 limit 개 골랐을 때 마지막 id. 남은 행이 없으면 null
+     */
+    public Long findBatchEndId(long afterId, int limit) {
+        return jdbcTemplate.queryForObject(BATCH_END_ID_SQL, Long.class, afterId, limit);
+    }
+
+    /**
+     * @return id 가 (afterId, endId] 인 분봉이 속한 달의 첫날
+     */
+    public List<LocalDate> findMinuteMonths(long afterId, long endId) {
+        return jdbcTemplate.queryForList(MINUTE_MONTHS_SQL, LocalDate.class, afterId, endId);
+    }
+
+    /**
+     * id 가 (afterId, endId] 인 행을 파티션 테이블로 복사한다. 분봉이 들어갈 달의 파티션은 미리 있어야 한다.
+     *
+     * @return 복사한 행 수. 트리거가 이미 따라 쓴 행은 세지 않는다
+     */
+    @Transactional
+    public int copyToPartitionedTable(long afterId, long endId) {
+        return jdbcTemplate.update(COPY_TO_PARTITIONED_SQL, afterId, endId);
+    }
+
+    /**
+     * 기존 테이블을 잠그고 afterId 뒤에 남은 행을 복사한 뒤, 파티션 테이블을 stock_prices 로 바꾸고 기존 테이블을 지운다.
+     * 복사를 마친 뒤에 들어온 행은 트리거가 이미 따라 썼으므로 잠그는 시간은 짧다.
+     *
+     * @return 바꿨으면 true. 다른 노드가 먼저 바꿨으면 false
+     */
+    @Transactional
+    public boolean swapPartitionedTable(long afterId) {
+        boolean postgreSql = isPostgreSql();
+        if (postgreSql) {
+            jdbcTemplate.execute("LOCK TABLE stock_prices IN ACCESS EXCLUSIVE MODE");
+        }
+        if (!hasPartitionedTable()) {
+            return false;
+        }
+
+        jdbcTemplate.update(COPY_TO_PARTITIONED_SQL, afterId, Long.MAX_VALUE);
+        jdbcTemplate.execute("ALTER TABLE stock_prices RENAME TO stock_prices_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE " + PARTITIONED_TABLE + " RENAME TO stock_prices");
+        jdbcTemplate.execute("DROP TABLE stock_prices_unpartitioned");
+        if (postgreSql) {
+            jdbcTemplate.execute("ALTER TABLE stock_prices RENAME CONSTRAINT "
+                    + PARTITIONED_TABLE + "_pkey TO stock_prices_pkey");
+            jdbcTemplate.execute("DROP FUNCTION IF EXISTS stock_prices_mirror_to_partitioned()");
+        }
+        return true;
+    }
+
+    private boolean isPostgreSql() {
+        return "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName()));
+    }
+
+    public record LegacyPriceRow(long id, String openPrice, String highPrice, String lowPrice, String closePrice,
+                                 String volume, String tradeAmount) {
+
+        public boolean isEmpty() {
+            return openPrice == null && highPrice == null && lowPrice == null && closePrice == null
+                    && volume == null && tradeAmount == null;
+        }
+    }
+
+    public record NumericPriceRow(long id, Long openPrice, Long highPrice, Long lowPrice, Long closePrice,
+                                  Long volume, BigDecimal tradeAmount) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * stock_prices 분봉 월별 파티션(stock_prices_minute_yyyyMM) 관리용 JDBC 저장소.
+ * 파티션 구조는 PostgreSQL 마이그레이션(V2__partition_stock_prices.sql)이 만들며, 다른 DB 에서는 파티션이 없다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockPricePartitionRepository {
+
+    private static final String TABLE = "stock_prices";
+    private static final String MINUTE_PARENT = "stock_prices_minute";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String IS_PARTITIONED_SQL = """
+            SELECT COUNT(*) FROM pg_partitioned_table p
+            JOIN pg_class c ON c.oid = p.partrelid
+            WHERE c.relname = ? AND c.relnamespace = CURRENT_SCHEMA()::regnamespace
+            """;
+
+    private static final String PARTITION_NAMES_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class parent ON parent.oid = i.inhparent
+            WHERE parent.relname = ? AND parent.relnamespace = CURRENT_SCHEMA()::regnamespace
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 분봉이 월별 파티션으로 나뉘어 있으면 true
+     */
+    public boolean isMinutePartitioned() {
+        return isPartitioned(MINUTE_PARENT);
+    }
+
+    /**
+     * stock_prices 가 파티션 테이블로 바뀌었으면 true. 기존 행을 옮기는 중에는 분봉 파티션만 있고 stock_prices 는 아직 기존 테이블이다
+     */
+    public boolean isStockPricesPartitioned() {
+        return isPartitioned(TABLE);
+    }
+
+    private boolean isPartitioned(String table) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    public Set<YearMonth> findMinutePartitionMonths() {
+        String prefix = MINUTE_PARENT + "_";
+        return jdbcTemplate.queryForList(PARTITION_NAMES_SQL, String.class, MINUTE_PARENT).stream()
+                .filter(name -> name.startsWith(prefix))
+                .map(name -> YearMonth.parse(name.substring(prefix.length()), SUFFIX_FORMAT))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 해당 달의 분봉 파티션을 만든다. 부모 테이블을 잠그는 동안 적재 트랜잭션이 기다리지 않도록 따로 커밋한다.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createMinutePartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + MINUTE_PARENT + "_" + month.format(SUFFIX_FORMAT)
+                + " PARTITION OF " + MINUTE_PARENT
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+}
@@ -2,6 +2,7 @@ package com.hsu_mafia.motoo.kisdatacollector.repository;
 
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +23,35 @@ public interface StockPriceRepository extends JpaRepository<StockPrice, Long> {
     @Query("SELECT MIN(sp.candleDateTime) FROM StockPrice sp WHERE sp.stockCode = :stockCode AND sp.periodType = :periodType")
     Optional<LocalDateTime> findEarliestCandleDateTime(@Param("stockCode") String stockCode, @Param("periodType") PeriodType periodType);
 
+    /**
+     * 구간 안에서 캔들이 하나라도 있는 날짜 목록 (오름차순).
+     */
+    @Query("SELECT DISTINCT CAST(sp.candleDateTime AS LocalDate) FROM StockPrice sp " +
+           "WHERE sp.stockCode = :stockCode AND sp.periodType = :periodType " +
+           "AND sp.candleDateTime >= :start AND sp.candleDateTime < :end " +
+           "ORDER BY 1")
+    List<LocalDate> findCandleDates(@Param("stockCode") String stockCode, @Param("periodType") PeriodType periodType,
+                                    @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * 구간 [start, end) 의 캔들 (시각 오름차순).
+     */
+    @Query("SELECT sp FROM StockPrice sp WHERE sp.stockCode = :stockCode AND sp.periodType = :periodType " +
+           "AND sp.candleDateTime >= :start AND sp.candleDateTime < :end " +
+           "ORDER BY sp.candleDateTime")
+    List<StockPrice> findCandles(@Param("stockCode") String stockCode, @Param("periodType") PeriodType periodType,
+                                 @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * 구간 [start, end) 의 날짜별 캔들 수 (날짜, 개수).
+     */
+    @Query("SELECT CAST(sp.candleDateTime AS LocalDate), COUNT(sp) FROM StockPrice sp " +
+           "WHERE sp.stockCode = :stockCode AND sp.periodType = :periodType " +
+           "AND sp.candleDateTime >= :start AND sp.candleDateTime < :end " +
+           "GROUP BY CAST(sp.candleDateTime AS LocalDate)")
+    List<Object[]> countCandlesByDate(@Param("stockCode") String stockCode, @Param("periodType") PeriodType periodType,
+                                      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     boolean existsByStockCodeAndCandleDateTimeAndPeriodType(String stockCode, LocalDateTime candleDateTime, PeriodType periodType);
 
     @Query("SELECT COUNT(sp) FROM StockPrice sp WHERE sp.stockCode = :stockCode AND sp.periodType = :periodType")
@@ -0,0 +1,35 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 배치 작업의 한 청크(수집한 캔들 + 작업 진행 상황)를 하나의 트랜잭션으로 커밋한다.
+ * API 호출은 청크를 모으는 동안 트랜잭션 밖에서 이뤄지므로, 트랜잭션은 DB 쓰기 동안에만 열린다.
+ * 커밋 전에 작업 점유를 잠가 확인하므로, 점유를 잃은 노드의 청크는 하나도 쓰이지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchChunkWriter {
+
+    private final BatchJobRepository batchJobRepository;
+    private final StockDataProcessingService dataProcessingService;
+    private final BatchJobLeaseManager batchJobLeaseManager;
+
+    @Transactional
+    public void write(BatchJob batchJob, List<StockDataResponse> dataList) {
+        batchJobLeaseManager.lockHeld(batchJob.getId());
+        int savedCount = dataList.isEmpty() ? 0 : dataProcessingService.processAndSaveStockData(dataList);
+        batchJobRepository.save(batchJob);
+
+        log.debug("배치 청크 커밋: {} (캔들 {}건, 신규 {}건, 진행 {}/{})", batchJob.getStockCode(),
+                dataList.size(), savedCount, batchJob.getProcessedCount(), batchJob.getTotalCount());
+    }
+}
@@ -0,0 +1,253 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 같은 종목·봉 종류의 작업이 같은 구간을 두 번 수집하지 않도록 새 작업을 기존 작업에 합친다.
+ *
+ * <ul>
+ *   <li>실행 중인 작업(RUNNING, SPLIT, PAUSED, 점유된 PENDING)이 요청 구간을 모두 덮으면 새 작업을 만들지 않고 그 작업을 돌려준다.
+ *       앞이나 뒤 일부만 덮으면 덮인 부분을 뺀다.</li>
+ *   <li>남은 구간과 겹치거나 맞닿은(사이에 거래일이 없는) 대기 작업이 있으면 가장 먼저 만든 대기 작업 하나로 합치고,
+ *       나머지 대기 작업은 CANCELLED 로 바꾸며 합쳐진 작업 ID 를 남긴다.</li>
+ * </ul>
+ *
+ * <p>같은 종목의 작업 생성은 이 노드 안에서 순서대로 처리한다. 대기 작업은 점유되지 않은 경우에만 한 트랜잭션 안에서 조건부로
+ * 바꾸므로, 읽은 뒤에 다른 노드가 점유하거나 병합한 작업은 덮어쓰지 않고 다시 읽어 합친다. 여러 노드가 같은 순간에
+ * 같은 종목의 작업을 새로 만들면 합쳐지지 않을 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchJobCoalescer {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final List<BatchJobStatus> ACTIVE_STATUSES =
+            List.of(BatchJobStatus.PENDING, BatchJobStatus.RUNNING, BatchJobStatus.SPLIT, BatchJobStatus.PAUSED);
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    private final BatchJobRepository batchJobRepository;
+    private final TradingCalendar tradingCalendar;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Object> stockLocks = new ConcurrentHashMap<>();
+    private final AtomicLong attachedCount = new AtomicLong();
+    private final AtomicLong mergedCount = new AtomicLong();
+
+    /**
+     * @param requested 아직 저장하지 않은 PENDING 작업
+     * @return 요청을 처리할 작업. 새로 저장한 작업, 구간을 넓힌 기존 대기 작업, 또는 이미 실행 중인 작업
+     */
+    public BatchJob createOrCoalesce(BatchJob requested) {
+        Object lock = stockLocks.computeIfAbsent(requested.getStockCode() + ":" + requested.getPeriodType(), k -> new Object());
+        synchronized (lock) {
+            return coalesce(requested);
+        }
+    }
+
+    private BatchJob coalesce(BatchJob requested) {
+        for (int attempt = 1; attempt <= MAX_MERGE_ATTEMPTS; attempt++) {
+            BatchJob result = tryCoalesce(requested);
+            if (result != null) {
+                return result;
+            }
+            log.debug("병합하려던 대기 작업이 그 사이 점유되어 다시 확인합니다: {} {} ~ {} ({}회)", requested.getStockCode(),
+                    requested.getStartDate(), requested.getEndDate(), attempt);
+        }
+
+        // 계속 경합하면 합치지 않고 만든다. 겹치는 구간은 두 번 수집하지만 저장은 멱등이다
+        log.warn("대기 작업과 병합하지 못해 새 배치 작업으로 만듭니다: {} {} ~ {}", requested.getStockCode(),
+                requested.getStartDate(), requested.getEndDate());
+        return batchJobRepository.save(requested);
+    }
+
+    /**
+     * @return 요청을 처리할 작업. 합치려던 대기 작업을 그 사이 다른 노드가 점유하거나 병합했으면 null
+     */
+    private BatchJob tryCoalesce(BatchJob requested) {
+        LocalDate start = parse(requested.getStartDate());
+        LocalDate end = parse(requested.getEndDate());
+
+        List<BatchJob> active = batchJobRepository.findByStockCodeAndPeriodTypeAndParentJobIdIsNullAndStatusIn(
+                requested.getStockCode(), requested.getPeriodType(), ACTIVE_STATUSES);
+
+        List<BatchJob> inProgress = new ArrayList<>();
+        List<BatchJob> pending = new ArrayList<>();
+        for (BatchJob job : active) {
+            (isInProgress(job) ? inProgress : pending).add(job);
+        }
+
+        // 실행 중인 작업이 덮는 부분은 빼고, 모두 덮이면 그 작업에 붙인다
+        inProgress.sort(Comparator.comparing(BatchJob::getStartDate));
+        boolean trimmed = true;
+        while (trimmed) {
+            trimmed = false;
+            for (BatchJob job : inProgress) {
+                LocalDate jobStart = parse(job.getStartDate());
+                LocalDate jobEnd = parse(job.getEndDate());
+                if (jobStart.isAfter(end) || jobEnd.isBefore(start)) {
+                    continue;
+                }
+
+                if (!jobStart.isAfter(start) && !jobEnd.isBefore(end)) {
+                    attachedCount.incrementAndGet();
+                    log.info("실행 중인 배치 작업에 요청 연결: {} {} ~ {} → 작업 {}", requested.getStockCode(),
+                            requested.getStartDate(), requested.getEndDate(), job.getId());
+                    return job;
+                }
+                if (!jobStart.isAfter(start)) {
+                    start = jobEnd.plusDays(1);
+                    trimmed = true;
+                } else if (!jobEnd.isBefore(end)) {
+                    end = jobStart.minusDays(1);
+                    trimmed = true;
+                }
+                // 가운데만 덮는 경우는 구간을 둘로 나눠야 하므로 그대로 둔다
+            }
+        }
+
+        // 겹치거나 맞닿은 대기 작업을 모은다. 합칠 때마다 구간이 넓어지므로 더 이상 늘지 않을 때까지 반복
+        List<BatchJob> mergeable = new ArrayList<>();
+        boolean grown = true;
+        while (grown) {
+            grown = false;
+            for (BatchJob job : pending) {
+                if (mergeable.contains(job) || !touches(job, start, end)) {
+                    continue;
+                }
+                mergeable.add(job);
+                start = min(start, parse(job.getStartDate()));
+                end = max(end, parse(job.getEndDate()));
+                grown = true;
+            }
+        }
+
+        if (mergeable.isEmpty()) {
+            requested.setStartDate(start.format(DATE_FORMAT));
+            requested.setEndDate(end.format(DATE_FORMAT));
+            return batchJobRepository.save(requested);
+        }
+
+        mergeable.sort(Comparator.comparing(BatchJob::getId));
+        BatchJob target = mergeable.get(0);
+        List<BatchJob> merged = mergeable.subList(1, mergeable.size());
+        String startDate = start.format(DATE_FORMAT);
+        String endDate = end.format(DATE_FORMAT);
+        RequestPriority priority = highest(requested.getPriority(), mergeable);
+        String message = "작업 " + target.getId() + " 에 병합됨";
+        LocalDateTime now = LocalDateTime.now();
+
+        // 하나라도 그 사이 점유됐으면 모두 되돌린다. 점유된 작업은 다시 읽으면 실행 중인 작업으로 보인다
+        boolean applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean unclaimed = batchJobRepository.extendIfUnclaimed(
+                    target.getId(), startDate, endDate, priority, BatchJobStatus.PENDING, now) == 1;
+            for (int i = 0; unclaimed && i < merged.size(); i++) {
+                unclaimed = batchJobRepository.mergeIfUnclaimed(merged.get(i).getId(), target.getId(), message,
+                        BatchJobStatus.PENDING, BatchJobStatus.CANCELLED, now) == 1;
+            }
+            if (!unclaimed) {
+                status.setRollbackOnly();
+            }
+            return unclaimed;
+        }));
+        if (!applied) {
+            return null;
+        }
+
+        target.setStartDate(startDate);
+        target.setEndDate(endDate);
+        target.setPriority(priority);
+        for (BatchJob job : merged) {
+            job.setStatus(BatchJobStatus.CANCELLED);
+            job.setMergedIntoJobId(target.getId());
+            job.setErrorMessage(message);
+            job.setEndTime(now);
+        }
+
+        mergedCount.addAndGet(mergeable.size());
+        log.info("대기 중인 배치 작업에 병합: {} {} ~ {} → 작업 {} ({} ~ {}, 합친 작업 {}건)", requested.getStockCode(),
+                requested.getStartDate(), requested.getEndDate(), target.getId(),
+                target.getStartDate(), target.getEndDate(), mergeable.size());
+        return target;
+    }
+
+    /**
+     * 새로 만들지 않고 실행 중인 작업에 붙인 요청 수
+     */
+    public long getAttachedCount() {
+        return attachedCount.get();
+    }
+
+    /**
+     * 다른 요청과 합쳐진 대기 작업 수
+     */
+    public long getMergedCount() {
+        return mergedCount.get();
+    }
+
+    private boolean isInProgress(BatchJob job) {
+        if (job.getStatus() != BatchJobStatus.PENDING) {
+            return true;
+        }
+        // 점유된 대기 작업은 곧 실행되므로 구간을 바꾸지 않는다
+        return job.getLeaseExpiresAt() != null && job.getLeaseExpiresAt().isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * 구간이 겹치거나, 두 구간 사이에 거래일이 하나도 없으면 true
+     */
+    private boolean touches(BatchJob job, LocalDate start, LocalDate end) {
+        LocalDate jobStart = parse(job.getStartDate());
+        LocalDate jobEnd = parse(job.getEndDate());
+        if (!jobStart.isAfter(end) && !jobEnd.isBefore(start)) {
+            return true;
+        }
+
+        LocalDate gapStart = jobEnd.isBefore(start) ? jobEnd.plusDays(1) : end.plusDays(1);
+        LocalDate gapEnd = jobEnd.isBefore(start) ? start.minusDays(1) : jobStart.minusDays(1);
+        for (LocalDate date = gapStart; !date.isAfter(gapEnd); date = date.plusDays(1)) {
+            if (tradingCalendar.isTradingDay(date)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RequestPriority highest(RequestPriority requested, List<BatchJob> jobs) {
+        RequestPriority highest = requested;
+        for (BatchJob job : jobs) {
+            if (job.getPriority() != null && (highest == null || job.getPriority().ordinal() < highest.ordinal())) {
+                highest = job.getPriority();
+            }
+        }
+        return highest;
+    }
+
+    private static LocalDate parse(String date) {
+        return LocalDate.parse(date, DATE_FORMAT);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,104 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 종목의 배치 작업을 가상 스레드에서 동시에 실행한다.
+ *
+ * <p>동시에 실행할 작업 수는 {@code batch.max-concurrent-jobs} 로 제한하고, 실제 API 호출 속도는
+ * 모든 작업이 공유하는 키 풀의 {@link RateLimitManager} 가 정한다. RateLimitManager 는 같은 우선순위 안에서는
+ * 호출 시각을 요청한 순서대로 배정하므로, 한 작업이 호출을 마치고 다시 요청하면 이미 기다리던 다른 작업들 뒤에 서게
+ * 되어 종목 간 호출이 번갈아 나간다. 작업 사이에 따로 쉬지 않으므로 전체 소요 시간은 호출 한도로만 정해진다.
+ *
+ * <p>큰 작업이 하위 작업으로 나뉘면 하위 작업들을 이어서 제출하므로, 한 작업도 동시 실행 슬롯을 모두 쓸 수 있다.
+ */
+@Component
+@Slf4j
+public class BatchJobExecutor {
+
+    private final BatchJobService batchJobService;
+    private final Semaphore runningSlots;
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    // 대기 중이거나 실행 중인 작업. 같은 작업이 두 번 제출되면 무시한다
+    private final Set<Long> inFlightJobIds = ConcurrentHashMap.newKeySet();
+
+    public BatchJobExecutor(BatchJobService batchJobService, BatchConfig batchConfig) {
+        if (batchConfig.getMaxConcurrentJobs() <= 0) {
+            throw new IllegalArgumentException("batch.max-concurrent-jobs 는 0보다 커야 합니다");
+        }
+        this.batchJobService = batchJobService;
+        this.runningSlots = new Semaphore(batchConfig.getMaxConcurrentJobs(), true);
+    }
+
+    /**
+     * @return 작업이 끝나면 완료되는 future. 이미 제출된 작업이면 바로 완료된 future 를 돌려준다.
+     */
+    public CompletableFuture<Void> submit(Long batchJobId) {
+        return submit(batchJobId, null);
+    }
+
+    /**
+     * @param priorityOverride null 이 아니면 작업의 우선순위 대신 이 우선순위로 호출한다 (하위 작업도 마찬가지)
+     */
+    public CompletableFuture<Void> submit(Long batchJobId, RequestPriority priorityOverride) {
+        if (!inFlightJobIds.add(batchJobId)) {
+            log.debug("이미 대기 중이거나 실행 중인 배치 작업: {}", batchJobId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> run(batchJobId, priorityOverride), executorService);
+    }
+
+    private void run(Long batchJobId, RequestPriority priorityOverride) {
+        try {
+            preempt(batchJobId, priorityOverride);
+            runningSlots.acquireUninterruptibly();
+            List<Long> childJobIds;
+            try {
+                childJobIds = priorityOverride != null
+                        ? batchJobService.runBatchJob(batchJobId, priorityOverride)
+                        : batchJobService.runBatchJob(batchJobId);
+            } finally {
+                runningSlots.release();
+            }
+
+            for (Long childJobId : childJobIds) {
+                submit(childJobId, priorityOverride);
+            }
+        } catch (Exception e) {
+            log.error("배치 작업 실행 중 오류 발생: {}", batchJobId, e);
+        } finally {
+            inFlightJobIds.remove(batchJobId);
+        }
+    }
+
+    /**
+     * 슬롯을 기다리기 전에 낮은 우선순위 작업에 일시 중지를 요청해, 슬롯이 찬 상태에서도 다음 윈도우 뒤에 자리가 나게 한다.
+     */
+    private void preempt(Long batchJobId, RequestPriority priorityOverride) {
+        try {
+            batchJobService.preemptLowerPriorityJobs(batchJobId, priorityOverride);
+        } catch (Exception e) {
+            // 선점하지 못해도 작업은 실행한다
+            log.warn("배치 작업 선점 요청 실패: {}", batchJobId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 중단된 작업은 RUNNING 으로 남아 다음 기동 때 체크포인트부터 재개된다
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import lombok.Getter;
+
+/**
+ * 이 노드가 배치 작업 점유를 잃은 뒤 작업 상태를 쓰려 한 경우. 작업은 점유를 가져간 노드가 이어서 실행한다.
+ */
+@Getter
+public class BatchJobLeaseLostException extends RuntimeException {
+
+    private final Long jobId;
+
+    public BatchJobLeaseLostException(Long jobId) {
+        super("배치 작업 점유를 잃었습니다: " + jobId);
+        this.jobId = jobId;
+    }
+}
@@ -0,0 +1,167 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이 노드가 실행할 배치 작업을 점유하고, 실행하는 동안 하트비트로 점유를 연장한다.
+ *
+ * <p>노드가 죽으면 하트비트가 끊겨 {@code batch.job-lease-millis} 뒤 점유가 만료되고, 다른 노드가 그 작업을
+ * 체크포인트부터 이어서 실행한다. 점유를 잃은 노드가 뒤늦게 쓰지 않도록, 작업은 윈도우마다 {@link #isHeld} 를 확인하고
+ * 청크 커밋과 작업 저장은 {@link #lockHeld} / {@link #verifyHeld} 로 점유를 확인한 뒤에만 한다.
+ */
+@Component
+@Slf4j
+public class BatchJobLeaseManager {
+
+    private final BatchJobLeaseRepository batchJobLeaseRepository;
+    private final BatchConfig batchConfig;
+    private final String nodeId;
+
+    // 이 노드가 점유 중인 작업과 마지막으로 연장한 점유 만료 시각. 하트비트 대상
+    private final Map<Long, LocalDateTime> heldLeases = new ConcurrentHashMap<>();
+
+    public BatchJobLeaseManager(BatchJobLeaseRepository batchJobLeaseRepository, BatchConfig batchConfig) {
+        this.batchJobLeaseRepository = batchJobLeaseRepository;
+        this.batchConfig = batchConfig;
+        this.nodeId = batchConfig.getNodeId() != null && !batchConfig.getNodeId().isBlank()
+                ? batchConfig.getNodeId()
+                : defaultNodeId();
+        log.info("배치 작업 점유 노드 이름: {}", nodeId);
+    }
+
+    /**
+     * 주어진 상태에서 점유되지 않은 작업을 오래된 순으로 최대 limit 개 점유한다.
+     */
+    public List<Long> claim(BatchJobStatus status, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = leaseExpiresAt(now);
+        List<Long> jobIds = batchJobLeaseRepository.claim(status, nodeId, limit, now, expiresAt);
+        jobIds.forEach(jobId -> heldLeases.put(jobId, expiresAt));
+        return jobIds;
+    }
+
+    /**
+     * 작업 하나를 점유한다. {@link #claim} 으로 이미 점유한 작업이면 점유를 연장한다.
+     *
+     * @return 다른 노드가 실행 중이면 false
+     */
+    public boolean acquire(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = leaseExpiresAt(now);
+        if (!batchJobLeaseRepository.acquire(jobId, nodeId, now, expiresAt)) {
+            return false;
+        }
+        heldLeases.put(jobId, expiresAt);
+        return true;
+    }
+
+    /**
+     * 이 노드가 아는 한 작업을 아직 점유 중인지 확인한다. DB 를 거치지 않으므로 윈도우마다 불러도 된다.
+     * 하트비트가 실패한 채로 점유 시간이 지나면 다른 노드가 가져갔을 수 있으므로 잃은 것으로 본다.
+     */
+    public boolean isHeld(Long jobId) {
+        LocalDateTime expiresAt = heldLeases.get(jobId);
+        return expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * 작업 행을 현재 트랜잭션이 끝날 때까지 잠가, 그 트랜잭션의 쓰기를 점유한 노드만 커밋하게 한다.
+     * 트랜잭션 안에서 불러야 한다.
+     *
+     * @throws BatchJobLeaseLostException 점유를 잃었으면
+     */
+    public void lockHeld(Long jobId) {
+        if (!isHeld(jobId) || !batchJobLeaseRepository.lockIfOwned(jobId, nodeId, LocalDateTime.now())) {
+            lost(jobId);
+        }
+    }
+
+    /**
+     * 작업을 저장하기 전에 DB 에서 점유를 확인한다.
+     *
+     * @throws BatchJobLeaseLostException 점유를 잃었으면
+     */
+    public void verifyHeld(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!isHeld(jobId) || !batchJobLeaseRepository.renew(jobId, nodeId, now, leaseExpiresAt(now))) {
+            lost(jobId);
+        }
+        heldLeases.computeIfPresent(jobId, (id, expiresAt) -> leaseExpiresAt(now));
+    }
+
+    public void release(Long jobId) {
+        heldLeases.remove(jobId);
+        try {
+            batchJobLeaseRepository.release(jobId, nodeId);
+        } catch (Exception e) {
+            // 풀지 못한 점유는 만료되면 다른 노드가 가져간다
+            log.warn("배치 작업 점유 해제 실패: {}", jobId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${batch.job-heartbeat-millis:60000}")
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long jobId : heldLeases.keySet()) {
+            try {
+                LocalDateTime expiresAt = leaseExpiresAt(now);
+                if (batchJobLeaseRepository.renew(jobId, nodeId, now, expiresAt)) {
+                    heldLeases.computeIfPresent(jobId, (id, previous) -> expiresAt);
+                } else {
+                    heldLeases.remove(jobId);
+                    log.warn("배치 작업 점유를 잃었습니다 (다른 노드가 가져감): {}", jobId);
+                }
+            } catch (Exception e) {
+                log.warn("배치 작업 하트비트 실패: {}", jobId, e);
+            }
+        }
+    }
+
+    /**
+     * 종료할 때 점유를 풀어, 중단된 RUNNING 작업을 점유 만료를 기다리지 않고 다음 기동이나 다른 노드가 바로 재개하게 한다.
+     * 이 빈에 의존하는 배치 실행기가 먼저 종료된 뒤에 불린다.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        for (Long jobId : heldLeases.keySet()) {
+            release(jobId);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void lost(Long jobId) {
+        heldLeases.remove(jobId);
+        throw new BatchJobLeaseLostException(jobId);
+    }
+
+    private LocalDateTime leaseExpiresAt(LocalDateTime now) {
+        return now.plusNanos(batchConfig.getJobLeaseMillis() * 1_000_000);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        // 같은 호스트에 여러 프로세스를 띄워도 구분되도록
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -1,32 +1,42 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStopRequest;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import com.hsu_mafia.motoo.kisdatacollector.dto.BatchJobRequest;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
 import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
-import java.time.DayOfWeek;
+import com.hsu_mafia.motoo.kisdatacollector.service.FetchWindowPlanner.FetchWindow;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional
 public class BatchJobService {
 
     private final BatchJobRepository batchJobRepository;
     private final KisApiService kisApiService;
-    private final StockDataProcessingService dataProcessingService;
+    private final BatchChunkWriter batchChunkWriter;
+    private final FetchWindowPlanner fetchWindowPlanner;
+    private final TradingCalendar tradingCalendar;
+    private final BatchConfig batchConfig;
+    private final BatchJobLeaseManager batchJobLeaseManager;
+    private final BatchJobSplitter batchJobSplitter;
+    private final BatchJobCoalescer batchJobCoalescer;
+    private final CandleRollupService candleRollupService;
 
     public BatchJob createBatchJob(BatchJobRequest request) {
         BatchJob batchJob = BatchJob.builder()
@@ -35,6 +45,7 @@ public class BatchJobService {
                 .startDate(request.getStartDate())
                 .endDate(request.getEndDate())
                 .periodType(request.getPeriodType())
+                .priority(request.getPriority() != null ? request.getPriority() : RequestPriority.BACKFILL)
                 .status(BatchJobStatus.PENDING)
                 .totalCount(0)
                 .processedCount(0)
@@ -42,71 +53,476 @@ public class BatchJobService {
                 .failedCount(0)
                 .build();
 
-        return batchJobRepository.save(batchJob);
+        return batchJobCoalescer.createOrCoalesce(batchJob);
     }
 
-    @Async
-    public CompletableFuture<Void> executeBatchJob(Long batchJobId) {
-        BatchJob batchJob = batchJobRepository.findById(batchJobId)
-                .orElseThrow(() -> new IllegalArgumentException("배치 작업을 찾을 수 없습니다: " + batchJobId));
+    /**
+     * 호출한 스레드에서 작업을 작업의 우선순위로 끝까지 실행한다. 여러 작업을 동시에 돌릴 때는 {@link BatchJobExecutor} 가 사용한다.
+     *
+     * @return 작업을 실행하지 않고 하위 작업으로 나눴으면 실행해야 할 하위 작업 ID
+     */
+    public List<Long> runBatchJob(Long batchJobId) {
+        return runBatchJob(batchJobId, null);
+    }
+
+    /**
+     * 작업을 점유한 동안만 실행한다. 다른 노드가 점유 중인 작업은 실행하지 않는다.
+     *
+     * @param priorityOverride null 이면 작업의 우선순위로 호출
+     * @return 작업을 실행하지 않고 하위 작업으로 나눴으면 실행해야 할 하위 작업 ID
+     */
+    public List<Long> runBatchJob(Long batchJobId, RequestPriority priorityOverride) {
+        getJobById(batchJobId);
+
+        if (!batchJobLeaseManager.acquire(batchJobId)) {
+            log.info("다른 노드가 실행 중인 배치 작업입니다: {}", batchJobId);
+            return List.of();
+        }
+
+        try {
+            // 점유하기 전까지 다른 노드가 진행했을 수 있으므로 점유한 뒤의 상태로 실행
+            BatchJob batchJob = getJobById(batchJobId);
+            if (batchJob.getStatus() == BatchJobStatus.COMPLETED || batchJob.getStatus() == BatchJobStatus.CANCELLED) {
+                log.info("이미 끝난 배치 작업입니다: {} ({})", batchJobId, batchJob.getStatus());
+                return List.of();
+            }
+
+            if (batchJob.getStatus() == BatchJobStatus.SPLIT) {
+                // 나뉜 작업을 다시 실행하면 끝나지 않은 하위 작업을 이어서 실행한다. 우선순위는 하위 작업을 제출할 때 넘긴다
+                return batchJobRepository.findByParentJobId(batchJobId).stream()
+                        .filter(child -> !isFinished(child.getStatus()))
+                        .map(BatchJob::getId)
+                        .toList();
+            }
+
+            // 더 높은 우선순위로 실행하면 그 우선순위를 남겨, 선점 여부와 하위 작업의 우선순위에 반영한다.
+            // 작업을 나누거나 실행을 시작할 때 함께 저장된다
+            if (priorityOverride != null && priorityOverride.ordinal() < effectivePriority(batchJob, null).ordinal()) {
+                batchJob.setPriority(priorityOverride);
+            }
+
+            List<BatchJob> children = batchJobSplitter.splitIfOversized(
+                    batchJob, generateDateRange(batchJob.getStartDate(), batchJob.getEndDate()));
+            if (!children.isEmpty()) {
+                return children.stream().map(BatchJob::getId).toList();
+            }
+
+            RequestPriority priority = effectivePriority(batchJob, priorityOverride);
+            if (pauseIfPreempted(batchJob, priority)) {
+                return List.of();
+            }
+            RequestPriorityContext.runWith(priority, () -> runBatchJob(batchJob));
+            return List.of();
+        } finally {
+            batchJobLeaseManager.release(batchJobId);
+        }
+    }
 
+    private void runBatchJob(BatchJob batchJob) {
         try {
+            boolean resuming = batchJob.getCheckpointDate() != null;
+
             // 작업 시작
             batchJob.setStatus(BatchJobStatus.RUNNING);
-            batchJob.setStartTime(LocalDateTime.now());
-            batchJobRepository.save(batchJob);
-
-            // 날짜 범위 생성 (역순)
-            List<LocalDate> dateRange = generateDateRange(batchJob.getStartDate(), batchJob.getEndDate());
-            batchJob.setTotalCount(dateRange.size());
-            batchJobRepository.save(batchJob);
-
-            log.info("배치 작업 시작: {} ({} ~ {}, 총 {}일)",
-                    batchJob.getStockCode(), batchJob.getStartDate(), batchJob.getEndDate(), dateRange.size());
-
-            for (LocalDate date : dateRange) {
-                if (isWeekday(date)) {
-                    String dateStr = date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-
-                    try {
-                        List<StockDataResponse> dataList = kisApiService.fetchStockData(
-                                batchJob.getStockCode(), dateStr, dateStr, batchJob.getPeriodType());
-
-                        if (!dataList.isEmpty()) {
-                            dataProcessingService.processAndSaveStockData(dataList);
-                            batchJob.setSuccessCount(batchJob.getSuccessCount() + 1);
-                        } else {
-                            batchJob.setFailedCount(batchJob.getFailedCount() + 1);
-                        }
-
-                    } catch (Exception e) {
-                        log.error("배치 작업 중 오류 발생: {} {}", batchJob.getStockCode(), dateStr, e);
-                        batchJob.setFailedCount(batchJob.getFailedCount() + 1);
-                        batchJob.setErrorMessage(e.getMessage());
-                    }
+            if (!resuming || batchJob.getStartTime() == null) {
+                batchJob.setStartTime(LocalDateTime.now());
+            }
+            saveLeased(batchJob);
+
+            // 날짜 범위 생성 (역순). 체크포인트가 있으면 그 이전 날짜만 남는다
+            List<LocalDate> dateRange;
+            if (resuming) {
+                String resumeEndDate = LocalDate.parse(batchJob.getCheckpointDate(), DateTimeFormatter.ofPattern("yyyyMMdd"))
+                        .minusDays(1).format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+                dateRange = generateDateRange(batchJob.getStartDate(), resumeEndDate);
+
+                log.info("배치 작업 재개: {} (체크포인트 {}, 남은 {}일)",
+                        batchJob.getStockCode(), batchJob.getCheckpointDate(), dateRange.size());
+            } else {
+                dateRange = generateDateRange(batchJob.getStartDate(), batchJob.getEndDate());
+                batchJob.setTotalCount(dateRange.size());
+                saveLeased(batchJob);
+
+                log.info("배치 작업 시작: {} ({} ~ {}, 총 {}일)",
+                        batchJob.getStockCode(), batchJob.getStartDate(), batchJob.getEndDate(), dateRange.size());
+            }
+
+            List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, batchJob.getPeriodType().fetchPeriodType());
+
+            // API 호출은 트랜잭션 밖에서 하고, 모인 결과를 청크 단위로 커밋
+            Chunk chunk = new Chunk();
+            for (FetchWindow window : windows) {
+                if (stopIfLeaseLost(batchJob) || stopIfRequested(batchJob, chunk)) {
+                    return;
+                }
+                if (window.hasTradingDays()) {
+                    fetchWindow(batchJob, window, chunk);
                 }
 
-                batchJob.setProcessedCount(batchJob.getProcessedCount() + 1);
-                batchJobRepository.save(batchJob);
+                batchJob.setProcessedCount(batchJob.getProcessedCount() + window.getDates().size());
+                chunk.days += window.getDates().size();
+                chunk.oldestDate = window.getStartDate();
+
+                if (chunk.days >= batchConfig.getCommitIntervalDays()
+                        || chunk.candles.size() >= batchConfig.getCommitIntervalCandles()) {
+                    commitChunk(batchJob, chunk);
+                    chunk = new Chunk();
+                }
+            }
+            if (chunk.days > 0) {
+                commitChunk(batchJob, chunk);
             }
 
             // 작업 완료
             batchJob.setStatus(BatchJobStatus.COMPLETED);
             batchJob.setEndTime(LocalDateTime.now());
-            batchJobRepository.save(batchJob);
+            saveLeased(batchJob);
 
             log.info("배치 작업 완료: {} (성공: {}, 실패: {})",
                     batchJob.getStockCode(), batchJob.getSuccessCount(), batchJob.getFailedCount());
+            refreshParentJob(batchJob);
 
+        } catch (BatchJobLeaseLostException e) {
+            // 점유를 가져간 노드가 체크포인트부터 이어서 실행하므로 상태를 쓰지 않는다
+            log.warn("배치 작업 점유를 잃어 중단합니다: {}", batchJob.getStockCode());
         } catch (Exception e) {
             log.error("배치 작업 전체 오류: {}", batchJob.getStockCode(), e);
             batchJob.setStatus(BatchJobStatus.FAILED);
             batchJob.setErrorMessage(e.getMessage());
             batchJob.setEndTime(LocalDateTime.now());
-            batchJobRepository.save(batchJob);
+            try {
+                saveLeased(batchJob);
+            } catch (BatchJobLeaseLostException lost) {
+                log.warn("배치 작업 점유를 잃어 실패 상태를 남기지 않습니다: {}", batchJob.getStockCode());
+                return;
+            }
+            refreshParentJob(batchJob);
+        }
+    }
+
+    /**
+     * 윈도우 사이마다 이 노드가 아직 작업을 점유 중인지 확인한다. 점유를 잃었으면 아무것도 쓰지 않고 멈춘다.
+     *
+     * @return 작업을 멈췄으면 true
+     */
+    private boolean stopIfLeaseLost(BatchJob batchJob) {
+        if (batchJobLeaseManager.isHeld(batchJob.getId())) {
+            return false;
+        }
+        log.warn("배치 작업 점유를 잃어 중단합니다: {}", batchJob.getStockCode());
+        return true;
+    }
+
+    /**
+     * 점유를 확인한 뒤 작업을 저장한다. 점유를 잃은 노드가 다른 노드의 진행 상황을 덮어쓰지 않게 한다.
+     */
+    private void saveLeased(BatchJob batchJob) {
+        batchJobLeaseManager.verifyHeld(batchJob.getId());
+        batchJobRepository.save(batchJob);
+    }
+
+    /**
+     * 윈도우 사이마다 취소/선점 요청을 확인한다. 요청이 있으면 모은 결과를 커밋해 체크포인트를 남기고 작업을 멈춘다.
+     *
+     * @return 작업을 멈췄으면 true
+     */
+    private boolean stopIfRequested(BatchJob batchJob, Chunk chunk) {
+        BatchJobStopRequest stopRequest = batchJobRepository.findStopRequestById(batchJob.getId());
+        if (stopRequest == null) {
+            return false;
+        }
+
+        // 커밋에 실패해 작업이 FAILED 로 끝나도 요청이 남아 다음 실행을 바로 멈추지 않게 한다
+        try {
+            if (chunk.days > 0) {
+                commitChunk(batchJob, chunk);
+            }
+        } finally {
+            batchJobRepository.clearStopRequest(batchJob.getId());
+        }
+
+        if (stopRequest == BatchJobStopRequest.CANCEL) {
+            batchJob.setStatus(BatchJobStatus.CANCELLED);
+            batchJob.setErrorMessage("요청에 따라 취소됨");
+            batchJob.setEndTime(LocalDateTime.now());
+            saveLeased(batchJob);
+
+            log.info("배치 작업 취소: {} (처리 {}/{}일)", batchJob.getStockCode(),
+                    batchJob.getProcessedCount(), batchJob.getTotalCount());
+            refreshParentJob(batchJob);
+        } else {
+            // 선점한 작업 ID 는 선점 요청과 함께 기록되어 있다
+            batchJob.setStatus(BatchJobStatus.PAUSED);
+            saveLeased(batchJob);
+
+            log.info("배치 작업 일시 중지 (선점): {} (체크포인트 {})", batchJob.getStockCode(), batchJob.getCheckpointDate());
+        }
+        return true;
+    }
+
+    /**
+     * 실행하려는 작업보다 높은 우선순위의 선점 작업이 실행 중이면 시작하지 않고 멈춰 둔다.
+     * 선점 요청은 요청한 순간 실행 중인 작업에만 가므로, 그 뒤에 시작하는 작업은 여기서 걸러진다.
+     */
+    private boolean pauseIfPreempted(BatchJob batchJob, RequestPriority priority) {
+        List<RequestPriority> preemptingPriorities = preemptingPriorities(priority);
+        if (preemptingPriorities.isEmpty()) {
+            return false;
+        }
+
+        List<BatchJob> preemptors = batchJobRepository.findByStatusAndPriorityInAndLeaseExpiresAtAfter(
+                BatchJobStatus.RUNNING, preemptingPriorities, LocalDateTime.now());
+        if (preemptors.isEmpty()) {
+            return false;
+        }
+
+        Long preemptorId = preemptorId(preemptors.get(0));
+        batchJobRepository.pause(batchJob.getId(), preemptorId, BatchJobStatus.PAUSED, LocalDateTime.now());
+        log.info("배치 작업 일시 중지 (선점 작업 {} 실행 중): {}", preemptorId, batchJob.getId());
+        return true;
+    }
+
+    /**
+     * 선점 우선순위 이상으로 실행할 작업이면, 실행 중인 더 낮은 우선순위 작업에 일시 중지를 요청한다.
+     * 실행 슬롯을 기다리기 전에 불러야 낮은 우선순위 작업이 다음 윈도우에서 슬롯을 내준다.
+     *
+     * @param priorityOverride null 이면 작업의 우선순위
+     */
+    public void preemptLowerPriorityJobs(Long batchJobId, RequestPriority priorityOverride) {
+        RequestPriority threshold = batchConfig.getPreemptionPriority();
+        if (threshold == null) {
+            return;
         }
 
-        return CompletableFuture.completedFuture(null);
+        BatchJob batchJob = getJobById(batchJobId);
+        RequestPriority priority = effectivePriority(batchJob, priorityOverride);
+        if (priority.ordinal() > threshold.ordinal()) {
+            return;
+        }
+
+        List<RequestPriority> lowerPriorities = Arrays.stream(RequestPriority.values())
+                .filter(p -> p.ordinal() > priority.ordinal())
+                .toList();
+        if (lowerPriorities.isEmpty()) {
+            return;
+        }
+
+        int requested = batchJobRepository.requestPreemption(lowerPriorities, preemptorId(batchJob),
+                BatchJobStatus.RUNNING, BatchJobStopRequest.PREEMPT, LocalDateTime.now());
+        if (requested > 0) {
+            log.info("낮은 우선순위 배치 작업 {}건에 일시 중지 요청 (선점 작업 {}, {})", requested, batchJobId, priority);
+        }
+    }
+
+    /**
+     * 선점한 작업이 끝난 PAUSED 작업을 점유가 풀린 RUNNING 으로 돌린다. 스케줄러가 이어서 점유해 체크포인트부터 실행한다.
+     *
+     * @return 재개할 수 있게 된 작업 수
+     */
+    public int resumePreemptedJobs() {
+        return batchJobRepository.resumePreempted(BatchJobStatus.PAUSED, BatchJobStatus.RUNNING,
+                List.of(BatchJobStatus.PENDING, BatchJobStatus.RUNNING, BatchJobStatus.SPLIT), LocalDateTime.now());
+    }
+
+    /**
+     * 작업을 취소한다. 점유한 노드가 없는 작업은 바로 취소하고, 실행 중인 작업에는 취소를 요청해 다음 윈도우 전에 멈추게 한다.
+     * 나뉜 작업은 끝나지 않은 하위 작업을 모두 취소한다.
+     *
+     * @return 취소 요청을 반영한 작업. 실행 중이면 아직 RUNNING 일 수 있다
+     */
+    public BatchJob cancelBatchJob(Long batchJobId) {
+        BatchJob batchJob = getJobById(batchJobId);
+        if (isFinished(batchJob.getStatus())) {
+            log.info("이미 끝난 배치 작업은 취소하지 않습니다: {} ({})", batchJobId, batchJob.getStatus());
+            return batchJob;
+        }
+
+        if (batchJob.getStatus() == BatchJobStatus.SPLIT) {
+            for (BatchJob child : batchJobRepository.findByParentJobId(batchJobId)) {
+                if (!isFinished(child.getStatus())) {
+                    cancelBatchJob(child.getId());
+                }
+            }
+            return getJobById(batchJobId);
+        }
+
+        int cancelled = batchJobRepository.cancelIfIdle(batchJobId,
+                List.of(BatchJobStatus.PENDING, BatchJobStatus.PAUSED, BatchJobStatus.RUNNING),
+                BatchJobStatus.CANCELLED, "요청에 따라 취소됨", LocalDateTime.now());
+        if (cancelled > 0) {
+            log.info("배치 작업 취소: {}", batchJobId);
+            refreshParentJob(batchJob);
+        } else {
+            batchJobRepository.requestStop(batchJobId, BatchJobStopRequest.CANCEL, LocalDateTime.now());
+            log.info("실행 중인 배치 작업에 취소 요청: {}", batchJobId);
+        }
+        return getJobById(batchJobId);
+    }
+
+    /**
+     * 주봉/월봉 작업은 KIS 의 주봉/월봉 대신 일봉을 받는다. 윈도우의 일봉이 모두 저장돼 있으면 호출하지 않고 저장된 일봉으로 집계하며,
+     * 빠진 일봉이 있으면 먼저 있는 일봉으로 집계해 두고 받아 온 일봉은 청크를 커밋할 때 다시 집계된다.
+     */
+    private void fetchWindow(BatchJob batchJob, FetchWindow window, Chunk chunk) {
+        String startDateStr = window.getStartDate().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String endDateStr = window.getEndDate().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        PeriodType fetchPeriodType = batchJob.getPeriodType().fetchPeriodType();
+
+        try {
+            if (batchJob.getPeriodType().isRolledUpFromDaily()) {
+                boolean stored = candleRollupService.hasDailyCandles(batchJob.getStockCode(), window.getTradingDays());
+                candleRollupService.rollup(batchJob.getStockCode(), window.getStartDate(), window.getEndDate());
+                if (stored) {
+                    batchJob.setSuccessCount(batchJob.getSuccessCount() + window.getTradingDays().size());
+                    chunk.succeededDays += window.getTradingDays().size();
+                    return;
+                }
+            }
+
+            List<StockDataResponse> dataList = kisApiService.fetchStockDataRange(
+                    batchJob.getStockCode(), startDateStr, endDateStr, fetchPeriodType);
+
+            int succeeded = countCoveredTradingDays(batchJob, window, fetchPeriodType, dataList);
+            batchJob.setSuccessCount(batchJob.getSuccessCount() + succeeded);
+            batchJob.setFailedCount(batchJob.getFailedCount() + window.getTradingDays().size() - succeeded);
+
+            chunk.candles.addAll(dataList);
+            chunk.succeededDays += succeeded;
+            chunk.failedDays += window.getTradingDays().size() - succeeded;
+
+        } catch (Exception e) {
+            log.error("배치 작업 중 오류 발생: {} {} ~ {}", batchJob.getStockCode(), startDateStr, endDateStr, e);
+            batchJob.setFailedCount(batchJob.getFailedCount() + window.getTradingDays().size());
+            batchJob.setErrorMessage(e.getMessage());
+            chunk.failedDays += window.getTradingDays().size();
+        }
+    }
+
+    /**
+     * 청크의 캔들과 작업 진행 상황, 체크포인트를 함께 커밋한다.
+     * 저장에 실패하면 체크포인트와 진행 상황을 청크 이전으로 되돌리고 작업을 실패시켜, 재개할 때 이 청크부터 다시 받게 한다.
+     */
+    private void commitChunk(BatchJob batchJob, Chunk chunk) {
+        String previousCheckpoint = batchJob.getCheckpointDate();
+        batchJob.setCheckpointDate(chunk.oldestDate.format(DateTimeFormatter.ofPattern("yyyyMMdd")));
+
+        try {
+            batchChunkWriter.write(batchJob, chunk.candles);
+        } catch (RuntimeException e) {
+            batchJob.setCheckpointDate(previousCheckpoint);
+            batchJob.setProcessedCount(batchJob.getProcessedCount() - chunk.days);
+            batchJob.setSuccessCount(batchJob.getSuccessCount() - chunk.succeededDays);
+            batchJob.setFailedCount(batchJob.getFailedCount() - chunk.failedDays);
+            throw e;
+        }
+        refreshParentJob(batchJob);
+    }
+
+    /**
+     * 하위 작업의 진행 상황을 부모 작업에 합산하고, 하위 작업이 모두 끝났으면 부모 작업도 끝낸다.
+     * 하위 작업은 자기 상태를 먼저 커밋한 뒤 확인하므로, 동시에 끝나도 마지막으로 끝난 하위 작업은 모두 끝난 것을 본다.
+     */
+    private void refreshParentJob(BatchJob child) {
+        Long parentJobId = child.getParentJobId();
+        if (parentJobId == null) {
+            return;
+        }
+
+        try {
+            batchJobRepository.aggregateChildProgress(parentJobId, LocalDateTime.now());
+
+            List<BatchJob> children = batchJobRepository.findByParentJobId(parentJobId);
+            if (!children.stream().allMatch(c -> isFinished(c.getStatus()))) {
+                return;
+            }
+
+            BatchJob parent = getJobById(parentJobId);
+            if (parent.getStatus() != BatchJobStatus.SPLIT) {
+                return;
+            }
+
+            long failedChildren = children.stream().filter(c -> c.getStatus() == BatchJobStatus.FAILED).count();
+            long cancelledChildren = children.stream().filter(c -> c.getStatus() == BatchJobStatus.CANCELLED).count();
+            if (failedChildren > 0) {
+                parent.setStatus(BatchJobStatus.FAILED);
+                parent.setErrorMessage("하위 작업 " + failedChildren + "건 실패");
+            } else if (cancelledChildren > 0) {
+                parent.setStatus(BatchJobStatus.CANCELLED);
+                parent.setErrorMessage("하위 작업 " + cancelledChildren + "건 취소");
+            } else {
+                parent.setStatus(BatchJobStatus.COMPLETED);
+            }
+            parent.setEndTime(LocalDateTime.now());
+            batchJobRepository.save(parent);
+
+            log.info("분할 작업 완료: {} (하위 작업 {}건, 성공: {}, 실패: {})", parent.getStockCode(),
+                    children.size(), parent.getSuccessCount(), parent.getFailedCount());
+        } catch (Exception e) {
+            // 합산은 다음 하위 작업이 커밋할 때 다시 한다
+            log.warn("분할 작업 진행 상황 갱신 실패: {}", parentJobId, e);
+        }
+    }
+
+    private RequestPriority effectivePriority(BatchJob batchJob, RequestPriority priorityOverride) {
+        return priorityOverride != null ? priorityOverride
+                : batchJob.getPriority() != null ? batchJob.getPriority() : RequestPriority.BACKFILL;
+    }
+
+    /**
+     * 이 우선순위로 실행하는 작업을 멈추게 할 수 있는 우선순위. 선점 우선순위 이상이면서 이 우선순위보다 높아야 한다
+     */
+    private List<RequestPriority> preemptingPriorities(RequestPriority priority) {
+        RequestPriority threshold = batchConfig.getPreemptionPriority();
+        if (threshold == null) {
+            return List.of();
+        }
+        return Arrays.stream(RequestPriority.values())
+                .filter(p -> p.ordinal() <= threshold.ordinal() && p.ordinal() < priority.ordinal())
+                .toList();
+    }
+
+    /**
+     * 하위 작업은 원래 작업이 SPLIT 인 동안 계속 선점하도록 원래 작업 ID 로 기록한다
+     */
+    private Long preemptorId(BatchJob batchJob) {
+        return batchJob.getParentJobId() != null ? batchJob.getParentJobId() : batchJob.getId();
+    }
+
+    private boolean isFinished(BatchJobStatus status) {
+        return status == BatchJobStatus.COMPLETED || status == BatchJobStatus.FAILED
+                || status == BatchJobStatus.CANCELLED;
+    }
+
+    /**
+     * 응답 캔들을 요청한 거래일과 대조한다. 일봉은 날짜별로 대조하면서 거래일 달력에 결과를 알려주고,
+     * 분봉은 캔들 하나가 하루와 대응하지 않으므로 응답이 있으면 윈도우 전체를 성공으로 본다.
+     */
+    private int countCoveredTradingDays(BatchJob batchJob, FetchWindow window, PeriodType fetchPeriodType,
+                                        List<StockDataResponse> dataList) {
+        if (dataList.isEmpty()) {
+            return 0;
+        }
+        if (fetchPeriodType != PeriodType.DAILY) {
+            return window.getTradingDays().size();
+        }
+
+        Set<String> candleDates = new HashSet<>();
+        for (StockDataResponse data : dataList) {
+            if (data.getCandleDateTime() != null && data.getCandleDateTime().length() >= 8) {
+                candleDates.add(data.getCandleDateTime().substring(0, 8));
+            }
+        }
+
+        int covered = 0;
+        for (LocalDate tradingDay : window.getTradingDays()) {
+            if (candleDates.contains(tradingDay.format(DateTimeFormatter.ofPattern("yyyyMMdd")))) {
+                tradingCalendar.recordTradingDay(tradingDay);
+                covered++;
+            } else {
+                tradingCalendar.recordMissingDay(tradingDay, batchJob.getStockCode());
+            }
+        }
+        return covered;
     }
 
     private List<LocalDate> generateDateRange(String startDateStr, String endDateStr) {
@@ -124,11 +540,6 @@ public class BatchJobService {
         return dateRange;
     }
 
-    private boolean isWeekday(LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
-    }
-
     public List<BatchJob> getPendingJobs() {
         return batchJobRepository.findPendingJobsOrderByCreatedAt(BatchJobStatus.PENDING);
     }
@@ -141,4 +552,15 @@ public class BatchJobService {
         return batchJobRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("배치 작업을 찾을 수 없습니다: " + id));
     }
+
+    /**
+     * 아직 커밋하지 않은 수집 결과
+     */
+    private static class Chunk {
+        private final List<StockDataResponse> candles = new ArrayList<>();
+        private int days;
+        private int succeededDays;
+        private int failedDays;
+        private LocalDate oldestDate;
+    }
 }
@@ -0,0 +1,85 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * API 호출이 많은 작업을 날짜 구간별 하위 작업으로 나눈다.
+ *
+ * <p>한 작업은 한 스레드에서 차례로 호출하므로, 10년치 분봉 같은 큰 작업은 동시 실행 슬롯과 호출 한도가 남아도 혼자
+ * 오래 걸린다. 윈도우가 {@code batch.max-windows-per-job} 개를 넘는 작업은 그만큼씩 묶은 하위 작업(PENDING)으로
+ * 나누고 원래 작업은 {@link BatchJobStatus#SPLIT} 으로 둔다. 하위 작업은 보통 작업과 똑같이 점유되므로 여러 스레드와
+ * 노드에 흩어져 실행되고, 원래 작업의 진행 상황은 하위 작업의 합이다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchJobSplitter {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final BatchJobRepository batchJobRepository;
+    private final FetchWindowPlanner fetchWindowPlanner;
+    private final BatchConfig batchConfig;
+
+    /**
+     * 작업이 크면 하위 작업을 만들고 원래 작업을 SPLIT 으로 바꾼다. 하위 작업 생성과 상태 변경은 한 트랜잭션이다.
+     *
+     * @param dateRange 작업의 전체 날짜 범위 (역순)
+     * @return 만든 하위 작업 (오래된 구간부터). 나누지 않았으면 빈 목록
+     */
+    @Transactional
+    public List<BatchJob> splitIfOversized(BatchJob batchJob, List<LocalDate> dateRange) {
+        // 하위 작업이나 이미 진행한 작업은 다시 나누지 않는다
+        if (batchConfig.getMaxWindowsPerJob() <= 0 || batchJob.getParentJobId() != null
+                || batchJob.getCheckpointDate() != null) {
+            return List.of();
+        }
+
+        List<List<LocalDate>> ranges = fetchWindowPlanner.partition(
+                dateRange, batchJob.getPeriodType().fetchPeriodType(), batchConfig.getMaxWindowsPerJob());
+        if (ranges.size() <= 1) {
+            return List.of();
+        }
+
+        List<BatchJob> children = new ArrayList<>();
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            List<LocalDate> dates = ranges.get(i);
+            children.add(BatchJob.builder()
+                    .jobName(batchJob.getJobName() + " (" + (ranges.size() - i) + "/" + ranges.size() + ")")
+                    .stockCode(batchJob.getStockCode())
+                    .startDate(dates.get(dates.size() - 1).format(DATE_FORMAT))
+                    .endDate(dates.get(0).format(DATE_FORMAT))
+                    .periodType(batchJob.getPeriodType())
+                    .priority(batchJob.getPriority())
+                    .parentJobId(batchJob.getId())
+                    .status(BatchJobStatus.PENDING)
+                    .totalCount(dates.size())
+                    .processedCount(0)
+                    .successCount(0)
+                    .failedCount(0)
+                    .build());
+        }
+        List<BatchJob> saved = batchJobRepository.saveAll(children);
+
+        batchJob.setStatus(BatchJobStatus.SPLIT);
+        batchJob.setTotalCount(dateRange.size());
+        batchJob.setStartTime(LocalDateTime.now());
+        batchJobRepository.save(batchJob);
+
+        log.info("배치 작업 분할: {} {} ~ {} → 하위 작업 {}건", batchJob.getStockCode(),
+                batchJob.getStartDate(), batchJob.getEndDate(), saved.size());
+        return saved;
+    }
+}
@@ -1,75 +1,169 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
-import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import com.hsu_mafia.motoo.kisdatacollector.dto.BatchJobRequest;
+import com.hsu_mafia.motoo.kisdatacollector.service.SyncGapPlanner.SyncGap;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@EnableScheduling
 public class BatchSchedulerService {
 
     private final BatchJobService batchJobService;
+    private final BatchJobExecutor batchJobExecutor;
+    private final SyncGapPlanner syncGapPlanner;
+    private final BatchJobLeaseManager batchJobLeaseManager;
+    private final BatchConfig batchConfig;
 
     @Value("${stock.codes:005930,000660,035420}")
     private String stockCodesConfig;
 
+    /**
+     * 기동 시점에 RUNNING 으로 남아 있고 점유가 풀린 작업은 중단된 노드가 남긴 작업이므로 체크포인트부터 이어서 실행한다.
+     * 다른 노드가 아직 실행 중인 작업은 점유가 살아 있으므로 건드리지 않는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedBatchJobs() {
+        if (!batchConfig.isRecoverOnStartup()) {
+            return;
+        }
+
+        claimAndRun(BatchJobStatus.RUNNING).thenAccept(count -> {
+            if (count > 0) {
+                log.info("중단된 배치 작업 복구 완료: {}건", count);
+            }
+        });
+    }
+
+    /**
+     * 점유가 만료된 RUNNING 작업을 가져와 이어서 실행한다. 하트비트가 끊긴 노드의 작업을 다른 노드가 넘겨받는다.
+     */
+    @Scheduled(fixedDelayString = "${batch.job-lease-millis:300000}", initialDelayString = "${batch.job-lease-millis:300000}")
+    public void reclaimAbandonedBatchJobs() {
+        claimAndRun(BatchJobStatus.RUNNING).thenAccept(count -> {
+            if (count > 0) {
+                log.info("점유가 만료된 배치 작업 재개 완료: {}건", count);
+            }
+        });
+    }
+
+    /**
+     * 선점한 작업이 끝난 PAUSED 작업을 RUNNING 으로 돌리고 바로 점유해 체크포인트부터 이어서 실행한다.
+     */
+    @Scheduled(fixedDelayString = "${batch.job-heartbeat-millis:60000}", initialDelayString = "${batch.job-heartbeat-millis:60000}")
+    public void resumePreemptedBatchJobs() {
+        int resumed = batchJobService.resumePreemptedJobs();
+        if (resumed == 0) {
+            return;
+        }
+
+        log.info("선점이 끝난 배치 작업 재개: {}건", resumed);
+        claimAndRun(BatchJobStatus.RUNNING);
+    }
+
+    /**
+     * 대기 중인 작업을 점유해 실행기에 넘기고 바로 돌아온다. 작업들은 호출 한도를 나눠 쓰며 동시에 실행된다.
+     */
     @Scheduled(cron = "0 0 1 * * *")
     public void executePendingBatchJobs() {
         log.info("대기 중인 배치 작업 실행 시작");
 
-        List<BatchJob> pendingJobs = batchJobService.getPendingJobs();
+        claimAndRun(BatchJobStatus.PENDING)
+                .thenAccept(count -> log.info("대기 중인 배치 작업 실행 완료: {}건", count));
+    }
 
-        for (BatchJob job : pendingJobs) {
-            try {
-                batchJobService.executeBatchJob(job.getId());
-                Thread.sleep(5000);
-            } catch (Exception e) {
-                log.error("배치 작업 실행 중 오류 발생: {}", job.getId(), e);
-            }
+    /**
+     * 동시 실행 수만큼 작업을 하나씩 점유해 실행하고, 하나가 끝나면 다음 작업을 점유한다. 한꺼번에 점유하지 않으므로
+     * 노드가 여러 대면 먼저 손이 빈 노드가 다음 작업을 가져간다.
+     *
+     * @return 모든 작업이 끝나면 실행한 작업 수로 완료되는 future
+     */
+    private CompletableFuture<Integer> claimAndRun(BatchJobStatus status) {
+        List<CompletableFuture<Integer>> workers = new ArrayList<>();
+        for (int i = 0; i < batchConfig.getMaxConcurrentJobs(); i++) {
+            workers.add(claimAndRunNext(status, 0));
         }
 
-        log.info("대기 중인 배치 작업 실행 완료");
+        return CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new))
+                .thenApply(v -> workers.stream().mapToInt(CompletableFuture::join).sum());
     }
 
+    private CompletableFuture<Integer> claimAndRunNext(BatchJobStatus status, int executedCount) {
+        List<Long> claimed;
+        try {
+            claimed = batchJobLeaseManager.claim(status, 1);
+        } catch (Exception e) {
+            log.error("배치 작업 점유 중 오류 발생: {}", status, e);
+            return CompletableFuture.completedFuture(executedCount);
+        }
+
+        if (claimed.isEmpty()) {
+            return CompletableFuture.completedFuture(executedCount);
+        }
+
+        log.info("배치 작업 점유: {} ({})", claimed.get(0), status);
+        return batchJobExecutor.submit(claimed.get(0))
+                .thenCompose(v -> claimAndRunNext(status, executedCount + 1));
+    }
+
+    /**
+     * 최근 7일 중 stock_prices 에 비어 있는 구간만 작업으로 만든다. 이미 채워진 종목은 작업을 만들지 않는다.
+     */
     @Scheduled(cron = "0 0 2 * * SUN")
     public void scheduledWeeklyBackfill() {
         log.info("주간 백필 작업 시작");
 
-        String weekAgo = LocalDate.now().minusDays(7).format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        LocalDate weekAgo = LocalDate.now().minusDays(7);
+        LocalDate today = LocalDate.now();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
 
         List<String> stockCodes = Arrays.asList(stockCodesConfig.split(","));
+        int createdCount = 0;
 
         for (String stockCode : stockCodes) {
             try {
-                BatchJobRequest request = BatchJobRequest.builder()
-                        .jobName("주간 백필 - " + stockCode)
-                        .stockCode(stockCode.trim())
-                        .startDate(weekAgo)
-                        .endDate(today)
-                        .periodType(PeriodType.DAILY)
-                        .build();
+                List<SyncGap> gaps = syncGapPlanner.findGaps(stockCode.trim(), PeriodType.DAILY, weekAgo, today);
+                if (gaps.isEmpty()) {
+                    log.debug("주간 백필 생략 (누락 구간 없음): {}", stockCode);
+                    continue;
+                }
+
+                for (SyncGap gap : gaps) {
+                    BatchJobRequest request = BatchJobRequest.builder()
+                            .jobName("주간 백필 - " + stockCode)
+                            .stockCode(stockCode.trim())
+                            .startDate(gap.startDate().format(formatter))
+                            .endDate(gap.endDate().format(formatter))
+                            .periodType(PeriodType.DAILY)
+                            .priority(RequestPriority.INCREMENTAL)
+                            .build();
 
-                batchJobService.createBatchJob(request);
-                log.info("주간 백필 작업 생성: {}", stockCode);
+                    batchJobService.createBatchJob(request);
+                    createdCount++;
+                    log.info("주간 백필 작업 생성: {} ({} ~ {})", stockCode, gap.startDate(), gap.endDate());
+                }
 
             } catch (Exception e) {
                 log.error("주간 백필 작업 생성 중 오류 발생: {}", stockCode, e);
             }
         }
 
-        log.info("주간 백필 작업 생성 완료");
+        log.info("주간 백필 작업 생성 완료: {}건", createdCount);
     }
 }
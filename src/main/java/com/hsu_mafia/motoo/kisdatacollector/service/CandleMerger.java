@@ -0,0 +1,73 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 시각 순으로 들어오는 캔들을 하나의 봉으로 합친다.
+ * 시가는 첫 캔들의 시가, 종가는 마지막 캔들의 종가, 고가/저가는 최댓값/최솟값, 거래량/거래대금은 합계이며 빈 값은 건너뛴다.
+ */
+class CandleMerger {
+
+    private StockPrice first;
+    private StockPrice last;
+    private Long high;
+    private Long low;
+    private Long volume;
+    private BigDecimal tradeAmount;
+
+    void add(StockPrice candle) {
+        if (first == null) {
+            first = candle;
+        }
+        last = candle;
+
+        if (candle.getHighPrice() != null) {
+            high = high == null ? candle.getHighPrice() : Math.max(high, candle.getHighPrice());
+        }
+        if (candle.getLowPrice() != null) {
+            low = low == null ? candle.getLowPrice() : Math.min(low, candle.getLowPrice());
+        }
+        if (candle.getVolume() != null) {
+            volume = volume == null ? candle.getVolume() : volume + candle.getVolume();
+        }
+        if (candle.getTradeAmount() != null) {
+            tradeAmount = tradeAmount == null ? candle.getTradeAmount() : tradeAmount.add(candle.getTradeAmount());
+        }
+    }
+
+    boolean isEmpty() {
+        return first == null;
+    }
+
+    /**
+     * 지금까지 합친 봉을 만들고 비운다
+     */
+    StockPrice build(LocalDateTime candleDateTime, PeriodType periodType) {
+        StockPrice candle = StockPrice.builder()
+                .stockCode(first.getStockCode())
+                .candleDateTime(candleDateTime)
+                .periodType(periodType)
+                .openPrice(first.getOpenPrice())
+                .highPrice(high)
+                .lowPrice(low)
+                .closePrice(last.getClosePrice())
+                .volume(volume)
+                .tradeAmount(tradeAmount)
+                .build();
+
+        first = null;
+        last = null;
+        high = null;
+        low = null;
+        volume = null;
+        tradeAmount = null;
+        return candle;
+    }
+
+    LocalDateTime lastCandleDateTime() {
+        return last.getCandleDateTime();
+    }
+}
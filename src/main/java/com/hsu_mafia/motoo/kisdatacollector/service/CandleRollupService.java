@@ -0,0 +1,157 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository.CandleRange;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 저장된 일봉을 묶어 주봉/월봉을 만든다.
+ *
+ * <p>주봉은 월요일부터 일요일까지, 월봉은 달력의 한 달 동안의 일봉을 묶는다. 시가는 첫 일봉의 시가, 종가는 마지막 일봉의 종가,
+ * 고가/저가는 최댓값/최솟값, 거래량/거래대금은 합계이고, 캔들 시각은 KIS 주봉/월봉처럼 기간 안의 마지막 거래일이다.
+ * 일봉이 들어오면 그 일봉이 걸친 주/달만 다시 계산해 바꿔 넣으므로, 진행 중인 주/달도 마지막 일봉까지 반영된다.
+ * 일봉이 하나도 없는 주/달은 건드리지 않는다.
+ *
+ * <p>같은 주를 나눠 받은 하위 작업들이 동시에 집계하면 서로 상대가 아직 커밋하지 않은 일봉을 빠뜨린 봉을 쓰게 되므로,
+ * 종목별로 잠근 뒤 일봉을 읽는다. 잠금은 트랜잭션이 끝날 때 풀려, 뒤에 집계하는 쪽은 앞 트랜잭션의 일봉까지 읽는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class CandleRollupService {
+
+    private static final List<PeriodType> ROLLUP_PERIOD_TYPES = List.of(PeriodType.WEEKLY, PeriodType.MONTHLY);
+
+    private final StockPriceRepository stockPriceRepository;
+    private final StockPriceBulkRepository stockPriceBulkRepository;
+
+    /**
+     * 일봉 묶음이 걸친 주/달을 종목별로 다시 계산한다. 일봉이 아닌 캔들은 무시한다.
+     */
+    public void rollup(List<StockPrice> stockPrices) {
+        Map<String, List<LocalDate>> datesByStock = stockPrices.stream()
+                .filter(stockPrice -> stockPrice.getPeriodType() == PeriodType.DAILY)
+                .collect(Collectors.groupingBy(StockPrice::getStockCode,
+                        Collectors.mapping(stockPrice -> stockPrice.getCandleDateTime().toLocalDate(), Collectors.toList())));
+
+        datesByStock.forEach((stockCode, dates) -> rollup(stockCode,
+                dates.stream().min(LocalDate::compareTo).orElseThrow(),
+                dates.stream().max(LocalDate::compareTo).orElseThrow()));
+    }
+
+    /**
+     * startDate ~ endDate 가 걸친 주/달을 저장된 일봉으로 다시 계산한다.
+     *
+     * @return 바꿔 넣은 주봉/월봉 수
+     */
+    public int rollup(String stockCode, LocalDate startDate, LocalDate endDate) {
+        stockPriceBulkRepository.lockRollup(stockCode);
+
+        LocalDate weekStart = bucketOf(startDate, PeriodType.WEEKLY);
+        LocalDate weekEnd = nextBucket(bucketOf(endDate, PeriodType.WEEKLY), PeriodType.WEEKLY);
+        LocalDate monthStart = bucketOf(startDate, PeriodType.MONTHLY);
+        LocalDate monthEnd = nextBucket(bucketOf(endDate, PeriodType.MONTHLY), PeriodType.MONTHLY);
+
+        // 주와 달 양쪽을 덮도록 한 번에 읽고, 봉마다 자기 기간에 온전히 들어오는 일봉만 쓴다
+        List<StockPrice> dailyCandles = stockPriceRepository.findCandles(stockCode, PeriodType.DAILY,
+                min(weekStart, monthStart).atStartOfDay(), max(weekEnd, monthEnd).atStartOfDay());
+
+        int replacedCount = 0;
+        for (PeriodType periodType : ROLLUP_PERIOD_TYPES) {
+            LocalDateTime from = (periodType == PeriodType.WEEKLY ? weekStart : monthStart).atStartOfDay();
+            LocalDateTime to = (periodType == PeriodType.WEEKLY ? weekEnd : monthEnd).atStartOfDay();
+            List<StockPrice> candles = aggregate(dailyCandles.stream()
+                    .filter(daily -> !daily.getCandleDateTime().isBefore(from) && daily.getCandleDateTime().isBefore(to))
+                    .toList(), periodType);
+
+            List<CandleRange> ranges = candles.stream()
+                    .map(candle -> bucketOf(candle.getCandleDateTime().toLocalDate(), periodType))
+                    .map(bucket -> new CandleRange(bucket.atStartOfDay(), nextBucket(bucket, periodType).atStartOfDay()))
+                    .toList();
+            stockPriceBulkRepository.deleteRanges(stockCode, periodType, ranges);
+            stockPriceBulkRepository.insertIgnoringConflicts(candles);
+            replacedCount += candles.size();
+        }
+
+        log.debug("주봉/월봉 집계: {} {}~{} (일봉 {}건 -> {}건)",
+                stockCode, startDate, endDate, dailyCandles.size(), replacedCount);
+        return replacedCount;
+    }
+
+    /**
+     * 거래일의 일봉이 모두 저장돼 있으면 true
+     */
+    @Transactional(readOnly = true)
+    public boolean hasDailyCandles(String stockCode, List<LocalDate> tradingDays) {
+        if (tradingDays.isEmpty()) {
+            return true;
+        }
+
+        LocalDate first = tradingDays.stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = tradingDays.stream().max(LocalDate::compareTo).orElseThrow();
+        Set<LocalDate> stored = new HashSet<>(stockPriceRepository.findCandleDates(
+                stockCode, PeriodType.DAILY, first.atStartOfDay(), last.plusDays(1).atStartOfDay()));
+        return stored.containsAll(tradingDays);
+    }
+
+    /**
+     * 시각 오름차순 일봉을 주/달 단위로 묶는다
+     */
+    List<StockPrice> aggregate(List<StockPrice> dailyCandles, PeriodType periodType) {
+        Map<LocalDate, List<StockPrice>> dailiesByBucket = new LinkedHashMap<>();
+        for (StockPrice daily : dailyCandles) {
+            dailiesByBucket.computeIfAbsent(bucketOf(daily.getCandleDateTime().toLocalDate(), periodType),
+                    bucket -> new ArrayList<>()).add(daily);
+        }
+
+        List<StockPrice> candles = new ArrayList<>(dailiesByBucket.size());
+        CandleMerger merger = new CandleMerger();
+        for (List<StockPrice> dailies : dailiesByBucket.values()) {
+            dailies.forEach(merger::add);
+            candles.add(merger.build(merger.lastCandleDateTime(), periodType));
+        }
+        return candles;
+    }
+
+    private LocalDate bucketOf(LocalDate date, PeriodType periodType) {
+        return switch (periodType) {
+            case MINUTE, DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+
+    private LocalDate nextBucket(LocalDate bucket, PeriodType periodType) {
+        return switch (periodType) {
+            case MINUTE, DAILY -> bucket.plusDays(1);
+            case WEEKLY -> bucket.plusWeeks(1);
+            case MONTHLY -> bucket.plusMonths(1);
+        };
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,135 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 배치 작업의 날짜 범위를 KIS 한 번의 응답에 담길 수 있는 크기의 윈도우로 나눈다.
+ */
+@Component
+@RequiredArgsConstructor
+public class FetchWindowPlanner {
+
+    private final BatchConfig batchConfig;
+    private final TradingCalendar tradingCalendar;
+
+    /**
+     * @param dateRange 역순(최신 날짜 먼저)으로 정렬된 연속된 날짜 목록
+     * @return 역순으로 정렬된 윈도우 목록. 모든 날짜는 정확히 하나의 윈도우에 속한다.
+     */
+    public List<FetchWindow> plan(List<LocalDate> dateRange, PeriodType periodType) {
+        int maxTradingDays = maxTradingDaysPerWindow(periodType);
+        List<FetchWindow> windows = plan(dateRange, maxTradingDays, tradingCalendar::isTradingDay);
+
+        int holidays = (int) dateRange.stream().filter(this::isWeekday).filter(tradingCalendar::isHoliday).count();
+        if (holidays > 0) {
+            // 휴장일을 모르고 주말만 제외했을 때와 비교해 줄어든 호출 수
+            long weekdayOnlyCalls = plan(dateRange, maxTradingDays, this::isWeekday).stream()
+                    .filter(FetchWindow::hasTradingDays).count();
+            long calls = windows.stream().filter(FetchWindow::hasTradingDays).count();
+            tradingCalendar.recordSkipped(holidays, (int) (weekdayOnlyCalls - calls));
+        }
+
+        return windows;
+    }
+
+    /**
+     * 날짜 범위를 윈도우 maxWindows 개씩 묶어 나눈다. 큰 배치 작업을 하위 작업으로 나눌 때 쓰며 휴장일 통계는 기록하지 않는다.
+     *
+     * @return 역순으로 정렬된 하위 범위 목록. 각 범위도 역순이고, 모든 날짜는 정확히 하나의 범위에 속한다.
+     */
+    public List<List<LocalDate>> partition(List<LocalDate> dateRange, PeriodType periodType, int maxWindows) {
+        List<FetchWindow> windows = plan(dateRange, maxTradingDaysPerWindow(periodType), tradingCalendar::isTradingDay);
+
+        List<List<LocalDate>> ranges = new ArrayList<>();
+        for (int from = 0; from < windows.size(); from += maxWindows) {
+            List<LocalDate> dates = new ArrayList<>();
+            for (FetchWindow window : windows.subList(from, Math.min(from + maxWindows, windows.size()))) {
+                dates.addAll(window.getDates());
+            }
+            ranges.add(dates);
+        }
+
+        return ranges;
+    }
+
+    private List<FetchWindow> plan(List<LocalDate> dateRange, int maxTradingDays, Predicate<LocalDate> isTradingDay) {
+        List<FetchWindow> windows = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        List<LocalDate> tradingDays = new ArrayList<>();
+
+        for (LocalDate date : dateRange) {
+            boolean tradingDay = isTradingDay.test(date);
+            if (tradingDay && tradingDays.size() == maxTradingDays) {
+                windows.add(new FetchWindow(dates, tradingDays));
+                dates = new ArrayList<>();
+                tradingDays = new ArrayList<>();
+            }
+
+            dates.add(date);
+            if (tradingDay) {
+                tradingDays.add(date);
+            }
+        }
+
+        if (!dates.isEmpty()) {
+            windows.add(new FetchWindow(dates, tradingDays));
+        }
+
+        return windows;
+    }
+
+    private boolean isWeekday(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
+    }
+
+    int maxTradingDaysPerWindow(PeriodType periodType) {
+        if (!batchConfig.isWindowedFetch()) {
+            return 1;
+        }
+
+        int maxCandles = batchConfig.getMaxCandlesPerPage();
+        return switch (periodType) {
+            // 분봉 API 는 하루 단위로만 조회 가능
+            case MINUTE -> 1;
+            case DAILY -> maxCandles;
+            // 주봉/월봉은 일봉을 받아 집계하므로 API 로 직접 조회하지 않는다
+            case WEEKLY, MONTHLY -> throw new IllegalArgumentException(
+                    "집계 주기는 조회 윈도우를 만들 수 없습니다: " + periodType + " (fetchPeriodType() 으로 조회)");
+        };
+    }
+
+    @Getter
+    public static class FetchWindow {
+        // 윈도우에 속한 모든 날짜 (역순)
+        private final List<LocalDate> dates;
+        // 그중 거래일 (역순)
+        private final List<LocalDate> tradingDays;
+
+        FetchWindow(List<LocalDate> dates, List<LocalDate> tradingDays) {
+            this.dates = List.copyOf(dates);
+            this.tradingDays = List.copyOf(tradingDays);
+        }
+
+        public LocalDate getStartDate() {
+            return dates.get(dates.size() - 1);
+        }
+
+        public LocalDate getEndDate() {
+            return dates.get(0);
+        }
+
+        public boolean hasTradingDays() {
+            return !tradingDays.isEmpty();
+        }
+    }
+}
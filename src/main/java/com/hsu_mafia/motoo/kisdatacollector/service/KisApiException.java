@@ -0,0 +1,17 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import lombok.Getter;
+
+/**
+ * KIS 가 rt_cd 로 실패를 알린 응답.
+ */
+@Getter
+public class KisApiException extends RuntimeException {
+
+    private final String msgCd;
+
+    public KisApiException(String msgCd, String message) {
+        super("[" + msgCd + "] " + message);
+        this.msgCd = msgCd;
+    }
+}
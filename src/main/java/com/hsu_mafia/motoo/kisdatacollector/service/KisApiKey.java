@@ -0,0 +1,63 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * 키 풀에 속한 KIS 앱 키 하나. 키마다 호출 한도가 따로 있으므로 자기 RateLimitManager 를 가진다.
+ */
+@Getter
+public class KisApiKey {
+
+    private final String name;
+    private final String appKey;
+    private final String appSecret;
+    // 토큰 저장, 공유 호출 한도 등 DB 에 키를 기록할 때 appKey 대신 쓴다
+    private final String appKeyHash;
+    private final RateLimitManager rateLimitManager;
+
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong throttledCount = new AtomicLong();
+    // System.nanoTime 기준. 이 시각 전까지는 순환에서 빠진다
+    private volatile long throttledUntilNanos;
+    private volatile boolean throttled;
+
+    public KisApiKey(String name, String appKey, String appSecret, RateLimitManager rateLimitManager) {
+        this.name = name;
+        this.appKey = appKey;
+        this.appSecret = appSecret;
+        this.appKeyHash = appKey != null ? hashAppKey(appKey) : null;
+        this.rateLimitManager = rateLimitManager;
+    }
+
+    public boolean isThrottled() {
+        return throttled && System.nanoTime() - throttledUntilNanos < 0;
+    }
+
+    void throttle(long cooldownNanos) {
+        throttledUntilNanos = System.nanoTime() + cooldownNanos;
+        throttled = true;
+        throttledCount.incrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * appKey 의 SHA-256 (hex)
+     */
+    public static String hashAppKey(String appKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(appKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import com.hsu_mafia.motoo.kisdatacollector.repository.RateLimitLeaseRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 KIS 계정의 앱 키를 묶어 호출을 나눠 보낸다.
+ *
+ * <p>키마다 호출 한도가 따로 적용되므로 키를 N 개 쓰면 전체 처리량도 N 배가 된다. 호출마다 다음 허가까지
+ * 남은 시간이 가장 짧은 키(같으면 진행 중인 호출이 적은 키)를 고르고, 호출 한도 초과 응답을 받은 키는
+ * {@code kis.throttle-cooldown-millis} 동안 순환에서 뺀다.
+ *
+ * <p>{@code kis.adaptive-rate-control} 이 켜져 있으면 호출 결과를 키의 RateLimitManager 에 알려 키별 호출 속도를
+ * 조절한다. 한도 초과/서버 오류에는 감속하고, 성공하면 {@code kis.requests-per-second/minute} 까지 다시 올린다.
+ *
+ * <p>{@code kis.shared-rate-limit} 이 켜져 있으면 같은 키를 쓰는 모든 인스턴스가 DB 의 공유 버킷에서
+ * {@code kis.shared-rate-limit-lease-permits} 개 분량씩 허가 구간을 임대해 키별 한도를 함께 지킨다.
+ */
+@Component
+@Slf4j
+public class KisApiKeyPool {
+
+    private final List<KisApiKey> keys;
+    private final long throttleCooldownNanos;
+    private final RateLimitLeaseRepository rateLimitLeaseRepository;
+
+    /**
+     * 이 인스턴스 안에서만 한도를 지키는 키 풀
+     */
+    public KisApiKeyPool(KisConfig kisConfig) {
+        this(kisConfig, null);
+    }
+
+    @Autowired
+    public KisApiKeyPool(KisConfig kisConfig, RateLimitLeaseRepository rateLimitLeaseRepository) {
+        if (kisConfig.isSharedRateLimit() && rateLimitLeaseRepository == null) {
+            throw new IllegalStateException("kis.shared-rate-limit 을 쓰려면 RateLimitLeaseRepository 가 필요합니다");
+        }
+        this.rateLimitLeaseRepository = rateLimitLeaseRepository;
+
+        List<KisApiKey> configuredKeys = new ArrayList<>();
+        if (kisConfig.getCredentials().isEmpty()) {
+            configuredKeys.add(newKey(kisConfig, "default", kisConfig.getAppKey(), kisConfig.getAppSecret()));
+        } else {
+            for (int i = 0; i < kisConfig.getCredentials().size(); i++) {
+                KisConfig.Credential credential = kisConfig.getCredentials().get(i);
+                String name = credential.getName() != null ? credential.getName() : "key-" + (i + 1);
+                configuredKeys.add(newKey(kisConfig, name, credential.getAppKey(), credential.getAppSecret()));
+            }
+        }
+
+        this.keys = List.copyOf(configuredKeys);
+        this.throttleCooldownNanos = TimeUnit.MILLISECONDS.toNanos(kisConfig.getThrottleCooldownMillis());
+        log.info("KIS API 키 {}개 사용 (키당 초당 {}회, 분당 {}회{})",
+                keys.size(), kisConfig.getRequestsPerSecond(), kisConfig.getRequestsPerMinute(),
+                kisConfig.isSharedRateLimit() ? ", 인스턴스 간 공유" : "");
+    }
+
+    /**
+     * 가장 한가한 키를 골라 그 키의 호출 허가를 받을 때까지 대기한다. 허가는 {@link RequestPriorityContext} 의
+     * 우선순위에 따라 배정된다. 호출이 끝나면 {@link #release} 해야 한다.
+     */
+    public KisApiKey acquire() {
+        KisApiKey key = selectKey();
+        key.getInFlightCount().incrementAndGet();
+        key.getRateLimitManager().waitForRateLimit(RequestPriorityContext.current());
+        return key;
+    }
+
+    public void release(KisApiKey key) {
+        key.getInFlightCount().decrementAndGet();
+    }
+
+    public void recordSuccess(KisApiKey key) {
+        key.getRateLimitManager().onSuccess();
+    }
+
+    public void recordFailure(KisApiKey key, KisErrorType errorType) {
+        if (errorType == KisErrorType.THROTTLED) {
+            markThrottled(key);
+        }
+
+        if (errorType.isBackoff() && key.getRateLimitManager().onBackoff()) {
+            log.warn("KIS API 호출 속도 낮춤: {} ({}) → 분당 {}회", key.getName(), errorType,
+                    String.format("%.1f", key.getRateLimitManager().getRequestsPerMinute()));
+        }
+    }
+
+    public void markThrottled(KisApiKey key) {
+        key.throttle(throttleCooldownNanos);
+        log.warn("KIS API 호출 한도 초과, 키 일시 제외: {} ({}ms)",
+                key.getName(), TimeUnit.NANOSECONDS.toMillis(throttleCooldownNanos));
+    }
+
+    public List<KisApiKey> getKeys() {
+        return keys;
+    }
+
+    private KisApiKey selectKey() {
+        while (true) {
+            KisApiKey selected = null;
+            long selectedDelay = Long.MAX_VALUE;
+            KisApiKey earliestRecovering = null;
+
+            for (KisApiKey key : keys) {
+                if (key.isThrottled()) {
+                    if (earliestRecovering == null
+                            || key.getThrottledUntilNanos() - earliestRecovering.getThrottledUntilNanos() < 0) {
+                        earliestRecovering = key;
+                    }
+                    continue;
+                }
+
+                long delay = key.getRateLimitManager().getNextPermitDelayMillis();
+                if (selected == null || delay < selectedDelay
+                        || (delay == selectedDelay && key.getInFlight() < selected.getInFlight())) {
+                    selected = key;
+                    selectedDelay = delay;
+                }
+            }
+
+            if (selected != null) {
+                return selected;
+            }
+
+            // 모든 키가 제외된 상태면 가장 먼저 풀리는 키를 기다린다
+            LockSupport.parkNanos(this, earliestRecovering.getThrottledUntilNanos() - System.nanoTime());
+        }
+    }
+
+    private KisApiKey newKey(KisConfig kisConfig, String name, String appKey, String appSecret) {
+        RateLimitManager.AdaptivePolicy adaptivePolicy = kisConfig.isAdaptiveRateControl()
+                ? new RateLimitManager.AdaptivePolicy(kisConfig.getMinRequestsPerMinute(),
+                        kisConfig.getRateIncreasePerSuccess(), kisConfig.getRateDecreaseFactor())
+                : null;
+        RateLimitManager.PermitLeaser permitLeaser = kisConfig.isSharedRateLimit()
+                ? durationNanos -> leaseSharedWindow(KisApiKey.hashAppKey(appKey), durationNanos)
+                : null;
+        return new KisApiKey(name, appKey, appSecret, new RateLimitManager(
+                kisConfig.getRequestsPerSecond(), kisConfig.getRequestsPerMinute(), adaptivePolicy,
+                permitLeaser, kisConfig.getSharedRateLimitLeasePermits()));
+    }
+
+    /**
+     * 공유 버킷에서 구간을 임대하고, DB 시계 기준 시작 시각을 이 인스턴스의 {@link System#nanoTime()} 으로 옮긴다.
+     * 응답을 받은 시점을 DB 시각에 맞추므로 왕복 시간만큼 늦게 시작하는 쪽으로 어긋난다.
+     */
+    private long leaseSharedWindow(String appKeyHash, long durationNanos) {
+        // ms 로 줄이면서 구간이 로컬보다 짧아지지 않도록 올림
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+        RateLimitLeaseRepository.LeasedWindow window = rateLimitLeaseRepository.lease(appKeyHash, durationMillis);
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window.startMillis() - window.dbNowMillis());
+    }
+}
@@ -1,22 +1,21 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
 import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
-import java.time.LocalDateTime;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisChartResponseParser.ChartResponse;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -27,91 +26,140 @@ import org.springframework.web.util.UriComponentsBuilder;
 public class KisApiService {
 
     private final KisConfig kisConfig;
-    private final RateLimitManager rateLimitManager;
+    private final KisApiKeyPool kisApiKeyPool;
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final BatchConfig batchConfig;
+    private final KisChartResponseParser chartResponseParser;
+    private final KisTokenManager kisTokenManager;
+    private final KisRequestCoalescer kisRequestCoalescer;
 
-    // 토큰 캐싱용
-    private String cachedAccessToken;
-    private LocalDateTime tokenExpiredAt;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    // 수정주가 반영 여부 (fid_org_adj_prc)
+    private static final String ADJUSTED_PRICE = "1";
 
-    private String fetchAccessToken() throws Exception {
-        if (cachedAccessToken != null && tokenExpiredAt != null &&
-                LocalDateTime.now().isBefore(tokenExpiredAt.minusMinutes(10))) {
-            return cachedAccessToken;
+    public List<StockDataResponse> fetchStockData(String stockCode, String startDate, String endDate, PeriodType periodType) {
+        try {
+            // 같은 요청의 결과를 나눠 쓸 수 있으므로 호출자에게는 복사본을 준다
+            return new ArrayList<>(fetchChartPage(stockCode, startDate, endDate, periodType, "").candles());
+        } catch (Exception e) {
+            log.error("주식 데이터 API 호출 중 오류 발생: {}", stockCode, e);
+            return Collections.emptyList();
         }
+    }
 
-        rateLimitManager.waitForRateLimit();
-
-        String url = kisConfig.getBaseUrl() + "/oauth2/tokenP";
+    /**
+     * 기간 전체를 조회한다. 응답이 한 페이지를 넘으면 tr_cont 연속 조회를 따라가며,
+     * 같은 캔들이 여러 페이지에 걸쳐 오더라도 한 번만 반환한다.
+     */
+    public List<StockDataResponse> fetchStockDataRange(String stockCode, String startDate, String endDate, PeriodType periodType) {
+        Map<String, StockDataResponse> candles = new LinkedHashMap<>();
+        String pageEndDate = endDate;
+        String trCont = "";
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            for (int page = 0; page < batchConfig.getMaxPagesPerWindow(); page++) {
+                ChartPage chartPage = fetchChartPage(stockCode, startDate, pageEndDate, periodType, trCont);
 
-        Map<String, String> body = Map.of(
-                "grant_type", "client_credentials",
-                "appkey", kisConfig.getAppKey(),
-                "appsecret", kisConfig.getAppSecret()
-        );
+                int before = candles.size();
+                for (StockDataResponse candle : chartPage.candles()) {
+                    candles.putIfAbsent(candle.getCandleDateTime(), candle);
+                }
 
-        HttpEntity<Map<String, String>> entity = new HttpEntity<>(body, headers);
+                if (!chartPage.hasNext() || candles.size() == before) {
+                    break;
+                }
 
-        ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+                trCont = "N";
+                if (periodType != PeriodType.MINUTE) {
+                    // 기간별 시세는 다음 페이지를 종료일 기준으로 이어서 내려준다
+                    pageEndDate = previousDate(chartPage.oldestCandleDate());
+                    if (pageEndDate.compareTo(startDate) < 0) {
+                        break;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("주식 데이터 기간 조회 중 오류 발생: {} ({} ~ {})", stockCode, startDate, endDate, e);
+            if (candles.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
 
-        if (response.getStatusCode().is2xxSuccessful()) {
-            JsonNode jsonNode = objectMapper.readTree(response.getBody());
-            cachedAccessToken = jsonNode.path("access_token").asText();
-            tokenExpiredAt = LocalDateTime.now().plusHours(23);
+        return new ArrayList<>(candles.values());
+    }
 
-            log.info("KIS API 토큰 획득 성공");
-            return cachedAccessToken;
-        } else {
-            log.error("KIS API 토큰 획득 실패: {}", response.getStatusCode());
-            throw new Exception("토큰 획득 실패");
+    private ChartPage fetchChartPage(String stockCode, String startDate, String endDate,
+                                     PeriodType periodType, String trCont) throws Exception {
+        // 분봉 연속 조회는 같은 파라미터로 다음 페이지를 받으므로 합치지 않는다
+        if (periodType == PeriodType.MINUTE && !trCont.isEmpty()) {
+            return callChartPage(stockCode, startDate, endDate, periodType, trCont);
         }
+        ChartRequest request = new ChartRequest(stockCode, periodType, startDate, endDate, trCont, ADJUSTED_PRICE);
+        return kisRequestCoalescer.execute(request,
+                () -> callChartPage(stockCode, startDate, endDate, periodType, trCont));
     }
 
-    public List<StockDataResponse> fetchStockData(String stockCode, String startDate, String endDate, PeriodType periodType) {
+    private ChartPage callChartPage(String stockCode, String startDate, String endDate,
+                                    PeriodType periodType, String trCont) {
+        KisApiKey key = kisApiKeyPool.acquire();
         try {
-            rateLimitManager.waitForRateLimit();
-
-            String accessToken = fetchAccessToken();
-            String url = buildApiUrl(periodType);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + accessToken);
-            headers.set("appkey", kisConfig.getAppKey());
-            headers.set("appsecret", kisConfig.getAppSecret());
-            headers.set("tr_id", getTrId(periodType));
-            headers.set("custtype", "P");
-
-            String fullUrl = UriComponentsBuilder.fromHttpUrl(url)
-                    .queryParam("fid_cond_mrkt_div_code", "J")
-                    .queryParam("fid_input_iscd", stockCode)
-                    .queryParam("fid_input_date_1", startDate)
-                    .queryParam("fid_input_date_2", endDate)
-                    .queryParam("fid_period_div_code", periodType.getCode())
-                    .queryParam("fid_org_adj_prc", "1")
-                    .toUriString();
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<String> response = restTemplate.exchange(
-                    fullUrl, HttpMethod.GET, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return parseStockDataResponse(response.getBody(), stockCode, periodType);
-            } else {
-                log.error("주식 데이터 API 호출 실패: {} - {}", stockCode, response.getStatusCode());
-                return Collections.emptyList();
-            }
-
-        } catch (Exception e) {
-            log.error("주식 데이터 API 호출 중 오류 발생: {}", stockCode, e);
-            return Collections.emptyList();
+            ChartPage chartPage = requestChartPage(key, stockCode, startDate, endDate, periodType, trCont);
+            kisApiKeyPool.recordSuccess(key);
+            return chartPage;
+        } catch (RuntimeException e) {
+            // 아래 호출부가 실패를 빈 결과로 바꾸기 전에 호출 속도 조절에 반영
+            kisApiKeyPool.recordFailure(key, KisErrorType.classify(e));
+            throw e;
+        } finally {
+            kisApiKeyPool.release(key);
         }
     }
 
+    private ChartPage requestChartPage(KisApiKey key, String stockCode, String startDate, String endDate,
+                                       PeriodType periodType, String trCont) {
+        String accessToken = kisTokenManager.getAccessToken(key);
+        String url = buildApiUrl(periodType);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + accessToken);
+        headers.set("appkey", key.getAppKey());
+        headers.set("appsecret", key.getAppSecret());
+        headers.set("tr_id", getTrId(periodType));
+        headers.set("tr_cont", trCont);
+        headers.set("custtype", "P");
+
+        String fullUrl = UriComponentsBuilder.fromHttpUrl(url)
+                .queryParam("fid_cond_mrkt_div_code", "J")
+                .queryParam("fid_input_iscd", stockCode)
+                .queryParam("fid_input_date_1", startDate)
+                .queryParam("fid_input_date_2", endDate)
+                .queryParam("fid_period_div_code", periodType.getCode())
+                .queryParam("fid_org_adj_prc", ADJUSTED_PRICE)
+                .toUriString();
+
+        // 응답 본문을 문자열로 모으지 않고 스트림에서 바로 파싱
+        return restTemplate.execute(fullUrl, HttpMethod.GET,
+                request -> request.getHeaders().putAll(headers),
+                response -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        log.error("주식 데이터 API 호출 실패: {} - {}", stockCode, response.getStatusCode());
+                        return new ChartPage(Collections.emptyList(), null);
+                    }
+
+                    ChartResponse chartResponse = chartResponseParser.parse(response.getBody(), stockCode, periodType);
+                    if (chartResponse.isError()) {
+                        throw new KisApiException(chartResponse.msgCd(), chartResponse.msg());
+                    }
+
+                    log.info("주식 데이터 파싱 완료: {} {} ({}건)", stockCode, periodType, chartResponse.candles().size());
+                    return new ChartPage(chartResponse.candles(), response.getHeaders().getFirst("tr_cont"));
+                });
+    }
+
+    private String previousDate(String date) {
+        return LocalDate.parse(date, DATE_FORMAT).minusDays(1).format(DATE_FORMAT);
+    }
+
     private String buildApiUrl(PeriodType periodType) {
         String baseUrl = kisConfig.getBaseUrl();
         return switch (periodType) {
@@ -127,38 +175,30 @@ public class KisApiService {
         };
     }
 
-    private List<StockDataResponse> parseStockDataResponse(String responseBody, String stockCode, PeriodType periodType) {
-        try {
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            JsonNode outputArray = jsonNode.path("output2");
-
-            List<StockDataResponse> dataList = new ArrayList<>();
-
-            if (outputArray.isArray()) {
-                for (JsonNode item : outputArray) {
-                    StockDataResponse data = StockDataResponse.builder()
-                            .stockCode(stockCode)
-                            .candleDateTime(item.path("stck_bsop_date").asText() +
-                                    (periodType == PeriodType.MINUTE ? item.path("stck_cntg_hour").asText() : "0000"))
-                            .openPrice(item.path("stck_oprc").asText())
-                            .highPrice(item.path("stck_hgpr").asText())
-                            .lowPrice(item.path("stck_lwpr").asText())
-                            .closePrice(item.path("stck_clpr").asText())
-                            .volume(item.path("acml_vol").asText())
-                            .tradeAmount(item.path("acml_tr_pbmn").asText())
-                            .periodType(periodType)
-                            .build();
-
-                    dataList.add(data);
-                }
-            }
+    /**
+     * 결과를 나눠 써도 되는 시세 조회를 구분하는 키
+     */
+    private record ChartRequest(String stockCode, PeriodType periodType, String startDate, String endDate,
+                                String trCont, String adjustedPrice) {
+    }
 
-            log.info("주식 데이터 파싱 완료: {} {} ({}건)", stockCode, periodType, dataList.size());
-            return dataList;
+    /**
+     * @param trCont 응답 헤더의 tr_cont. F/M 이면 다음 페이지가 있다.
+     */
+    private record ChartPage(List<StockDataResponse> candles, String trCont) {
 
-        } catch (Exception e) {
-            log.error("주식 데이터 파싱 중 오류 발생: {}", stockCode, e);
-            return Collections.emptyList();
+        boolean hasNext() {
+            return !candles.isEmpty() && ("F".equals(trCont) || "M".equals(trCont));
+        }
+
+        String oldestCandleDate() {
+            String oldest = candles.get(0).getCandleDateTime();
+            for (StockDataResponse candle : candles) {
+                if (candle.getCandleDateTime().compareTo(oldest) < 0) {
+                    oldest = candle.getCandleDateTime();
+                }
+            }
+            return oldest.substring(0, 8);
         }
     }
 }
@@ -0,0 +1,141 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * KIS 기간별/분봉 시세 응답을 JsonParser 토큰 단위로 읽는다.
+ *
+ * <p>응답 전체를 JsonNode 트리로 만들지 않고, 스트림에서 바로 output2 의 캔들만 꺼낸다.
+ * output1 과 캔들의 나머지 필드(전일 대비, 분할 여부 등)는 문자열로 만들지 않고 건너뛴다.
+ * 영업일자가 없는 행(조회 결과가 없을 때 오는 빈 객체)은 캔들로 만들지 않는다.
+ */
+@Component
+public class KisChartResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    public KisChartResponseParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public ChartResponse parse(InputStream body, String stockCode, PeriodType periodType) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser, stockCode, periodType);
+        }
+    }
+
+    public ChartResponse parse(String body, String stockCode, PeriodType periodType) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser, stockCode, periodType);
+        }
+    }
+
+    private ChartResponse parse(JsonParser parser, String stockCode, PeriodType periodType) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "KIS 응답이 JSON 객체가 아닙니다");
+        }
+
+        String rtCd = null;
+        String msgCd = null;
+        String msg = null;
+        List<StockDataResponse> candles = List.of();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "rt_cd" -> rtCd = parser.getValueAsString();
+                case "msg_cd" -> msgCd = parser.getValueAsString();
+                case "msg1" -> msg = parser.getValueAsString();
+                case "output2" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        candles = readCandles(parser, stockCode, periodType);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new ChartResponse(rtCd, msgCd, msg, candles);
+    }
+
+    private List<StockDataResponse> readCandles(JsonParser parser, String stockCode, PeriodType periodType) throws IOException {
+        List<StockDataResponse> candles = new ArrayList<>();
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String date = null;
+            String hour = "";
+            String open = "";
+            String high = "";
+            String low = "";
+            String close = "";
+            String volume = "";
+            String tradeAmount = "";
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "stck_bsop_date" -> date = parser.getValueAsString();
+                    case "stck_cntg_hour" -> hour = parser.getValueAsString("");
+                    case "stck_oprc" -> open = parser.getValueAsString("");
+                    case "stck_hgpr" -> high = parser.getValueAsString("");
+                    case "stck_lwpr" -> low = parser.getValueAsString("");
+                    case "stck_clpr" -> close = parser.getValueAsString("");
+                    case "acml_vol" -> volume = parser.getValueAsString("");
+                    case "acml_tr_pbmn" -> tradeAmount = parser.getValueAsString("");
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (date == null || date.isEmpty()) {
+                continue;
+            }
+
+            candles.add(StockDataResponse.builder()
+                    .stockCode(stockCode)
+                    .candleDateTime(periodType == PeriodType.MINUTE ? date + hour : date + "0000")
+                    .openPrice(open)
+                    .highPrice(high)
+                    .lowPrice(low)
+                    .closePrice(close)
+                    .volume(volume)
+                    .tradeAmount(tradeAmount)
+                    .periodType(periodType)
+                    .build());
+        }
+
+        return candles;
+    }
+
+    /**
+     * @param rtCd 응답 코드. "0" 이 아니면 오류 응답이다 (없으면 정상으로 본다).
+     */
+    public record ChartResponse(String rtCd, String msgCd, String msg, List<StockDataResponse> candles) {
+
+        public boolean isError() {
+            return rtCd != null && !"0".equals(rtCd);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import lombok.Getter;
+import org.springframework.web.client.HttpStatusCodeException;
+
+/**
+ * KIS 호출 실패를 호출 속도 조절 관점에서 분류한다.
+ */
+@Getter
+public enum KisErrorType {
+    // 호출 한도 초과 (HTTP 429, EGW00201). 키를 잠시 순환에서 빼고 감속
+    THROTTLED(true),
+    // 게이트웨이/서버 오류 (HTTP 5xx). 감속만
+    SERVER_ERROR(true),
+    // 잘못된 요청, 네트워크 오류 등 호출 속도와 무관한 실패
+    OTHER(false);
+
+    // 초당 거래건수 초과. KIS 는 이 코드를 HTTP 500 본문에 담아 보내기도 한다
+    static final String THROTTLED_MSG_CD = "EGW00201";
+
+    private final boolean backoff;
+
+    KisErrorType(boolean backoff) {
+        this.backoff = backoff;
+    }
+
+    public static KisErrorType classify(Throwable e) {
+        if (e instanceof KisApiException kisApiException) {
+            return THROTTLED_MSG_CD.equals(kisApiException.getMsgCd()) ? THROTTLED : OTHER;
+        }
+
+        if (e instanceof HttpStatusCodeException statusCodeException) {
+            if (statusCodeException.getStatusCode().value() == 429
+                    || statusCodeException.getResponseBodyAsString().contains(THROTTLED_MSG_CD)) {
+                return THROTTLED;
+            }
+            if (statusCodeException.getStatusCode().is5xxServerError()) {
+                return SERVER_ERROR;
+            }
+        }
+
+        return OTHER;
+    }
+}
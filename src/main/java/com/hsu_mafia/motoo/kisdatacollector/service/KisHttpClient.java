@@ -0,0 +1,144 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.HttpClientConfig;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLSocket;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.DefaultClientTlsStrategy;
+import org.apache.hc.client5.http.ssl.TlsSocketStrategy;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * KIS 호출용 keep-alive 연결 풀.
+ *
+ * <p>연결을 요청마다 새로 맺지 않고 재사용해 TLS 핸드셰이크 비용을 한 번만 치른다. 연결 재사용률과
+ * 핸드셰이크 시간, 풀 상태를 집계한다. 새 연결 여부는 해당 연결에서 보낸 요청 수가 1인지로 판단한다.
+ */
+@Component
+@Slf4j
+public class KisHttpClient {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong newConnectionCount = new AtomicLong();
+    private final AtomicLong handshakeCount = new AtomicLong();
+    private final AtomicLong totalHandshakeNanos = new AtomicLong();
+
+    public KisHttpClient(HttpClientConfig httpClientConfig) {
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setTlsSocketStrategy(new TimedTlsSocketStrategy(DefaultClientTlsStrategy.createSystemDefault()))
+                .setMaxConnTotal(httpClientConfig.getMaxConnTotal())
+                .setMaxConnPerRoute(httpClientConfig.getMaxConnPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(httpClientConfig.getConnectTimeoutMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(httpClientConfig.getReadTimeoutMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(httpClientConfig.getValidateAfterInactivityMillis()))
+                        .setTimeToLive(TimeValue.ofSeconds(httpClientConfig.getTimeToLiveSeconds()))
+                        .build())
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(httpClientConfig.getConnectionRequestTimeoutMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(httpClientConfig.getReadTimeoutMillis()))
+                        .build())
+                .addResponseInterceptorLast((response, entity, context) -> recordResponse(context))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(httpClientConfig.getIdleEvictSeconds()))
+                .build();
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getNewConnectionCount() {
+        return newConnectionCount.get();
+    }
+
+    public long getReusedConnectionCount() {
+        return requestCount.get() - newConnectionCount.get();
+    }
+
+    public double getConnectionReuseRatio() {
+        long requests = requestCount.get();
+        return requests == 0 ? 0.0 : (double) getReusedConnectionCount() / requests;
+    }
+
+    public long getHandshakeCount() {
+        return handshakeCount.get();
+    }
+
+    public double getAverageHandshakeMillis() {
+        long handshakes = handshakeCount.get();
+        return handshakes == 0 ? 0.0 : totalHandshakeNanos.get() / 1_000_000.0 / handshakes;
+    }
+
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    private void recordResponse(HttpContext context) {
+        requestCount.incrementAndGet();
+
+        EndpointDetails endpointDetails = HttpCoreContext.cast(context).getEndpointDetails();
+        if (endpointDetails != null && endpointDetails.getRequestCount() <= 1) {
+            newConnectionCount.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * TLS 업그레이드(핸드셰이크) 시간을 잰다.
+     */
+    private class TimedTlsSocketStrategy implements TlsSocketStrategy {
+
+        private final TlsSocketStrategy delegate;
+
+        TimedTlsSocketStrategy(TlsSocketStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SSLSocket upgrade(Socket socket, String target, int port, Object attachment, HttpContext context)
+                throws IOException {
+            long start = System.nanoTime();
+            SSLSocket sslSocket = delegate.upgrade(socket, target, port, attachment, context);
+            long elapsed = System.nanoTime() - start;
+
+            handshakeCount.incrementAndGet();
+            totalHandshakeNanos.addAndGet(elapsed);
+            log.debug("TLS 핸드셰이크 완료: {}:{} ({}ms)", target, port, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return sslSocket;
+        }
+    }
+}
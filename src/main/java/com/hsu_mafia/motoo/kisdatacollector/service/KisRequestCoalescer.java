@@ -0,0 +1,130 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 같은 요청이 동시에 여러 번 나가지 않도록 진행 중인 호출의 결과를 나눠 쓴다.
+ *
+ * <p>같은 키로 호출이 진행 중이면 새로 호출하지 않고 그 결과를 기다린다. 성공한 결과는
+ * {@code kis.request-coalescing-ttl-millis} 동안 남겨 두고 그 사이의 같은 요청에도 돌려준다. 실패는 남기지 않으므로
+ * 기다리던 호출자는 같은 예외를 받고, 다음 요청은 다시 호출한다.
+ *
+ * <p>결과를 기다리는 호출자는 먼저 호출한 쪽의 우선순위로 허가를 기다린다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KisRequestCoalescer {
+
+    private final KisConfig kisConfig;
+
+    private final Map<Object, Entry> requests = new ConcurrentHashMap<>();
+    private final AtomicLong inFlightHitCount = new AtomicLong();
+    private final AtomicLong cachedHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param key  요청을 구분하는 값. 응답이 같은 요청만 같은 키여야 한다
+     * @param call 실제 호출. 허가 획득부터 응답 파싱까지 포함한다
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Callable<T> call) throws Exception {
+        if (!kisConfig.isRequestCoalescing()) {
+            return call.call();
+        }
+
+        Entry mine = new Entry();
+        Entry entry = requests.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(System.nanoTime()) ? existing : mine);
+        if (entry != mine) {
+            (entry.future.isDone() ? cachedHitCount : inFlightHitCount).incrementAndGet();
+            return (T) await(entry.future);
+        }
+
+        missCount.incrementAndGet();
+        evictExpired();
+        try {
+            T result = call.call();
+            long ttlMillis = kisConfig.getRequestCoalescingTtlMillis();
+            if (ttlMillis > 0) {
+                mine.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            } else {
+                requests.remove(key, mine);
+            }
+            mine.future.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            requests.remove(key, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 진행 중인 호출을 기다려 받은 요청 수
+     */
+    public long getInFlightHitCount() {
+        return inFlightHitCount.get();
+    }
+
+    /**
+     * 남겨 둔 결과로 바로 돌려준 요청 수
+     */
+    public long getCachedHitCount() {
+        return cachedHitCount.get();
+    }
+
+    /**
+     * 실제로 호출한 요청 수
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 결과를 나눠 써서 아낀 호출 허가 수. 요청 하나가 허가 하나를 쓰므로 적중 수와 같다
+     */
+    public long getPermitsSaved() {
+        return inFlightHitCount.get() + cachedHitCount.get();
+    }
+
+    private Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        requests.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        // 진행 중이면 만료되지 않는다
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.AccessToken;
+import com.hsu_mafia.motoo.kisdatacollector.repository.AccessTokenRepository;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * KIS 접근 토큰 관리. 토큰은 앱 키마다 따로 발급되므로 키 풀의 키별로 관리한다.
+ *
+ * <p>토큰이 유효하면 잠금 없이 바로 돌려주고, 만료됐을 때만 한 스레드가 재발급한다 (나머지는 그 결과를 기다림).
+ * 만료가 {@code kis.token-refresh-ahead-minutes} 안으로 다가오면 백그라운드에서 미리 재발급하므로 수집 중에는
+ * 토큰 발급을 기다리지 않는다. 발급한 토큰은 appSecret 으로 암호화해 DB 에 저장하고, 재기동 시 다시 쓴다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KisTokenManager {
+
+    // 만료 직전 토큰은 요청 도중 만료될 수 있으므로 쓰지 않는다
+    private static final int EXPIRY_MARGIN_MINUTES = 10;
+    // 응답에 expires_in 이 없을 때의 유효 시간
+    private static final int DEFAULT_LIFETIME_HOURS = 23;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final KisConfig kisConfig;
+    private final KisApiKeyPool kisApiKeyPool;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final AccessTokenRepository accessTokenRepository;
+
+    private final Map<String, TokenSlot> slots = new ConcurrentHashMap<>();
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final AtomicLong issuedCount = new AtomicLong();
+
+    public String getAccessToken(KisApiKey key) {
+        TokenSlot slot = slotOf(key);
+        IssuedToken token = slot.current;
+        if (token != null && token.isUsable()) {
+            return token.value();
+        }
+
+        slot.lock.lock();
+        try {
+            // 기다리는 동안 다른 스레드가 갱신했을 수 있다
+            token = slot.current;
+            if (token != null && token.isUsable()) {
+                return token.value();
+            }
+
+            if (!slot.storeChecked) {
+                slot.storeChecked = true;
+                token = loadPersistedToken(key);
+                if (token != null && token.isUsable()) {
+                    slot.current = token;
+                    return token.value();
+                }
+            }
+
+            token = issueToken(key);
+            slot.current = token;
+            return token.value();
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetchOnStartup() {
+        if (!kisConfig.isTokenPrefetchOnStartup()) {
+            return;
+        }
+
+        for (KisApiKey key : kisApiKeyPool.getKeys()) {
+            try {
+                getAccessToken(key);
+            } catch (Exception e) {
+                log.warn("기동 시 KIS API 토큰 준비 실패, 첫 호출 때 다시 시도합니다: {}", key.getName(), e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void refreshIfExpiringSoon() {
+        for (KisApiKey key : kisApiKeyPool.getKeys()) {
+            refreshIfExpiringSoon(key);
+        }
+    }
+
+    private void refreshIfExpiringSoon(KisApiKey key) {
+        TokenSlot slot = slotOf(key);
+        IssuedToken token = slot.current;
+        if (token == null
+                || LocalDateTime.now().isBefore(token.expiresAt().minusMinutes(kisConfig.getTokenRefreshAheadMinutes()))) {
+            return;
+        }
+
+        // 이미 다른 스레드가 재발급 중이면 맡긴다
+        if (!slot.lock.tryLock()) {
+            return;
+        }
+        try {
+            if (slot.current != token) {
+                return;
+            }
+            slot.current = issueToken(key);
+            log.info("KIS API 토큰 사전 갱신 완료: {} (이전 토큰 만료 {})", key.getName(), token.expiresAt());
+        } catch (Exception e) {
+            log.warn("KIS API 토큰 사전 갱신 실패, 기존 토큰 유지: {} (만료 {})", key.getName(), token.expiresAt(), e);
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    public long getIssuedCount() {
+        return issuedCount.get();
+    }
+
+    public LocalDateTime getExpiresAt(KisApiKey key) {
+        IssuedToken token = slotOf(key).current;
+        return token != null ? token.expiresAt() : null;
+    }
+
+    private TokenSlot slotOf(KisApiKey key) {
+        return slots.computeIfAbsent(key.getAppKey(), appKey -> new TokenSlot());
+    }
+
+    private IssuedToken issueToken(KisApiKey key) {
+        key.getRateLimitManager().waitForRateLimit();
+
+        String url = kisConfig.getBaseUrl() + "/oauth2/tokenP";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, String> body = Map.of(
+                "grant_type", "client_credentials",
+                "appkey", key.getAppKey(),
+                "appsecret", key.getAppSecret()
+        );
+
+        ResponseEntity<String> response = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            log.error("KIS API 토큰 획득 실패: {} - {}", key.getName(), response.getStatusCode());
+            throw new IllegalStateException("토큰 획득 실패: " + response.getStatusCode());
+        }
+
+        String accessToken;
+        long expiresIn;
+        try {
+            JsonNode jsonNode = objectMapper.readTree(response.getBody());
+            accessToken = jsonNode.path("access_token").asText();
+            expiresIn = jsonNode.path("expires_in").asLong(0);
+        } catch (Exception e) {
+            throw new IllegalStateException("토큰 응답 파싱 실패", e);
+        }
+        if (accessToken.isEmpty()) {
+            throw new IllegalStateException("토큰 응답에 access_token 이 없습니다");
+        }
+
+        LocalDateTime expiresAt = expiresIn > 0
+                ? LocalDateTime.now().plusSeconds(expiresIn)
+                : LocalDateTime.now().plusHours(DEFAULT_LIFETIME_HOURS);
+        IssuedToken token = new IssuedToken(accessToken, expiresAt);
+
+        issuedCount.incrementAndGet();
+        persist(key, token);
+
+        log.info("KIS API 토큰 획득 성공: {} (만료 {})", key.getName(), expiresAt);
+        return token;
+    }
+
+    private IssuedToken loadPersistedToken(KisApiKey key) {
+        try {
+            AccessToken stored = accessTokenRepository.findByAppKeyHash(key.getAppKeyHash()).orElse(null);
+            if (stored == null) {
+                return null;
+            }
+
+            IssuedToken token = new IssuedToken(decrypt(key, stored.getEncryptedToken()), stored.getExpiresAt());
+            if (!token.isUsable()) {
+                return null;
+            }
+
+            log.info("저장된 KIS API 토큰 재사용: {} (만료 {})", key.getName(), token.expiresAt());
+            return token;
+        } catch (Exception e) {
+            // appSecret 이 바뀌었거나 저장소를 읽을 수 없으면 새로 발급
+            log.warn("저장된 KIS API 토큰을 불러올 수 없습니다: {}", key.getName(), e);
+            return null;
+        }
+    }
+
+    private void persist(KisApiKey key, IssuedToken token) {
+        try {
+            String appKeyHash = key.getAppKeyHash();
+            AccessToken stored = accessTokenRepository.findByAppKeyHash(appKeyHash)
+                    .orElseGet(() -> AccessToken.builder().appKeyHash(appKeyHash).build());
+            stored.setEncryptedToken(encrypt(key, token.value()));
+            stored.setExpiresAt(token.expiresAt());
+            accessTokenRepository.save(stored);
+        } catch (Exception e) {
+            // 저장 실패는 재기동 시 재발급으로 이어질 뿐이므로 호출은 계속한다
+            log.warn("KIS API 토큰 저장 실패: {}", key.getName(), e);
+        }
+    }
+
+    private String encrypt(KisApiKey key, String plainText) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        secureRandom.nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey(key), new GCMParameterSpec(GCM_TAG_BITS, iv));
+        byte[] cipherText = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + cipherText.length)
+                .put(iv)
+                .put(cipherText)
+                .array());
+    }
+
+    private String decrypt(KisApiKey key, String encoded) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey(key), new GCMParameterSpec(GCM_TAG_BITS, bytes, 0, GCM_IV_LENGTH));
+        return new String(cipher.doFinal(bytes, GCM_IV_LENGTH, bytes.length - GCM_IV_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    private SecretKeySpec encryptionKey(KisApiKey key) throws GeneralSecurityException {
+        return new SecretKeySpec(sha256(key.getAppSecret()), "AES");
+    }
+
+    private byte[] sha256(String value) throws GeneralSecurityException {
+        return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class TokenSlot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile IssuedToken current;
+        private volatile boolean storeChecked;
+    }
+
+    private record IssuedToken(String value, LocalDateTime expiresAt) {
+
+        boolean isUsable() {
+            return LocalDateTime.now().isBefore(expiresAt.minusMinutes(EXPIRY_MARGIN_MINUTES));
+        }
+    }
+}
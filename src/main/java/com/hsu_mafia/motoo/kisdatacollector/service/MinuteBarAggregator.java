@@ -0,0 +1,166 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 저장된 1분봉을 N분봉으로 묶는다.
+ *
+ * <p>1분봉을 시각 순으로 한 번 읽으면서 바로 봉을 만들고, 읽은 1분봉은 모아 두지 않는다. 봉은 그날 09:00(정규장 시작)부터
+ * N분씩 나누며, 봉의 시각은 구간의 시작 시각이다. 1분봉이 없는 구간은 봉을 만들지 않는다.
+ *
+ * <p>자주 쓰는 간격({@code batch.minute-bar-cached-intervals})은 종목·간격·날짜별로 만든 봉을 메모리에 남겨 둔다.
+ * 1분봉은 덮어쓰지 않고 추가만 되므로 그날의 1분봉 수가 그대로이면 봉도 그대로다. 조회 때 날짜별 1분봉 수만 세어 보고
+ * 수가 달라진 날(다른 노드가 적재한 날 포함)만 다시 읽는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MinuteBarAggregator {
+
+    private static final LocalTime SESSION_OPEN = LocalTime.of(9, 0);
+    // 정규장 길이. 이보다 긴 간격은 하루 한 봉과 같다
+    static final int MAX_INTERVAL_MINUTES = 390;
+
+    private final StockPriceRepository stockPriceRepository;
+    private final StockPriceBulkRepository stockPriceBulkRepository;
+    private final BatchConfig batchConfig;
+
+    // 가장 오래 안 쓴 날부터 버린다
+    private final Map<DayKey, DayBars> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DayKey, DayBars> eldest) {
+            return size() > batchConfig.getMinuteBarCacheSize();
+        }
+    });
+
+    /**
+     * startDate ~ endDate 의 1분봉을 intervalMinutes 분봉으로 묶는다.
+     *
+     * @return 시각 오름차순 N분봉
+     */
+    @Transactional(readOnly = true)
+    public List<StockPrice> aggregate(String stockCode, LocalDate startDate, LocalDate endDate, int intervalMinutes) {
+        if (intervalMinutes < 1 || intervalMinutes > MAX_INTERVAL_MINUTES) {
+            throw new IllegalArgumentException(
+                    "분봉 간격은 1~" + MAX_INTERVAL_MINUTES + "분이어야 합니다: " + intervalMinutes);
+        }
+
+        if (!batchConfig.getMinuteBarCachedIntervals().contains(intervalMinutes)) {
+            return build(stockCode, startDate, endDate, intervalMinutes).bars;
+        }
+
+        Map<LocalDate, Long> minuteCounts = new TreeMap<>();
+        for (Object[] row : stockPriceRepository.countCandlesByDate(stockCode, PeriodType.MINUTE,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            minuteCounts.put((LocalDate) row[0], ((Number) row[1]).longValue());
+        }
+
+        // 캐시에 없거나 바뀐 날이 이어지는 동안 모았다가 한 번에 읽는다
+        List<StockPrice> bars = new ArrayList<>();
+        List<LocalDate> missedDays = new ArrayList<>();
+        for (Map.Entry<LocalDate, Long> entry : minuteCounts.entrySet()) {
+            DayBars cached = cache.get(new DayKey(stockCode, intervalMinutes, entry.getKey()));
+            if (cached == null || cached.minuteCount() != entry.getValue()) {
+                missedDays.add(entry.getKey());
+                continue;
+            }
+            bars.addAll(buildAndCache(stockCode, missedDays, intervalMinutes));
+            missedDays.clear();
+            bars.addAll(cached.bars());
+        }
+        bars.addAll(buildAndCache(stockCode, missedDays, intervalMinutes));
+
+        return bars;
+    }
+
+    private List<StockPrice> buildAndCache(String stockCode, List<LocalDate> days, int intervalMinutes) {
+        if (days.isEmpty()) {
+            return List.of();
+        }
+
+        BarBuilder builder = build(stockCode, days.get(0), days.get(days.size() - 1), intervalMinutes);
+
+        Map<LocalDate, List<StockPrice>> barsByDay = new LinkedHashMap<>();
+        for (StockPrice bar : builder.bars) {
+            barsByDay.computeIfAbsent(bar.getCandleDateTime().toLocalDate(), day -> new ArrayList<>()).add(bar);
+        }
+        barsByDay.forEach((day, dayBars) -> cache.put(new DayKey(stockCode, intervalMinutes, day),
+                new DayBars(builder.minuteCounts.get(day), List.copyOf(dayBars))));
+
+        log.debug("{}분봉 생성: {} {}~{} ({}일, 1분봉 {}건 -> {}건)", intervalMinutes, stockCode,
+                days.get(0), days.get(days.size() - 1), barsByDay.size(), builder.minuteCount, builder.bars.size());
+        return builder.bars;
+    }
+
+    private BarBuilder build(String stockCode, LocalDate startDate, LocalDate endDate, int intervalMinutes) {
+        BarBuilder builder = new BarBuilder(intervalMinutes);
+        stockPriceBulkRepository.streamCandles(stockCode, PeriodType.MINUTE,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(), builder::add);
+        builder.finish();
+        return builder;
+    }
+
+    /**
+     * 시각 순으로 들어오는 1분봉을 N분봉으로 바로 합친다. 열린 봉은 하나뿐이다.
+     */
+    private static class BarBuilder {
+
+        private final int intervalMinutes;
+        private final CandleMerger merger = new CandleMerger();
+        private final List<StockPrice> bars = new ArrayList<>();
+        private final Map<LocalDate, Long> minuteCounts = new LinkedHashMap<>();
+        private LocalDateTime barStart;
+        private long minuteCount;
+
+        BarBuilder(int intervalMinutes) {
+            this.intervalMinutes = intervalMinutes;
+        }
+
+        void add(StockPrice minute) {
+            LocalDateTime start = barStartOf(minute.getCandleDateTime());
+            if (!start.equals(barStart)) {
+                finish();
+                barStart = start;
+            }
+            merger.add(minute);
+            minuteCounts.merge(minute.getCandleDateTime().toLocalDate(), 1L, Long::sum);
+            minuteCount++;
+        }
+
+        void finish() {
+            if (!merger.isEmpty()) {
+                bars.add(merger.build(barStart, PeriodType.MINUTE));
+            }
+        }
+
+        private LocalDateTime barStartOf(LocalDateTime candleDateTime) {
+            LocalDateTime sessionOpen = candleDateTime.toLocalDate().atTime(SESSION_OPEN);
+            long minutes = Duration.between(sessionOpen, candleDateTime).toMinutes();
+            return sessionOpen.plusMinutes(Math.floorDiv(minutes, intervalMinutes) * intervalMinutes);
+        }
+    }
+
+    private record DayKey(String stockCode, int intervalMinutes, LocalDate day) {
+    }
+
+    private record DayBars(long minuteCount, List<StockPrice> bars) {
+    }
+}
@@ -1,91 +1,723 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 
-@Component
-@RequiredArgsConstructor
+/**
+ * KIS API 호출 한도를 지키기 위한 토큰 버킷 (GCRA, 가상 스케줄링 방식).
+ *
+ * <p>다음 허가가 가능한 시각(TAT) 하나만 관리하므로 허가 하나를 내주는 일은 시각 비교와 갱신 한 번이다.
+ *
+ * <p>KIS 는 슬라이딩 윈도우로 한도를 검사하므로 버스트를 허용하지 않고 허가 간격을 균등하게 둔다.
+ * 초당/분당 한도를 각각 간격으로 환산하면 두 한도를 모두 지키는 간격은 둘 중 큰 값이다.
+ *
+ * <p>한도는 앱 키마다 적용되므로 {@link KisApiKeyPool} 이 키마다 하나씩 만든다.
+ *
+ * <p>{@link AdaptivePolicy} 를 주면 호출 결과에 따라 간격을 AIMD 로 조절한다. 생성자에 준 한도가 상한이고,
+ * 한도 초과/서버 오류 응답({@link #onBackoff()})이 오면 호출 속도를 곱셈으로 줄이고, 성공({@link #onSuccess()})
+ * 할 때마다 덧셈으로 올린다. 속도 조절은 드물게 일어나므로 동기화한다.
+ *
+ * <p>기다리는 호출이 없고 지금 허가할 수 있으면 락을 잡거나 객체를 만들지 않고 TAT 를 CAS 로 한 간격 미뤄 바로 허가한다.
+ * 공유 한도를 쓰면 임대 구간을 대기열 락으로 보호하므로 이 경로를 쓰지 않는다. 그 밖에는 우선순위별 대기열에 서고,
+ * 줄을 선 호출이 있는 동안에는 바로 허가하지 않으므로 나중에 온 호출이 앞질러 허가를 받지 못한다. 대기열의 허가는 미리
+ * 예약해 두지 않고 허가 시각이 될 때마다 대기열에서 다음 호출을 골라 준다. 고르는 방식은 스트라이드 스케줄링이라 모든 등급이 기다리고 있으면 {@link RequestPriority#getWeight()}
+ * 비율로 허가가 나가고, 높은 등급은 새로 줄을 서도 곧바로 차례가 온다. 그래도 허가 간격의
+ * {@value #STARVATION_LIMIT_PERMITS} 배가 지나도록 허가를 한 번도 받지 못한 등급이 있으면 그 등급에 먼저 허가한다.
+ * 허가 시각을 기다리는 것은 다음 차례인 호출 하나뿐이고, 나머지는 차례가 올 때까지 자기 조건 변수에서 잠들어 있다.
+ *
+ * <p>{@link PermitLeaser} 를 주면 여러 인스턴스가 한도를 나눠 쓴다. 허가를 하나씩 공유 저장소에 묻지 않고
+ * 허가 N 개 분량의 구간을 임대해 두고, 그 구간을 절반 넘게 쓰면 다음 구간을 별도 스레드에서 미리 임대한다. 허가를 내주는
+ * 경로는 저장소를 기다리지 않는다. 임대한 구간 밖에서는 허가하지 않으므로, 임대에 실패하면 이 인스턴스의 한도로 넘어가지
+ * 않고 간격을 늘려 가며 다시 임대할 때까지 기다린다. {@link #tryAcquire()} 는 임대를 시작하지 않고 임대해 둔 구간만 쓴다.
+ */
 @Slf4j
 public class RateLimitManager {
 
     // KIS API 제한: 초당 2회, 분당 20회
     private static final int MAX_REQUESTS_PER_SECOND = 2;
     private static final int MAX_REQUESTS_PER_MINUTE = 20;
-    private static final int SECOND_WINDOW = 1000;
-    private static final int MINUTE_WINDOW = 60000;
 
-    private final Queue<Long> requestTimes = new ConcurrentLinkedQueue<>();
-    private final Queue<Long> secondRequestTimes = new ConcurrentLinkedQueue<>();
-    private final AtomicLong lastRequestTime = new AtomicLong(0);
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    static final int STARVATION_LIMIT_PERMITS = 20;
+    private static final long MAX_LEASE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // 공유 저장소에 구간을 임대하는 스레드. 허가를 기다리는 스레드와 대기열 락을 잡지 않는다
+    private static final Executor LEASE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
 
-    public synchronized void waitForRateLimit() {
-        long currentTime = System.currentTimeMillis();
+    // 상한 속도에 해당하는 간격
+    private final long minIntervalNanos;
+    // 하한 속도에 해당하는 간격
+    private final long maxIntervalNanos;
+    private final AdaptivePolicy adaptivePolicy;
+    private final PermitLeaser permitLeaser;
+    private final int leasePermits;
 
-        // 1분 내 요청 정리
-        cleanupOldRequests(currentTime);
+    private volatile long intervalNanos;
+    private final AtomicLong theoreticalArrivalTime;
+    private final AtomicLong grantedCount = new AtomicLong();
+    private final AtomicLong waitedNanos = new AtomicLong();
+    private final AtomicLong backoffCount = new AtomicLong();
+    // 감속 전에 이미 예약된 호출의 실패로 거듭 감속하지 않도록, 이 시각까지는 속도를 바꾸지 않는다
+    private long holdUntilNanos;
 
-        // 분당 제한 체크
-        if (requestTimes.size() >= MAX_REQUESTS_PER_MINUTE) {
-            long oldestRequest = requestTimes.peek();
-            long waitTime = MINUTE_WINDOW - (currentTime - oldestRequest);
-            if (waitTime > 0) {
-                log.info("분당 제한 도달, {}ms 대기", waitTime);
+    // 지금 쓰는 임대 구간 [leaseStartNanos, leaseEndNanos) 과 미리 받아 둔 다음 구간. queueLock 으로 보호한다
+    private long leaseStartNanos;
+    private long leaseEndNanos;
+    private boolean nextLeaseReady;
+    private long nextLeaseStartNanos;
+    private long nextLeaseEndNanos;
+    private boolean leaseRenewing;
+    private int leaseFailures;
+    private final AtomicLong leaseCount = new AtomicLong();
+
+    // 우선순위 대기열. 대기열과 스트라이드 상태는 queueLock 으로 보호한다. TAT 는 락 없이 허가하는 호출과 CAS 로 다툰다
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Map<RequestPriority, ArrayDeque<Waiter>> queues = new EnumMap<>(RequestPriority.class);
+    private final double[] passes = new double[RequestPriority.values().length];
+    // 등급별로 마지막 허가를 받은 시각 (쉬다가 줄을 서면 그 시각)
+    private final long[] lastGrantNanos = new long[RequestPriority.values().length];
+    private double virtualTime;
+    // 비동기 호출이 다음 차례일 때 허가 시각에 대기열을 다시 보도록 걸어 둔 타이머가 있는지
+    private boolean wakeupScheduled;
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final Map<RequestPriority, PriorityStats> priorityStats = new EnumMap<>(RequestPriority.class);
+
+    public RateLimitManager() {
+        this(MAX_REQUESTS_PER_SECOND, MAX_REQUESTS_PER_MINUTE);
+    }
+
+    public RateLimitManager(int maxRequestsPerSecond, int maxRequestsPerMinute) {
+        this(maxRequestsPerSecond, maxRequestsPerMinute, null);
+    }
+
+    /**
+     * @param adaptivePolicy null 이면 주어진 한도로 고정
+     */
+    public RateLimitManager(int maxRequestsPerSecond, int maxRequestsPerMinute, AdaptivePolicy adaptivePolicy) {
+        this(maxRequestsPerSecond, maxRequestsPerMinute, adaptivePolicy, null, 1);
+    }
+
+    /**
+     * @param permitLeaser null 이면 이 인스턴스 안에서만 한도를 지킨다
+     * @param leasePermits 한 번에 임대할 허가 수
+     */
+    public RateLimitManager(int maxRequestsPerSecond, int maxRequestsPerMinute, AdaptivePolicy adaptivePolicy,
+                            PermitLeaser permitLeaser, int leasePermits) {
+        if (maxRequestsPerSecond <= 0 || maxRequestsPerMinute <= 0) {
+            throw new IllegalArgumentException("호출 한도는 0보다 커야 합니다");
+        }
+        if (leasePermits <= 0) {
+            throw new IllegalArgumentException("임대할 허가 수는 0보다 커야 합니다");
+        }
+        this.minIntervalNanos = Math.max(
+                TimeUnit.SECONDS.toNanos(1) / maxRequestsPerSecond,
+                TimeUnit.MINUTES.toNanos(1) / maxRequestsPerMinute);
+        this.maxIntervalNanos = adaptivePolicy != null
+                ? Math.max(minIntervalNanos, (long) (NANOS_PER_MINUTE / adaptivePolicy.minRequestsPerMinute()))
+                : minIntervalNanos;
+        this.adaptivePolicy = adaptivePolicy;
+        this.permitLeaser = permitLeaser;
+        this.leasePermits = leasePermits;
+        this.intervalNanos = minIntervalNanos;
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime() - intervalNanos);
+        this.holdUntilNanos = System.nanoTime();
+        this.leaseStartNanos = System.nanoTime();
+        this.leaseEndNanos = leaseStartNanos;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            priorityStats.put(priority, new PriorityStats());
+        }
+    }
+
+    /**
+     * 가장 높은 우선순위로 허가를 받을 때까지 대기한다.
+     */
+    public void waitForRateLimit() {
+        waitForRateLimit(RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * 허가를 받을 때까지 대기한다. 인터럽트가 와도 허가를 받을 때까지 기다린 뒤 인터럽트 상태를 복원한다.
+     */
+    public void waitForRateLimit(RequestPriority priority) {
+        if (tryAcquireUncontended(priority)) {
+            return;
+        }
+
+        Waiter waiter = new Waiter(priority, System.nanoTime(), queueLock.newCondition(), null);
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        boolean interrupted = false;
+
+        queueLock.lock();
+        try {
+            enqueue(waiter);
+            dispatch(granted);
+            while (!waiter.granted) {
                 try {
-                    Thread.sleep(waitTime);
+                    awaitTurn(waiter, Long.MAX_VALUE);
                 } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                    interrupted = true;
+                }
+                if (!waiter.granted) {
+                    dispatch(granted);
                 }
-                currentTime = System.currentTimeMillis();
-                cleanupOldRequests(currentTime);
             }
+        } finally {
+            queueLock.unlock();
+        }
+        complete(granted);
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 현재 스레드의 우선순위로 {@link #tryAcquire(RequestPriority)} 를 부른다.
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(RequestPriorityContext.current());
+    }
+
+    /**
+     * 지금 바로 이 호출의 차례이고 허가를 받을 수 있을 때만 허가한다. 기다리지 않는다.
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        if (tryAcquireUncontended(priority)) {
+            return true;
         }
 
-        // 초당 제한 체크
-        cleanupSecondRequests(currentTime);
-        if (secondRequestTimes.size() >= MAX_REQUESTS_PER_SECOND) {
-            long oldestSecondRequest = secondRequestTimes.peek();
-            long waitTime = SECOND_WINDOW - (currentTime - oldestSecondRequest);
-            if (waitTime > 0) {
-                log.debug("초당 제한 적용, {}ms 대기", waitTime);
+        Waiter waiter = new Waiter(priority, System.nanoTime(), null, null);
+
+        queueLock.lock();
+        try {
+            enqueue(waiter);
+            if (selectNext() == waiter && reserve(false)) {
+                grant(waiter, null);
+                return true;
+            }
+            // 대기열은 줄을 서기 전과 같으므로 다른 호출을 깨울 필요가 없다
+            remove(waiter);
+            return false;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * 현재 스레드의 우선순위로 {@link #tryAcquire(RequestPriority, long, TimeUnit)} 를 부른다.
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return tryAcquire(RequestPriorityContext.current(), timeout, unit);
+    }
+
+    /**
+     * 대기열에 서서 주어진 시간 안에 차례가 오면 허가를 받고, 오지 않으면 줄에서 빠진다.
+     */
+    public boolean tryAcquire(RequestPriority priority, long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAcquireUncontended(priority)) {
+            return true;
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Waiter waiter = new Waiter(priority, System.nanoTime(), queueLock.newCondition(), null);
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+
+        queueLock.lock();
+        try {
+            enqueue(waiter);
+            dispatch(granted);
+            while (!waiter.granted) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    cancel(waiter, granted);
+                    return false;
+                }
                 try {
-                    Thread.sleep(waitTime);
+                    awaitTurn(waiter, remaining);
                 } catch (InterruptedException e) {
+                    if (!waiter.granted) {
+                        cancel(waiter, granted);
+                        throw e;
+                    }
                     Thread.currentThread().interrupt();
                 }
-                currentTime = System.currentTimeMillis();
-                cleanupSecondRequests(currentTime);
+                if (!waiter.granted) {
+                    dispatch(granted);
+                }
+            }
+            return true;
+        } finally {
+            queueLock.unlock();
+            complete(granted);
+        }
+    }
+
+    /**
+     * 현재 스레드의 우선순위로 {@link #acquireAsync(RequestPriority)} 를 부른다.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        return acquireAsync(RequestPriorityContext.current());
+    }
+
+    /**
+     * 대기열에 서고 허가를 받으면 완료되는 future 를 반환한다. 호출 스레드는 대기하지 않는다.
+     */
+    public CompletableFuture<Void> acquireAsync(RequestPriority priority) {
+        if (tryAcquireUncontended(priority)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Waiter waiter = new Waiter(priority, System.nanoTime(), null, future);
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+
+        queueLock.lock();
+        try {
+            enqueue(waiter);
+            dispatch(granted);
+        } finally {
+            queueLock.unlock();
+        }
+        complete(granted);
+        return future;
+    }
+
+    /**
+     * 줄을 선 호출이 없고 지금 허가할 수 있으면 락 없이 허가한다. 대기열을 확인한 뒤 누가 줄을 서거나 허가를 받아 TAT 가
+     * 바뀌면 CAS 가 실패하므로, 그때는 대기열로 가서 순서를 따른다. 대기열 쪽도 TAT 를 CAS 로 바꾸므로 한 허가 시각에
+     * 두 호출이 허가를 받지 않는다.
+     */
+    private boolean tryAcquireUncontended(RequestPriority priority) {
+        if (permitLeaser != null || waiterCount.get() > 0) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long tat = theoreticalArrivalTime.get();
+        if (tat - now > 0 || !theoreticalArrivalTime.compareAndSet(tat, now + intervalNanos)) {
+            return false;
+        }
+        grantedCount.incrementAndGet();
+        recordGrant(priority, 0);
+        return true;
+    }
+
+    /**
+     * 허가를 받을 수 있는 동안 대기열에서 차례인 호출에 허가한다. 받을 수 없으면 다음 차례인 호출 하나만 깨워
+     * 허가 시각까지 기다리게 한다. queueLock 을 잡고 부른다.
+     *
+     * @param granted 허가를 받은 비동기 호출의 future. 락을 푼 뒤에 완료한다
+     */
+    private void dispatch(List<CompletableFuture<Void>> granted) {
+        while (true) {
+            Waiter next = selectNext();
+            if (next == null) {
+                return;
+            }
+            if (!reserve(true)) {
+                wakeAtNextPermit(next);
+                return;
+            }
+            grant(next, granted);
+        }
+    }
+
+    private void wakeAtNextPermit(Waiter next) {
+        if (next.turn != null) {
+            next.turn.signal();
+            return;
+        }
+        if (!wakeupScheduled) {
+            wakeupScheduled = true;
+            CompletableFuture.delayedExecutor(untilNextPermitNanos(), TimeUnit.NANOSECONDS).execute(this::onWakeup);
+        }
+    }
+
+    private void onWakeup() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        queueLock.lock();
+        try {
+            wakeupScheduled = false;
+            dispatch(granted);
+        } finally {
+            queueLock.unlock();
+        }
+        complete(granted);
+    }
+
+    /**
+     * 다음 차례면 허가 시각까지, 아니면 차례가 와서 깨울 때까지 기다린다. queueLock 을 잡고 부른다.
+     */
+    private void awaitTurn(Waiter waiter, long maxWaitNanos) throws InterruptedException {
+        if (selectNext() == waiter) {
+            // 허가 시각에 깨어나 그때 다시 고른다 (기아 방지 판단이 시간에 따라 바뀌므로)
+            waiter.turn.awaitNanos(Math.min(untilNextPermitNanos(), maxWaitNanos));
+        } else if (maxWaitNanos == Long.MAX_VALUE) {
+            waiter.turn.await();
+        } else {
+            waiter.turn.awaitNanos(maxWaitNanos);
+        }
+    }
+
+    /**
+     * 다음 허가까지 남은 시간. 임대할 구간을 기다리는 중이면 임대가 끝날 때 깨우므로 한 간격 뒤에 다시 본다.
+     * queueLock 을 잡고 부른다.
+     */
+    private long untilNextPermitNanos() {
+        long now = System.nanoTime();
+        long tat = theoreticalArrivalTime.get();
+        if (permitLeaser != null && !nextLeaseReady && (tat - now > 0 ? tat : now) - leaseEndNanos >= 0) {
+            return intervalNanos;
+        }
+        return Math.max(tat - now, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private void complete(List<CompletableFuture<Void>> granted) {
+        for (CompletableFuture<Void> future : granted) {
+            future.complete(null);
+        }
+    }
+
+    /**
+     * 지금 허가할 수 있으면 다음 허가 시각을 한 간격 미룬다. 공유 한도를 쓰면 임대한 구간 안에서만 허가한다.
+     * queueLock 을 잡고 부른다.
+     *
+     * @param mayLease 구간이 모자라거나 절반 넘게 쓰였을 때 다음 구간 임대를 시작할지
+     * @return 허가했으면 true
+     */
+    private boolean reserve(boolean mayLease) {
+        long now = System.nanoTime();
+        long interval = intervalNanos;
+        long tat = theoreticalArrivalTime.get();
+
+        if (permitLeaser != null) {
+            while ((tat - now > 0 ? tat : now) - leaseEndNanos >= 0) {
+                if (!nextLeaseReady) {
+                    if (mayLease) {
+                        leaseAsync();
+                    }
+                    return false;
+                }
+                // 다음 구간으로 넘어가고, 구간이 시작되기 전에는 허가하지 않는다
+                leaseStartNanos = nextLeaseStartNanos;
+                leaseEndNanos = nextLeaseEndNanos;
+                nextLeaseReady = false;
+                tat = leaseStartNanos - tat > 0 ? leaseStartNanos : tat;
+                theoreticalArrivalTime.set(tat);
+            }
+            if (mayLease && !nextLeaseReady
+                    && (tat - now > 0 ? tat : now) - (leaseStartNanos + (leaseEndNanos - leaseStartNanos) / 2) >= 0) {
+                leaseAsync();
+            }
+        }
+
+        // 대기열이 비어 있던 순간에 락 없이 허가한 호출이 먼저 TAT 를 바꿨으면 바뀐 시각으로 다시 본다
+        while (tat - now <= 0) {
+            if (theoreticalArrivalTime.compareAndSet(tat, now + interval)) {
+                grantedCount.incrementAndGet();
+                return true;
+            }
+            tat = theoreticalArrivalTime.get();
+        }
+        return false;
+    }
+
+    /**
+     * 다음 구간 임대를 별도 스레드에서 시작한다. 이미 임대 중이면 아무것도 하지 않고, 직전 임대가 실패했으면 실패할 때마다
+     * 두 배로 늘어나는 간격을 두고 시작한다. queueLock 을 잡고 부른다.
+     */
+    private void leaseAsync() {
+        if (leaseRenewing) {
+            return;
+        }
+        leaseRenewing = true;
+
+        long duration = intervalNanos * leasePermits;
+        Executor executor = LEASE_EXECUTOR;
+        if (leaseFailures > 0) {
+            long retryDelay = Math.min(intervalNanos << Math.min(leaseFailures - 1, 20), MAX_LEASE_RETRY_NANOS);
+            executor = CompletableFuture.delayedExecutor(retryDelay, TimeUnit.NANOSECONDS, LEASE_EXECUTOR);
+        }
+        executor.execute(() -> lease(duration));
+    }
+
+    /**
+     * 구간을 임대해 다음 구간으로 받아 두고, 구간을 기다리던 호출이 있으면 허가한다
+     */
+    private void lease(long duration) {
+        Long leaseStart = null;
+        try {
+            leaseStart = permitLeaser.lease(duration);
+        } catch (RuntimeException e) {
+            log.warn("호출 허가 구간 임대 실패, 임대할 때까지 허가하지 않음: {}", e.getMessage());
+        }
+
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        queueLock.lock();
+        try {
+            leaseRenewing = false;
+            if (leaseStart != null) {
+                nextLeaseStartNanos = leaseStart;
+                nextLeaseEndNanos = leaseStart + duration;
+                nextLeaseReady = true;
+                leaseFailures = 0;
+                leaseCount.incrementAndGet();
+            } else {
+                leaseFailures++;
+            }
+            // 실패했어도 기다리는 호출이 있으면 여기서 다시 임대를 시작한다
+            dispatch(granted);
+        } finally {
+            queueLock.unlock();
+        }
+        complete(granted);
+    }
+
+    private void enqueue(Waiter waiter) {
+        ArrayDeque<Waiter> queue = queues.get(waiter.priority);
+        if (queue.isEmpty()) {
+            // 쉬는 동안의 몫을 쌓아 두었다가 한꺼번에 쓰지 못하도록 현재 가상 시각부터 시작
+            int index = waiter.priority.ordinal();
+            passes[index] = Math.max(passes[index], virtualTime);
+            lastGrantNanos[index] = waiter.requestedAt;
+        }
+        queue.addLast(waiter);
+        waiterCount.incrementAndGet();
+    }
+
+    /**
+     * 허가를 받은 호출을 대기열에서 빼고 등급의 스트라이드를 한 칸 나아간다
+     */
+    private void grant(Waiter waiter, List<CompletableFuture<Void>> granted) {
+        remove(waiter);
+        waiter.granted = true;
+
+        int index = waiter.priority.ordinal();
+        long now = System.nanoTime();
+        virtualTime = passes[index];
+        passes[index] += 1.0 / waiter.priority.getWeight();
+        lastGrantNanos[index] = now;
+
+        long waited = now - waiter.requestedAt;
+        recordGrant(waiter.priority, waited);
+        if (waited > TimeUnit.MILLISECONDS.toNanos(1)) {
+            waitedNanos.addAndGet(waited);
+            log.debug("호출 한도 적용 ({}), {}ms 대기", waiter.priority, TimeUnit.NANOSECONDS.toMillis(waited));
+        }
+
+        if (waiter.turn != null) {
+            waiter.turn.signal();
+        } else if (waiter.future != null) {
+            granted.add(waiter.future);
+        }
+    }
+
+    /**
+     * 허가를 받지 못하고 줄에서 빠진다. 다음 차례였다면 그다음 호출을 깨운다
+     */
+    private void cancel(Waiter waiter, List<CompletableFuture<Void>> granted) {
+        remove(waiter);
+        dispatch(granted);
+    }
+
+    private void remove(Waiter waiter) {
+        queues.get(waiter.priority).remove(waiter);
+        waiterCount.decrementAndGet();
+    }
+
+    /**
+     * 다음 허가를 받을 호출. 너무 오래 허가를 받지 못한 등급이 있으면 그중 가장 오래된 등급, 없으면 스트라이드 값이
+     * 가장 작은 등급의 맨 앞 호출 (같으면 높은 등급).
+     */
+    private Waiter selectNext() {
+        long now = System.nanoTime();
+        long starvationNanos = intervalNanos * STARVATION_LIMIT_PERMITS;
+        Waiter selected = null;
+        Waiter starving = null;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            Waiter head = queues.get(priority).peekFirst();
+            if (head == null) {
+                continue;
+            }
+
+            int index = priority.ordinal();
+            if (now - lastGrantNanos[index] >= starvationNanos && (starving == null
+                    || lastGrantNanos[index] - lastGrantNanos[starving.priority.ordinal()] < 0)) {
+                starving = head;
+            }
+            if (selected == null || passes[index] < passes[selected.priority.ordinal()]) {
+                selected = head;
             }
         }
 
-        // 요청 시간 기록
-        requestTimes.offer(currentTime);
-        secondRequestTimes.offer(currentTime);
-        lastRequestTime.set(currentTime);
+        return starving != null ? starving : selected;
     }
 
-    private void cleanupOldRequests(long currentTime) {
-        while (!requestTimes.isEmpty() && currentTime - requestTimes.peek() > MINUTE_WINDOW) {
-            requestTimes.poll();
+    private void recordGrant(RequestPriority priority, long waited) {
+        PriorityStats stats = priorityStats.get(priority);
+        stats.grantedCount.incrementAndGet();
+        stats.waitedNanos.addAndGet(waited);
+        stats.maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    /**
+     * 호출이 성공했을 때. 상한에 닿을 때까지 호출 속도를 조금씩 올린다.
+     */
+    public synchronized void onSuccess() {
+        if (adaptivePolicy == null || intervalNanos == minIntervalNanos || System.nanoTime() - holdUntilNanos < 0) {
+            return;
         }
+
+        double requestsPerMinute = NANOS_PER_MINUTE / intervalNanos + adaptivePolicy.increasePerSuccess();
+        intervalNanos = Math.max(minIntervalNanos, (long) (NANOS_PER_MINUTE / requestsPerMinute));
     }
 
-    private void cleanupSecondRequests(long currentTime) {
-        while (!secondRequestTimes.isEmpty() && currentTime - secondRequestTimes.peek() > SECOND_WINDOW) {
-            secondRequestTimes.poll();
+    /**
+     * 호출 한도 초과나 서버 오류 응답을 받았을 때. 호출 속도를 곱셈으로 줄인다.
+     *
+     * @return 실제로 속도를 줄였으면 true. 직전 감속 이전에 예약된 호출의 실패이거나 이미 하한이면 false
+     */
+    public synchronized boolean onBackoff() {
+        long now = System.nanoTime();
+        if (adaptivePolicy == null || intervalNanos == maxIntervalNanos || now - holdUntilNanos < 0) {
+            return false;
         }
+
+        long decreased = (long) (intervalNanos / adaptivePolicy.decreaseFactor());
+        intervalNanos = Math.min(maxIntervalNanos, decreased);
+        backoffCount.incrementAndGet();
+
+        long tat = theoreticalArrivalTime.get();
+        holdUntilNanos = (tat - now > 0 ? tat : now) + intervalNanos;
+        return true;
+    }
+
+    /**
+     * 현재 적용 중인 분당 호출 수
+     */
+    public double getRequestsPerMinute() {
+        return NANOS_PER_MINUTE / intervalNanos;
+    }
+
+    /**
+     * 상한 분당 호출 수
+     */
+    public double getMaxRequestsPerMinute() {
+        return NANOS_PER_MINUTE / minIntervalNanos;
+    }
+
+    public long getBackoffCount() {
+        return backoffCount.get();
+    }
+
+    /**
+     * 지금 요청하면 기다려야 하는 시간 (ms). 대기열에 선 호출이 있으면 그만큼 더한 추정치다.
+     */
+    public long getNextPermitDelayMillis() {
+        long delay = Math.max(theoreticalArrivalTime.get() - System.nanoTime(), 0)
+                + waiterCount.get() * intervalNanos;
+        return TimeUnit.NANOSECONDS.toMillis(delay);
+    }
+
+    /**
+     * 공유 한도에서 허가 구간을 임대한 횟수
+     */
+    public long getLeaseCount() {
+        return leaseCount.get();
     }
 
-    public int getCurrentRequestCount() {
-        cleanupOldRequests(System.currentTimeMillis());
-        return requestTimes.size();
+    public long getPermitIntervalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(intervalNanos);
     }
 
-    public int getCurrentSecondRequestCount() {
-        cleanupSecondRequests(System.currentTimeMillis());
-        return secondRequestTimes.size();
+    public long getGrantedCount() {
+        return grantedCount.get();
+    }
+
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitedNanos.get());
+    }
+
+    public int getQueuedCount() {
+        return waiterCount.get();
+    }
+
+    public long getGrantedCount(RequestPriority priority) {
+        return priorityStats.get(priority).grantedCount.get();
+    }
+
+    public long getTotalWaitMillis(RequestPriority priority) {
+        return TimeUnit.NANOSECONDS.toMillis(priorityStats.get(priority).waitedNanos.get());
+    }
+
+    public long getMaxWaitMillis(RequestPriority priority) {
+        return TimeUnit.NANOSECONDS.toMillis(priorityStats.get(priority).maxWaitNanos.get());
+    }
+
+    private static final class Waiter {
+        private final RequestPriority priority;
+        private final long requestedAt;
+        // 기다리는 스레드를 깨울 조건 변수. 비동기 호출과 기다리지 않는 호출은 null
+        private final Condition turn;
+        // 비동기 호출이 허가를 받으면 완료할 future
+        private final CompletableFuture<Void> future;
+        private boolean granted;
+
+        private Waiter(RequestPriority priority, long requestedAt, Condition turn, CompletableFuture<Void> future) {
+            this.priority = priority;
+            this.requestedAt = requestedAt;
+            this.turn = turn;
+            this.future = future;
+        }
+    }
+
+    private static final class PriorityStats {
+        private final AtomicLong grantedCount = new AtomicLong();
+        private final AtomicLong waitedNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+
+    /**
+     * 여러 인스턴스가 나눠 쓰는 공유 한도에서 허가 구간을 임대한다.
+     */
+    @FunctionalInterface
+    public interface PermitLeaser {
+        /**
+         * @param durationNanos 임대할 구간 길이
+         * @return 이 인스턴스만 쓸 수 있는 구간의 시작 시각 ({@link System#nanoTime()} 기준)
+         */
+        long lease(long durationNanos);
+    }
+
+    /**
+     * @param minRequestsPerMinute 감속해도 내려가지 않는 분당 호출 수
+     * @param increasePerSuccess 성공 한 번마다 올리는 분당 호출 수
+     * @param decreaseFactor 감속할 때 호출 속도에 곱하는 값 (0 초과 1 미만)
+     */
+    public record AdaptivePolicy(double minRequestsPerMinute, double increasePerSuccess, double decreaseFactor) {
+
+        public AdaptivePolicy {
+            if (minRequestsPerMinute <= 0 || increasePerSuccess <= 0) {
+                throw new IllegalArgumentException("최소 호출 수와 증가량은 0보다 커야 합니다");
+            }
+            if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+                throw new IllegalArgumentException("감속 비율은 0과 1 사이여야 합니다");
+            }
+        }
     }
 }
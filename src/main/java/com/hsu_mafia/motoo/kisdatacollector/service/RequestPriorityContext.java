@@ -0,0 +1,34 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+
+/**
+ * 현재 스레드에서 나가는 KIS 호출의 우선순위. 배치 작업을 실행하는 동안 작업의 우선순위로 설정되고,
+ * 설정되지 않은 호출(토큰 발급, 단건 조회 등)은 가장 높은 우선순위로 본다.
+ */
+public final class RequestPriorityContext {
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    private RequestPriorityContext() {
+    }
+
+    public static RequestPriority current() {
+        RequestPriority priority = CURRENT.get();
+        return priority != null ? priority : RequestPriority.INTERACTIVE;
+    }
+
+    public static void runWith(RequestPriority priority, Runnable task) {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(priority);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
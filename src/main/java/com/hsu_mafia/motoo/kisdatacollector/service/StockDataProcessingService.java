@@ -3,10 +3,12 @@ package com.hsu_mafia.motoo.kisdatacollector.service;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
-import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,59 +21,81 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class StockDataProcessingService {
 
-    private final StockPriceRepository stockPriceRepository;
+    private final StockPriceBulkRepository stockPriceBulkRepository;
+    private final StockPricePartitionManager stockPricePartitionManager;
+    private final CandleRollupService candleRollupService;
 
-    public void processAndSaveStockData(List<StockDataResponse> dataList) {
-        int savedCount = 0;
-        int updatedCount = 0;
-        int skippedCount = 0;
+    /**
+     * 파싱된 캔들을 한 번의 JDBC 배치로 저장한다. 이미 저장된 캔들은 건너뛴다 (과거 데이터는 변경되지 않음).
+     * 새 일봉이 들어오면 그 일봉이 걸친 주봉/월봉을 같은 트랜잭션에서 다시 집계한다.
+     *
+     * @return 새로 저장된 캔들 수
+     */
+    public int processAndSaveStockData(List<StockDataResponse> dataList) {
+        List<StockPrice> stockPrices = new ArrayList<>(dataList.size());
+        int invalidCount = 0;
 
         for (StockDataResponse data : dataList) {
+            LocalDateTime candleDateTime = parseCandleDateTime(data.getCandleDateTime(), data.getPeriodType());
+            if (candleDateTime == null) {
+                invalidCount++;
+                continue;
+            }
+
             try {
-                LocalDateTime candleDateTime = parseCandleDateTime(data.getCandleDateTime(), data.getPeriodType());
-                if (candleDateTime == null) {
-                    skippedCount++;
-                    continue;
-                }
+                stockPrices.add(StockPrice.builder()
+                        .stockCode(data.getStockCode())
+                        .candleDateTime(candleDateTime)
+                        .periodType(data.getPeriodType())
+                        .openPrice(parseWholeNumber(data.getOpenPrice()))
+                        .highPrice(parseWholeNumber(data.getHighPrice()))
+                        .lowPrice(parseWholeNumber(data.getLowPrice()))
+                        .closePrice(parseWholeNumber(data.getClosePrice()))
+                        .volume(parseWholeNumber(data.getVolume()))
+                        .tradeAmount(parseAmount(data.getTradeAmount()))
+                        .build());
+            } catch (NumberFormatException | ArithmeticException e) {
+                log.error("시세 숫자 파싱 오류: {} {}", data.getStockCode(), data.getCandleDateTime(), e);
+                invalidCount++;
+            }
+        }
 
-                boolean exists = stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
-                        data.getStockCode(), candleDateTime, data.getPeriodType());
+        stockPricePartitionManager.ensurePartitions(stockPrices);
+        int savedCount = stockPriceBulkRepository.insertIgnoringConflicts(stockPrices);
+        int duplicateCount = stockPrices.size() - savedCount;
+        if (savedCount > 0) {
+            candleRollupService.rollup(stockPrices);
+        }
 
-                if (exists) {
-                    // 기존 데이터 업데이트는 생략 (과거 데이터는 변경되지 않음)
-                    skippedCount++;
-                } else {
-                    StockPrice stockPrice = StockPrice.builder()
-                            .stockCode(data.getStockCode())
-                            .candleDateTime(candleDateTime)
-                            .periodType(data.getPeriodType())
-                            .openPrice(data.getOpenPrice())
-                            .highPrice(data.getHighPrice())
-                            .lowPrice(data.getLowPrice())
-                            .closePrice(data.getClosePrice())
-                            .volume(data.getVolume())
-                            .tradeAmount(data.getTradeAmount())
-                            .build();
+        log.info("주식 데이터 처리 완료 - 신규: {}, 중복: {}, 잘못된 데이터: {}",
+                savedCount, duplicateCount, invalidCount);
+        return savedCount;
+    }
 
-                    stockPriceRepository.save(stockPrice);
-                    savedCount++;
-                }
+    /**
+     * KIS 시세 문자열을 원 단위 정수로 바꾼다. 빈 값은 null, 정수가 아니면 예외.
+     * 기존 문자열 행을 옮기는 {@link StockPriceNumericMigrator} 도 같은 규칙을 쓴다.
+     */
+    static Long parseWholeNumber(String value) {
+        BigDecimal amount = parseAmount(value);
+        return amount != null ? amount.longValueExact() : null;
+    }
 
-            } catch (Exception e) {
-                log.error("주식 데이터 처리 중 오류 발생: {} {}",
-                        data.getStockCode(), data.getCandleDateTime(), e);
-                skippedCount++;
-            }
+    static BigDecimal parseAmount(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
         }
-
-        log.info("주식 데이터 처리 완료 - 신규: {}, 업데이트: {}, 건너뜀: {}",
-                savedCount, updatedCount, skippedCount);
+        BigDecimal amount = new BigDecimal(value.trim());
+        if (amount.stripTrailingZeros().scale() > 0) {
+            throw new NumberFormatException("정수가 아닌 값: " + value);
+        }
+        return amount.setScale(0);
     }
 
     private LocalDateTime parseCandleDateTime(String candleDateTime, PeriodType periodType) {
         try {
-            if (periodType == PeriodType.MINUTE && candleDateTime.length() == 12) {
-                // 분봉: YYYYMMDDHHMM
+            if (periodType == PeriodType.MINUTE && candleDateTime.length() >= 12) {
+                // 분봉: YYYYMMDDHHMM (KIS 응답은 초까지 붙은 YYYYMMDDHHMMSS)
                 return LocalDateTime.of(
                         Integer.parseInt(candleDateTime.substring(0, 4)),
                         Integer.parseInt(candleDateTime.substring(4, 6)),
@@ -0,0 +1,34 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceMigrationRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPricePartitionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * stock_prices 의 id 를 IDENTITY 에서 시퀀스로 바꾸면서, 기동 중 캔들을 적재하기 전에 시퀀스를 기존 id 뒤로 옮긴다.
+ * 한 번 옮긴 뒤에는 시퀀스가 항상 앞서 있으므로 아무것도 하지 않는다.
+ * 파티션 테이블로 바꾼 뒤에는 id 인덱스가 없어 MAX(id) 가 모든 파티션을 읽으므로 확인하지 않는다 (바꾸기 전에 이미 맞춰 둠).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockPriceIdSequenceAligner {
+
+    private final StockPriceMigrationRepository stockPriceMigrationRepository;
+    private final StockPricePartitionRepository stockPricePartitionRepository;
+
+    @PostConstruct
+    public void alignIdSequence() {
+        try {
+            if (!stockPricePartitionRepository.isStockPricesPartitioned()
+                    && stockPriceMigrationRepository.alignIdSequence()) {
+                log.info("stock_prices id 시퀀스를 기존 id 뒤로 옮김");
+            }
+        } catch (Exception e) {
+            log.warn("stock_prices id 시퀀스 정렬 실패", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceMigrationRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceMigrationRepository.LegacyPriceRow;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceMigrationRepository.NumericPriceRow;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 문자열로 저장된 기존 시세를 서비스를 멈추지 않고 숫자 컬럼으로 옮긴다.
+ *
+ * <ol>
+ *   <li>기동 중, 캔들을 적재하기 전에 문자열 컬럼을 *_legacy 로 바꾸고 숫자 컬럼을 만든다 (카탈로그 변경만 하므로 바로 끝남)</li>
+ *   <li>기동 뒤 별도 스레드에서 기존 행을 id 순으로 {@code batch.price-migration-batch-size} 개씩 변환한다.
+ *       변환 규칙은 적재 때와 같다 ({@link StockDataProcessingService#parseWholeNumber})</li>
+ *   <li>모두 옮기면 문자열 컬럼을 지운다</li>
+ * </ol>
+ *
+ * <p>옮기는 동안 아직 변환하지 않은 행의 시세는 null 로 보인다. 중간에 멈추면 다음 기동 때 처음부터 다시 훑지만,
+ * 이미 옮긴 행은 문자열 값이 비어 있어 건너뛴다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockPriceNumericMigrator {
+
+    private final StockPriceMigrationRepository stockPriceMigrationRepository;
+    private final BatchConfig batchConfig;
+
+    @PostConstruct
+    public void switchColumns() {
+        try {
+            if (stockPriceMigrationRepository.hasTextPriceColumns()) {
+                stockPriceMigrationRepository.switchToNumericColumns();
+                log.info("시세 컬럼을 숫자 타입으로 전환, 기존 행은 기동 후 옮깁니다");
+            }
+        } catch (Exception e) {
+            // 다른 노드가 먼저 전환했을 수 있다
+            log.warn("시세 컬럼 전환 실패", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        try {
+            if (stockPriceMigrationRepository.hasLegacyColumns()) {
+                Thread.ofVirtual().name("stock-price-migration").start(this::migrateLegacyRows);
+            }
+        } catch (Exception e) {
+            log.warn("시세 컬럼 이전 상태 확인 실패", e);
+        }
+    }
+
+    /**
+     * @return 숫자 컬럼으로 옮긴 행 수
+     */
+    public long migrateLegacyRows() {
+        long migrated = 0;
+        long invalid = 0;
+        long lastId = 0;
+
+        try {
+            List<LegacyPriceRow> rows;
+            while (!(rows = stockPriceMigrationRepository.findLegacyRows(lastId, batchConfig.getPriceMigrationBatchSize()))
+                    .isEmpty()) {
+                List<NumericPriceRow> converted = new ArrayList<>(rows.size());
+                for (LegacyPriceRow row : rows) {
+                    if (row.isEmpty()) {
+                        continue;
+                    }
+                    NumericPriceRow numericRow = convert(row);
+                    if (numericRow == null) {
+                        invalid++;
+                        numericRow = new NumericPriceRow(row.id(), null, null, null, null, null, null);
+                    }
+                    converted.add(numericRow);
+                }
+
+                stockPriceMigrationRepository.updateNumericValues(converted);
+                migrated += converted.size();
+                lastId = rows.get(rows.size() - 1).id();
+                log.debug("시세 컬럼 이전 진행: {}행 (마지막 id {})", migrated, lastId);
+            }
+
+            stockPriceMigrationRepository.dropLegacyColumns();
+            log.info("시세 컬럼 이전 완료: {}행 (숫자가 아닌 값 {}행은 비움)", migrated, invalid);
+        } catch (Exception e) {
+            log.error("시세 컬럼 이전 중단 (마지막 id {}), 다음 기동 때 이어서 옮깁니다", lastId, e);
+        }
+        return migrated;
+    }
+
+    private NumericPriceRow convert(LegacyPriceRow row) {
+        try {
+            return new NumericPriceRow(row.id(),
+                    StockDataProcessingService.parseWholeNumber(row.openPrice()),
+                    StockDataProcessingService.parseWholeNumber(row.highPrice()),
+                    StockDataProcessingService.parseWholeNumber(row.lowPrice()),
+                    StockDataProcessingService.parseWholeNumber(row.closePrice()),
+                    StockDataProcessingService.parseWholeNumber(row.volume()),
+                    StockDataProcessingService.parseAmount(row.tradeAmount()));
+        } catch (NumberFormatException | ArithmeticException e) {
+            log.warn("숫자로 바꿀 수 없는 시세: id {} ({})", row.id(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPricePartitionRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 분봉 월별 파티션이 적재 전에 있도록 관리한다.
+ *
+ * <p>이번 달부터 {@code batch.partition-months-ahead} 달 뒤까지는 기동 때와 매일 미리 만들어 두고,
+ * 과거 분봉 백필처럼 파티션이 없는 달의 캔들이 들어오면 적재 직전에 만든다.
+ * 만든 달은 기억해 두므로 적재 때마다 DB 를 확인하지 않는다. 파티션이 없는 DB(H2 등)에서는 아무것도 하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockPricePartitionManager {
+
+    private final StockPricePartitionRepository stockPricePartitionRepository;
+    private final BatchConfig batchConfig;
+
+    private final Set<YearMonth> minutePartitions = ConcurrentHashMap.newKeySet();
+    private volatile boolean partitioned;
+
+    @PostConstruct
+    public void initialize() {
+        try {
+            partitioned = stockPricePartitionRepository.isMinutePartitioned();
+            if (partitioned) {
+                minutePartitions.addAll(stockPricePartitionRepository.findMinutePartitionMonths());
+                createUpcomingPartitions();
+            }
+        } catch (Exception e) {
+            log.warn("분봉 파티션 확인 실패", e);
+        }
+    }
+
+    @Scheduled(cron = "0 0 3 * * *")
+    public void createUpcomingPartitions() {
+        if (!partitioned) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= batchConfig.getPartitionMonthsAhead(); i++) {
+            ensureMinutePartition(current.plusMonths(i));
+        }
+    }
+
+    /**
+     * 분봉 캔들이 들어갈 달의 파티션이 없으면 만든다
+     */
+    public void ensurePartitions(List<StockPrice> stockPrices) {
+        if (!partitioned) {
+            return;
+        }
+        for (StockPrice stockPrice : stockPrices) {
+            if (stockPrice.getPeriodType() == PeriodType.MINUTE) {
+                ensureMinutePartition(YearMonth.from(stockPrice.getCandleDateTime()));
+            }
+        }
+    }
+
+    /**
+     * 해당 달의 분봉 파티션이 없으면 만든다. 기존 분봉을 파티션 테이블로 옮길 때도 쓴다
+     */
+    public void ensureMinutePartition(YearMonth month) {
+        if (!partitioned || minutePartitions.contains(month)) {
+            return;
+        }
+        synchronized (this) {
+            if (minutePartitions.contains(month)) {
+                return;
+            }
+            try {
+                stockPricePartitionRepository.createMinutePartition(month);
+            } catch (DataAccessException e) {
+                // 다른 노드가 같은 파티션을 동시에 만들었을 수 있다
+                if (!stockPricePartitionRepository.findMinutePartitionMonths().contains(month)) {
+                    throw e;
+                }
+            }
+            minutePartitions.add(month);
+            log.info("분봉 파티션 생성: {}", month);
+        }
+    }
+}
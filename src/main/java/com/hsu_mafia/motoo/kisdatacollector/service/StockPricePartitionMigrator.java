@@ -0,0 +1,83 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceMigrationRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 기존 stock_prices 행을 서비스를 멈추지 않고 파티션 테이블로 옮긴다 (V2__partition_stock_prices.sql 의 나머지 단계).
+ *
+ * <ol>
+ *   <li>문자열 시세가 남아 있으면 {@link StockPriceNumericMigrator} 가 숫자 컬럼으로 다 옮길 때까지 기다린다</li>
+ *   <li>기존 행을 id 순으로 {@code batch.price-migration-batch-size} 개씩 복사한다. 분봉이 들어갈 달의 파티션은
+ *       복사 전에 만든다. 복사하는 동안 들어온 쓰기는 마이그레이션이 만든 트리거가 따라 쓴다</li>
+ *   <li>기존 테이블을 잠깐 잠그고 남은 행을 옮긴 뒤 테이블 이름을 바꾼다</li>
+ * </ol>
+ *
+ * <p>중간에 멈추면 다음 기동 때 처음부터 다시 훑지만, 이미 복사한 행은 건너뛴다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockPricePartitionMigrator {
+
+    private static final Duration NUMERIC_MIGRATION_POLL_INTERVAL = Duration.ofSeconds(30);
+
+    private final StockPriceMigrationRepository stockPriceMigrationRepository;
+    private final StockPricePartitionManager stockPricePartitionManager;
+    private final BatchConfig batchConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        try {
+            if (stockPriceMigrationRepository.hasPartitionedTable()) {
+                Thread.ofVirtual().name("stock-price-partitioning").start(this::migrateToPartitionedTable);
+            }
+        } catch (Exception e) {
+            log.warn("파티션 테이블 이전 상태 확인 실패", e);
+        }
+    }
+
+    /**
+     * @return 파티션 테이블로 복사한 행 수
+     */
+    public long migrateToPartitionedTable() {
+        long copied = 0;
+        long lastId = 0;
+
+        try {
+            // 숫자로 옮기는 UPDATE 도 트리거가 따라 쓰지만, 다 옮긴 뒤에 복사해야 같은 행을 두 번 쓰지 않는다
+            while (stockPriceMigrationRepository.hasTextPriceColumns() || stockPriceMigrationRepository.hasLegacyColumns()) {
+                log.info("시세 컬럼 이전이 끝나면 파티션 테이블로 옮깁니다");
+                Thread.sleep(NUMERIC_MIGRATION_POLL_INTERVAL);
+            }
+
+            Long endId;
+            while ((endId = stockPriceMigrationRepository.findBatchEndId(lastId, batchConfig.getPriceMigrationBatchSize()))
+                    != null) {
+                for (LocalDate month : stockPriceMigrationRepository.findMinuteMonths(lastId, endId)) {
+                    stockPricePartitionManager.ensureMinutePartition(YearMonth.from(month));
+                }
+                copied += stockPriceMigrationRepository.copyToPartitionedTable(lastId, endId);
+                lastId = endId;
+                log.debug("파티션 테이블 이전 진행: {}행 (마지막 id {})", copied, lastId);
+            }
+
+            if (stockPriceMigrationRepository.swapPartitionedTable(lastId)) {
+                log.info("파티션 테이블 이전 완료: {}행", copied);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("파티션 테이블 이전 중단 (마지막 id {}), 다음 기동 때 이어서 옮깁니다", lastId, e);
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,118 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * stock_prices 에 이미 있는 캔들을 기준으로 구간 안에서 비어 있는 부분만 찾는다.
+ *
+ * <p>구간의 거래일을 봉 단위(일봉·분봉은 하루, 주봉은 주, 월봉은 달)로 묶고, 캔들이 하나도 없는 묶음을
+ * 이어 붙여 누락 구간으로 돌려준다. 저장된 캔들의 처음/마지막 시각이 구간과 겹치지 않으면 날짜 목록을
+ * 조회하지 않고 구간 전체를 누락으로 본다. 분봉은 하루에 캔들이 하나라도 있으면 그날은 채워진 것으로 본다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncGapPlanner {
+
+    private final StockPriceRepository stockPriceRepository;
+    private final TradingCalendar tradingCalendar;
+
+    /**
+     * @return 오름차순으로 정렬된 누락 구간. 각 구간의 시작/끝은 거래일이다.
+     */
+    public List<SyncGap> findGaps(String stockCode, PeriodType periodType, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, List<LocalDate>> tradingDaysByBucket = new LinkedHashMap<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (tradingCalendar.isTradingDay(date)) {
+                tradingDaysByBucket.computeIfAbsent(bucketOf(date, periodType), b -> new ArrayList<>()).add(date);
+            }
+        }
+
+        if (tradingDaysByBucket.isEmpty()) {
+            return List.of();
+        }
+
+        List<LocalDate> buckets = new ArrayList<>(tradingDaysByBucket.keySet());
+        LocalDateTime queryStart = buckets.get(0).atStartOfDay();
+        LocalDateTime queryEnd = nextBucket(buckets.get(buckets.size() - 1), periodType).atStartOfDay();
+
+        Set<LocalDate> coveredBuckets = Set.of();
+        if (overlapsStoredRange(stockCode, periodType, queryStart, queryEnd)) {
+            coveredBuckets = stockPriceRepository.findCandleDates(stockCode, periodType, queryStart, queryEnd).stream()
+                    .map(date -> bucketOf(date, periodType))
+                    .collect(Collectors.toSet());
+        }
+
+        List<SyncGap> gaps = new ArrayList<>();
+        LocalDate gapStart = null;
+        LocalDate gapEnd = null;
+
+        for (Map.Entry<LocalDate, List<LocalDate>> entry : tradingDaysByBucket.entrySet()) {
+            List<LocalDate> tradingDays = entry.getValue();
+            if (coveredBuckets.contains(entry.getKey())) {
+                if (gapStart != null) {
+                    gaps.add(new SyncGap(gapStart, gapEnd));
+                    gapStart = null;
+                }
+                continue;
+            }
+
+            if (gapStart == null) {
+                gapStart = tradingDays.get(0);
+            }
+            gapEnd = tradingDays.get(tradingDays.size() - 1);
+        }
+
+        if (gapStart != null) {
+            gaps.add(new SyncGap(gapStart, gapEnd));
+        }
+
+        log.debug("누락 구간 계산: {} {} {}~{} -> {}건", stockCode, periodType, startDate, endDate, gaps.size());
+        return gaps;
+    }
+
+    private boolean overlapsStoredRange(String stockCode, PeriodType periodType,
+                                        LocalDateTime queryStart, LocalDateTime queryEnd) {
+        Optional<LocalDateTime> latest = stockPriceRepository.findLatestCandleDateTime(stockCode, periodType);
+        if (latest.isEmpty() || latest.get().isBefore(queryStart)) {
+            return false;
+        }
+
+        Optional<LocalDateTime> earliest = stockPriceRepository.findEarliestCandleDateTime(stockCode, periodType);
+        return earliest.isPresent() && earliest.get().isBefore(queryEnd);
+    }
+
+    private LocalDate bucketOf(LocalDate date, PeriodType periodType) {
+        return switch (periodType) {
+            case MINUTE, DAILY -> date;
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+
+    private LocalDate nextBucket(LocalDate bucket, PeriodType periodType) {
+        return switch (periodType) {
+            case MINUTE, DAILY -> bucket.plusDays(1);
+            case WEEKLY -> bucket.plusWeeks(1);
+            case MONTHLY -> bucket.plusMonths(1);
+        };
+    }
+
+    public record SyncGap(LocalDate startDate, LocalDate endDate) {
+    }
+}
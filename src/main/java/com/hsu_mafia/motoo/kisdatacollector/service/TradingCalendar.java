@@ -0,0 +1,139 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * KRX 거래일 달력.
+ *
+ * <p>번들된 휴장일 표(krx-holidays.csv)로 시작하고, 표에 없는 휴장일은 수집 결과에서 학습한다.
+ * 일봉 응답이 정상적으로 왔는데 특정 평일의 캔들만 빠져 있으면 휴장 의심일로 기록하고,
+ * 서로 다른 종목에서 {@code batch.holiday-learning-threshold} 번 이상 빠지면 휴장일로 본다
+ * (한 종목만 빠진 경우는 거래정지일 수 있으므로). 반대로 캔들이 한 번이라도 오면 거래일로 확정한다.
+ */
+@Component
+@Slf4j
+public class TradingCalendar {
+
+    private static final String HOLIDAY_RESOURCE = "krx-holidays.csv";
+
+    private final BatchConfig batchConfig;
+
+    private final Set<LocalDate> seededHolidays;
+    private final Set<LocalDate> learnedHolidays = ConcurrentHashMap.newKeySet();
+    private final Set<LocalDate> confirmedTradingDays = ConcurrentHashMap.newKeySet();
+    private final Map<LocalDate, Set<String>> missingReports = new ConcurrentHashMap<>();
+
+    private final AtomicLong skippedHolidayCount = new AtomicLong();
+    private final AtomicLong avoidedCallCount = new AtomicLong();
+
+    public TradingCalendar(BatchConfig batchConfig) {
+        this.batchConfig = batchConfig;
+        this.seededHolidays = loadSeededHolidays();
+        log.info("KRX 휴장일 표 로드 완료: {}일", seededHolidays.size());
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        return !isHoliday(date);
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return seededHolidays.contains(date) || learnedHolidays.contains(date);
+    }
+
+    /**
+     * 캔들이 존재한 날짜. 거래일로 확정하고 잘못 학습된 휴장일이면 되돌린다.
+     */
+    public void recordTradingDay(LocalDate date) {
+        if (confirmedTradingDays.add(date)) {
+            missingReports.remove(date);
+            if (learnedHolidays.remove(date)) {
+                log.warn("휴장일로 학습한 날짜에 캔들이 있어 거래일로 되돌림: {}", date);
+            }
+        }
+    }
+
+    /**
+     * 응답은 정상이었지만 캔들이 없던 평일.
+     */
+    public void recordMissingDay(LocalDate date, String stockCode) {
+        if (!date.isBefore(LocalDate.now()) || confirmedTradingDays.contains(date) || isHoliday(date)) {
+            return;
+        }
+
+        Set<String> reporters = missingReports.computeIfAbsent(date, d -> ConcurrentHashMap.newKeySet());
+        reporters.add(stockCode);
+
+        if (reporters.size() >= batchConfig.getHolidayLearningThreshold() && learnedHolidays.add(date)) {
+            missingReports.remove(date);
+            log.info("휴장일 학습: {} (캔들 누락 종목 {}개)", date, reporters.size());
+        }
+    }
+
+    /**
+     * 수집 계획에서 휴장일 때문에 빠진 날짜 수와 줄어든 API 호출 수를 기록한다.
+     */
+    public void recordSkipped(int holidays, int avoidedCalls) {
+        skippedHolidayCount.addAndGet(holidays);
+        avoidedCallCount.addAndGet(avoidedCalls);
+    }
+
+    public int getSeededHolidayCount() {
+        return seededHolidays.size();
+    }
+
+    public int getLearnedHolidayCount() {
+        return learnedHolidays.size();
+    }
+
+    public Set<LocalDate> getLearnedHolidays() {
+        return Set.copyOf(learnedHolidays);
+    }
+
+    public long getSkippedHolidayCount() {
+        return skippedHolidayCount.get();
+    }
+
+    public long getAvoidedCallCount() {
+        return avoidedCallCount.get();
+    }
+
+    private Set<LocalDate> loadSeededHolidays() {
+        Set<LocalDate> holidays = ConcurrentHashMap.newKeySet();
+
+        try (InputStream inputStream = new ClassPathResource(HOLIDAY_RESOURCE).getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                holidays.add(LocalDate.parse(line.split(",")[0].trim()));
+            }
+
+        } catch (IOException e) {
+            log.error("KRX 휴장일 표를 읽을 수 없습니다. 주말만 제외합니다.", e);
+        }
+
+        return holidays;
+    }
+}
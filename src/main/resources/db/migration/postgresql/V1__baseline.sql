@@ -0,0 +1,97 @@
+-- ddl-auto: update 로 관리하던 스키마를 버전 마이그레이션으로 옮긴다.
+-- 빈 DB 에는 테이블을 새로 만들고, 기존 DB(baseline-version 0 으로 등록됨)에는 빠진 컬럼만 더해
+-- 어느 쪽이든 같은 스키마가 되도록 모든 문장을 다시 실행해도 되는 형태로 쓴다.
+-- stock_prices 의 시세 컬럼 형식과 파티션은 V2 에서 맞춘다.
+
+CREATE SEQUENCE IF NOT EXISTS stock_prices_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS stocks (
+    stock_code varchar(255) NOT NULL,
+    stock_name varchar(255),
+    market_type varchar(255),
+    sector varchar(255),
+    is_active boolean,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (stock_code)
+);
+
+CREATE TABLE IF NOT EXISTS stock_prices (
+    id bigint NOT NULL,
+    stock_code varchar(255) NOT NULL,
+    candle_date_time timestamp(6) NOT NULL,
+    period_type varchar(255) NOT NULL,
+    open_price bigint,
+    high_price bigint,
+    low_price bigint,
+    close_price bigint,
+    volume bigint,
+    trade_amount numeric(20, 0),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id),
+    UNIQUE (stock_code, candle_date_time, period_type)
+);
+
+CREATE TABLE IF NOT EXISTS batch_jobs (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    PRIMARY KEY (id)
+);
+ALTER TABLE batch_jobs
+    ADD COLUMN IF NOT EXISTS job_name varchar(255),
+    ADD COLUMN IF NOT EXISTS stock_code varchar(255),
+    ADD COLUMN IF NOT EXISTS start_date varchar(255),
+    ADD COLUMN IF NOT EXISTS end_date varchar(255),
+    ADD COLUMN IF NOT EXISTS period_type varchar(255),
+    ADD COLUMN IF NOT EXISTS status varchar(255),
+    ADD COLUMN IF NOT EXISTS priority varchar(255),
+    ADD COLUMN IF NOT EXISTS total_count integer,
+    ADD COLUMN IF NOT EXISTS processed_count integer,
+    ADD COLUMN IF NOT EXISTS success_count integer,
+    ADD COLUMN IF NOT EXISTS failed_count integer,
+    ADD COLUMN IF NOT EXISTS error_message varchar(1000),
+    ADD COLUMN IF NOT EXISTS checkpoint_date varchar(255),
+    ADD COLUMN IF NOT EXISTS parent_job_id bigint,
+    ADD COLUMN IF NOT EXISTS merged_into_job_id bigint,
+    ADD COLUMN IF NOT EXISTS lease_owner varchar(255),
+    ADD COLUMN IF NOT EXISTS lease_expires_at timestamp(6),
+    ADD COLUMN IF NOT EXISTS heartbeat_at timestamp(6),
+    ADD COLUMN IF NOT EXISTS stop_request varchar(255),
+    ADD COLUMN IF NOT EXISTS preempted_by_job_id bigint,
+    ADD COLUMN IF NOT EXISTS start_time timestamp(6),
+    ADD COLUMN IF NOT EXISTS end_time timestamp(6),
+    ADD COLUMN IF NOT EXISTS created_at timestamp(6),
+    ADD COLUMN IF NOT EXISTS updated_at timestamp(6);
+
+-- ddl-auto 는 enum 에 값이 늘어도 처음 만든 CHECK 제약을 고치지 않으므로 현재 값으로 다시 만든다
+ALTER TABLE batch_jobs
+    DROP CONSTRAINT IF EXISTS batch_jobs_period_type_check,
+    DROP CONSTRAINT IF EXISTS batch_jobs_status_check,
+    DROP CONSTRAINT IF EXISTS batch_jobs_priority_check,
+    DROP CONSTRAINT IF EXISTS batch_jobs_stop_request_check;
+ALTER TABLE batch_jobs
+    ADD CONSTRAINT batch_jobs_period_type_check
+        CHECK (period_type IN ('MINUTE', 'DAILY', 'WEEKLY', 'MONTHLY')),
+    ADD CONSTRAINT batch_jobs_status_check
+        CHECK (status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED', 'SPLIT', 'PAUSED', 'CANCELLED')),
+    ADD CONSTRAINT batch_jobs_priority_check
+        CHECK (priority IN ('INTERACTIVE', 'INCREMENTAL', 'BACKFILL')),
+    ADD CONSTRAINT batch_jobs_stop_request_check
+        CHECK (stop_request IN ('CANCEL', 'PREEMPT'));
+
+CREATE TABLE IF NOT EXISTS kis_access_tokens (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    app_key_hash varchar(64) NOT NULL UNIQUE,
+    encrypted_token varchar(2048) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS kis_rate_limit_buckets (
+    app_key_hash varchar(64) NOT NULL,
+    next_permit_at bigint NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (app_key_hash)
+);
@@ -0,0 +1,107 @@
+-- stock_prices 를 period_type 별 LIST 파티션으로 나누고, 분봉은 다시 캔들 시각 기준 월별 RANGE 파티션으로 나눈다.
+-- 종목/주기/시각 조건이 있는 조회는 해당 주기와 달의 파티션만 읽고, 인덱스와 vacuum 도 파티션 단위로 작아진다.
+--
+-- 파티션 테이블의 기본 키에는 파티션 키가 들어가야 하므로 (종목, 주기, 캔들 시각) 을 기본 키로 쓴다.
+-- id 는 계속 stock_prices_seq 로 채번하지만 키로 쓰지 않는다.
+--
+-- 서비스를 멈추지 않고 옮기기 위해 이 마이그레이션은 행을 복사하지 않는다.
+--   1. 빈 파티션 테이블(stock_prices_partitioned)을 만들고, 기존 테이블의 쓰기를 트리거로 그대로 따라 쓴다.
+--   2. 기동 뒤 StockPricePartitionMigrator 가 기존 행을 id 순으로 조금씩 복사한다
+--      (문자열 시세가 남은 DB 는 StockPriceNumericMigrator 가 숫자 컬럼으로 옮긴 뒤에).
+--   3. 다 복사하면 잠깐 잠그고 남은 행을 옮긴 뒤 테이블 이름을 바꾼다.
+-- 기존 테이블이 비어 있으면(새 DB) 바로 이름을 바꾼다.
+-- 이후 달의 분봉 파티션은 StockPricePartitionManager 가 미리 만든다.
+
+CREATE TABLE stock_prices_partitioned (
+    id bigint NOT NULL,
+    stock_code varchar(255) NOT NULL,
+    candle_date_time timestamp(6) NOT NULL,
+    period_type varchar(255) NOT NULL,
+    open_price bigint,
+    high_price bigint,
+    low_price bigint,
+    close_price bigint,
+    volume bigint,
+    trade_amount numeric(20, 0),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    CONSTRAINT stock_prices_partitioned_pkey PRIMARY KEY (stock_code, period_type, candle_date_time)
+) PARTITION BY LIST (period_type);
+
+CREATE TABLE stock_prices_minute PARTITION OF stock_prices_partitioned
+    FOR VALUES IN ('MINUTE') PARTITION BY RANGE (candle_date_time);
+CREATE TABLE stock_prices_daily PARTITION OF stock_prices_partitioned FOR VALUES IN ('DAILY');
+CREATE TABLE stock_prices_weekly PARTITION OF stock_prices_partitioned FOR VALUES IN ('WEEKLY');
+CREATE TABLE stock_prices_monthly PARTITION OF stock_prices_partitioned FOR VALUES IN ('MONTHLY');
+
+-- 이번 달부터 석 달 뒤까지. 기존 분봉이 있는 달은 복사할 때 만든다
+DO $$
+DECLARE
+    partition_month date;
+BEGIN
+    FOR partition_month IN
+        SELECT (date_trunc('month', localtimestamp) + make_interval(months => n))::date
+        FROM generate_series(0, 3) AS n
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF stock_prices_minute FOR VALUES FROM (%L) TO (%L)',
+                'stock_prices_minute_' || to_char(partition_month, 'YYYYMM'),
+                partition_month, (partition_month + interval '1 month')::date);
+    END LOOP;
+END $$;
+
+-- 복사하는 동안 기존 테이블에 들어온 추가/삭제를 파티션 테이블에 따라 쓴다. 추가되는 분봉의 달 파티션은 적재 전에
+-- StockPricePartitionManager 가 만든다. 수정은 이미 복사한 행에만 따라 쓰고, 아직 복사하지 않은 행은 복사할 때 새 값을 읽는다.
+-- 시세 컬럼은 이름으로 읽으므로 숫자 컬럼으로 옮기는 중(*_legacy)인 테이블에서도 동작한다.
+-- 기동 때 StockPriceNumericMigrator 가 적재 전에 숫자 컬럼으로 바꾸므로 새로 쓰이는 시세는 항상 숫자다
+CREATE FUNCTION stock_prices_mirror_to_partitioned() RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    new_row jsonb;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        DELETE FROM stock_prices_partitioned
+        WHERE stock_code = OLD.stock_code AND period_type = OLD.period_type
+          AND candle_date_time = OLD.candle_date_time;
+        RETURN NULL;
+    END IF;
+
+    new_row := to_jsonb(NEW);
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE stock_prices_partitioned
+        SET id = NEW.id, stock_code = NEW.stock_code, candle_date_time = NEW.candle_date_time,
+            period_type = NEW.period_type,
+            open_price = (new_row ->> 'open_price')::bigint, high_price = (new_row ->> 'high_price')::bigint,
+            low_price = (new_row ->> 'low_price')::bigint, close_price = (new_row ->> 'close_price')::bigint,
+            volume = (new_row ->> 'volume')::bigint, trade_amount = (new_row ->> 'trade_amount')::numeric,
+            created_at = NEW.created_at, updated_at = NEW.updated_at
+        WHERE stock_code = OLD.stock_code AND period_type = OLD.period_type
+          AND candle_date_time = OLD.candle_date_time;
+    ELSE
+        INSERT INTO stock_prices_partitioned (id, stock_code, candle_date_time, period_type, open_price, high_price,
+                                              low_price, close_price, volume, trade_amount, created_at, updated_at)
+        VALUES (NEW.id, NEW.stock_code, NEW.candle_date_time, NEW.period_type,
+                (new_row ->> 'open_price')::bigint, (new_row ->> 'high_price')::bigint,
+                (new_row ->> 'low_price')::bigint, (new_row ->> 'close_price')::bigint,
+                (new_row ->> 'volume')::bigint, (new_row ->> 'trade_amount')::numeric,
+                NEW.created_at, NEW.updated_at)
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DO $$
+BEGIN
+    -- 확인하는 동안 다른 노드가 쓰지 않도록 쓰기만 잠깐 막는다 (조회는 계속된다)
+    LOCK TABLE stock_prices IN SHARE ROW EXCLUSIVE MODE;
+
+    IF EXISTS (SELECT 1 FROM stock_prices) THEN
+        CREATE TRIGGER stock_prices_mirror_to_partitioned
+            AFTER INSERT OR UPDATE OR DELETE ON stock_prices
+            FOR EACH ROW EXECUTE FUNCTION stock_prices_mirror_to_partitioned();
+    ELSE
+        DROP TABLE stock_prices;
+        ALTER TABLE stock_prices_partitioned RENAME TO stock_prices;
+        ALTER TABLE stock_prices RENAME CONSTRAINT stock_prices_partitioned_pkey TO stock_prices_pkey;
+        DROP FUNCTION stock_prices_mirror_to_partitioned();
+    END IF;
+END $$;
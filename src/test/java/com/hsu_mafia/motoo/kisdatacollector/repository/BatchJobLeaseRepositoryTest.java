@@ -0,0 +1,196 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BatchJobLeaseRepository.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:jobleasedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class BatchJobLeaseRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 8, 1, 0);
+    private static final LocalDateTime LEASE_END = NOW.plusMinutes(5);
+
+    @Autowired
+    private BatchJobLeaseRepository batchJobLeaseRepository;
+
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        // 동시 점유 테스트는 트랜잭션 밖에서 커밋하므로 직접 지운다
+        jdbcTemplate.update("DELETE FROM batch_jobs");
+    }
+
+    @Test
+    void claim_ShouldLeaseOldestJobs_AndSkipThemForOtherNodes() {
+        // Given
+        Long first = saveJob(BatchJobStatus.PENDING).getId();
+        Long second = saveJob(BatchJobStatus.PENDING).getId();
+        Long third = saveJob(BatchJobStatus.PENDING).getId();
+        saveJob(BatchJobStatus.COMPLETED);
+
+        // When
+        List<Long> nodeA = batchJobLeaseRepository.claim(BatchJobStatus.PENDING, "node-a", 2, NOW, LEASE_END);
+        List<Long> nodeB = batchJobLeaseRepository.claim(BatchJobStatus.PENDING, "node-b", 2, NOW, LEASE_END);
+
+        // Then
+        assertThat(nodeA).containsExactly(first, second);
+        assertThat(nodeB).containsExactly(third);
+        assertThat(leaseOwner(first)).isEqualTo("node-a");
+        assertThat(leaseOwner(third)).isEqualTo("node-b");
+    }
+
+    @Test
+    void claim_ShouldReclaimRunningJob_WhenLeaseExpired() {
+        // Given - node-a 가 점유한 뒤 하트비트 없이 만료됨
+        Long jobId = saveJob(BatchJobStatus.RUNNING).getId();
+        batchJobLeaseRepository.acquire(jobId, "node-a", NOW, LEASE_END);
+
+        // When
+        List<Long> beforeExpiry = batchJobLeaseRepository.claim(
+                BatchJobStatus.RUNNING, "node-b", 10, NOW.plusMinutes(1), NOW.plusMinutes(6));
+        List<Long> afterExpiry = batchJobLeaseRepository.claim(
+                BatchJobStatus.RUNNING, "node-b", 10, LEASE_END.plusSeconds(1), LEASE_END.plusMinutes(5));
+
+        // Then
+        assertThat(beforeExpiry).isEmpty();
+        assertThat(afterExpiry).containsExactly(jobId);
+        assertThat(leaseOwner(jobId)).isEqualTo("node-b");
+        assertThat(batchJobLeaseRepository.renew(jobId, "node-a", LEASE_END, LEASE_END.plusMinutes(5))).isFalse();
+    }
+
+    @Test
+    void acquire_ShouldFail_WhileAnotherNodeHoldsLease() {
+        // Given
+        Long jobId = saveJob(BatchJobStatus.PENDING).getId();
+        assertThat(batchJobLeaseRepository.acquire(jobId, "node-a", NOW, LEASE_END)).isTrue();
+
+        // When & Then
+        assertThat(batchJobLeaseRepository.acquire(jobId, "node-b", NOW, LEASE_END)).isFalse();
+        assertThat(batchJobLeaseRepository.acquire(jobId, "node-a", NOW, LEASE_END)).isTrue();
+
+        batchJobLeaseRepository.release(jobId, "node-a");
+        assertThat(batchJobLeaseRepository.acquire(jobId, "node-b", NOW, LEASE_END)).isTrue();
+    }
+
+    @Test
+    void lockIfOwned_ShouldFenceOutStaleOwner_AfterAnotherNodeTakesOver() {
+        // Given - node-a 의 점유가 만료되어 node-b 가 가져감
+        Long jobId = saveJob(BatchJobStatus.RUNNING).getId();
+        batchJobLeaseRepository.acquire(jobId, "node-a", NOW, LEASE_END);
+        assertThat(batchJobLeaseRepository.lockIfOwned(jobId, "node-a", NOW)).isTrue();
+        assertThat(batchJobLeaseRepository.lockIfOwned(jobId, "node-a", LEASE_END.plusSeconds(1))).isFalse();
+
+        batchJobLeaseRepository.acquire(jobId, "node-b", LEASE_END.plusSeconds(1), LEASE_END.plusMinutes(5));
+
+        // When & Then
+        assertThat(batchJobLeaseRepository.lockIfOwned(jobId, "node-a", LEASE_END.plusSeconds(1))).isFalse();
+        assertThat(batchJobLeaseRepository.lockIfOwned(jobId, "node-b", LEASE_END.plusSeconds(1))).isTrue();
+    }
+
+    @Test
+    void save_ShouldNotOverwriteLeaseColumns() {
+        // Given
+        BatchJob batchJob = saveJob(BatchJobStatus.PENDING);
+        batchJobLeaseRepository.acquire(batchJob.getId(), "node-a", NOW, LEASE_END);
+
+        // When - 점유 전에 읽은 엔티티로 진행 상황 저장
+        batchJob.setStatus(BatchJobStatus.RUNNING);
+        batchJobRepository.saveAndFlush(batchJob);
+
+        // Then
+        assertThat(leaseOwner(batchJob.getId())).isEqualTo("node-a");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void claim_ShouldNeverHandSameJobToTwoNodes_WhenClaimingConcurrently() throws Exception {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            saveJob(BatchJobStatus.PENDING);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        // When - 노드 4개가 동시에 하나씩 점유
+        for (int node = 0; node < 4; node++) {
+            String owner = "node-" + node;
+            Callable<List<Long>> claimAll = () -> {
+                start.await();
+                List<Long> claimed = new ArrayList<>();
+                List<Long> next;
+                while (!(next = batchJobLeaseRepository.claim(BatchJobStatus.PENDING, owner, 1, NOW, LEASE_END)).isEmpty()) {
+                    claimed.addAll(next);
+                }
+                return claimed;
+            };
+            futures.add(executorService.submit(claimAll));
+        }
+        start.countDown();
+
+        List<Long> allClaimed = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            allClaimed.addAll(future.get(10, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        // Then
+        Set<Long> distinct = new HashSet<>(allClaimed);
+        assertThat(allClaimed).hasSize(20);
+        assertThat(distinct).hasSize(20);
+    }
+
+    private BatchJob saveJob(BatchJobStatus status) {
+        return batchJobRepository.save(BatchJob.builder()
+                .jobName("점유 테스트")
+                .stockCode("005930")
+                .startDate("20240101")
+                .endDate("20240105")
+                .periodType(PeriodType.DAILY)
+                .status(status)
+                .build());
+    }
+
+    private String leaseOwner(Long jobId) {
+        return jdbcTemplate.queryForObject("SELECT lease_owner FROM batch_jobs WHERE id = ?", String.class, jobId);
+    }
+}
@@ -0,0 +1,180 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStopRequest;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:batchjobdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class BatchJobRepositoryTest {
+
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void aggregateChildProgress_ShouldSumChildCountsIntoParent() {
+        // Given
+        BatchJob parent = batchJobRepository.save(job(null, BatchJobStatus.SPLIT, 0, 0, 0));
+        batchJobRepository.save(job(parent.getId(), BatchJobStatus.COMPLETED, 60, 40, 2));
+        batchJobRepository.save(job(parent.getId(), BatchJobStatus.RUNNING, 15, 9, 1));
+        batchJobRepository.save(job(null, BatchJobStatus.COMPLETED, 100, 100, 0)); // 다른 작업
+
+        // When
+        int updated = batchJobRepository.aggregateChildProgress(parent.getId(), LocalDateTime.now());
+        entityManager.clear();
+
+        // Then
+        BatchJob aggregated = batchJobRepository.findById(parent.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(aggregated.getProcessedCount()).isEqualTo(75);
+        assertThat(aggregated.getSuccessCount()).isEqualTo(49);
+        assertThat(aggregated.getFailedCount()).isEqualTo(3);
+        assertThat(batchJobRepository.findByParentJobId(parent.getId())).hasSize(2);
+    }
+
+    @Test
+    void requestPreemption_ShouldMarkOnlyLowerPriorityRunningJobs_AndSurviveProgressSave() {
+        // Given
+        BatchJob preemptor = batchJobRepository.save(job(null, BatchJobStatus.RUNNING, 0, 0, 0));
+        preemptor.setPriority(RequestPriority.INTERACTIVE);
+        batchJobRepository.save(preemptor);
+        BatchJob backfill = batchJobRepository.save(job(null, BatchJobStatus.RUNNING, 0, 0, 0));
+        BatchJob incremental = job(null, BatchJobStatus.RUNNING, 0, 0, 0);
+        incremental.setPriority(RequestPriority.INCREMENTAL);
+        batchJobRepository.save(incremental);
+        BatchJob pending = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+
+        // When - 선점 요청 뒤 실행 중인 노드가 요청 전에 읽은 엔티티로 진행 상황을 저장
+        int requested = batchJobRepository.requestPreemption(List.of(RequestPriority.BACKFILL), preemptor.getId(),
+                BatchJobStatus.RUNNING, BatchJobStopRequest.PREEMPT, LocalDateTime.now());
+        backfill.setProcessedCount(10);
+        batchJobRepository.saveAndFlush(backfill);
+        entityManager.clear();
+
+        // Then - 우선순위가 없는 예전 작업(job 헬퍼)은 백필로 본다
+        assertThat(requested).isEqualTo(1);
+        assertThat(batchJobRepository.findStopRequestById(backfill.getId())).isEqualTo(BatchJobStopRequest.PREEMPT);
+        assertThat(batchJobRepository.findById(backfill.getId()).orElseThrow().getPreemptedByJobId())
+                .isEqualTo(preemptor.getId());
+        assertThat(batchJobRepository.findStopRequestById(incremental.getId())).isNull();
+        assertThat(batchJobRepository.findStopRequestById(pending.getId())).isNull();
+    }
+
+    @Test
+    void resumePreempted_ShouldResumeOnlyAfterPreemptorFinishes() {
+        // Given
+        BatchJob preemptor = batchJobRepository.save(job(null, BatchJobStatus.RUNNING, 0, 0, 0));
+        BatchJob paused = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        batchJobRepository.pause(paused.getId(), preemptor.getId(), BatchJobStatus.PAUSED, LocalDateTime.now());
+        List<BatchJobStatus> active = List.of(BatchJobStatus.PENDING, BatchJobStatus.RUNNING, BatchJobStatus.SPLIT);
+
+        // When
+        int whileRunning = batchJobRepository.resumePreempted(BatchJobStatus.PAUSED, BatchJobStatus.RUNNING, active,
+                LocalDateTime.now());
+        preemptor.setStatus(BatchJobStatus.COMPLETED);
+        batchJobRepository.saveAndFlush(preemptor);
+        int afterFinish = batchJobRepository.resumePreempted(BatchJobStatus.PAUSED, BatchJobStatus.RUNNING, active,
+                LocalDateTime.now());
+        entityManager.clear();
+
+        // Then
+        assertThat(whileRunning).isZero();
+        assertThat(afterFinish).isEqualTo(1);
+        BatchJob resumed = batchJobRepository.findById(paused.getId()).orElseThrow();
+        assertThat(resumed.getStatus()).isEqualTo(BatchJobStatus.RUNNING);
+        assertThat(resumed.getPreemptedByJobId()).isNull();
+    }
+
+    @Test
+    void cancelIfIdle_ShouldNotCancel_WhileLeaseIsHeld() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        BatchJob leased = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        BatchJob idle = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        entityManager.createNativeQuery("UPDATE batch_jobs SET lease_owner = 'node-a', lease_expires_at = ? WHERE id = ?")
+                .setParameter(1, now.plusMinutes(5))
+                .setParameter(2, leased.getId())
+                .executeUpdate();
+        List<BatchJobStatus> statuses = List.of(BatchJobStatus.PENDING, BatchJobStatus.PAUSED, BatchJobStatus.RUNNING);
+
+        // When & Then
+        assertThat(batchJobRepository.cancelIfIdle(leased.getId(), statuses, BatchJobStatus.CANCELLED, "취소", now)).isZero();
+        assertThat(batchJobRepository.cancelIfIdle(idle.getId(), statuses, BatchJobStatus.CANCELLED, "취소", now)).isEqualTo(1);
+        entityManager.clear();
+        assertThat(batchJobRepository.findById(idle.getId()).orElseThrow().getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+    }
+
+    @Test
+    void extendAndMergeIfUnclaimed_ShouldSkipJobsClaimedAfterRead() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        BatchJob target = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        BatchJob claimed = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        BatchJob idle = batchJobRepository.save(job(null, BatchJobStatus.PENDING, 0, 0, 0));
+        entityManager.createNativeQuery("UPDATE batch_jobs SET lease_owner = 'node-a', lease_expires_at = ? WHERE id = ?")
+                .setParameter(1, now.plusMinutes(5))
+                .setParameter(2, claimed.getId())
+                .executeUpdate();
+
+        // When & Then
+        assertThat(batchJobRepository.extendIfUnclaimed(claimed.getId(), "20220101", "20231231",
+                RequestPriority.INTERACTIVE, BatchJobStatus.PENDING, now)).isZero();
+        assertThat(batchJobRepository.mergeIfUnclaimed(claimed.getId(), target.getId(), "병합",
+                BatchJobStatus.PENDING, BatchJobStatus.CANCELLED, now)).isZero();
+        assertThat(batchJobRepository.extendIfUnclaimed(target.getId(), "20220101", "20231231",
+                RequestPriority.INTERACTIVE, BatchJobStatus.PENDING, now)).isEqualTo(1);
+        assertThat(batchJobRepository.mergeIfUnclaimed(idle.getId(), target.getId(), "병합",
+                BatchJobStatus.PENDING, BatchJobStatus.CANCELLED, now)).isEqualTo(1);
+        // 이미 병합된 작업은 다시 병합하지 않는다
+        assertThat(batchJobRepository.mergeIfUnclaimed(idle.getId(), target.getId(), "병합",
+                BatchJobStatus.PENDING, BatchJobStatus.CANCELLED, now)).isZero();
+        entityManager.clear();
+
+        BatchJob extended = batchJobRepository.findById(target.getId()).orElseThrow();
+        assertThat(extended.getStartDate()).isEqualTo("20220101");
+        assertThat(extended.getPriority()).isEqualTo(RequestPriority.INTERACTIVE);
+        BatchJob merged = batchJobRepository.findById(idle.getId()).orElseThrow();
+        assertThat(merged.getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+        assertThat(merged.getMergedIntoJobId()).isEqualTo(target.getId());
+        assertThat(batchJobRepository.findById(claimed.getId()).orElseThrow().getStatus()).isEqualTo(BatchJobStatus.PENDING);
+    }
+
+    private BatchJob job(Long parentJobId, BatchJobStatus status, int processed, int succeeded, int failed) {
+        return BatchJob.builder()
+                .jobName("분할 테스트")
+                .stockCode("005930")
+                .startDate("20230101")
+                .endDate("20231231")
+                .periodType(PeriodType.MINUTE)
+                .parentJobId(parentJobId)
+                .status(status)
+                .processedCount(processed)
+                .successCount(succeeded)
+                .failedCount(failed)
+                .build();
+    }
+}
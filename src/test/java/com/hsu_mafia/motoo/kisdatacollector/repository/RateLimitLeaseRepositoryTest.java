@@ -0,0 +1,104 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisApiKey;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisApiKeyPool;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(RateLimitLeaseRepository.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:leasedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class RateLimitLeaseRepositoryTest {
+
+    @Autowired
+    private RateLimitLeaseRepository rateLimitLeaseRepository;
+
+    @Test
+    void lease_ShouldHandOutConsecutiveWindows_PerAppKey() {
+        // When
+        RateLimitLeaseRepository.LeasedWindow first = rateLimitLeaseRepository.lease("key-a", 1000);
+        RateLimitLeaseRepository.LeasedWindow second = rateLimitLeaseRepository.lease("key-a", 1000);
+        RateLimitLeaseRepository.LeasedWindow otherKey = rateLimitLeaseRepository.lease("key-b", 1000);
+
+        // Then
+        assertThat(first.startMillis()).isEqualTo(first.dbNowMillis());
+        assertThat(second.startMillis()).isEqualTo(first.startMillis() + 1000);
+        assertThat(otherKey.startMillis()).isEqualTo(otherKey.dbNowMillis());
+    }
+
+    @Test
+    void sharedRateLimit_ShouldKeepCombinedRateWithinKeyBudget_AcrossInstances() throws Exception {
+        // Given - 같은 앱 키를 쓰는 인스턴스 3개, 키 한도는 50ms 간격
+        KisConfig kisConfig = new KisConfig();
+        kisConfig.setAppKey("shared-app-key");
+        kisConfig.setAppSecret("app-secret");
+        kisConfig.setRequestsPerSecond(20);
+        kisConfig.setRequestsPerMinute(1200);
+        kisConfig.setSharedRateLimit(true);
+        kisConfig.setSharedRateLimitLeasePermits(5);
+
+        List<KisApiKeyPool> instances = List.of(
+                new KisApiKeyPool(kisConfig, rateLimitLeaseRepository),
+                new KisApiKeyPool(kisConfig, rateLimitLeaseRepository),
+                new KisApiKeyPool(kisConfig, rateLimitLeaseRepository));
+        List<Long> grantedAt = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executorService = Executors.newFixedThreadPool(6);
+
+        // When - 인스턴스마다 10회씩 동시에 호출
+        long startTime = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (KisApiKeyPool pool : instances) {
+            for (int i = 0; i < 10; i++) {
+                futures.add(executorService.submit(() -> {
+                    KisApiKey key = pool.acquire();
+                    grantedAt.add(System.nanoTime());
+                    pool.release(key);
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        executorService.shutdown();
+
+        // Then - 인스턴스별로 지켰다면 약 450ms, 함께 지키면 30회 * 50ms
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(1350);
+
+        List<Long> sorted = new ArrayList<>(grantedAt);
+        Collections.sort(sorted);
+        for (int i = 0; i + 5 < sorted.size(); i++) {
+            assertThat(TimeUnit.NANOSECONDS.toMillis(sorted.get(i + 5) - sorted.get(i)))
+                    .isGreaterThanOrEqualTo(200);
+        }
+
+        // DB 는 호출마다가 아니라 허가 5개마다 거친다
+        long leaseCount = instances.stream()
+                .mapToLong(pool -> pool.getKeys().get(0).getRateLimitManager().getLeaseCount())
+                .sum();
+        assertThat(leaseCount).isBetween(6L, 12L);
+    }
+}
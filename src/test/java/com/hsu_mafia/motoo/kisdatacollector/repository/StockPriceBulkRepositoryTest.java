@@ -0,0 +1,162 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockPriceBulkRepository.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulkdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class StockPriceBulkRepositoryTest {
+
+    @Autowired
+    private StockPriceBulkRepository stockPriceBulkRepository;
+    
+    @Autowired
+    private StockPriceRepository stockPriceRepository;
+    
+    @Test
+    void insertIgnoringConflicts_ShouldInsertAllRows_WhenNoneExist() {
+        // Given
+        List<StockPrice> stockPrices = List.of(
+                stockPrice("005930", LocalDateTime.of(2024, 1, 2, 0, 0)),
+                stockPrice("005930", LocalDateTime.of(2024, 1, 3, 0, 0))
+        );
+        
+        // When
+        int insertedCount = stockPriceBulkRepository.insertIgnoringConflicts(stockPrices);
+        
+        // Then
+        assertThat(insertedCount).isEqualTo(2);
+        assertThat(stockPriceRepository.countByStockCodeAndPeriodType("005930", PeriodType.DAILY)).isEqualTo(2);
+    }
+    
+    @Test
+    void insertIgnoringConflicts_ShouldSkipExistingAndDuplicateRows() {
+        // Given
+        stockPriceBulkRepository.insertIgnoringConflicts(List.of(
+                stockPrice("000660", LocalDateTime.of(2024, 1, 2, 0, 0))));
+        
+        List<StockPrice> stockPrices = List.of(
+                stockPrice("000660", LocalDateTime.of(2024, 1, 2, 0, 0)), // 이미 존재
+                stockPrice("000660", LocalDateTime.of(2024, 1, 3, 0, 0)),
+                stockPrice("000660", LocalDateTime.of(2024, 1, 3, 0, 0))  // 같은 배치 안의 중복
+        );
+        
+        // When
+        int insertedCount = stockPriceBulkRepository.insertIgnoringConflicts(stockPrices);
+        
+        // Then
+        assertThat(insertedCount).isEqualTo(1);
+        assertThat(stockPriceRepository.countByStockCodeAndPeriodType("000660", PeriodType.DAILY)).isEqualTo(2);
+    }
+    
+    @Test
+    void insertIgnoringConflicts_ShouldShareIdSequenceWithJpa() {
+        // Given - JPA 저장과 JDBC 적재가 번갈아 같은 시퀀스에서 id 를 받는다
+        List<StockPrice> saved = stockPriceRepository.saveAll(List.of(
+                stockPrice("035720", LocalDateTime.of(2024, 1, 2, 0, 0)),
+                stockPrice("035720", LocalDateTime.of(2024, 1, 3, 0, 0))));
+        stockPriceRepository.flush();
+        
+        List<StockPrice> candles = new ArrayList<>();
+        for (int day = 0; day < StockPrice.ID_ALLOCATION_SIZE + 10; day++) {
+            candles.add(stockPrice("035720", LocalDateTime.of(2024, 2, 1, 0, 0).plusDays(day)));
+        }
+        
+        // When
+        int insertedCount = stockPriceBulkRepository.insertIgnoringConflicts(candles);
+        stockPriceRepository.saveAll(List.of(stockPrice("035720", LocalDateTime.of(2024, 1, 4, 0, 0))));
+        stockPriceRepository.flush();
+        
+        // Then
+        assertThat(insertedCount).isEqualTo(StockPrice.ID_ALLOCATION_SIZE + 10);
+        assertThat(saved).allSatisfy(stockPrice -> assertThat(stockPrice.getId()).isNotNull());
+        assertThat(stockPriceRepository.countByStockCodeAndPeriodType("035720", PeriodType.DAILY))
+                .isEqualTo(StockPrice.ID_ALLOCATION_SIZE + 13);
+    }
+    
+    @Test
+    void insertIgnoringConflicts_ShouldReturnZero_WhenEmpty() {
+        assertThat(stockPriceBulkRepository.insertIgnoringConflicts(List.of())).isZero();
+    }
+    
+    @Test
+    void deleteRanges_ShouldDeleteOnlyGivenPeriodTypeInsideRanges() {
+        // Given - 같은 날짜의 일봉과 주봉
+        stockPriceBulkRepository.insertIgnoringConflicts(List.of(
+                stockPrice("051910", LocalDateTime.of(2024, 1, 5, 0, 0)),
+                stockPrice("051910", LocalDateTime.of(2024, 1, 12, 0, 0)),
+                stockPrice("051910", LocalDateTime.of(2024, 1, 5, 0, 0), PeriodType.WEEKLY),
+                stockPrice("051910", LocalDateTime.of(2024, 1, 12, 0, 0), PeriodType.WEEKLY)));
+        
+        // When
+        stockPriceBulkRepository.deleteRanges("051910", PeriodType.WEEKLY, List.of(new StockPriceBulkRepository.CandleRange(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 8, 0, 0))));
+        
+        // Then
+        assertThat(stockPriceRepository.findByStockCodeAndPeriodType("051910", PeriodType.WEEKLY))
+                .extracting(StockPrice::getCandleDateTime)
+                .containsExactly(LocalDateTime.of(2024, 1, 12, 0, 0));
+        assertThat(stockPriceRepository.countByStockCodeAndPeriodType("051910", PeriodType.DAILY)).isEqualTo(2);
+    }
+    
+    @Test
+    void streamCandles_ShouldPassCandlesInRange_InTimeOrder() {
+        // Given
+        stockPriceBulkRepository.insertIgnoringConflicts(List.of(
+                stockPrice("006400", LocalDateTime.of(2024, 1, 2, 9, 1), PeriodType.MINUTE),
+                stockPrice("006400", LocalDateTime.of(2024, 1, 2, 9, 0), PeriodType.MINUTE),
+                stockPrice("006400", LocalDateTime.of(2024, 1, 3, 9, 0), PeriodType.MINUTE), // 구간 밖
+                stockPrice("006400", LocalDateTime.of(2024, 1, 2, 0, 0), PeriodType.DAILY)));  // 다른 주기
+        
+        // When
+        List<StockPrice> streamed = new ArrayList<>();
+        stockPriceBulkRepository.streamCandles("006400", PeriodType.MINUTE,
+                LocalDateTime.of(2024, 1, 2, 0, 0), LocalDateTime.of(2024, 1, 3, 0, 0), streamed::add);
+        
+        // Then
+        assertThat(streamed).extracting(StockPrice::getCandleDateTime).containsExactly(
+                LocalDateTime.of(2024, 1, 2, 9, 0), LocalDateTime.of(2024, 1, 2, 9, 1));
+        assertThat(streamed.get(0).getClosePrice()).isEqualTo(75200L);
+        assertThat(streamed.get(0).getTradeAmount()).isEqualByComparingTo("75200000000");
+    }
+    
+    private StockPrice stockPrice(String stockCode, LocalDateTime candleDateTime) {
+        return stockPrice(stockCode, candleDateTime, PeriodType.DAILY);
+    }
+    
+    private StockPrice stockPrice(String stockCode, LocalDateTime candleDateTime, PeriodType periodType) {
+        return StockPrice.builder()
+                .stockCode(stockCode)
+                .candleDateTime(candleDateTime)
+                .periodType(periodType)
+                .openPrice(75000L)
+                .highPrice(75500L)
+                .lowPrice(74500L)
+                .closePrice(75200L)
+                .volume(1000000L)
+                .tradeAmount(new BigDecimal("75200000000"))
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * JPA 적재 시 id 채번 방식별 DB 왕복 수 벤치마크 (IDENTITY vs pooled 시퀀스 + JDBC 배치)
+ * 실행: ./gradlew benchmark
+ * 왕복 수는 Hibernate 통계의 prepared statement 수로 센다. 배치는 묶음마다 한 번, IDENTITY 는 insert 마다 한 번이다.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:idbenchdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+    "spring.jpa.properties.hibernate.order_inserts=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class StockPriceIdAllocationBenchmarkTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int stockCodeSequence = 0;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 10_000})
+    void compareRoundTrips(int batchSize) {
+        // 워밍업
+        persist(batchSize, this::identityCandle);
+        persist(batchSize, this::sequenceCandle);
+
+        Result identity = persist(batchSize, this::identityCandle);
+        Result sequence = persist(batchSize, this::sequenceCandle);
+
+        System.out.printf("[id-allocation] batch=%,d identity=%,d round trips (%.1f ms) "
+                        + "pooled sequence=%,d round trips (%.1f ms) (x%.1f fewer)%n",
+                batchSize, identity.roundTrips(), identity.millis(), sequence.roundTrips(), sequence.millis(),
+                (double) identity.roundTrips() / sequence.roundTrips());
+
+        assertThat(sequence.roundTrips()).isLessThan(identity.roundTrips());
+    }
+
+    private Result persist(int count, IntFunction<Object> candle) {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            entityManager.persist(candle.apply(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(statistics.getPrepareStatementCount(), elapsed / 1_000_000.0);
+    }
+
+    private Object sequenceCandle(int i) {
+        if (i == 0) {
+            stockCodeSequence++;
+        }
+        return StockPrice.builder()
+                .stockCode(String.format("S%05d", stockCodeSequence))
+                .candleDateTime(LocalDateTime.of(2020, 1, 1, 9, 0).plusMinutes(i))
+                .periodType(PeriodType.MINUTE)
+                .openPrice(75000L)
+                .highPrice(75500L)
+                .lowPrice(74500L)
+                .closePrice(75200L)
+                .volume(1000000L)
+                .tradeAmount(new BigDecimal("75200000000"))
+                .build();
+    }
+
+    private Object identityCandle(int i) {
+        IdentityStockPrice stockPrice = new IdentityStockPrice();
+        stockPrice.closePrice = 75200L;
+        return stockPrice;
+    }
+
+    private record Result(long roundTrips, double millis) {
+    }
+
+    // 변경 전 StockPrice 의 채번 방식 (테스트에서만 쓰는 테이블)
+    @Entity
+    @Table(name = "bench_identity_prices")
+    static class IdentityStockPrice {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private Long closePrice;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 캔들 적재 경로 벤치마크 (기존 exists-then-save vs JDBC 배치 upsert)
+ * 실행: ./gradlew benchmark
+ * 기본은 H2(PostgreSQL 모드)이며, spring.datasource.* 를 덮어쓰면 실제 PostgreSQL 에서도 측정할 수 있다.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockPriceBulkRepository.class)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:benchdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class StockPriceIngestionBenchmarkTest {
+
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private StockPriceRepository stockPriceRepository;
+    
+    @Autowired
+    private StockPriceBulkRepository stockPriceBulkRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private int stockCodeSequence = 0;
+    
+    @ParameterizedTest
+    @ValueSource(ints = {100, 10_000})
+    void compareIngestionThroughput(int batchSize) {
+        // 워밍업
+        existsThenSave(candles(batchSize));
+        stockPriceBulkRepository.insertIgnoringConflicts(candles(batchSize));
+        
+        double legacyRate = 0;
+        double bulkRate = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            legacyRate += measure(() -> existsThenSave(candles(batchSize)), batchSize);
+            bulkRate += measure(() -> stockPriceBulkRepository.insertIgnoringConflicts(candles(batchSize)), batchSize);
+        }
+        legacyRate /= ROUNDS;
+        bulkRate /= ROUNDS;
+        
+        System.out.printf("[ingestion] batch=%,d exists-then-save=%,.0f candles/s bulk-upsert=%,.0f candles/s (x%.1f)%n",
+                batchSize, legacyRate, bulkRate, bulkRate / legacyRate);
+        
+        assertThat(bulkRate).isGreaterThan(0);
+    }
+    
+    // 변경 전 StockDataProcessingService 의 행 단위 적재 방식
+    private void existsThenSave(List<StockPrice> stockPrices) {
+        for (StockPrice stockPrice : stockPrices) {
+            boolean exists = stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
+                    stockPrice.getStockCode(), stockPrice.getCandleDateTime(), stockPrice.getPeriodType());
+            if (!exists) {
+                stockPriceRepository.save(stockPrice);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
+    private double measure(Runnable ingestion, int batchSize) {
+        long start = System.nanoTime();
+        ingestion.run();
+        long elapsed = System.nanoTime() - start;
+        return batchSize / (elapsed / 1_000_000_000.0);
+    }
+    
+    private List<StockPrice> candles(int count) {
+        String stockCode = String.format("B%05d", stockCodeSequence++);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        
+        List<StockPrice> stockPrices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stockPrices.add(StockPrice.builder()
+                    .stockCode(stockCode)
+                    .candleDateTime(start.plusMinutes(i))
+                    .periodType(PeriodType.MINUTE)
+                    .openPrice(75000L)
+                    .highPrice(75500L)
+                    .lowPrice(74500L)
+                    .closePrice(75200L)
+                    .volume(1000000L)
+                    .tradeAmount(new BigDecimal("75200000000"))
+                    .build());
+        }
+        return stockPrices;
+    }
+}
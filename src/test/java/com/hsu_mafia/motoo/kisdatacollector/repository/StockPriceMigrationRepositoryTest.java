@@ -0,0 +1,185 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.service.StockPriceNumericMigrator;
+import com.hsu_mafia.motoo.kisdatacollector.service.StockPricePartitionManager;
+import com.hsu_mafia.motoo.kisdatacollector.service.StockPricePartitionMigrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockPriceMigrationRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:migrationdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class StockPriceMigrationRepositoryTest {
+
+    private static final List<String> PRICE_COLUMNS =
+            List.of("open_price", "high_price", "low_price", "close_price", "volume", "trade_amount");
+
+    @Autowired
+    private StockPriceMigrationRepository stockPriceMigrationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // 숫자 컬럼 도입 전의 문자열 스키마로 되돌린다
+        jdbcTemplate.execute("DELETE FROM stock_prices");
+        if (!stockPriceMigrationRepository.hasTextPriceColumns()) {
+            if (stockPriceMigrationRepository.hasLegacyColumns()) {
+                stockPriceMigrationRepository.dropLegacyColumns();
+            }
+            for (String column : PRICE_COLUMNS) {
+                jdbcTemplate.execute("ALTER TABLE stock_prices DROP COLUMN " + column);
+                jdbcTemplate.execute("ALTER TABLE stock_prices ADD COLUMN " + column + " VARCHAR(255)");
+            }
+        }
+    }
+
+    @Test
+    void migrateLegacyRows_ShouldMoveTextPricesToNumericColumns() {
+        // Given
+        insertTextRow(1, "20240102", "75000", "75500", "74500", "75200", "1000000", "75200000000");
+        insertTextRow(2, "20240103", "75100", null, "", "75300", "900000", "67770000000");
+        insertTextRow(3, "20240104", "N/A", "75500", "74500", "75200", "1000000", "1");
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setPriceMigrationBatchSize(2);
+        StockPriceNumericMigrator migrator = new StockPriceNumericMigrator(stockPriceMigrationRepository, batchConfig);
+
+        // When
+        migrator.switchColumns();
+        long migrated = migrator.migrateLegacyRows();
+
+        // Then
+        assertThat(migrated).isEqualTo(3);
+        assertThat(stockPriceMigrationRepository.hasTextPriceColumns()).isFalse();
+        assertThat(stockPriceMigrationRepository.hasLegacyColumns()).isFalse();
+
+        Map<String, Object> first = row(1);
+        assertThat(((Number) first.get("open_price")).longValue()).isEqualTo(75000L);
+        assertThat(((Number) first.get("volume")).longValue()).isEqualTo(1000000L);
+        assertThat((BigDecimal) first.get("trade_amount")).isEqualByComparingTo("75200000000");
+
+        Map<String, Object> second = row(2);
+        assertThat(second.get("high_price")).isNull();
+        assertThat(second.get("low_price")).isNull();
+        assertThat(((Number) second.get("close_price")).longValue()).isEqualTo(75300L);
+
+        // 숫자가 아닌 값이 있는 행은 시세를 비운다
+        Map<String, Object> invalid = row(3);
+        assertThat(invalid.get("open_price")).isNull();
+        assertThat(invalid.get("close_price")).isNull();
+    }
+
+    @Test
+    void migrateLegacyRows_ShouldResume_WhenPartlyMigrated() {
+        // Given - 첫 행만 옮긴 뒤 중단된 상태
+        insertTextRow(1, "20240102", "75000", "75500", "74500", "75200", "1000000", "75200000000");
+        insertTextRow(2, "20240103", "75100", "75600", "74600", "75300", "900000", "67770000000");
+        stockPriceMigrationRepository.switchToNumericColumns();
+        stockPriceMigrationRepository.updateNumericValues(List.of(new StockPriceMigrationRepository.NumericPriceRow(
+                1, 75000L, 75500L, 74500L, 75200L, 1000000L, new BigDecimal("75200000000"))));
+        StockPriceNumericMigrator migrator = new StockPriceNumericMigrator(stockPriceMigrationRepository, new BatchConfig());
+
+        // When
+        long migrated = migrator.migrateLegacyRows();
+
+        // Then
+        assertThat(migrated).isEqualTo(1);
+        assertThat(((Number) row(1).get("close_price")).longValue()).isEqualTo(75200L);
+        assertThat(((Number) row(2).get("close_price")).longValue()).isEqualTo(75300L);
+        assertThat(stockPriceMigrationRepository.hasLegacyColumns()).isFalse();
+    }
+
+    @Test
+    void alignIdSequence_ShouldMoveSequencePastExistingIds() {
+        // Given - IDENTITY 로 채번된 기존 행
+        insertTextRow(1000, "20240102", "75000", "75500", "74500", "75200", "1000000", "75200000000");
+
+        // When
+        boolean moved = stockPriceMigrationRepository.alignIdSequence();
+
+        // Then - 다음 시퀀스 값이 예약하는 구간이 기존 id 뒤에 있고, 다시 불러도 옮기지 않는다
+        assertThat(moved).isTrue();
+        Long next = jdbcTemplate.queryForObject("SELECT nextval('" + StockPrice.ID_SEQUENCE + "')", Long.class);
+        assertThat(next - StockPrice.ID_ALLOCATION_SIZE).isGreaterThanOrEqualTo(1000L);
+        assertThat(stockPriceMigrationRepository.alignIdSequence()).isFalse();
+    }
+
+    @Test
+    void migrateToPartitionedTable_ShouldCopyRowsInBatches_AndSwapTables() {
+        // Given - 숫자 컬럼으로 옮긴 기존 테이블과, 마이그레이션이 만든 것과 같은 키의 빈 새 테이블 (H2 에는 파티션이 없다)
+        insertTextRow(1, "20240102", "75000", "75500", "74500", "75200", "1000000", "75200000000");
+        insertTextRow(2, "20240103", "75100", "75600", "74600", "75300", "900000", "67770000000");
+        insertTextRow(3, "20240104", "75200", "75700", "74700", "75400", "800000", "60320000000");
+        new StockPriceNumericMigrator(stockPriceMigrationRepository, new BatchConfig()).switchColumns();
+        new StockPriceNumericMigrator(stockPriceMigrationRepository, new BatchConfig()).migrateLegacyRows();
+        jdbcTemplate.execute("""
+                CREATE TABLE stock_prices_partitioned (
+                    id BIGINT NOT NULL, stock_code VARCHAR(255) NOT NULL, candle_date_time TIMESTAMP(6) NOT NULL,
+                    period_type VARCHAR(255) NOT NULL, open_price BIGINT, high_price BIGINT, low_price BIGINT,
+                    close_price BIGINT, volume BIGINT, trade_amount NUMERIC(20, 0),
+                    created_at TIMESTAMP(6), updated_at TIMESTAMP(6),
+                    PRIMARY KEY (stock_code, period_type, candle_date_time))
+                """);
+
+        // 복사 전에 트리거가 따라 쓴 행은 더 최신이므로 덮어쓰지 않는다
+        jdbcTemplate.update("""
+                INSERT INTO stock_prices_partitioned (id, stock_code, candle_date_time, period_type, close_price)
+                VALUES (2, '005930', PARSEDATETIME('20240103', 'yyyyMMdd'), 'DAILY', 75350)
+                """);
+
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setPriceMigrationBatchSize(2);
+        StockPricePartitionMigrator migrator = new StockPricePartitionMigrator(stockPriceMigrationRepository,
+                new StockPricePartitionManager(new StockPricePartitionRepository(jdbcTemplate), batchConfig), batchConfig);
+
+        // When
+        long copied = migrator.migrateToPartitionedTable();
+
+        // Then
+        assertThat(copied).isEqualTo(2);
+        assertThat(stockPriceMigrationRepository.hasPartitionedTable()).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_prices", Integer.class)).isEqualTo(3);
+        assertThat(((Number) row(1).get("close_price")).longValue()).isEqualTo(75200L);
+        assertThat(((Number) row(2).get("close_price")).longValue()).isEqualTo(75350L);
+        assertThat((BigDecimal) row(3).get("trade_amount")).isEqualByComparingTo("60320000000");
+    }
+
+    private void insertTextRow(long id, String date, String open, String high, String low, String close,
+                               String volume, String tradeAmount) {
+        jdbcTemplate.update("""
+                INSERT INTO stock_prices (id, stock_code, candle_date_time, period_type, open_price, high_price,
+                                          low_price, close_price, volume, trade_amount)
+                VALUES (?, '005930', PARSEDATETIME(?, 'yyyyMMdd'), 'DAILY', ?, ?, ?, ?, ?, ?)
+                """, id, date, open, high, low, close, volume, tradeAmount);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM stock_prices WHERE id = ?", id);
+    }
+}
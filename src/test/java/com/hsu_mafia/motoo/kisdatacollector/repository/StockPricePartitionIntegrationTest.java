@@ -0,0 +1,107 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.service.StockPricePartitionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * PostgreSQL 마이그레이션으로 만든 파티션 테이블에 대한 통합 테스트
+ * 실행하려면 빈 PostgreSQL DB 를 환경변수로 지정: PARTITION_TEST_DB_URL (필요하면 PARTITION_TEST_DB_USERNAME/PASSWORD)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockPriceBulkRepository.class, StockPricePartitionRepository.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=${PARTITION_TEST_DB_URL:}",
+    "spring.datasource.driver-class-name=org.postgresql.Driver",
+    "spring.datasource.username=${PARTITION_TEST_DB_USERNAME:postgres}",
+    "spring.datasource.password=${PARTITION_TEST_DB_PASSWORD:}",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@EnabledIfEnvironmentVariable(named = "PARTITION_TEST_DB_URL", matches = ".+")
+class StockPricePartitionIntegrationTest {
+
+    @Autowired
+    private StockPriceBulkRepository stockPriceBulkRepository;
+
+    @Autowired
+    private StockPricePartitionRepository stockPricePartitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migration_ShouldCreateUpcomingMinutePartitions() {
+        assertThat(stockPricePartitionRepository.isMinutePartitioned()).isTrue();
+        assertThat(stockPricePartitionRepository.findMinutePartitionMonths())
+                .contains(YearMonth.now(), YearMonth.now().plusMonths(3));
+    }
+
+    @Test
+    void insert_ShouldCreateMissingMonthPartition_AndRouteCandles() {
+        // Given - 미리 만들어 두지 않은 과거 달의 분봉
+        StockPricePartitionManager manager = new StockPricePartitionManager(stockPricePartitionRepository, new BatchConfig());
+        manager.initialize();
+        List<StockPrice> candles = List.of(
+                minuteCandle(LocalDateTime.of(2019, 3, 4, 9, 0)),
+                minuteCandle(LocalDateTime.of(2019, 3, 4, 9, 1)));
+
+        // When
+        manager.ensurePartitions(candles);
+        int insertedCount = stockPriceBulkRepository.insertIgnoringConflicts(candles);
+
+        // Then
+        assertThat(insertedCount).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_prices_minute_201903", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void rangeQuery_ShouldReadOnlyMatchingMonthPartition() {
+        // Given
+        StockPricePartitionManager manager = new StockPricePartitionManager(stockPricePartitionRepository, new BatchConfig());
+        manager.initialize();
+        manager.ensurePartitions(List.of(
+                minuteCandle(LocalDateTime.of(2019, 3, 4, 9, 0)),
+                minuteCandle(LocalDateTime.of(2019, 4, 1, 9, 0))));
+
+        // When - StockPriceRepository.findByStockCodeAndPeriodTypeAndCandleDateTimeBetween 와 같은 조건
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM stock_prices WHERE stock_code = ? AND period_type = ? "
+                        + "AND candle_date_time BETWEEN ? AND ?", String.class,
+                "PT0001", PeriodType.MINUTE.name(),
+                Timestamp.valueOf(LocalDateTime.of(2019, 3, 4, 0, 0)),
+                Timestamp.valueOf(LocalDateTime.of(2019, 3, 5, 0, 0))));
+
+        // Then
+        assertThat(plan).contains("stock_prices_minute_201903")
+                .doesNotContain("stock_prices_minute_201904")
+                .doesNotContain("stock_prices_daily");
+    }
+
+    private StockPrice minuteCandle(LocalDateTime candleDateTime) {
+        return StockPrice.builder()
+                .stockCode("PT0001")
+                .candleDateTime(candleDateTime)
+                .periodType(PeriodType.MINUTE)
+                .closePrice(75200L)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:pricedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class StockPriceRepositoryTest {
+
+    @Autowired
+    private StockPriceRepository stockPriceRepository;
+    
+    @Test
+    void findCandleDates_ShouldReturnDistinctDatesInRange() {
+        // Given
+        stockPriceRepository.saveAll(List.of(
+                stockPrice("005930", LocalDateTime.of(2024, 1, 8, 9, 0), PeriodType.MINUTE),
+                stockPrice("005930", LocalDateTime.of(2024, 1, 8, 9, 1), PeriodType.MINUTE),
+                stockPrice("005930", LocalDateTime.of(2024, 1, 10, 15, 30), PeriodType.MINUTE),
+                stockPrice("005930", LocalDateTime.of(2024, 1, 15, 9, 0), PeriodType.MINUTE), // 구간 밖
+                stockPrice("000660", LocalDateTime.of(2024, 1, 9, 9, 0), PeriodType.MINUTE),  // 다른 종목
+                stockPrice("005930", LocalDateTime.of(2024, 1, 9, 0, 0), PeriodType.DAILY)     // 다른 주기
+        ));
+        
+        // When
+        List<LocalDate> dates = stockPriceRepository.findCandleDates("005930", PeriodType.MINUTE,
+                LocalDateTime.of(2024, 1, 8, 0, 0), LocalDateTime.of(2024, 1, 13, 0, 0));
+        
+        // Then
+        assertThat(dates).containsExactly(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 10));
+    }
+    
+    @Test
+    void countCandlesByDate_ShouldCountCandlesPerDateInRange() {
+        // Given
+        stockPriceRepository.saveAll(List.of(
+                stockPrice("035420", LocalDateTime.of(2024, 1, 8, 9, 0), PeriodType.MINUTE),
+                stockPrice("035420", LocalDateTime.of(2024, 1, 8, 9, 1), PeriodType.MINUTE),
+                stockPrice("035420", LocalDateTime.of(2024, 1, 9, 9, 0), PeriodType.MINUTE),
+                stockPrice("035420", LocalDateTime.of(2024, 1, 10, 9, 0), PeriodType.MINUTE), // 구간 밖
+                stockPrice("035420", LocalDateTime.of(2024, 1, 8, 0, 0), PeriodType.DAILY)     // 다른 주기
+        ));
+        
+        // When
+        List<Object[]> counts = stockPriceRepository.countCandlesByDate("035420", PeriodType.MINUTE,
+                LocalDateTime.of(2024, 1, 8, 0, 0), LocalDateTime.of(2024, 1, 10, 0, 0));
+        
+        // Then
+        assertThat(counts).extracting(row -> row[0], row -> row[1]).containsExactlyInAnyOrder(
+                tuple(LocalDate.of(2024, 1, 8), 2L),
+                tuple(LocalDate.of(2024, 1, 9), 1L));
+    }
+    
+    private StockPrice stockPrice(String stockCode, LocalDateTime candleDateTime, PeriodType periodType) {
+        return StockPrice.builder()
+                .stockCode(stockCode)
+                .candleDateTime(candleDateTime)
+                .periodType(periodType)
+                .closePrice(70000L)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.hsu_mafia.motoo.kisdatacollector.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 시세 컬럼 타입 벤치마크 (varchar vs bigint/numeric): 테이블 크기와 구간 조회 집계 시간
+ * 실행: ./gradlew benchmark
+ * 기본은 파일에 저장하는 H2(PostgreSQL 모드)이며, spring.datasource.* 를 덮어쓰면 실제 PostgreSQL 에서도 측정할 수 있다.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    // 테이블 크기를 재려면 파일에 저장해야 한다
+    "spring.datasource.url=jdbc:h2:./build/benchmark/storagebenchdb;MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class StockPriceStorageBenchmarkTest {
+
+    private static final int STOCKS = 20;
+    private static final int CANDLES_PER_STOCK = 10_000;
+    private static final int ROUNDS = 20;
+
+    // 변경 전에는 값을 읽을 때마다 문자열을 숫자로 바꿔야 했다
+    private static final String TEXT_RANGE_SQL = """
+            SELECT MAX(CAST(high_price AS BIGINT)), MIN(CAST(low_price AS BIGINT)),
+                   SUM(CAST(volume AS BIGINT)), SUM(CAST(trade_amount AS NUMERIC(20, 0)))
+            FROM bench_prices_text WHERE stock_code = ? AND candle_date_time BETWEEN ? AND ?
+            """;
+    private static final String NUMERIC_RANGE_SQL = """
+            SELECT MAX(high_price), MIN(low_price), SUM(volume), SUM(trade_amount)
+            FROM bench_prices_numeric WHERE stock_code = ? AND candle_date_time BETWEEN ? AND ?
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareTextAndNumericColumns() {
+        createTable("bench_prices_text", "VARCHAR(255)", "VARCHAR(255)");
+        createTable("bench_prices_numeric", "BIGINT", "NUMERIC(20, 0)");
+        fill("bench_prices_text", true);
+        fill("bench_prices_numeric", false);
+
+        long textSize = tableSize("bench_prices_text");
+        long numericSize = tableSize("bench_prices_numeric");
+
+        // 워밍업
+        rangeScan(TEXT_RANGE_SQL);
+        rangeScan(NUMERIC_RANGE_SQL);
+
+        long textNanos = 0;
+        long numericNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            textNanos += rangeScan(TEXT_RANGE_SQL);
+            numericNanos += rangeScan(NUMERIC_RANGE_SQL);
+        }
+
+        System.out.printf("[storage] rows=%,d size text=%,d bytes numeric=%,d bytes (x%.2f)%n",
+                STOCKS * CANDLES_PER_STOCK, textSize, numericSize, (double) textSize / numericSize);
+        System.out.printf("[storage] range scan text=%.2f ms numeric=%.2f ms (x%.1f)%n",
+                textNanos / ROUNDS / 1_000_000.0, numericNanos / ROUNDS / 1_000_000.0, (double) textNanos / numericNanos);
+
+        assertThat(numericSize).isPositive();
+    }
+
+    private void createTable(String table, String priceType, String amountType) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, stock_code VARCHAR(255) NOT NULL, "
+                + "candle_date_time TIMESTAMP NOT NULL, period_type VARCHAR(255) NOT NULL, "
+                + "open_price " + priceType + ", high_price " + priceType + ", low_price " + priceType + ", "
+                + "close_price " + priceType + ", volume " + priceType + ", trade_amount " + amountType + ")");
+        jdbcTemplate.execute("CREATE INDEX " + table + "_range ON " + table + " (stock_code, candle_date_time)");
+    }
+
+    private void fill(String table, boolean asText) {
+        String sql = "INSERT INTO " + table + " VALUES (?, ?, ?, 'MINUTE', ?, ?, ?, ?, ?, ?)";
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        long id = 0;
+
+        for (int stock = 0; stock < STOCKS; stock++) {
+            List<Object[]> rows = new ArrayList<>(CANDLES_PER_STOCK);
+            for (int i = 0; i < CANDLES_PER_STOCK; i++) {
+                long close = 70_000 + (i * 37L) % 10_000;
+                long volume = 100_000 + (i * 7919L) % 900_000;
+                Object[] prices = {close - 100, close + 300, close - 400, close, volume,
+                        BigDecimal.valueOf(close).multiply(BigDecimal.valueOf(volume))};
+                if (asText) {
+                    for (int p = 0; p < prices.length; p++) {
+                        prices[p] = prices[p].toString();
+                    }
+                }
+                rows.add(new Object[]{++id, String.format("B%05d", stock), Timestamp.valueOf(start.plusMinutes(i)),
+                        prices[0], prices[1], prices[2], prices[3], prices[4], prices[5]});
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private long tableSize(String table) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        String sql = "PostgreSQL".equals(product)
+                ? "SELECT pg_total_relation_size('" + table + "')"
+                : "SELECT DISK_SPACE_USED('" + table.toUpperCase() + "')";
+        Long size = jdbcTemplate.queryForObject(sql, Long.class);
+        return size != null ? size : 0;
+    }
+
+    private long rangeScan(String sql) {
+        LocalDateTime from = LocalDateTime.of(2020, 1, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2020, 1, 5, 0, 0);
+
+        long start = System.nanoTime();
+        for (int stock = 0; stock < STOCKS; stock++) {
+            jdbcTemplate.queryForList(sql, String.format("B%05d", stock), Timestamp.valueOf(from), Timestamp.valueOf(to));
+        }
+        return System.nanoTime() - start;
+    }
+}
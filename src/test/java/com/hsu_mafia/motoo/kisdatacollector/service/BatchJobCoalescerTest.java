@@ -0,0 +1,199 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobCoalescerTest {
+
+    @Mock
+    private BatchJobRepository batchJobRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchJobCoalescer batchJobCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        batchJobCoalescer = new BatchJobCoalescer(batchJobRepository, new TradingCalendar(new BatchConfig()),
+                new TransactionTemplate(transactionManager));
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().when(batchJobRepository.save(any(BatchJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(batchJobRepository.extendIfUnclaimed(anyLong(), anyString(), anyString(), any(), any(), any()))
+                .thenReturn(1);
+        lenient().when(batchJobRepository.mergeIfUnclaimed(anyLong(), anyLong(), anyString(), any(), any(), any()))
+                .thenReturn(1);
+    }
+
+    @Test
+    void createOrCoalesce_ShouldSaveRequestedJob_WhenNothingOverlaps() {
+        // Given
+        givenActiveJobs();
+        BatchJob requested = requested("20240108", "20240112");
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested);
+
+        // Then
+        assertThat(result).isSameAs(requested);
+        verify(batchJobRepository).save(requested);
+    }
+
+    @Test
+    void createOrCoalesce_ShouldExtendPendingJob_WhenAdjacentAcrossWeekend() {
+        // Given - 금요일에 끝나는 대기 작업과 다음 월요일부터 시작하는 요청
+        BatchJob pending = job(1L, BatchJobStatus.PENDING, "20240101", "20240105");
+        givenActiveJobs(pending);
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested("20240108", "20240112"));
+
+        // Then
+        assertThat(result).isSameAs(pending);
+        assertThat(pending.getStartDate()).isEqualTo("20240101");
+        assertThat(pending.getEndDate()).isEqualTo("20240112");
+        verify(batchJobRepository).extendIfUnclaimed(eq(1L), eq("20240101"), eq("20240112"), eq(RequestPriority.BACKFILL),
+                eq(BatchJobStatus.PENDING), any(LocalDateTime.class));
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+        assertThat(batchJobCoalescer.getMergedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrCoalesce_ShouldNotMerge_WhenTradingDayLiesBetween() {
+        // Given - 사이에 1월 8일(월)이 빔
+        BatchJob pending = job(1L, BatchJobStatus.PENDING, "20240101", "20240105");
+        givenActiveJobs(pending);
+        BatchJob requested = requested("20240109", "20240112");
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested);
+
+        // Then
+        assertThat(result).isSameAs(requested);
+        assertThat(pending.getEndDate()).isEqualTo("20240105");
+    }
+
+    @Test
+    void createOrCoalesce_ShouldMergeBridgedPendingJobs_IntoOldestJob() {
+        // Given - 요청이 두 대기 작업 사이를 잇는다
+        BatchJob older = job(1L, BatchJobStatus.PENDING, "20240101", "20240110");
+        BatchJob newer = job(2L, BatchJobStatus.PENDING, "20240120", "20240131");
+        newer.setPriority(RequestPriority.INCREMENTAL);
+        givenActiveJobs(newer, older);
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested("20240108", "20240122"));
+
+        // Then
+        assertThat(result).isSameAs(older);
+        assertThat(older.getStartDate()).isEqualTo("20240101");
+        assertThat(older.getEndDate()).isEqualTo("20240131");
+        assertThat(older.getPriority()).isEqualTo(RequestPriority.INCREMENTAL);
+        assertThat(newer.getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+        assertThat(newer.getMergedIntoJobId()).isEqualTo(1L);
+        verify(batchJobRepository).extendIfUnclaimed(eq(1L), eq("20240101"), eq("20240131"),
+                eq(RequestPriority.INCREMENTAL), eq(BatchJobStatus.PENDING), any(LocalDateTime.class));
+        verify(batchJobRepository).mergeIfUnclaimed(eq(2L), eq(1L), anyString(), eq(BatchJobStatus.PENDING),
+                eq(BatchJobStatus.CANCELLED), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createOrCoalesce_ShouldRollBackAndRetry_WhenPendingJobIsClaimedBeforeMerge() {
+        // Given - 읽은 뒤 병합하기 전에 다른 노드가 newer 를 점유함
+        BatchJob older = job(1L, BatchJobStatus.PENDING, "20240101", "20240110");
+        BatchJob newer = job(2L, BatchJobStatus.PENDING, "20240120", "20240131");
+        BatchJob claimed = job(2L, BatchJobStatus.PENDING, "20240120", "20240131");
+        claimed.setLeaseExpiresAt(LocalDateTime.now().plusMinutes(5));
+        BatchJob olderReloaded = job(1L, BatchJobStatus.PENDING, "20240101", "20240110");
+        when(batchJobRepository.findByStockCodeAndPeriodTypeAndParentJobIdIsNullAndStatusIn(
+                eq("005930"), eq(PeriodType.DAILY), anyList()))
+                .thenReturn(List.of(older, newer), List.of(olderReloaded, claimed));
+        when(batchJobRepository.mergeIfUnclaimed(eq(2L), anyLong(), anyString(), any(), any(), any())).thenReturn(0);
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested("20240108", "20240122"));
+
+        // Then - 첫 시도는 되돌리고, 점유된 구간을 뺀 나머지만 older 에 합친다
+        verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+        assertThat(newer.getStatus()).isEqualTo(BatchJobStatus.PENDING);
+        assertThat(result).isSameAs(olderReloaded);
+        assertThat(olderReloaded.getStartDate()).isEqualTo("20240101");
+        assertThat(olderReloaded.getEndDate()).isEqualTo("20240119");
+        verify(batchJobRepository).extendIfUnclaimed(eq(1L), eq("20240101"), eq("20240119"), any(), any(), any());
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+    }
+
+    @Test
+    void createOrCoalesce_ShouldAttachToRunningJob_WhenItCoversRange() {
+        // Given
+        BatchJob running = job(1L, BatchJobStatus.RUNNING, "20240101", "20240131");
+        givenActiveJobs(running);
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested("20240108", "20240112"));
+
+        // Then
+        assertThat(result).isSameAs(running);
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+        verify(batchJobRepository, never()).extendIfUnclaimed(anyLong(), anyString(), anyString(), any(), any(), any());
+        assertThat(batchJobCoalescer.getAttachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrCoalesce_ShouldTrimRangeCoveredByRunningJob() {
+        // Given - 실행 중인 작업이 요청의 앞부분을 덮음
+        givenActiveJobs(job(1L, BatchJobStatus.RUNNING, "20240101", "20240110"));
+        BatchJob requested = requested("20240105", "20240120");
+
+        // When
+        BatchJob result = batchJobCoalescer.createOrCoalesce(requested);
+
+        // Then
+        assertThat(result).isSameAs(requested);
+        assertThat(requested.getStartDate()).isEqualTo("20240111");
+        assertThat(requested.getEndDate()).isEqualTo("20240120");
+    }
+
+    private void givenActiveJobs(BatchJob... jobs) {
+        when(batchJobRepository.findByStockCodeAndPeriodTypeAndParentJobIdIsNullAndStatusIn(
+                eq("005930"), eq(PeriodType.DAILY), anyList())).thenReturn(List.of(jobs));
+    }
+
+    private BatchJob requested(String startDate, String endDate) {
+        return job(null, BatchJobStatus.PENDING, startDate, endDate);
+    }
+
+    private BatchJob job(Long id, BatchJobStatus status, String startDate, String endDate) {
+        return BatchJob.builder()
+                .id(id)
+                .jobName("병합 테스트")
+                .stockCode("005930")
+                .startDate(startDate)
+                .endDate(endDate)
+                .periodType(PeriodType.DAILY)
+                .priority(RequestPriority.BACKFILL)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobExecutorTest {
+
+    @Mock
+    private BatchJobService batchJobService;
+    
+    private BatchConfig batchConfig;
+    
+    private BatchJobExecutor batchJobExecutor;
+    
+    @BeforeEach
+    void setUp() {
+        batchConfig = new BatchConfig();
+        batchConfig.setMaxConcurrentJobs(2);
+        batchJobExecutor = new BatchJobExecutor(batchJobService, batchConfig);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        batchJobExecutor.shutdown();
+    }
+    
+    @Test
+    void submit_ShouldRunJobsConcurrently_UpToLimit() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch twoRunning = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            twoRunning.countDown();
+            twoRunning.await(1, TimeUnit.SECONDS);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return List.of();
+        }).when(batchJobService).runBatchJob(anyLong());
+        
+        // When
+        submitAll(List.of(1L, 2L, 3L, 4L, 5L)).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(maxRunning.get()).isEqualTo(2);
+        verify(batchJobService, times(5)).runBatchJob(anyLong());
+    }
+    
+    @Test
+    void submit_ShouldContinueExecution_WhenOneJobFails() throws Exception {
+        // Given
+        doThrow(new RuntimeException("Job execution failed")).when(batchJobService).runBatchJob(2L);
+        
+        // When
+        submitAll(List.of(1L, 2L, 3L)).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        verify(batchJobService).runBatchJob(1L);
+        verify(batchJobService).runBatchJob(2L);
+        verify(batchJobService).runBatchJob(3L);
+    }
+    
+    @Test
+    void submit_ShouldRunChildJobsConcurrently_WhenJobIsSplit() throws Exception {
+        // Given - 작업 1 이 하위 작업 2, 3 으로 나뉨
+        CountDownLatch bothChildrenRunning = new CountDownLatch(2);
+        when(batchJobService.runBatchJob(1L)).thenReturn(List.of(2L, 3L));
+        doAnswer(invocation -> {
+            bothChildrenRunning.countDown();
+            assertThat(bothChildrenRunning.await(1, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        }).when(batchJobService).runBatchJob(longThat(id -> id != 1L));
+        
+        // When
+        batchJobExecutor.submit(1L).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(bothChildrenRunning.await(2, TimeUnit.SECONDS)).isTrue();
+        verify(batchJobService, timeout(2000)).runBatchJob(2L);
+        verify(batchJobService, timeout(2000)).runBatchJob(3L);
+    }
+    
+    @Test
+    void submit_ShouldPassPriorityOverride_ToChildJobs() throws Exception {
+        // Given
+        when(batchJobService.runBatchJob(1L, RequestPriority.INTERACTIVE)).thenReturn(List.of(2L));
+        
+        // When
+        batchJobExecutor.submit(1L, RequestPriority.INTERACTIVE).get(5, TimeUnit.SECONDS);
+        
+        // Then
+        verify(batchJobService, timeout(2000)).runBatchJob(2L, RequestPriority.INTERACTIVE);
+        verify(batchJobService, never()).runBatchJob(anyLong());
+    }
+    
+    @Test
+    void submit_ShouldIgnoreJob_WhenAlreadyInFlight() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(1, TimeUnit.SECONDS);
+            return List.of();
+        }).when(batchJobService).runBatchJob(1L);
+        
+        // When
+        CompletableFuture<Void> first = batchJobExecutor.submit(1L);
+        CompletableFuture<Void> duplicate = batchJobExecutor.submit(1L);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        
+        // Then
+        assertThat(duplicate).isDone();
+        verify(batchJobService, times(1)).runBatchJob(1L);
+    }
+    
+    @Test
+    void submit_ShouldInterleaveJobs_AndStayWithinSharedRateLimit() throws Exception {
+        // Given - 호출 간격 50ms, 작업 3개가 각각 4번 호출
+        RateLimitManager rateLimitManager = new RateLimitManager(20, 1200);
+        batchConfig.setMaxConcurrentJobs(3);
+        batchJobExecutor = new BatchJobExecutor(batchJobService, batchConfig);
+        
+        List<Long> callOrder = new CopyOnWriteArrayList<>();
+        List<Long> callTimes = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            for (int i = 0; i < 4; i++) {
+                rateLimitManager.waitForRateLimit();
+                callTimes.add(System.nanoTime());
+                callOrder.add(invocation.getArgument(0));
+            }
+            return List.of();
+        }).when(batchJobService).runBatchJob(anyLong());
+        
+        // When
+        long start = System.nanoTime();
+        submitAll(List.of(1L, 2L, 3L)).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        // Then - 한 작업이 연속으로 호출을 독점하지 않고, 총 시간은 호출 한도(12회 x 50ms)만큼만 걸린다
+        assertThat(callOrder).hasSize(12);
+        assertThat(callOrder.subList(0, 6)).contains(1L, 2L, 3L);
+        assertThat(elapsedMillis).isBetween(500L, 1500L);
+        
+        // 12번째 호출은 첫 호출로부터 최소 11 x 50ms 뒤
+        List<Long> sortedTimes = callTimes.stream().sorted().toList();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(sortedTimes.get(11) - sortedTimes.get(0)))
+                .isGreaterThanOrEqualTo(540L);
+    }
+    
+    private CompletableFuture<Void> submitAll(List<Long> batchJobIds) {
+        return CompletableFuture.allOf(batchJobIds.stream()
+                .map(batchJobExecutor::submit)
+                .toArray(CompletableFuture[]::new));
+    }
+}
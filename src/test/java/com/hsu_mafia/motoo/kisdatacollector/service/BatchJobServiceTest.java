@@ -1,8 +1,11 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStopRequest;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import com.hsu_mafia.motoo.kisdatacollector.dto.BatchJobRequest;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
 import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
@@ -10,20 +13,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class BatchJobServiceTest {
@@ -35,13 +41,34 @@ class BatchJobServiceTest {
     private KisApiService kisApiService;
     
     @Mock
-    private StockDataProcessingService dataProcessingService;
+    private BatchChunkWriter batchChunkWriter;
+    
+    @Mock
+    private BatchJobLeaseManager batchJobLeaseManager;
+    
+    @Mock
+    private BatchJobSplitter batchJobSplitter;
+    
+    @Mock
+    private CandleRollupService candleRollupService;
+    
+    private BatchConfig batchConfig;
+    
+    private TradingCalendar tradingCalendar;
     
     private BatchJobService batchJobService;
     
     @BeforeEach
     void setUp() {
-        batchJobService = new BatchJobService(batchJobRepository, kisApiService, dataProcessingService);
+        batchConfig = new BatchConfig();
+        tradingCalendar = new TradingCalendar(batchConfig);
+        batchJobService = new BatchJobService(batchJobRepository, kisApiService, batchChunkWriter,
+                new FetchWindowPlanner(batchConfig, tradingCalendar), tradingCalendar, batchConfig, batchJobLeaseManager,
+                batchJobSplitter, new BatchJobCoalescer(batchJobRepository, tradingCalendar,
+                        new TransactionTemplate(mock(PlatformTransactionManager.class))),
+                candleRollupService);
+        lenient().when(batchJobLeaseManager.acquire(anyLong())).thenReturn(true);
+        lenient().when(batchJobLeaseManager.isHeld(anyLong())).thenReturn(true);
     }
     
     @Test
@@ -85,17 +112,70 @@ class BatchJobServiceTest {
         assertThat(capturedJob.getProcessedCount()).isEqualTo(0);
         assertThat(capturedJob.getSuccessCount()).isEqualTo(0);
         assertThat(capturedJob.getFailedCount()).isEqualTo(0);
+        assertThat(capturedJob.getPriority()).isEqualTo(RequestPriority.BACKFILL);
+    }
+    
+    @Test
+    void runBatchJob_ShouldCallApiWithJobPriority() {
+        // Given
+        BatchJob batchJob = priorityTestJob(RequestPriority.INCREMENTAL);
+        List<RequestPriority> observed = new ArrayList<>();
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenAnswer(invocation -> {
+                    observed.add(RequestPriorityContext.current());
+                    return List.of();
+                });
+        
+        // When
+        batchJobService.runBatchJob(batchJob.getId());
+        
+        // Then
+        assertThat(observed).isNotEmpty().containsOnly(RequestPriority.INCREMENTAL);
+        assertThat(RequestPriorityContext.current()).isEqualTo(RequestPriority.INTERACTIVE);
     }
     
     @Test
-    void executeBatchJob_ShouldCompleteSuccessfully_WhenAllDataFetchedSuccessfully() {
+    void runBatchJob_ShouldCallApiAsInteractive_WhenRunWithInteractiveOverride() {
+        // Given
+        BatchJob batchJob = priorityTestJob(RequestPriority.BACKFILL);
+        List<RequestPriority> observed = new ArrayList<>();
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenAnswer(invocation -> {
+                    observed.add(RequestPriorityContext.current());
+                    return List.of();
+                });
+        
+        // When
+        batchJobService.runBatchJob(batchJob.getId(), RequestPriority.INTERACTIVE);
+        
+        // Then
+        assertThat(observed).isNotEmpty().containsOnly(RequestPriority.INTERACTIVE);
+    }
+    
+    private BatchJob priorityTestJob(RequestPriority priority) {
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240109")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .priority(priority)
+                .build();
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        return batchJob;
+    }
+    
+    @Test
+    void runBatchJob_ShouldCompleteSuccessfully_WhenAllDataFetchedSuccessfully() {
         // Given
         Long batchJobId = 1L;
         BatchJob batchJob = BatchJob.builder()
                 .id(batchJobId)
                 .stockCode("005930")
-                .startDate("20240101")
-                .endDate("20240102")
+                .startDate("20240108")
+                .endDate("20240109")
                 .periodType(PeriodType.DAILY)
                 .status(BatchJobStatus.PENDING)
                 .totalCount(0)
@@ -110,47 +190,701 @@ class BatchJobServiceTest {
         List<StockDataResponse> mockData = Arrays.asList(
                 StockDataResponse.builder()
                         .stockCode("005930")
-                        .candleDateTime("202401010000")
+                        .candleDateTime("202401080000")
                         .openPrice("75000")
                         .closePrice("75500")
                         .periodType(PeriodType.DAILY)
                         .build()
         );
         
-        when(kisApiService.fetchStockData(anyString(), anyString(), anyString(), any(PeriodType.class)))
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
                 .thenReturn(mockData);
         
         // When
-        CompletableFuture<Void> result = batchJobService.executeBatchJob(batchJobId);
+        List<Long> childJobIds = batchJobService.runBatchJob(batchJobId);
         
         // Then
-        assertThat(result).isCompleted();
+        assertThat(childJobIds).isEmpty();
         verify(batchJobRepository, atLeast(3)).save(any(BatchJob.class));
-        verify(kisApiService, times(2)).fetchStockData(anyString(), anyString(), anyString(), any(PeriodType.class));
-        verify(dataProcessingService, times(2)).processAndSaveStockData(anyList());
+        verify(kisApiService, times(1)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verify(batchChunkWriter, times(1)).write(eq(batchJob), eq(mockData));
+        assertThat(batchJob.getProcessedCount()).isEqualTo(2);
+        assertThat(batchJob.getSuccessCount()).isEqualTo(1); // 20240108 캔들만 응답됨
+        assertThat(batchJob.getFailedCount()).isEqualTo(1);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
     }
     
     @Test
-    void executeBatchJob_ShouldHandleFailure_WhenJobNotFound() {
+    void runBatchJob_ShouldFetchPerDay_WhenWindowedFetchDisabled() {
+        // Given
+        batchConfig.setWindowedFetch(false);
+        
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240109")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then
+        verify(kisApiService).fetchStockDataRange("005930", "20240109", "20240109", PeriodType.DAILY);
+        verify(kisApiService).fetchStockDataRange("005930", "20240108", "20240108", PeriodType.DAILY);
+        assertThat(batchJob.getFailedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void runBatchJob_ShouldRollUpStoredDailies_WithoutCallingApi_ForWeeklyJob() {
+        // Given - 구간의 일봉이 모두 저장돼 있음
+        BatchJob batchJob = rollupJob(PeriodType.WEEKLY);
+        when(candleRollupService.hasDailyCandles(eq("005930"), anyList())).thenReturn(true);
+
+        // When
+        batchJobService.runBatchJob(batchJob.getId());
+
+        // Then
+        verify(kisApiService, never()).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verify(candleRollupService).rollup("005930", LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12));
+        assertThat(batchJob.getSuccessCount()).isEqualTo(5);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+    }
+
+    @Test
+    void runBatchJob_ShouldFetchDailies_WhenMonthlyJobHasMissingDailies() {
+        // Given
+        BatchJob batchJob = rollupJob(PeriodType.MONTHLY);
+        when(candleRollupService.hasDailyCandles(eq("005930"), anyList())).thenReturn(false);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+
+        // When
+        batchJobService.runBatchJob(batchJob.getId());
+
+        // Then - 월봉이 아니라 일봉을 받는다
+        verify(kisApiService).fetchStockDataRange("005930", "20240108", "20240112", PeriodType.DAILY);
+        verify(kisApiService, never()).fetchStockDataRange(anyString(), anyString(), anyString(), eq(PeriodType.MONTHLY));
+    }
+
+    private BatchJob rollupJob(PeriodType periodType) {
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(periodType)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        return batchJob;
+    }
+
+    @Test
+    void runBatchJob_ShouldSplitRangeIntoWindows_WhenRangeExceedsOnePage() {
+        // Given
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20230101")
+                .endDate("20231231")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then - 2023년 거래일 245일(평일 260일 - 평일 휴장일 15일) / 윈도우당 100일
+        verify(kisApiService, times(3)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        assertThat(batchJob.getTotalCount()).isEqualTo(365);
+        assertThat(batchJob.getProcessedCount()).isEqualTo(365);
+        assertThat(batchJob.getFailedCount()).isEqualTo(245);
+    }
+    
+    @Test
+    void runBatchJob_ShouldCommitEveryChunk_WhenCommitIntervalReached() {
+        // Given - 윈도우(1일)마다 2건씩 응답, 3건마다 커밋
+        batchConfig.setWindowedFetch(false);
+        batchConfig.setCommitIntervalCandles(3);
+        
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenAnswer(invocation -> List.of(
+                        StockDataResponse.builder().candleDateTime(invocation.getArgument(1) + "0000").build(),
+                        StockDataResponse.builder().candleDateTime(invocation.getArgument(1) + "0900").build()));
+        
+        List<Integer> committedProgress = new ArrayList<>();
+        List<Integer> committedSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            committedProgress.add(invocation.<BatchJob>getArgument(0).getProcessedCount());
+            committedSizes.add(invocation.<List<?>>getArgument(1).size());
+            return null;
+        }).when(batchChunkWriter).write(any(BatchJob.class), anyList());
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then - 5일을 2일, 2일, 1일 청크로 커밋
+        assertThat(committedSizes).containsExactly(4, 4, 2);
+        assertThat(committedProgress).containsExactly(2, 4, 5);
+        assertThat(batchJob.getSuccessCount()).isEqualTo(5);
+    }
+    
+    @Test
+    void runBatchJob_ShouldKeepPreviousCheckpointAndFail_WhenChunkCommitFails() {
+        // Given - 윈도우(1일) 2개마다 커밋하다 두 번째 청크를 저장하지 못함
+        batchConfig.setWindowedFetch(false);
+        batchConfig.setCommitIntervalDays(2);
+
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenAnswer(invocation -> List.of(
+                        StockDataResponse.builder().candleDateTime(invocation.getArgument(1) + "0000").build()));
+        doNothing().doThrow(new RuntimeException("DB error"))
+                .when(batchChunkWriter).write(any(BatchJob.class), anyList());
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then - 첫 청크(01-12, 01-11)까지만 진행한 것으로 남아 재개하면 01-10 부터 다시 받는다
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.FAILED);
+        assertThat(batchJob.getCheckpointDate()).isEqualTo("20240111");
+        assertThat(batchJob.getProcessedCount()).isEqualTo(2);
+        assertThat(batchJob.getSuccessCount()).isEqualTo(2);
+        assertThat(batchJob.getFailedCount()).isZero();
+        assertThat(batchJob.getErrorMessage()).isEqualTo("DB error");
+        verify(batchChunkWriter, times(2)).write(eq(batchJob), anyList());
+    }
+    
+    @Test
+    void runBatchJob_ShouldCommitAndCancel_WhenCancelRequestedBetweenWindows() {
+        // Given - 윈도우 3개 중 첫 윈도우를 마친 뒤 취소 요청
+        BatchJob batchJob = yearlyDailyJob();
+        when(batchJobRepository.findStopRequestById(1L)).thenReturn(null, BatchJobStopRequest.CANCEL);
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then - 받은 윈도우는 커밋하고 나머지는 호출하지 않는다
+        verify(kisApiService, times(1)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verify(batchChunkWriter).write(eq(batchJob), anyList());
+        verify(batchJobRepository).clearStopRequest(1L);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.CANCELLED);
+        assertThat(batchJob.getCheckpointDate()).isNotNull();
+        assertThat(batchJob.getEndTime()).isNotNull();
+        verify(batchJobLeaseManager).release(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldClearStopRequest_WhenCommitFailsOnCancel() {
+        // Given - 취소 요청을 받고 모은 결과를 커밋하다 실패
+        batchConfig.setCommitIntervalDays(1000);
+        BatchJob batchJob = yearlyDailyJob();
+        when(batchJobRepository.findStopRequestById(1L)).thenReturn(null, BatchJobStopRequest.CANCEL);
+        doThrow(new RuntimeException("DB error")).when(batchChunkWriter).write(any(BatchJob.class), anyList());
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then - 실패로 끝나도 요청은 지워 다음 실행을 멈추지 않는다
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.FAILED);
+        verify(batchJobRepository).clearStopRequest(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldPauseAtCheckpoint_WhenPreempted() {
+        // Given
+        BatchJob batchJob = yearlyDailyJob();
+        when(batchJobRepository.findStopRequestById(1L)).thenReturn(null, null, BatchJobStopRequest.PREEMPT);
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then - 다시 실행하면 체크포인트 이전 구간만 남는다
+        verify(kisApiService, times(2)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.PAUSED);
+        assertThat(batchJob.getCheckpointDate()).isGreaterThan("20230101");
+        assertThat(batchJob.getEndTime()).isNull();
+    }
+    
+    @Test
+    void runBatchJob_ShouldPauseWithoutCallingApi_WhenHigherPriorityJobIsRunning() {
+        // Given
+        yearlyDailyJob();
+        BatchJob interactiveChild = BatchJob.builder().id(7L).parentJobId(5L).priority(RequestPriority.INTERACTIVE).build();
+        when(batchJobRepository.findByStatusAndPriorityInAndLeaseExpiresAtAfter(
+                eq(BatchJobStatus.RUNNING), eq(List.of(RequestPriority.INTERACTIVE)), any(LocalDateTime.class)))
+                .thenReturn(List.of(interactiveChild));
+        
+        // When
+        List<Long> childJobIds = batchJobService.runBatchJob(1L);
+        
+        // Then - 하위 작업이 선점하면 원래 작업 ID 로 기록
+        assertThat(childJobIds).isEmpty();
+        verify(batchJobRepository).pause(eq(1L), eq(5L), eq(BatchJobStatus.PAUSED), any(LocalDateTime.class));
+        verifyNoInteractions(kisApiService);
+        verify(batchJobLeaseManager).release(1L);
+    }
+    
+    @Test
+    void preemptLowerPriorityJobs_ShouldRequestPause_OnlyForInteractiveJobs() {
+        // Given
+        yearlyDailyJob();
+        
+        // When
+        batchJobService.preemptLowerPriorityJobs(1L, null);
+        batchJobService.preemptLowerPriorityJobs(1L, RequestPriority.INTERACTIVE);
+        
+        // Then
+        verify(batchJobRepository, times(1)).requestPreemption(
+                eq(List.of(RequestPriority.INCREMENTAL, RequestPriority.BACKFILL)), eq(1L),
+                eq(BatchJobStatus.RUNNING), eq(BatchJobStopRequest.PREEMPT), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void cancelBatchJob_ShouldCancelDirectly_WhenNoNodeHoldsJob() {
+        // Given
+        yearlyDailyJob();
+        when(batchJobRepository.cancelIfIdle(eq(1L), anyList(), eq(BatchJobStatus.CANCELLED), anyString(),
+                any(LocalDateTime.class))).thenReturn(1);
+        
+        // When
+        batchJobService.cancelBatchJob(1L);
+        
+        // Then
+        verify(batchJobRepository, never()).requestStop(anyLong(), any(), any());
+    }
+    
+    @Test
+    void cancelBatchJob_ShouldRequestStop_WhenJobIsRunning() {
+        // Given
+        BatchJob batchJob = yearlyDailyJob();
+        batchJob.setStatus(BatchJobStatus.RUNNING);
+        
+        // When
+        batchJobService.cancelBatchJob(1L);
+        
+        // Then
+        verify(batchJobRepository).requestStop(eq(1L), eq(BatchJobStopRequest.CANCEL), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void cancelBatchJob_ShouldCancelUnfinishedChildren_WhenJobIsSplit() {
+        // Given
+        BatchJob parent = yearlyDailyJob();
+        parent.setStatus(BatchJobStatus.SPLIT);
+        BatchJob done = BatchJob.builder().id(2L).parentJobId(1L).status(BatchJobStatus.COMPLETED).build();
+        BatchJob pending = BatchJob.builder().id(3L).parentJobId(1L).status(BatchJobStatus.PENDING).build();
+        when(batchJobRepository.findByParentJobId(1L)).thenReturn(List.of(done, pending));
+        when(batchJobRepository.findById(3L)).thenReturn(Optional.of(pending));
+        
+        // When
+        batchJobService.cancelBatchJob(1L);
+        
+        // Then
+        verify(batchJobRepository).cancelIfIdle(eq(3L), anyList(), eq(BatchJobStatus.CANCELLED), anyString(),
+                any(LocalDateTime.class));
+        verify(batchJobRepository, never()).cancelIfIdle(eq(2L), anyList(), any(), anyString(), any());
+    }
+    
+    private BatchJob yearlyDailyJob() {
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20230101")
+                .endDate("20231231")
+                .periodType(PeriodType.DAILY)
+                .priority(RequestPriority.BACKFILL)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        lenient().when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        lenient().when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        lenient().when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of(StockDataResponse.builder().candleDateTime("202312290000").build()));
+        return batchJob;
+    }
+    
+    @Test
+    void runBatchJob_ShouldResumeFromCheckpoint_WhenJobWasInterrupted() {
+        // Given - 20240111 까지 커밋된 상태로 중단된 작업
+        batchConfig.setWindowedFetch(false);
+        
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.RUNNING)
+                .checkpointDate("20240111")
+                .totalCount(5)
+                .processedCount(2)
+                .successCount(2)
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenAnswer(invocation -> List.of(
+                        StockDataResponse.builder().candleDateTime(invocation.getArgument(1) + "0000").build()));
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then
+        verify(kisApiService, times(3)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verify(kisApiService, never()).fetchStockDataRange(anyString(), eq("20240111"), anyString(), any(PeriodType.class));
+        verify(kisApiService, never()).fetchStockDataRange(anyString(), eq("20240112"), anyString(), any(PeriodType.class));
+        assertThat(batchJob.getTotalCount()).isEqualTo(5);
+        assertThat(batchJob.getProcessedCount()).isEqualTo(5);
+        assertThat(batchJob.getSuccessCount()).isEqualTo(5);
+        assertThat(batchJob.getCheckpointDate()).isEqualTo("20240108");
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+    }
+    
+    @Test
+    void runBatchJob_ShouldDoNothing_WhenJobAlreadyCompleted() {
+        // Given
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.COMPLETED)
+                .checkpointDate("20240108")
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        
+        // When
+        List<Long> childJobIds = batchJobService.runBatchJob(batchJobId);
+        
+        // Then
+        assertThat(childJobIds).isEmpty();
+        verifyNoInteractions(kisApiService, batchChunkWriter);
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+    }
+    
+    @Test
+    void runBatchJob_ShouldSkipJob_WhenAnotherNodeHoldsLease() {
+        // Given
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.RUNNING)
+                .build();
+        
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobLeaseManager.acquire(1L)).thenReturn(false);
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then
+        verifyNoInteractions(kisApiService, batchChunkWriter);
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+        verify(batchJobLeaseManager, never()).release(anyLong());
+    }
+    
+    @Test
+    void runBatchJob_ShouldReleaseLease_WhenJobFinishes() {
+        // Given
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240108")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then
+        InOrder inOrder = inOrder(batchJobLeaseManager, kisApiService);
+        inOrder.verify(batchJobLeaseManager).acquire(1L);
+        inOrder.verify(kisApiService).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        inOrder.verify(batchJobLeaseManager).release(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldStopWithoutWriting_WhenLeaseIsLostBetweenWindows() {
+        // Given
+        batchConfig.setWindowedFetch(false);
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(batchJobLeaseManager.isHeld(1L)).thenReturn(true, false);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then - 첫 윈도우만 조회하고, 모은 결과도 커밋하지 않는다
+        verify(kisApiService, times(1)).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verifyNoInteractions(batchChunkWriter);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.RUNNING);
+        verify(batchJobLeaseManager).release(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldNotMarkFailed_WhenChunkWriteIsFencedOut() {
+        // Given
+        batchConfig.setWindowedFetch(false);
+        batchConfig.setCommitIntervalDays(1);
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of());
+        doThrow(new BatchJobLeaseLostException(1L)).when(batchChunkWriter).write(eq(batchJob), anyList());
+        
+        // When
+        batchJobService.runBatchJob(1L);
+        
+        // Then - 다른 노드가 이어서 실행하므로 실패로 남기지 않고 더 진행하지도 않는다
+        verify(batchChunkWriter, times(1)).write(eq(batchJob), anyList());
+        verify(batchJobRepository, times(2)).save(batchJob);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.RUNNING);
+        assertThat(batchJob.getCheckpointDate()).isNull();
+    }
+    
+    @Test
+    void runBatchJob_ShouldReturnChildJobsWithoutCallingApi_WhenJobIsSplit() {
+        // Given
+        BatchJob batchJob = BatchJob.builder()
+                .id(1L)
+                .stockCode("005930")
+                .startDate("20140101")
+                .endDate("20231231")
+                .periodType(PeriodType.MINUTE)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(batchJob));
+        when(batchJobSplitter.splitIfOversized(eq(batchJob), anyList())).thenReturn(List.of(
+                BatchJob.builder().id(2L).parentJobId(1L).build(),
+                BatchJob.builder().id(3L).parentJobId(1L).build()));
+        
+        // When
+        List<Long> childJobIds = batchJobService.runBatchJob(1L);
+        
+        // Then
+        assertThat(childJobIds).containsExactly(2L, 3L);
+        verifyNoInteractions(kisApiService, batchChunkWriter);
+        verify(batchJobLeaseManager).release(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldReturnUnfinishedChildren_WhenSplitJobRunsAgain() {
+        // Given
+        BatchJob parent = BatchJob.builder().id(1L).status(BatchJobStatus.SPLIT).build();
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(parent));
+        when(batchJobRepository.findByParentJobId(1L)).thenReturn(List.of(
+                BatchJob.builder().id(2L).parentJobId(1L).status(BatchJobStatus.COMPLETED).build(),
+                BatchJob.builder().id(3L).parentJobId(1L).status(BatchJobStatus.RUNNING).build(),
+                BatchJob.builder().id(4L).parentJobId(1L).status(BatchJobStatus.PENDING).build()));
+        
+        // When
+        List<Long> childJobIds = batchJobService.runBatchJob(1L);
+        
+        // Then
+        assertThat(childJobIds).containsExactly(3L, 4L);
+        verifyNoInteractions(batchJobSplitter, kisApiService);
+    }
+    
+    @Test
+    void runBatchJob_ShouldNotChangeSplitParentPriority_WhenRunWithHigherPriority() {
+        // Given
+        BatchJob parent = BatchJob.builder().id(1L).priority(RequestPriority.BACKFILL).status(BatchJobStatus.SPLIT).build();
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(parent));
+        when(batchJobRepository.findByParentJobId(1L)).thenReturn(List.of(
+                BatchJob.builder().id(2L).parentJobId(1L).status(BatchJobStatus.PENDING).build()));
+        
+        // When
+        List<Long> childJobIds = batchJobService.runBatchJob(1L, RequestPriority.INTERACTIVE);
+        
+        // Then - 우선순위는 하위 작업을 제출할 때 넘기고, 저장하지 않는 부모에는 남기지 않는다
+        assertThat(childJobIds).containsExactly(2L);
+        assertThat(parent.getPriority()).isEqualTo(RequestPriority.BACKFILL);
+        verify(batchJobRepository, never()).save(any(BatchJob.class));
+    }
+    
+    @Test
+    void runBatchJob_ShouldAggregateIntoParentAndCompleteIt_WhenLastChildFinishes() {
+        // Given
+        BatchJob child = BatchJob.builder()
+                .id(3L)
+                .parentJobId(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240108")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        BatchJob parent = BatchJob.builder().id(1L).stockCode("005930").status(BatchJobStatus.SPLIT).build();
+        
+        when(batchJobRepository.findById(3L)).thenReturn(Optional.of(child));
+        when(batchJobRepository.findById(1L)).thenReturn(Optional.of(parent));
+        when(batchJobRepository.save(any(BatchJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of(StockDataResponse.builder().candleDateTime("202401080000").build()));
+        when(batchJobRepository.findByParentJobId(1L)).thenReturn(List.of(
+                BatchJob.builder().id(2L).parentJobId(1L).status(BatchJobStatus.COMPLETED).build(),
+                child));
+        
+        // When
+        batchJobService.runBatchJob(3L);
+        
+        // Then
+        verify(batchJobRepository, atLeastOnce()).aggregateChildProgress(eq(1L), any(LocalDateTime.class));
+        assertThat(child.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+        assertThat(parent.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+        assertThat(parent.getEndTime()).isNotNull();
+    }
+    
+    @Test
+    void runBatchJob_ShouldKeepParentSplit_WhileOtherChildrenAreRunning() {
+        // Given
+        BatchJob child = BatchJob.builder()
+                .id(3L)
+                .parentJobId(1L)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240108")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.PENDING)
+                .build();
+        
+        when(batchJobRepository.findById(3L)).thenReturn(Optional.of(child));
+        when(batchJobRepository.save(any(BatchJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
+                .thenReturn(List.of(StockDataResponse.builder().candleDateTime("202401080000").build()));
+        when(batchJobRepository.findByParentJobId(1L)).thenReturn(List.of(
+                BatchJob.builder().id(2L).parentJobId(1L).status(BatchJobStatus.RUNNING).build(),
+                child));
+        
+        // When
+        batchJobService.runBatchJob(3L);
+        
+        // Then
+        verify(batchJobRepository, atLeastOnce()).aggregateChildProgress(eq(1L), any(LocalDateTime.class));
+        verify(batchJobRepository, never()).findById(1L);
+    }
+    
+    @Test
+    void runBatchJob_ShouldCompleteWithoutApiCalls_WhenCheckpointReachedStartDate() {
+        // Given - 마지막 청크 커밋 직후 완료 처리 전에 중단된 작업
+        Long batchJobId = 1L;
+        BatchJob batchJob = BatchJob.builder()
+                .id(batchJobId)
+                .stockCode("005930")
+                .startDate("20240108")
+                .endDate("20240112")
+                .periodType(PeriodType.DAILY)
+                .status(BatchJobStatus.RUNNING)
+                .checkpointDate("20240108")
+                .build();
+        
+        when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
+        when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
+        
+        // When
+        batchJobService.runBatchJob(batchJobId);
+        
+        // Then
+        verifyNoInteractions(kisApiService);
+        assertThat(batchJob.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+    }
+    
+    @Test
+    void runBatchJob_ShouldHandleFailure_WhenJobNotFound() {
         // Given
         Long batchJobId = 1L;
         when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.empty());
         
         // When & Then
-        assertThatThrownBy(() -> batchJobService.executeBatchJob(batchJobId))
+        assertThatThrownBy(() -> batchJobService.runBatchJob(batchJobId))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("배치 작업을 찾을 수 없습니다");
     }
     
     @Test
-    void executeBatchJob_ShouldHandleApiFailure_WhenKisApiThrowsException() {
+    void runBatchJob_ShouldHandleApiFailure_WhenKisApiThrowsException() {
         // Given
         Long batchJobId = 1L;
         BatchJob batchJob = BatchJob.builder()
                 .id(batchJobId)
                 .stockCode("005930")
-                .startDate("20240101")
-                .endDate("20240101")
+                .startDate("20240108")
+                .endDate("20240108")
                 .periodType(PeriodType.DAILY)
                 .status(BatchJobStatus.PENDING)
                 .totalCount(0)
@@ -161,28 +895,28 @@ class BatchJobServiceTest {
         
         when(batchJobRepository.findById(batchJobId)).thenReturn(Optional.of(batchJob));
         when(batchJobRepository.save(any(BatchJob.class))).thenReturn(batchJob);
-        when(kisApiService.fetchStockData(anyString(), anyString(), anyString(), any(PeriodType.class)))
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
                 .thenThrow(new RuntimeException("API 호출 실패"));
         
         // When
-        CompletableFuture<Void> result = batchJobService.executeBatchJob(batchJobId);
+        List<Long> childJobIds = batchJobService.runBatchJob(batchJobId);
         
         // Then
-        assertThat(result).isCompleted();
+        assertThat(childJobIds).isEmpty();
         verify(batchJobRepository, atLeast(2)).save(any(BatchJob.class));
-        verify(kisApiService).fetchStockData(anyString(), anyString(), anyString(), any(PeriodType.class));
-        verify(dataProcessingService, never()).processAndSaveStockData(anyList());
+        verify(kisApiService).fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class));
+        verify(batchChunkWriter).write(eq(batchJob), eq(List.of()));
     }
     
     @Test
-    void executeBatchJob_ShouldHandleExceptionGracefully() {
+    void runBatchJob_ShouldHandleExceptionGracefully() {
         // Given
         Long batchJobId = 1L;
         BatchJob batchJob = BatchJob.builder()
                 .id(batchJobId)
                 .stockCode("005930")
-                .startDate("20240101")
-                .endDate("20240101")
+                .startDate("20240108")
+                .endDate("20240108")
                 .periodType(PeriodType.DAILY)
                 .status(BatchJobStatus.PENDING)
                 .totalCount(0)
@@ -198,14 +932,14 @@ class BatchJobServiceTest {
                 .thenReturn(batchJob)
                 .thenReturn(batchJob);
         
-        when(kisApiService.fetchStockData(anyString(), anyString(), anyString(), any(PeriodType.class)))
+        when(kisApiService.fetchStockDataRange(anyString(), anyString(), anyString(), any(PeriodType.class)))
                 .thenThrow(new RuntimeException("API error"));
         
         // When
-        CompletableFuture<Void> result = batchJobService.executeBatchJob(batchJobId);
+        List<Long> childJobIds = batchJobService.runBatchJob(batchJobId);
         
         // Then
-        assertThat(result).isCompleted();
+        assertThat(childJobIds).isEmpty();
         verify(batchJobRepository, atLeast(3)).save(any(BatchJob.class));
     }
     
@@ -225,34 +959,6 @@ class BatchJobServiceTest {
         assertThat(result.get(2)).isEqualTo(LocalDate.of(2024, 1, 1));
     }
     
-    @Test
-    void isWeekday_ShouldReturnTrue_ForWeekdays() {
-        // Given
-        LocalDate monday = LocalDate.of(2024, 1, 1); // 2024-01-01 is Monday
-        LocalDate tuesday = LocalDate.of(2024, 1, 2);
-        LocalDate wednesday = LocalDate.of(2024, 1, 3);
-        LocalDate thursday = LocalDate.of(2024, 1, 4);
-        LocalDate friday = LocalDate.of(2024, 1, 5);
-        
-        // When & Then
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", monday)).isTrue();
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", tuesday)).isTrue();
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", wednesday)).isTrue();
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", thursday)).isTrue();
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", friday)).isTrue();
-    }
-    
-    @Test
-    void isWeekday_ShouldReturnFalse_ForWeekends() {
-        // Given
-        LocalDate saturday = LocalDate.of(2024, 1, 6);
-        LocalDate sunday = LocalDate.of(2024, 1, 7);
-        
-        // When & Then
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", saturday)).isFalse();
-        assertThat((Boolean) ReflectionTestUtils.invokeMethod(batchJobService, "isWeekday", sunday)).isFalse();
-    }
-    
     @Test
     void getPendingJobs_ShouldReturnPendingJobs() {
         // Given
@@ -0,0 +1,127 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
+import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
+import com.hsu_mafia.motoo.kisdatacollector.repository.BatchJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchJobSplitterTest {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Mock
+    private BatchJobRepository batchJobRepository;
+
+    private BatchConfig batchConfig;
+
+    private BatchJobSplitter batchJobSplitter;
+
+    @BeforeEach
+    void setUp() {
+        batchConfig = new BatchConfig();
+        batchConfig.setMaxWindowsPerJob(20);
+        TradingCalendar tradingCalendar = new TradingCalendar(batchConfig);
+        batchJobSplitter = new BatchJobSplitter(batchJobRepository,
+                new FetchWindowPlanner(batchConfig, tradingCalendar), batchConfig);
+        lenient().when(batchJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void splitIfOversized_ShouldCreateContiguousChildJobs_CoveringWholeRange() {
+        // Given - 분봉 1년: 거래일마다 호출 1번, 하위 작업당 20번
+        BatchJob parent = minuteJob(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+        // When
+        List<BatchJob> children = batchJobSplitter.splitIfOversized(parent, dateRange);
+
+        // Then
+        assertThat(children).hasSizeGreaterThan(10);
+        assertThat(children.get(0).getStartDate()).isEqualTo("20230101");
+        assertThat(children.get(children.size() - 1).getEndDate()).isEqualTo("20231231");
+        for (int i = 1; i < children.size(); i++) {
+            LocalDate previousEnd = LocalDate.parse(children.get(i - 1).getEndDate(), DATE_FORMAT);
+            assertThat(children.get(i).getStartDate()).isEqualTo(previousEnd.plusDays(1).format(DATE_FORMAT));
+        }
+        assertThat(children.stream().mapToInt(BatchJob::getTotalCount).sum()).isEqualTo(dateRange.size());
+        assertThat(children).allSatisfy(child -> {
+            assertThat(child.getParentJobId()).isEqualTo(1L);
+            assertThat(child.getStatus()).isEqualTo(BatchJobStatus.PENDING);
+            assertThat(child.getPriority()).isEqualTo(RequestPriority.BACKFILL);
+            assertThat(child.getPeriodType()).isEqualTo(PeriodType.MINUTE);
+        });
+
+        assertThat(parent.getStatus()).isEqualTo(BatchJobStatus.SPLIT);
+        assertThat(parent.getTotalCount()).isEqualTo(dateRange.size());
+        verify(batchJobRepository).save(parent);
+    }
+
+    @Test
+    void splitIfOversized_ShouldNotSplit_WhenJobFitsInLimit() {
+        // Given - 일봉 1년은 윈도우 3개
+        BatchJob parent = minuteJob(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        parent.setPeriodType(PeriodType.DAILY);
+
+        // When
+        List<BatchJob> children = batchJobSplitter.splitIfOversized(parent,
+                reverseRange(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31)));
+
+        // Then
+        assertThat(children).isEmpty();
+        assertThat(parent.getStatus()).isEqualTo(BatchJobStatus.PENDING);
+        verifyNoInteractions(batchJobRepository);
+    }
+
+    @Test
+    void splitIfOversized_ShouldNotSplit_ChildOrResumedJob() {
+        // Given
+        BatchJob child = minuteJob(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        child.setParentJobId(99L);
+        BatchJob resumed = minuteJob(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        resumed.setCheckpointDate("20231201");
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+        // When & Then
+        assertThat(batchJobSplitter.splitIfOversized(child, dateRange)).isEmpty();
+        assertThat(batchJobSplitter.splitIfOversized(resumed, dateRange)).isEmpty();
+        verifyNoInteractions(batchJobRepository);
+    }
+
+    private BatchJob minuteJob(LocalDate startDate, LocalDate endDate) {
+        return BatchJob.builder()
+                .id(1L)
+                .jobName("분봉 백필")
+                .stockCode("005930")
+                .startDate(startDate.format(DATE_FORMAT))
+                .endDate(endDate.format(DATE_FORMAT))
+                .periodType(PeriodType.MINUTE)
+                .priority(RequestPriority.BACKFILL)
+                .status(BatchJobStatus.PENDING)
+                .build();
+    }
+
+    private List<LocalDate> reverseRange(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = endDate; !date.isBefore(startDate); date = date.minusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
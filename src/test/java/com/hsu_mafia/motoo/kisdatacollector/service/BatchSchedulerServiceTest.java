@@ -1,9 +1,11 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJob;
 import com.hsu_mafia.motoo.kisdatacollector.domain.BatchJobStatus;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.dto.BatchJobRequest;
+import com.hsu_mafia.motoo.kisdatacollector.service.SyncGapPlanner.SyncGap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,8 +15,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,70 +28,146 @@ class BatchSchedulerServiceTest {
     @Mock
     private BatchJobService batchJobService;
     
+    @Mock
+    private BatchJobExecutor batchJobExecutor;
+    
+    @Mock
+    private SyncGapPlanner syncGapPlanner;
+    
+    @Mock
+    private BatchJobLeaseManager batchJobLeaseManager;
+    
+    private BatchConfig batchConfig;
+    
     private BatchSchedulerService batchSchedulerService;
     
     @BeforeEach
     void setUp() {
-        batchSchedulerService = new BatchSchedulerService(batchJobService);
+        batchConfig = new BatchConfig();
+        batchConfig.setMaxConcurrentJobs(2);
+        batchSchedulerService = new BatchSchedulerService(batchJobService, batchJobExecutor, syncGapPlanner,
+                batchJobLeaseManager, batchConfig);
         ReflectionTestUtils.setField(batchSchedulerService, "stockCodesConfig", "005930,000660,035420");
+        
+        // 기본적으로 요청 구간 전체가 비어 있는 것으로 본다
+        lenient().when(syncGapPlanner.findGaps(anyString(), any(PeriodType.class), any(LocalDate.class), any(LocalDate.class)))
+                .thenAnswer(invocation -> List.of(new SyncGap(invocation.getArgument(2), invocation.getArgument(3))));
     }
     
     @Test
-    void executePendingBatchJobs_ShouldExecuteAllPendingJobs() {
+    void recoverInterruptedBatchJobs_ShouldResumeRunningJobsWithReleasedLease() {
         // Given
-        List<BatchJob> pendingJobs = Arrays.asList(
-                BatchJob.builder().id(1L).status(BatchJobStatus.PENDING).build(),
-                BatchJob.builder().id(2L).status(BatchJobStatus.PENDING).build(),
-                BatchJob.builder().id(3L).status(BatchJobStatus.PENDING).build()
-        );
+        when(batchJobLeaseManager.claim(BatchJobStatus.RUNNING, 1))
+                .thenReturn(List.of(1L), List.of(2L), List.of());
+        when(batchJobExecutor.submit(anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        batchSchedulerService.recoverInterruptedBatchJobs();
         
-        when(batchJobService.getPendingJobs()).thenReturn(pendingJobs);
+        // Then
+        verify(batchJobExecutor).submit(1L);
+        verify(batchJobExecutor).submit(2L);
+        verify(batchJobLeaseManager, never()).claim(eq(BatchJobStatus.PENDING), anyInt());
+    }
+    
+    @Test
+    void recoverInterruptedBatchJobs_ShouldDoNothing_WhenDisabled() {
+        // Given
+        batchConfig.setRecoverOnStartup(false);
         
         // When
-        batchSchedulerService.executePendingBatchJobs();
+        batchSchedulerService.recoverInterruptedBatchJobs();
         
         // Then
-        verify(batchJobService).getPendingJobs();
-        verify(batchJobService, times(3)).executeBatchJob(anyLong());
-        verify(batchJobService).executeBatchJob(1L);
-        verify(batchJobService).executeBatchJob(2L);
-        verify(batchJobService).executeBatchJob(3L);
+        verifyNoInteractions(batchJobService, batchJobExecutor, batchJobLeaseManager);
     }
     
     @Test
-    void executePendingBatchJobs_ShouldHandleEmptyPendingJobs() {
+    void reclaimAbandonedBatchJobs_ShouldRunJobsWhoseLeaseExpired() {
         // Given
-        when(batchJobService.getPendingJobs()).thenReturn(Arrays.asList());
+        when(batchJobLeaseManager.claim(BatchJobStatus.RUNNING, 1)).thenReturn(List.of(7L), List.of());
+        when(batchJobExecutor.submit(7L)).thenReturn(CompletableFuture.completedFuture(null));
         
         // When
-        batchSchedulerService.executePendingBatchJobs();
+        batchSchedulerService.reclaimAbandonedBatchJobs();
         
         // Then
-        verify(batchJobService).getPendingJobs();
-        verify(batchJobService, never()).executeBatchJob(anyLong());
+        verify(batchJobExecutor).submit(7L);
     }
     
     @Test
-    void executePendingBatchJobs_ShouldContinueExecution_WhenOneJobFails() {
+    void resumePreemptedBatchJobs_ShouldClaimResumedJobs() {
         // Given
-        List<BatchJob> pendingJobs = Arrays.asList(
-                BatchJob.builder().id(1L).status(BatchJobStatus.PENDING).build(),
-                BatchJob.builder().id(2L).status(BatchJobStatus.PENDING).build(),
-                BatchJob.builder().id(3L).status(BatchJobStatus.PENDING).build()
-        );
+        when(batchJobService.resumePreemptedJobs()).thenReturn(1);
+        when(batchJobLeaseManager.claim(BatchJobStatus.RUNNING, 1)).thenReturn(List.of(3L), List.of());
+        when(batchJobExecutor.submit(anyLong())).thenReturn(CompletableFuture.completedFuture(null));
         
-        when(batchJobService.getPendingJobs()).thenReturn(pendingJobs);
-        doThrow(new RuntimeException("Job execution failed")).when(batchJobService).executeBatchJob(2L);
+        // When
+        batchSchedulerService.resumePreemptedBatchJobs();
+        
+        // Then
+        verify(batchJobExecutor).submit(3L);
+    }
+    
+    @Test
+    void resumePreemptedBatchJobs_ShouldNotClaim_WhenNothingResumed() {
+        // When
+        batchSchedulerService.resumePreemptedBatchJobs();
+        
+        // Then
+        verifyNoInteractions(batchJobLeaseManager, batchJobExecutor);
+    }
+    
+    @Test
+    void executePendingBatchJobs_ShouldClaimAndSubmitPendingJobsOneByOne() {
+        // Given
+        when(batchJobLeaseManager.claim(BatchJobStatus.PENDING, 1))
+                .thenReturn(List.of(1L), List.of(2L), List.of(3L), List.of());
+        when(batchJobExecutor.submit(anyLong())).thenReturn(CompletableFuture.completedFuture(null));
         
         // When
         batchSchedulerService.executePendingBatchJobs();
         
         // Then
-        verify(batchJobService).getPendingJobs();
-        verify(batchJobService, times(3)).executeBatchJob(anyLong());
-        verify(batchJobService).executeBatchJob(1L);
-        verify(batchJobService).executeBatchJob(2L);
-        verify(batchJobService).executeBatchJob(3L);
+        verify(batchJobExecutor).submit(1L);
+        verify(batchJobExecutor).submit(2L);
+        verify(batchJobExecutor).submit(3L);
+        verify(batchJobService, never()).runBatchJob(anyLong());
+    }
+    
+    @Test
+    void executePendingBatchJobs_ShouldClaimNextJob_OnlyAfterPreviousJobFinishes() {
+        // Given - 동시 실행 2개
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        when(batchJobLeaseManager.claim(BatchJobStatus.PENDING, 1))
+                .thenReturn(List.of(1L), List.of(2L), List.of(3L), List.of());
+        when(batchJobExecutor.submit(1L)).thenReturn(first);
+        when(batchJobExecutor.submit(2L)).thenReturn(second);
+        when(batchJobExecutor.submit(3L)).thenReturn(CompletableFuture.completedFuture(null));
+        
+        // When
+        batchSchedulerService.executePendingBatchJobs();
+        
+        // Then
+        verify(batchJobLeaseManager, times(2)).claim(BatchJobStatus.PENDING, 1);
+        verify(batchJobExecutor, never()).submit(3L);
+        
+        first.complete(null);
+        verify(batchJobExecutor).submit(3L);
+    }
+    
+    @Test
+    void executePendingBatchJobs_ShouldHandleEmptyPendingJobs() {
+        // Given
+        when(batchJobLeaseManager.claim(BatchJobStatus.PENDING, 1)).thenReturn(List.of());
+        
+        // When
+        batchSchedulerService.executePendingBatchJobs();
+        
+        // Then
+        verify(batchJobLeaseManager, times(2)).claim(BatchJobStatus.PENDING, 1);
+        verifyNoInteractions(batchJobExecutor);
     }
     
     @Test
@@ -147,6 +225,49 @@ class BatchSchedulerServiceTest {
         assertThat(request.getStartDate()).isLessThanOrEqualTo(request.getEndDate());
     }
     
+    @Test
+    void scheduledWeeklyBackfill_ShouldSkipStocks_WhenNoGapsExist() {
+        // Given
+        when(syncGapPlanner.findGaps(eq("000660"), eq(PeriodType.DAILY), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+        BatchJob createdJob = BatchJob.builder().id(1L).build();
+        when(batchJobService.createBatchJob(any(BatchJobRequest.class))).thenReturn(createdJob);
+        
+        // When
+        batchSchedulerService.scheduledWeeklyBackfill();
+        
+        // Then
+        ArgumentCaptor<BatchJobRequest> requestCaptor = ArgumentCaptor.forClass(BatchJobRequest.class);
+        verify(batchJobService, times(2)).createBatchJob(requestCaptor.capture());
+        assertThat(requestCaptor.getAllValues()).extracting(BatchJobRequest::getStockCode)
+                .containsExactly("005930", "035420");
+    }
+    
+    @Test
+    void scheduledWeeklyBackfill_ShouldCreateOneJobPerGap() {
+        // Given
+        ReflectionTestUtils.setField(batchSchedulerService, "stockCodesConfig", "005930");
+        when(syncGapPlanner.findGaps(eq("005930"), eq(PeriodType.DAILY), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(
+                        new SyncGap(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 9)),
+                        new SyncGap(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 11))));
+        BatchJob createdJob = BatchJob.builder().id(1L).build();
+        when(batchJobService.createBatchJob(any(BatchJobRequest.class))).thenReturn(createdJob);
+        
+        // When
+        batchSchedulerService.scheduledWeeklyBackfill();
+        
+        // Then
+        ArgumentCaptor<BatchJobRequest> requestCaptor = ArgumentCaptor.forClass(BatchJobRequest.class);
+        verify(batchJobService, times(2)).createBatchJob(requestCaptor.capture());
+        
+        List<BatchJobRequest> capturedRequests = requestCaptor.getAllValues();
+        assertThat(capturedRequests.get(0).getStartDate()).isEqualTo("20240108");
+        assertThat(capturedRequests.get(0).getEndDate()).isEqualTo("20240109");
+        assertThat(capturedRequests.get(1).getStartDate()).isEqualTo("20240111");
+        assertThat(capturedRequests.get(1).getEndDate()).isEqualTo("20240111");
+    }
+    
     @Test
     void scheduledWeeklyBackfill_ShouldContinueCreation_WhenOneJobCreationFails() {
         // Given
@@ -0,0 +1,137 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 같은 주를 나눠 받은 두 트랜잭션이 동시에 주봉을 집계하는 PostgreSQL 통합 테스트
+ * 실행하려면 빈 PostgreSQL DB 를 환경변수로 지정: PARTITION_TEST_DB_URL (필요하면 PARTITION_TEST_DB_USERNAME/PASSWORD)
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandleRollupService.class, StockPriceBulkRepository.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=${PARTITION_TEST_DB_URL:}",
+    "spring.datasource.driver-class-name=org.postgresql.Driver",
+    "spring.datasource.username=${PARTITION_TEST_DB_USERNAME:postgres}",
+    "spring.datasource.password=${PARTITION_TEST_DB_PASSWORD:}",
+    "spring.jpa.hibernate.ddl-auto=none",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@EnabledIfEnvironmentVariable(named = "PARTITION_TEST_DB_URL", matches = ".+")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CandleRollupConcurrencyIntegrationTest {
+
+    private static final String STOCK_CODE = "RU0001";
+
+    @Autowired
+    private CandleRollupService candleRollupService;
+
+    @Autowired
+    private StockPriceBulkRepository stockPriceBulkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_prices WHERE stock_code = ?", STOCK_CODE);
+    }
+
+    @Test
+    void rollup_ShouldIncludeBothWritersDailies_WhenTwoTransactionsSplitOneWeek() throws Exception {
+        // Given - 2024-01-08(월) 주를 앞 작업이 월~수, 뒤 작업이 목~금으로 나눠 받음
+        List<StockPrice> first = List.of(daily(8, 100L), daily(9, 200L), daily(10, 300L));
+        List<StockPrice> second = List.of(daily(11, 400L), daily(12, 500L));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch firstRolledUp = new CountDownLatch(1);
+        CountDownLatch secondInserted = new CountDownLatch(1);
+
+        // When - 앞 작업이 집계를 마치고 커밋하기 전에 뒤 작업이 일봉을 넣고 집계를 시작한다
+        CompletableFuture<Void> firstWriter = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            stockPriceBulkRepository.insertIgnoringConflicts(first);
+            candleRollupService.rollup(first);
+            firstRolledUp.countDown();
+            await(secondInserted);
+            sleep(500); // 뒤 작업이 집계에 들어갈 때까지
+        }));
+        CompletableFuture<Void> secondWriter = CompletableFuture.runAsync(() -> {
+            await(firstRolledUp);
+            transactionTemplate.executeWithoutResult(status -> {
+                stockPriceBulkRepository.insertIgnoringConflicts(second);
+                secondInserted.countDown();
+                candleRollupService.rollup(second);
+            });
+        });
+        CompletableFuture.allOf(firstWriter, secondWriter).get(30, TimeUnit.SECONDS);
+
+        // Then - 주봉은 다섯 거래일을 모두 묶는다
+        Map<String, Object> weekly = jdbcTemplate.queryForMap(
+                "SELECT candle_date_time, open_price, close_price, volume FROM stock_prices "
+                        + "WHERE stock_code = ? AND period_type = ?", STOCK_CODE, PeriodType.WEEKLY.name());
+        assertThat(((Timestamp) weekly.get("candle_date_time")).toLocalDateTime())
+                .isEqualTo(LocalDateTime.of(2024, 1, 12, 0, 0));
+        assertThat(weekly.get("open_price")).isEqualTo(7_000_100L);
+        assertThat(weekly.get("close_price")).isEqualTo(7_000_500L);
+        assertThat(weekly.get("volume")).isEqualTo(1_500L);
+    }
+
+    private StockPrice daily(int dayOfMonth, long volume) {
+        return StockPrice.builder()
+                .stockCode(STOCK_CODE)
+                .candleDateTime(LocalDate.of(2024, 1, dayOfMonth).atStartOfDay())
+                .periodType(PeriodType.DAILY)
+                .openPrice(7_000_000L + volume)
+                .highPrice(7_100_000L)
+                .lowPrice(6_900_000L)
+                .closePrice(7_000_000L + volume)
+                .volume(volume)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository.CandleRange;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CandleRollupServiceTest {
+
+    // 같은 종목·기간을 KIS 기간별 시세(FHKST03010100)로 일봉/주봉/월봉 각각 조회한 응답 형식의 표본
+    private static final String KIS_DAILY_RESPONSE = """
+            {"output2": [
+                {"stck_bsop_date": "20240202", "stck_clpr": "71000", "stck_oprc": "72000", "stck_hgpr": "72200", "stck_lwpr": "70300", "acml_vol": "15738472", "acml_tr_pbmn": "1121366706129"},
+                {"stck_bsop_date": "20240201", "stck_clpr": "71900", "stck_oprc": "72700", "stck_hgpr": "73000", "stck_lwpr": "71300", "acml_vol": "15559047", "acml_tr_pbmn": "1122586202401"},
+                {"stck_bsop_date": "20240131", "stck_clpr": "72900", "stck_oprc": "73800", "stck_hgpr": "74500", "stck_lwpr": "72900", "acml_vol": "12660918", "acml_tr_pbmn": "933110462150"},
+                {"stck_bsop_date": "20240130", "stck_clpr": "73500", "stck_oprc": "73600", "stck_hgpr": "73600", "stck_lwpr": "72800", "acml_vol": "14963698", "acml_tr_pbmn": "1095342869811"},
+                {"stck_bsop_date": "20240129", "stck_clpr": "73200", "stck_oprc": "73500", "stck_hgpr": "74200", "stck_lwpr": "72800", "acml_vol": "21023019", "acml_tr_pbmn": "1545192301031"},
+                {"stck_bsop_date": "20240126", "stck_clpr": "73000", "stck_oprc": "73400", "stck_hgpr": "74100", "stck_lwpr": "72900", "acml_vol": "10017864", "acml_tr_pbmn": "736313770676"},
+                {"stck_bsop_date": "20240125", "stck_clpr": "73900", "stck_oprc": "73200", "stck_hgpr": "74600", "stck_lwpr": "72500", "acml_vol": "10153650", "acml_tr_pbmn": "746801838270"},
+                {"stck_bsop_date": "20240124", "stck_clpr": "73300", "stck_oprc": "72100", "stck_hgpr": "74100", "stck_lwpr": "71600", "acml_vol": "14706306", "acml_tr_pbmn": "1071355121170"},
+                {"stck_bsop_date": "20240123", "stck_clpr": "72600", "stck_oprc": "73400", "stck_hgpr": "74100", "stck_lwpr": "72000", "acml_vol": "9657788", "acml_tr_pbmn": "705502114075"},
+                {"stck_bsop_date": "20240122", "stck_clpr": "73500", "stck_oprc": "74400", "stck_hgpr": "75200", "stck_lwpr": "72900", "acml_vol": "11767604", "acml_tr_pbmn": "871391870119"},
+                {"stck_bsop_date": "20240119", "stck_clpr": "74900", "stck_oprc": "74600", "stck_hgpr": "75400", "stck_lwpr": "73900", "acml_vol": "13830794", "acml_tr_pbmn": "1032469410639"},
+                {"stck_bsop_date": "20240118", "stck_clpr": "74400", "stck_oprc": "73200", "stck_hgpr": "74700", "stck_lwpr": "73100", "acml_vol": "18637230", "acml_tr_pbmn": "1377291611834"},
+                {"stck_bsop_date": "20240117", "stck_clpr": "72700", "stck_oprc": "72800", "stck_hgpr": "73200", "stck_lwpr": "72400", "acml_vol": "22327476", "acml_tr_pbmn": "1625440441299"},
+                {"stck_bsop_date": "20240116", "stck_clpr": "72700", "stck_oprc": "72600", "stck_hgpr": "73200", "stck_lwpr": "71900", "acml_vol": "18824097", "acml_tr_pbmn": "1365689205648"},
+                {"stck_bsop_date": "20240115", "stck_clpr": "72400", "stck_oprc": "73400", "stck_hgpr": "73400", "stck_lwpr": "72100", "acml_vol": "17328453", "acml_tr_pbmn": "1260645669201"},
+                {"stck_bsop_date": "20240112", "stck_clpr": "72900", "stck_oprc": "72100", "stck_hgpr": "73200", "stck_lwpr": "71600", "acml_vol": "10634613", "acml_tr_pbmn": "769946555551"},
+                {"stck_bsop_date": "20240111", "stck_clpr": "71800", "stck_oprc": "72100", "stck_hgpr": "72900", "stck_lwpr": "71600", "acml_vol": "10728987", "acml_tr_pbmn": "775169920601"},
+                {"stck_bsop_date": "20240110", "stck_clpr": "71800", "stck_oprc": "72100", "stck_hgpr": "72700", "stck_lwpr": "71600", "acml_vol": "18071203", "acml_tr_pbmn": "1303837419964"},
+                {"stck_bsop_date": "20240109", "stck_clpr": "72500", "stck_oprc": "73600", "stck_hgpr": "73900", "stck_lwpr": "72500", "acml_vol": "18339287", "acml_tr_pbmn": "1342436708569"},
+                {"stck_bsop_date": "20240108", "stck_clpr": "73600", "stck_oprc": "74500", "stck_hgpr": "74800", "stck_lwpr": "73600", "acml_vol": "18682180", "acml_tr_pbmn": "1386218369984"},
+                {"stck_bsop_date": "20240105", "stck_clpr": "74200", "stck_oprc": "75200", "stck_hgpr": "76000", "stck_lwpr": "73600", "acml_vol": "9991709", "acml_tr_pbmn": "747380700217"},
+                {"stck_bsop_date": "20240104", "stck_clpr": "75500", "stck_oprc": "76600", "stck_hgpr": "76700", "stck_lwpr": "74900", "acml_vol": "16015764", "acml_tr_pbmn": "1213994984448"},
+                {"stck_bsop_date": "20240103", "stck_clpr": "76900", "stck_oprc": "77800", "stck_hgpr": "78300", "stck_lwpr": "76900", "acml_vol": "24262301", "acml_tr_pbmn": "1882755089684"},
+                {"stck_bsop_date": "20240102", "stck_clpr": "77600", "stck_oprc": "78400", "stck_hgpr": "79000", "stck_lwpr": "77600", "acml_vol": "10215279", "acml_tr_pbmn": "799857206868"}
+            ], "rt_cd": "0", "msg_cd": "MCA00000"}
+            """;
+
+    private static final String KIS_WEEKLY_RESPONSE = """
+            {"output2": [
+                {"stck_bsop_date": "20240202", "stck_clpr": "71000", "stck_oprc": "73500", "stck_hgpr": "74500", "stck_lwpr": "70300", "acml_vol": "79945154", "acml_tr_pbmn": "5817598541522"},
+                {"stck_bsop_date": "20240126", "stck_clpr": "73000", "stck_oprc": "74400", "stck_hgpr": "75200", "stck_lwpr": "71600", "acml_vol": "56303212", "acml_tr_pbmn": "4131364714310"},
+                {"stck_bsop_date": "20240119", "stck_clpr": "74900", "stck_oprc": "73400", "stck_hgpr": "75400", "stck_lwpr": "71900", "acml_vol": "90948050", "acml_tr_pbmn": "6661536338621"},
+                {"stck_bsop_date": "20240112", "stck_clpr": "72900", "stck_oprc": "74500", "stck_hgpr": "74800", "stck_lwpr": "71600", "acml_vol": "76456270", "acml_tr_pbmn": "5577608974669"},
+                {"stck_bsop_date": "20240105", "stck_clpr": "74200", "stck_oprc": "78400", "stck_hgpr": "79000", "stck_lwpr": "73600", "acml_vol": "60485053", "acml_tr_pbmn": "4643987981217"}
+            ], "rt_cd": "0", "msg_cd": "MCA00000"}
+            """;
+
+    private static final String KIS_MONTHLY_RESPONSE = """
+            {"output2": [
+                {"stck_bsop_date": "20240131", "stck_clpr": "72900", "stck_oprc": "78400", "stck_hgpr": "79000", "stck_lwpr": "71600", "acml_vol": "332840220", "acml_tr_pbmn": "24588143641809"}
+            ], "rt_cd": "0", "msg_cd": "MCA00000"}
+            """;
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    @Mock
+    private StockPriceBulkRepository stockPriceBulkRepository;
+
+    private final KisChartResponseParser parser = new KisChartResponseParser(new ObjectMapper());
+
+    private CandleRollupService candleRollupService;
+
+    @BeforeEach
+    void setUp() {
+        candleRollupService = new CandleRollupService(stockPriceRepository, stockPriceBulkRepository);
+    }
+
+    @Test
+    void aggregate_ShouldMatchKisWeeklyCandles() throws Exception {
+        // Given
+        List<StockPrice> dailies = parse(KIS_DAILY_RESPONSE, PeriodType.DAILY);
+
+        // When
+        List<StockPrice> weeklies = candleRollupService.aggregate(dailies, PeriodType.WEEKLY);
+
+        // Then - 1월 1일 휴장으로 4거래일인 첫 주와 달을 넘기는 마지막 주를 포함해 KIS 주봉과 같다
+        assertSameCandles(weeklies, parse(KIS_WEEKLY_RESPONSE, PeriodType.WEEKLY));
+    }
+
+    @Test
+    void aggregate_ShouldMatchKisMonthlyCandles() throws Exception {
+        // Given
+        List<StockPrice> dailies = parse(KIS_DAILY_RESPONSE, PeriodType.DAILY);
+
+        // When
+        List<StockPrice> monthlies = candleRollupService.aggregate(dailies, PeriodType.MONTHLY);
+
+        // Then - 2월은 진행 중이므로 표본의 1월만 비교
+        assertThat(monthlies).hasSize(2);
+        assertSameCandles(monthlies.subList(0, 1), parse(KIS_MONTHLY_RESPONSE, PeriodType.MONTHLY));
+        assertThat(monthlies.get(1).getCandleDateTime()).isEqualTo(LocalDateTime.of(2024, 2, 2, 0, 0));
+    }
+
+    @Test
+    void rollup_ShouldReplaceWeeksAndMonthsTouchedByNewDailies() throws Exception {
+        // Given - 1월 31일 일봉이 새로 들어옴
+        List<StockPrice> dailies = parse(KIS_DAILY_RESPONSE, PeriodType.DAILY);
+        when(stockPriceRepository.findCandles(eq("005930"), eq(PeriodType.DAILY), any(), any()))
+                .thenAnswer(invocation -> dailies.stream()
+                        .filter(daily -> !daily.getCandleDateTime().isBefore(invocation.getArgument(2, LocalDateTime.class))
+                                && daily.getCandleDateTime().isBefore(invocation.getArgument(3, LocalDateTime.class)))
+                        .toList());
+
+        // When
+        candleRollupService.rollup(List.of(dailies.stream()
+                .filter(daily -> daily.getCandleDateTime().toLocalDate().equals(LocalDate.of(2024, 1, 31)))
+                .findFirst().orElseThrow()));
+
+        // Then - 종목을 잠근 뒤 일봉을 읽고, 1/29 주와 1월만 다시 계산한다
+        InOrder inOrder = inOrder(stockPriceBulkRepository, stockPriceRepository);
+        inOrder.verify(stockPriceBulkRepository).lockRollup("005930");
+        inOrder.verify(stockPriceRepository).findCandles("005930", PeriodType.DAILY,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 5, 0, 0));
+        verify(stockPriceBulkRepository).deleteRanges("005930", PeriodType.WEEKLY, List.of(
+                new CandleRange(LocalDateTime.of(2024, 1, 29, 0, 0), LocalDateTime.of(2024, 2, 5, 0, 0))));
+        verify(stockPriceBulkRepository).deleteRanges("005930", PeriodType.MONTHLY, List.of(
+                new CandleRange(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0))));
+
+        ArgumentCaptor<List<StockPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockPriceBulkRepository, times(2)).insertIgnoringConflicts(captor.capture());
+        assertThat(captor.getAllValues().get(0)).singleElement().satisfies(weekly -> {
+            assertThat(weekly.getPeriodType()).isEqualTo(PeriodType.WEEKLY);
+            assertThat(weekly.getCandleDateTime()).isEqualTo(LocalDateTime.of(2024, 2, 2, 0, 0));
+        });
+        assertThat(captor.getAllValues().get(1)).singleElement().satisfies(monthly -> {
+            assertThat(monthly.getPeriodType()).isEqualTo(PeriodType.MONTHLY);
+            assertThat(monthly.getCandleDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 31, 0, 0));
+        });
+    }
+
+    @Test
+    void rollup_ShouldIgnoreNonDailyCandles() {
+        // When
+        candleRollupService.rollup(List.of(StockPrice.builder()
+                .stockCode("005930")
+                .candleDateTime(LocalDateTime.of(2024, 1, 2, 9, 0))
+                .periodType(PeriodType.MINUTE)
+                .build()));
+
+        // Then
+        verifyNoInteractions(stockPriceRepository, stockPriceBulkRepository);
+    }
+
+    @Test
+    void hasDailyCandles_ShouldReturnFalse_WhenAnyTradingDayIsMissing() {
+        // Given
+        when(stockPriceRepository.findCandleDates("005930", PeriodType.DAILY,
+                LocalDateTime.of(2024, 1, 8, 0, 0), LocalDateTime.of(2024, 1, 11, 0, 0)))
+                .thenReturn(List.of(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 10)));
+
+        // When & Then
+        assertThat(candleRollupService.hasDailyCandles("005930",
+                List.of(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 8)))).isFalse();
+        assertThat(candleRollupService.hasDailyCandles("005930",
+                List.of(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 8)))).isTrue();
+    }
+
+    private void assertSameCandles(List<StockPrice> actual, List<StockPrice> expected) {
+        assertThat(actual).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(expected);
+    }
+
+    /**
+     * KIS 응답을 시각 오름차순 캔들로 바꾼다 (KIS 는 최신 캔들부터 준다)
+     */
+    private List<StockPrice> parse(String body, PeriodType periodType) throws Exception {
+        return parser.parse(body, "005930", periodType).candles().stream()
+                .map(this::toStockPrice)
+                .sorted(Comparator.comparing(StockPrice::getCandleDateTime))
+                .toList();
+    }
+
+    private StockPrice toStockPrice(StockDataResponse data) {
+        return StockPrice.builder()
+                .stockCode(data.getStockCode())
+                .candleDateTime(LocalDate.parse(data.getCandleDateTime().substring(0, 8),
+                        DateTimeFormatter.ofPattern("yyyyMMdd")).atStartOfDay())
+                .periodType(data.getPeriodType())
+                .openPrice(Long.parseLong(data.getOpenPrice()))
+                .highPrice(Long.parseLong(data.getHighPrice()))
+                .lowPrice(Long.parseLong(data.getLowPrice()))
+                .closePrice(Long.parseLong(data.getClosePrice()))
+                .volume(Long.parseLong(data.getVolume()))
+                .tradeAmount(new BigDecimal(data.getTradeAmount()))
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.service.FetchWindowPlanner.FetchWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FetchWindowPlannerTest {
+
+    private BatchConfig batchConfig;
+    
+    private TradingCalendar tradingCalendar;
+    
+    private FetchWindowPlanner fetchWindowPlanner;
+    
+    @BeforeEach
+    void setUp() {
+        batchConfig = new BatchConfig();
+        tradingCalendar = new TradingCalendar(batchConfig);
+        fetchWindowPlanner = new FetchWindowPlanner(batchConfig, tradingCalendar);
+    }
+    
+    @Test
+    void plan_ShouldCoverEveryDateExactlyOnce() {
+        // Given
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        
+        // When
+        List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, PeriodType.DAILY);
+        
+        // Then
+        assertThat(windows).hasSize(3);
+        assertThat(windows).flatExtracting(FetchWindow::getDates).containsExactlyElementsOf(dateRange);
+        assertThat(windows).allMatch(window -> window.getTradingDays().size() <= 100);
+        assertThat(windows.get(0).getEndDate()).isEqualTo(LocalDate.of(2023, 12, 31));
+        assertThat(windows.get(2).getStartDate()).isEqualTo(LocalDate.of(2023, 1, 1));
+    }
+    
+    @Test
+    void plan_ShouldUseSingleDayWindows_ForMinutePeriod() {
+        // Given - 2024-01-08(월) ~ 2024-01-14(일)
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 14));
+        
+        // When
+        List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, PeriodType.MINUTE);
+        
+        // Then
+        assertThat(windows).hasSize(5);
+        assertThat(windows).allMatch(window -> window.getTradingDays().size() == 1);
+        // 주말은 인접한 윈도우에 포함되어 호출되지 않음
+        assertThat(windows.get(0).getDates()).hasSize(3);
+    }
+    
+    @Test
+    void plan_ShouldUseSingleDayWindows_WhenWindowedFetchDisabled() {
+        // Given
+        batchConfig.setWindowedFetch(false);
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12));
+        
+        // When
+        List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, PeriodType.DAILY);
+        
+        // Then
+        assertThat(windows).hasSize(5);
+    }
+    
+    @Test
+    void plan_ShouldReturnWindowWithoutTradingDays_WhenRangeIsWeekendOnly() {
+        // Given
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 7));
+        
+        // When
+        List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, PeriodType.DAILY);
+        
+        // Then
+        assertThat(windows).hasSize(1);
+        assertThat(windows.get(0).hasTradingDays()).isFalse();
+    }
+    
+    @Test
+    void plan_ShouldSkipHolidays_AndRecordAvoidedCalls() {
+        // Given - 2024-09-16 ~ 18 추석, 분봉은 하루 한 번 호출
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2024, 9, 16), LocalDate.of(2024, 9, 20));
+        
+        // When
+        List<FetchWindow> windows = fetchWindowPlanner.plan(dateRange, PeriodType.MINUTE);
+        
+        // Then
+        assertThat(windows).filteredOn(FetchWindow::hasTradingDays).hasSize(2);
+        assertThat(windows).flatExtracting(FetchWindow::getTradingDays)
+                .containsExactly(LocalDate.of(2024, 9, 20), LocalDate.of(2024, 9, 19));
+        assertThat(tradingCalendar.getSkippedHolidayCount()).isEqualTo(3);
+        assertThat(tradingCalendar.getAvoidedCallCount()).isEqualTo(3);
+    }
+    
+    @Test
+    void plan_ShouldRejectRolledUpPeriodTypes() {
+        // Given
+        List<LocalDate> dateRange = reverseRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31));
+        
+        // When & Then - 주봉/월봉은 일봉으로 조회해 집계한다
+        assertThatThrownBy(() -> fetchWindowPlanner.plan(dateRange, PeriodType.WEEKLY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> fetchWindowPlanner.plan(dateRange, PeriodType.MONTHLY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private List<LocalDate> reverseRange(LocalDate start, LocalDate end) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = end; !date.isBefore(start); date = date.minusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,235 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KisApiKeyPoolTest {
+
+    private KisConfig kisConfig;
+
+    @BeforeEach
+    void setUp() {
+        kisConfig = new KisConfig();
+        kisConfig.setAppKey("app-key");
+        kisConfig.setAppSecret("app-secret");
+        kisConfig.setRequestsPerSecond(20);
+        kisConfig.setRequestsPerMinute(1200); // 키당 50ms 간격
+    }
+
+    @Test
+    void constructor_ShouldFallBackToSingleAppKey_WhenNoCredentialsConfigured() {
+        // When
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+
+        // Then
+        assertThat(pool.getKeys()).hasSize(1);
+        KisApiKey key = pool.getKeys().get(0);
+        assertThat(key.getName()).isEqualTo("default");
+        assertThat(key.getAppKey()).isEqualTo("app-key");
+        assertThat(key.getAppSecret()).isEqualTo("app-secret");
+        assertThat(key.getRateLimitManager().getPermitIntervalMillis()).isEqualTo(50);
+    }
+
+    @Test
+    void constructor_ShouldCreateKeyWithOwnRateLimiter_PerCredential() {
+        // Given
+        addCredentials(2);
+        kisConfig.getCredentials().get(1).setName(null);
+
+        // When
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+
+        // Then
+        assertThat(pool.getKeys()).extracting(KisApiKey::getName).containsExactly("account-1", "key-2");
+        assertThat(pool.getKeys()).extracting(KisApiKey::getAppKey).containsExactly("app-key-1", "app-key-2");
+        assertThat(pool.getKeys().get(0).getRateLimitManager())
+                .isNotSameAs(pool.getKeys().get(1).getRateLimitManager());
+    }
+
+    @Test
+    void acquire_ShouldSpreadCallsEvenly_AcrossKeys() {
+        // Given
+        addCredentials(3);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        Map<String, Integer> counts = new HashMap<>();
+
+        // When
+        for (int i = 0; i < 9; i++) {
+            KisApiKey key = pool.acquire();
+            counts.merge(key.getName(), 1, Integer::sum);
+            pool.release(key);
+        }
+
+        // Then
+        assertThat(counts).containsOnly(
+                entry("account-1", 3), entry("account-2", 3), entry("account-3", 3));
+    }
+
+    @Test
+    void acquire_ShouldPreferKeyWithFewerInFlightCalls_WhenPermitsAreEquallyAvailable() {
+        // Given
+        kisConfig.setRequestsPerSecond(1000);
+        kisConfig.setRequestsPerMinute(60000); // 1ms 간격 - 허가 대기 시간이 같아지도록
+        addCredentials(2);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        KisApiKey busy = pool.acquire();
+        sleepMillis(5);
+
+        // When
+        KisApiKey next = pool.acquire();
+
+        // Then
+        assertThat(next).isNotSameAs(busy);
+        assertThat(busy.getInFlight()).isEqualTo(1);
+        assertThat(next.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void acquire_ShouldSkipThrottledKey_UntilCooldownEnds() {
+        // Given
+        kisConfig.setThrottleCooldownMillis(200);
+        addCredentials(2);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        KisApiKey throttled = pool.getKeys().get(0);
+        pool.markThrottled(throttled);
+
+        // When
+        List<String> used = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            KisApiKey key = pool.acquire();
+            used.add(key.getName());
+            pool.release(key);
+        }
+
+        // Then
+        assertThat(used).containsOnly("account-2");
+        assertThat(throttled.isThrottled()).isTrue();
+        assertThat(throttled.getThrottledCount()).hasValue(1);
+
+        sleepMillis(250);
+        assertThat(throttled.isThrottled()).isFalse();
+        assertThat(pool.acquire()).isSameAs(throttled);
+    }
+
+    @Test
+    void acquire_ShouldWaitForCooldown_WhenAllKeysAreThrottled() {
+        // Given
+        kisConfig.setThrottleCooldownMillis(200);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        pool.markThrottled(pool.getKeys().get(0));
+
+        // When
+        long startTime = System.nanoTime();
+        KisApiKey key = pool.acquire();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // Then
+        assertThat(key.getName()).isEqualTo("default");
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    void acquire_ShouldScaleThroughputLinearly_WithNumberOfKeys() throws Exception {
+        // Given
+        long singleKeyMillis = measureMillisFor(new KisApiKeyPool(kisConfig), 21);
+        addCredentials(3);
+        long threeKeysMillis = measureMillisFor(new KisApiKeyPool(kisConfig), 21);
+
+        // Then - 50ms 간격: 키 1개는 약 1000ms, 키 3개는 약 300ms
+        assertThat(singleKeyMillis).isGreaterThanOrEqualTo(950);
+        assertThat(threeKeysMillis).isBetween(250L, 600L);
+    }
+
+    @Test
+    void recordFailure_ShouldThrottleKeyAndSlowItDown_WhenThrottled() {
+        // Given
+        addCredentials(2);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        KisApiKey key = pool.getKeys().get(0);
+
+        // When
+        pool.recordFailure(key, KisErrorType.THROTTLED);
+
+        // Then
+        assertThat(key.isThrottled()).isTrue();
+        assertThat(key.getRateLimitManager().getRequestsPerMinute()).isCloseTo(600.0, within(0.01));
+        assertThat(pool.getKeys().get(1).getRateLimitManager().getRequestsPerMinute()).isEqualTo(1200.0);
+    }
+
+    @Test
+    void recordFailure_ShouldOnlySlowDown_WhenServerError() {
+        // Given
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        KisApiKey key = pool.getKeys().get(0);
+
+        // When
+        pool.recordFailure(key, KisErrorType.SERVER_ERROR);
+        pool.recordFailure(key, KisErrorType.OTHER);
+
+        // Then
+        assertThat(key.isThrottled()).isFalse();
+        assertThat(key.getRateLimitManager().getBackoffCount()).isEqualTo(1);
+    }
+
+    @Test
+    void recordFailure_ShouldKeepConfiguredRate_WhenAdaptiveRateControlDisabled() {
+        // Given
+        kisConfig.setAdaptiveRateControl(false);
+        KisApiKeyPool pool = new KisApiKeyPool(kisConfig);
+        KisApiKey key = pool.getKeys().get(0);
+
+        // When
+        pool.recordFailure(key, KisErrorType.THROTTLED);
+
+        // Then
+        assertThat(key.isThrottled()).isTrue();
+        assertThat(key.getRateLimitManager().getRequestsPerMinute()).isEqualTo(1200.0);
+    }
+
+    private long measureMillisFor(KisApiKeyPool pool, int calls) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < calls; i++) {
+            futures.add(executorService.submit(() -> pool.release(pool.acquire())));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        executorService.shutdown();
+        return elapsedMillis;
+    }
+
+    private void addCredentials(int count) {
+        for (int i = 1; i <= count; i++) {
+            KisConfig.Credential credential = new KisConfig.Credential();
+            credential.setName("account-" + i);
+            credential.setAppKey("app-key-" + i);
+            credential.setAppSecret("app-secret-" + i);
+            kisConfig.getCredentials().add(credential);
+        }
+    }
+
+    private void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
 import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
@@ -9,14 +10,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDateTime;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -30,18 +35,25 @@ class KisApiServiceTest {
     private KisConfig kisConfig;
     
     @Mock
-    private RateLimitManager rateLimitManager;
+    private KisApiKeyPool kisApiKeyPool;
     
     @Mock
     private RestTemplate restTemplate;
     
+    @Mock
+    private KisTokenManager kisTokenManager;
+    
     private ObjectMapper objectMapper = new ObjectMapper();
     
     private KisApiService kisApiService;
     
+    private KisApiKey apiKey = new KisApiKey("default", "app-key", "app-secret", new RateLimitManager());
+    
     @BeforeEach
     void setUp() {
-        kisApiService = new KisApiService(kisConfig, rateLimitManager, restTemplate, objectMapper);
+        kisApiService = new KisApiService(kisConfig, kisApiKeyPool, restTemplate, new BatchConfig(),
+                new KisChartResponseParser(objectMapper), kisTokenManager, new KisRequestCoalescer(kisConfig));
+        lenient().when(kisApiKeyPool.acquire()).thenReturn(apiKey);
     }
     
     @Test
@@ -55,22 +67,20 @@ class KisApiServiceTest {
         String mockToken = "mock-token";
         String mockResponseJson = createMockStockDataResponse();
         
-        ReflectionTestUtils.setField(kisApiService, "cachedAccessToken", mockToken);
-        ReflectionTestUtils.setField(kisApiService, "tokenExpiredAt", LocalDateTime.now().plusHours(1));
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn(mockToken);
         
         when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
-        when(kisConfig.getAppKey()).thenReturn("app-key");
-        when(kisConfig.getAppSecret()).thenReturn("app-secret");
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(mockResponseJson, HttpStatus.OK));
+        stubChartResponses(chartResponse(mockResponseJson, null));
         
         // When
         List<StockDataResponse> result = kisApiService.fetchStockData(stockCode, startDate, endDate, periodType);
         
         // Then
         assertThat(result).isNotEmpty();
-        verify(rateLimitManager).waitForRateLimit();
-        verify(restTemplate).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class));
+        verify(kisApiKeyPool).acquire();
+        verify(kisApiKeyPool).recordSuccess(apiKey);
+        verify(kisApiKeyPool).release(apiKey);
+        verify(restTemplate).execute(anyString(), eq(HttpMethod.GET), any(), any());
     }
     
     @Test
@@ -82,14 +92,10 @@ class KisApiServiceTest {
         PeriodType periodType = PeriodType.DAILY;
         
         String mockToken = "mock-token";
-        ReflectionTestUtils.setField(kisApiService, "cachedAccessToken", mockToken);
-        ReflectionTestUtils.setField(kisApiService, "tokenExpiredAt", LocalDateTime.now().plusHours(1));
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn(mockToken);
         
         when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
-        when(kisConfig.getAppKey()).thenReturn("app-key");
-        when(kisConfig.getAppSecret()).thenReturn("app-secret");
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
-                .thenReturn(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        stubChartResponses(new MockClientHttpResponse(new byte[0], HttpStatus.BAD_REQUEST));
         
         // When
         List<StockDataResponse> result = kisApiService.fetchStockData(stockCode, startDate, endDate, periodType);
@@ -107,13 +113,10 @@ class KisApiServiceTest {
         PeriodType periodType = PeriodType.DAILY;
         
         String mockToken = "mock-token";
-        ReflectionTestUtils.setField(kisApiService, "cachedAccessToken", mockToken);
-        ReflectionTestUtils.setField(kisApiService, "tokenExpiredAt", LocalDateTime.now().plusHours(1));
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn(mockToken);
         
         when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
-        when(kisConfig.getAppKey()).thenReturn("app-key");
-        when(kisConfig.getAppSecret()).thenReturn("app-secret");
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
                 .thenThrow(new RuntimeException("Network error"));
         
         // When
@@ -123,6 +126,45 @@ class KisApiServiceTest {
         assertThat(result).isEmpty();
     }
     
+    @Test
+    void fetchStockDataRange_ShouldFollowContinuation_UntilLastPage() {
+        // Given
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        
+        stubChartResponses(
+                chartResponse(createMockStockDataResponse("20240103", "20240102"), "M"),
+                chartResponse(createMockStockDataResponse("20240102", "20240101"), "D"));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockDataRange("005930", "20240101", "20240103", PeriodType.DAILY);
+        
+        // Then
+        assertThat(result).extracting(StockDataResponse::getCandleDateTime)
+                .containsExactly("202401030000", "202401020000", "202401010000");
+        verify(kisApiKeyPool, times(2)).acquire();
+        verify(kisApiKeyPool, times(2)).release(apiKey);
+        verify(restTemplate).execute(contains("fid_input_date_2=20240103"), eq(HttpMethod.GET), any(), any());
+        verify(restTemplate).execute(contains("fid_input_date_2=20240101"), eq(HttpMethod.GET), any(), any());
+    }
+    
+    @Test
+    void fetchStockDataRange_ShouldStopAfterSinglePage_WhenNoContinuation() {
+        // Given
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        stubChartResponses(chartResponse(createMockStockDataResponse("20240102", "20240101"), null));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockDataRange("005930", "20240101", "20240102", PeriodType.DAILY);
+        
+        // Then
+        assertThat(result).hasSize(2);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), any(), any());
+    }
+    
     @Test
     void buildApiUrl_ShouldReturnCorrectUrl_ForMinutePeriod() {
         // Given
@@ -168,36 +210,132 @@ class KisApiServiceTest {
     }
     
     @Test
-    void parseStockDataResponse_ShouldReturnEmptyList_WhenJsonParsingFails() {
+    void fetchStockData_ShouldReturnEmptyList_WhenResponseIsNotJson() {
         // Given
-        String invalidJson = "invalid json";
-        String stockCode = "005930";
-        PeriodType periodType = PeriodType.DAILY;
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        stubChartResponses(chartResponse("invalid json", null));
         
         // When
-        List<StockDataResponse> result = ReflectionTestUtils.invokeMethod(
-                kisApiService, "parseStockDataResponse", invalidJson, stockCode, periodType);
+        List<StockDataResponse> result = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
         
         // Then
         assertThat(result).isEmpty();
     }
     
     @Test
-    void parseStockDataResponse_ShouldParseValidResponse() {
+    void fetchStockDataRange_ShouldKeepPreviousPages_WhenKisReturnsErrorCode() {
         // Given
-        String validJson = createMockStockDataResponse();
-        String stockCode = "005930";
-        PeriodType periodType = PeriodType.DAILY;
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        stubChartResponses(
+                chartResponse(createMockStockDataResponse("20240103", "20240102"), "M"),
+                chartResponse("""
+                    {"rt_cd": "1", "msg_cd": "EGW00201", "msg1": "초당 거래건수를 초과하였습니다."}
+                    """, null));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockDataRange("005930", "20240101", "20240103", PeriodType.DAILY);
+        
+        // Then
+        assertThat(result).extracting(StockDataResponse::getCandleDateTime)
+                .containsExactly("202401030000", "202401020000");
+        verify(kisApiKeyPool).recordSuccess(apiKey);
+        verify(kisApiKeyPool).recordFailure(apiKey, KisErrorType.THROTTLED);
+        verify(kisApiKeyPool, times(2)).release(apiKey);
+    }
+    
+    @Test
+    void fetchStockData_ShouldReportThrottled_WhenGatewayReturnsTooManyRequests() {
+        // Given
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
+        
+        // Then
+        assertThat(result).isEmpty();
+        verify(kisApiKeyPool).recordFailure(apiKey, KisErrorType.THROTTLED);
+        verify(kisApiKeyPool).release(apiKey);
+    }
+    
+    @Test
+    void fetchStockData_ShouldReportServerError_WhenGatewayFails() {
+        // Given
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway",
+                        HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
+        
+        // Then
+        assertThat(result).isEmpty();
+        verify(kisApiKeyPool).recordFailure(apiKey, KisErrorType.SERVER_ERROR);
+        verify(kisApiKeyPool, never()).recordSuccess(any());
+    }
+    
+    @Test
+    void fetchStockData_ShouldNotReportBackoff_WhenRequestFailsForOtherReasons() {
+        // Given
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request",
+                        HttpHeaders.EMPTY, "{\"msg_cd\": \"OPSQ2001\"}".getBytes(StandardCharsets.UTF_8),
+                        StandardCharsets.UTF_8));
         
         // When
-        List<StockDataResponse> result = ReflectionTestUtils.invokeMethod(
-                kisApiService, "parseStockDataResponse", validJson, stockCode, periodType);
+        List<StockDataResponse> result = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
         
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getStockCode()).isEqualTo(stockCode);
-        assertThat(result.get(0).getOpenPrice()).isEqualTo("75000");
-        assertThat(result.get(0).getClosePrice()).isEqualTo("75200");
+        assertThat(result).isEmpty();
+        verify(kisApiKeyPool).recordFailure(apiKey, KisErrorType.OTHER);
+        verify(kisApiKeyPool).release(apiKey);
+    }
+    
+    @Test
+    void fetchStockData_ShouldReuseResult_ForIdenticalRequestWithinTtl() {
+        // Given
+        when(kisConfig.isRequestCoalescing()).thenReturn(true);
+        when(kisConfig.getRequestCoalescingTtlMillis()).thenReturn(60_000L);
+        when(kisTokenManager.getAccessToken(apiKey)).thenReturn("mock-token");
+        when(kisConfig.getBaseUrl()).thenReturn("https://api.example.com");
+        stubChartResponses(chartResponse(createMockStockDataResponse(), null));
+        
+        // When
+        List<StockDataResponse> first = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
+        List<StockDataResponse> second = kisApiService.fetchStockData("005930", "20240101", "20240101", PeriodType.DAILY);
+        
+        // Then - 호출과 허가는 한 번
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), any(), any());
+        verify(kisApiKeyPool, times(1)).acquire();
+    }
+    
+    private void stubChartResponses(MockClientHttpResponse... responses) {
+        Iterator<MockClientHttpResponse> iterator = List.of(responses).iterator();
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<?>>getArgument(3).extractData(iterator.next()));
+    }
+    
+    private MockClientHttpResponse chartResponse(String body, String trCont) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        if (trCont != null) {
+            response.getHeaders().set("tr_cont", trCont);
+        }
+        return response;
     }
     
     private String createMockStockDataResponse() {
@@ -218,4 +356,18 @@ class KisApiServiceTest {
             }
             """;
     }
-}
\ No newline at end of file
+    
+    private String createMockStockDataResponse(String... dates) {
+        StringBuilder items = new StringBuilder();
+        for (String date : dates) {
+            if (items.length() > 0) {
+                items.append(",");
+            }
+            items.append("""
+                {"stck_bsop_date": "%s", "stck_oprc": "75000", "stck_hgpr": "75500", "stck_lwpr": "74500",
+                 "stck_clpr": "75200", "acml_vol": "1000000", "acml_tr_pbmn": "75200000000"}
+                """.formatted(date));
+        }
+        return "{\"output2\": [" + items + "]}";
+    }
+}
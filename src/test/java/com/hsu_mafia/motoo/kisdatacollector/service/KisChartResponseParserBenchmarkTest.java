@@ -0,0 +1,146 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * KIS 시세 응답 파싱 벤치마크 (기존 readTree 방식 vs JsonParser 스트리밍)
+ * 실행: ./gradlew benchmark
+ * 처리량은 초당 응답 수, 할당량은 응답 하나를 파싱하는 동안 현재 스레드가 할당한 바이트 수다.
+ */
+@Tag("benchmark")
+class KisChartResponseParserBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURE_ITERATIONS = 20_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final KisChartResponseParser parser = new KisChartResponseParser(objectMapper);
+    
+    @ParameterizedTest
+    @CsvSource({"DAILY, 100", "MINUTE, 120"})
+    void compareParsers(PeriodType periodType, int rows) throws Exception {
+        byte[] body = responseBody(periodType, rows);
+        
+        assertThat(treeParse(body, periodType)).hasSize(rows);
+        assertThat(streamingParse(body, periodType)).hasSize(rows);
+        
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            treeParse(body, periodType);
+            streamingParse(body, periodType);
+        }
+        
+        Result tree = measure(() -> treeParse(body, periodType));
+        Result streaming = measure(() -> streamingParse(body, periodType));
+        
+        System.out.printf("[parser] %s rows=%d body=%,dB tree=%,.0f ops/s %,dB/op streaming=%,.0f ops/s %,dB/op (x%.1f faster, %.0f%% less allocation)%n",
+                periodType, rows, body.length, tree.opsPerSecond(), tree.bytesPerOp(),
+                streaming.opsPerSecond(), streaming.bytesPerOp(),
+                streaming.opsPerSecond() / tree.opsPerSecond(),
+                100.0 * (tree.bytesPerOp() - streaming.bytesPerOp()) / tree.bytesPerOp());
+        
+        assertThat(streaming.opsPerSecond()).isGreaterThan(0);
+    }
+    
+    private Result measure(ParseRun run) throws IOException {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int candles = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            candles += run.parse().size();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        
+        assertThat(candles).isPositive();
+        return new Result(MEASURE_ITERATIONS * 1_000_000_000.0 / elapsedNanos, allocated / MEASURE_ITERATIONS);
+    }
+    
+    private List<StockDataResponse> streamingParse(byte[] body, PeriodType periodType) throws IOException {
+        return parser.parse(new ByteArrayInputStream(body), "005930", periodType).candles();
+    }
+    
+    // 변경 전 KisApiService.parseStockDataResponse 의 방식 (응답 본문을 String 으로 받은 뒤 트리로 파싱)
+    private List<StockDataResponse> treeParse(byte[] body, PeriodType periodType) throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(new String(body, StandardCharsets.UTF_8));
+        JsonNode outputArray = jsonNode.path("output2");
+        
+        List<StockDataResponse> dataList = new ArrayList<>();
+        if (outputArray.isArray()) {
+            for (JsonNode item : outputArray) {
+                dataList.add(StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime(item.path("stck_bsop_date").asText() +
+                                (periodType == PeriodType.MINUTE ? item.path("stck_cntg_hour").asText() : "0000"))
+                        .openPrice(item.path("stck_oprc").asText())
+                        .highPrice(item.path("stck_hgpr").asText())
+                        .lowPrice(item.path("stck_lwpr").asText())
+                        .closePrice(item.path("stck_clpr").asText())
+                        .volume(item.path("acml_vol").asText())
+                        .tradeAmount(item.path("acml_tr_pbmn").asText())
+                        .periodType(periodType)
+                        .build());
+            }
+        }
+        return dataList;
+    }
+    
+    // 실제 응답과 같은 필드 구성 (output1 종목 요약 + output2 캔들)
+    private byte[] responseBody(PeriodType periodType, int rows) {
+        StringBuilder body = new StringBuilder("""
+            {"output1": {"prdy_vrss": "-300", "prdy_vrss_sign": "5", "prdy_ctrt": "-0.40", "stck_prdy_clpr": "75500",
+             "acml_vol": "13142647", "acml_tr_pbmn": "987654321000", "hts_kor_isnm": "삼성전자", "stck_prpr": "75200",
+             "stck_shrn_iscd": "005930", "prdy_vol": "12345678", "stck_mxpr": "98100", "stck_llam": "52900",
+             "stck_oprc": "75000", "stck_hgpr": "75500", "stck_lwpr": "74500", "stck_prdy_oprc": "75600",
+             "stck_prdy_hgpr": "76000", "stck_prdy_lwpr": "75100", "askp": "75300", "bidp": "75200",
+             "prdy_vrss_vol": "797031", "vol_tnrt": "0.22", "stck_fcam": "100", "lstn_stcn": "5969782550",
+             "cpfn": "7780", "hts_avls": "4489276", "per": "37.47", "eps": "2007.00", "pbr": "1.43"},
+             "output2": [""");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            String date = String.format("2024%02d%02d", 1 + i / 28 % 12, 1 + i % 28);
+            if (periodType == PeriodType.MINUTE) {
+                body.append("""
+                    {"stck_bsop_date": "%s", "stck_cntg_hour": "%02d%02d00", "stck_prpr": "75200", "stck_oprc": "75000",
+                     "stck_hgpr": "75500", "stck_lwpr": "74500", "cntg_vol": "12000", "acml_tr_pbmn": "75200000000"}"""
+                        .formatted(date, 9 + i / 60, i % 60));
+            } else {
+                body.append("""
+                    {"stck_bsop_date": "%s", "stck_clpr": "75200", "stck_oprc": "75000", "stck_hgpr": "75500",
+                     "stck_lwpr": "74500", "acml_vol": "13142647", "acml_tr_pbmn": "987654321000", "flng_cls_code": "00",
+                     "prtt_rate": "0.00", "mod_yn": "N", "prdy_vrss_sign": "5", "prdy_vrss": "-300", "revl_issu_reas": ""}"""
+                        .formatted(date));
+            }
+        }
+        body.append("""
+            ], "rt_cd": "0", "msg_cd": "MCA00000", "msg1": "정상처리 되었습니다."}""");
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @FunctionalInterface
+    private interface ParseRun {
+        List<StockDataResponse> parse() throws IOException;
+    }
+    
+    private record Result(double opsPerSecond, long bytesPerOp) {
+    }
+}
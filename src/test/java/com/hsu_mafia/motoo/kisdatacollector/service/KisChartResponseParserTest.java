@@ -0,0 +1,115 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import com.hsu_mafia.motoo.kisdatacollector.service.KisChartResponseParser.ChartResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KisChartResponseParserTest {
+
+    private final KisChartResponseParser parser = new KisChartResponseParser(new ObjectMapper());
+    
+    @Test
+    void parse_ShouldReadDailyCandles_AndSkipOtherFields() throws Exception {
+        // Given
+        String body = """
+            {
+                "output1": {"prdy_vrss": "-300", "hts_kor_isnm": "삼성전자", "stck_prpr": "75200"},
+                "output2": [
+                    {"stck_bsop_date": "20240103", "stck_clpr": "75200", "stck_oprc": "75000", "stck_hgpr": "75500",
+                     "stck_lwpr": "74500", "acml_vol": "1000000", "acml_tr_pbmn": "75200000000",
+                     "flng_cls_code": "00", "prtt_rate": "0.00", "mod_yn": "N", "revl_issu_reas": ""},
+                    {"stck_bsop_date": "20240102", "stck_clpr": "74900", "stck_oprc": "74000", "stck_hgpr": "75000",
+                     "stck_lwpr": "73900", "acml_vol": "900000", "acml_tr_pbmn": "67000000000"}
+                ],
+                "rt_cd": "0",
+                "msg_cd": "MCA00000",
+                "msg1": "정상처리 되었습니다."
+            }
+            """;
+        
+        // When
+        ChartResponse response = parser.parse(stream(body), "005930", PeriodType.DAILY);
+        
+        // Then
+        assertThat(response.isError()).isFalse();
+        assertThat(response.msgCd()).isEqualTo("MCA00000");
+        assertThat(response.candles()).hasSize(2);
+        
+        StockDataResponse first = response.candles().get(0);
+        assertThat(first.getStockCode()).isEqualTo("005930");
+        assertThat(first.getCandleDateTime()).isEqualTo("202401030000");
+        assertThat(first.getOpenPrice()).isEqualTo("75000");
+        assertThat(first.getHighPrice()).isEqualTo("75500");
+        assertThat(first.getLowPrice()).isEqualTo("74500");
+        assertThat(first.getClosePrice()).isEqualTo("75200");
+        assertThat(first.getVolume()).isEqualTo("1000000");
+        assertThat(first.getTradeAmount()).isEqualTo("75200000000");
+        assertThat(first.getPeriodType()).isEqualTo(PeriodType.DAILY);
+    }
+    
+    @Test
+    void parse_ShouldAppendTime_ForMinuteCandles() throws Exception {
+        // Given
+        String body = """
+            {"output2": [{"stck_bsop_date": "20240102", "stck_cntg_hour": "090100", "stck_prpr": "75000",
+                          "stck_oprc": "75000", "stck_hgpr": "75100", "stck_lwpr": "74900", "cntg_vol": "1200"}],
+             "rt_cd": "0"}
+            """;
+        
+        // When
+        ChartResponse response = parser.parse(body, "005930", PeriodType.MINUTE);
+        
+        // Then
+        assertThat(response.candles()).extracting(StockDataResponse::getCandleDateTime)
+                .containsExactly("20240102090100");
+    }
+    
+    @Test
+    void parse_ShouldDetectErrorCode() throws Exception {
+        // Given
+        String body = """
+            {"rt_cd": "1", "msg_cd": "EGW00201", "msg1": "초당 거래건수를 초과하였습니다."}
+            """;
+        
+        // When
+        ChartResponse response = parser.parse(body, "005930", PeriodType.DAILY);
+        
+        // Then
+        assertThat(response.isError()).isTrue();
+        assertThat(response.msgCd()).isEqualTo("EGW00201");
+        assertThat(response.candles()).isEmpty();
+    }
+    
+    @Test
+    void parse_ShouldSkipRowsWithoutDate() throws Exception {
+        // Given - 조회 결과가 없으면 output2 에 빈 객체가 온다
+        String body = """
+            {"output1": {}, "output2": [{}], "rt_cd": "0"}
+            """;
+        
+        // When
+        ChartResponse response = parser.parse(body, "005930", PeriodType.DAILY);
+        
+        // Then
+        assertThat(response.isError()).isFalse();
+        assertThat(response.candles()).isEmpty();
+    }
+    
+    @Test
+    void parse_ShouldThrow_WhenBodyIsNotJson() {
+        assertThatThrownBy(() -> parser.parse("invalid json", "005930", PeriodType.DAILY))
+                .isInstanceOf(JsonParseException.class);
+    }
+    
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KisErrorTypeTest {
+
+    @Test
+    void classify_ShouldReturnThrottled_ForRateLimitResponses() {
+        assertThat(KisErrorType.classify(new KisApiException("EGW00201", "초당 거래건수를 초과하였습니다.")))
+                .isEqualTo(KisErrorType.THROTTLED);
+        assertThat(KisErrorType.classify(httpError(HttpStatus.TOO_MANY_REQUESTS, "")))
+                .isEqualTo(KisErrorType.THROTTLED);
+        // KIS 는 한도 초과를 HTTP 500 본문으로 알리기도 한다
+        assertThat(KisErrorType.classify(httpError(HttpStatus.INTERNAL_SERVER_ERROR,
+                "{\"rt_cd\": \"1\", \"msg_cd\": \"EGW00201\", \"msg1\": \"초당 거래건수를 초과하였습니다.\"}")))
+                .isEqualTo(KisErrorType.THROTTLED);
+    }
+
+    @Test
+    void classify_ShouldReturnServerError_For5xxResponses() {
+        assertThat(KisErrorType.classify(httpError(HttpStatus.BAD_GATEWAY, ""))).isEqualTo(KisErrorType.SERVER_ERROR);
+        assertThat(KisErrorType.SERVER_ERROR.isBackoff()).isTrue();
+    }
+
+    @Test
+    void classify_ShouldReturnOther_ForFailuresUnrelatedToRate() {
+        assertThat(KisErrorType.classify(new KisApiException("OPSQ2001", "조회할 자료가 없습니다.")))
+                .isEqualTo(KisErrorType.OTHER);
+        assertThat(KisErrorType.classify(httpError(HttpStatus.BAD_REQUEST, ""))).isEqualTo(KisErrorType.OTHER);
+        assertThat(KisErrorType.classify(new ResourceAccessException("Read timed out"))).isEqualTo(KisErrorType.OTHER);
+        assertThat(KisErrorType.OTHER.isBackoff()).isFalse();
+    }
+
+    private Exception httpError(HttpStatus status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return status.is5xxServerError()
+                ? HttpServerErrorException.create(status, status.getReasonPhrase(), HttpHeaders.EMPTY, bytes, StandardCharsets.UTF_8)
+                : HttpClientErrorException.create(status, status.getReasonPhrase(), HttpHeaders.EMPTY, bytes, StandardCharsets.UTF_8);
+    }
+}
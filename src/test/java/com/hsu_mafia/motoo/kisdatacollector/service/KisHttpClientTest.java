@@ -0,0 +1,165 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.HttpClientConfig;
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
+import com.hsu_mafia.motoo.kisdatacollector.repository.AccessTokenRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 로컬 스텁 서버에 붙여 연결 재사용과 타임아웃을 확인한다.
+ */
+class KisHttpClientTest {
+
+    private HttpServer stubServer;
+    
+    private String baseUrl;
+    
+    private HttpClientConfig httpClientConfig;
+    
+    private KisHttpClient kisHttpClient;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/ping", exchange -> respond(exchange, "{\"rt_cd\": \"0\"}", null));
+        stubServer.createContext("/slow", exchange -> {
+            sleep(500);
+            respond(exchange, "{}", null);
+        });
+        stubServer.createContext("/oauth2/tokenP", exchange -> respond(exchange, "{\"access_token\": \"stub-token\"}", null));
+        stubServer.createContext("/uapi/domestic-stock/v1/quotations/inquire-daily-itemchartprice", exchange -> {
+            if (exchange.getRequestURI().getQuery().contains("fid_input_date_2=20240110")) {
+                respond(exchange, chartBody("20240110", "20240109"), "M");
+            } else {
+                respond(exchange, chartBody("20240109", "20240108"), "D");
+            }
+        });
+        stubServer.start();
+        baseUrl = "http://localhost:" + stubServer.getAddress().getPort();
+        
+        httpClientConfig = new HttpClientConfig();
+        kisHttpClient = new KisHttpClient(httpClientConfig);
+    }
+    
+    @AfterEach
+    void tearDown() throws IOException {
+        kisHttpClient.close();
+        stubServer.stop(0);
+    }
+    
+    @Test
+    void requests_ShouldReuseSingleConnection() {
+        // Given
+        RestTemplate restTemplate = new RestTemplate(kisHttpClient.requestFactory());
+        
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForObject(baseUrl + "/ping", String.class)).contains("rt_cd");
+        }
+        
+        // Then
+        assertThat(kisHttpClient.getRequestCount()).isEqualTo(5);
+        assertThat(kisHttpClient.getNewConnectionCount()).isEqualTo(1);
+        assertThat(kisHttpClient.getReusedConnectionCount()).isEqualTo(4);
+        assertThat(kisHttpClient.getConnectionReuseRatio()).isEqualTo(0.8);
+        assertThat(kisHttpClient.getPoolStats().getAvailable()).isEqualTo(1);
+        assertThat(kisHttpClient.getPoolStats().getLeased()).isZero();
+        // 평문 HTTP 이므로 핸드셰이크 없음
+        assertThat(kisHttpClient.getHandshakeCount()).isZero();
+    }
+    
+    @Test
+    void request_ShouldFail_WhenReadTimeoutExceeded() throws IOException {
+        // Given
+        kisHttpClient.close();
+        httpClientConfig.setReadTimeoutMillis(100);
+        kisHttpClient = new KisHttpClient(httpClientConfig);
+        RestTemplate restTemplate = new RestTemplate(kisHttpClient.requestFactory());
+        
+        // When & Then
+        assertThatThrownBy(() -> restTemplate.getForObject(baseUrl + "/slow", String.class))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasCauseInstanceOf(SocketTimeoutException.class);
+    }
+    
+    @Test
+    void kisApiService_ShouldFetchPagesOverPooledConnection() {
+        // Given
+        KisConfig kisConfig = new KisConfig();
+        kisConfig.setBaseUrl(baseUrl);
+        kisConfig.setAppKey("app-key");
+        kisConfig.setAppSecret("app-secret");
+        ObjectMapper objectMapper = new ObjectMapper();
+        kisConfig.setRequestsPerSecond(100);
+        kisConfig.setRequestsPerMinute(6000);
+        KisApiKeyPool kisApiKeyPool = new KisApiKeyPool(kisConfig);
+        RestTemplate restTemplate = new RestTemplate(kisHttpClient.requestFactory());
+        KisTokenManager kisTokenManager = new KisTokenManager(kisConfig, kisApiKeyPool, restTemplate, objectMapper,
+                mock(AccessTokenRepository.class));
+        KisApiService kisApiService = new KisApiService(kisConfig, kisApiKeyPool, restTemplate, new BatchConfig(),
+                new KisChartResponseParser(objectMapper), kisTokenManager, new KisRequestCoalescer(kisConfig));
+        
+        // When
+        List<StockDataResponse> result = kisApiService.fetchStockDataRange("005930", "20240108", "20240110", PeriodType.DAILY);
+        
+        // Then - 토큰 1회 + 시세 2페이지가 하나의 연결로 나간다
+        assertThat(result).extracting(StockDataResponse::getCandleDateTime)
+                .containsExactly("202401100000", "202401090000", "202401080000");
+        assertThat(kisHttpClient.getRequestCount()).isEqualTo(3);
+        assertThat(kisHttpClient.getNewConnectionCount()).isEqualTo(1);
+    }
+    
+    private void respond(HttpExchange exchange, String body, String trCont) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        if (trCont != null) {
+            exchange.getResponseHeaders().set("tr_cont", trCont);
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+    
+    private String chartBody(String... dates) {
+        StringBuilder items = new StringBuilder();
+        for (String date : dates) {
+            if (items.length() > 0) {
+                items.append(",");
+            }
+            items.append("""
+                {"stck_bsop_date": "%s", "stck_oprc": "75000", "stck_hgpr": "75500", "stck_lwpr": "74500",
+                 "stck_clpr": "75200", "acml_vol": "1000000", "acml_tr_pbmn": "75200000000"}
+                """.formatted(date));
+        }
+        return "{\"output2\": [" + items + "], \"rt_cd\": \"0\"}";
+    }
+    
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class KisRequestCoalescerTest {
+
+    private KisConfig kisConfig;
+
+    private KisRequestCoalescer kisRequestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        kisConfig = new KisConfig();
+        kisConfig.setRequestCoalescing(true);
+        kisConfig.setRequestCoalescingTtlMillis(0);
+        kisRequestCoalescer = new KisRequestCoalescer(kisConfig);
+    }
+
+    @Test
+    void execute_ShouldShareOneCall_AmongConcurrentIdenticalRequests() throws Exception {
+        // Given - 첫 호출이 끝나지 않은 동안 같은 요청이 4번 더 들어온다
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch callStarted = new CountDownLatch(1);
+        CountDownLatch releaseCall = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        List<Future<String>> futures = new ArrayList<>();
+
+        // When
+        futures.add(executorService.submit(() -> kisRequestCoalescer.execute("005930", () -> {
+            calls.incrementAndGet();
+            callStarted.countDown();
+            releaseCall.await();
+            return "result";
+        })));
+        callStarted.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 4; i++) {
+            futures.add(executorService.submit(() -> kisRequestCoalescer.execute("005930", () -> {
+                calls.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        while (kisRequestCoalescer.getInFlightHitCount() < 4) {
+            Thread.sleep(5);
+        }
+        releaseCall.countDown();
+
+        // Then
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        }
+        executorService.shutdown();
+        assertThat(calls).hasValue(1);
+        assertThat(kisRequestCoalescer.getMissCount()).isEqualTo(1);
+        assertThat(kisRequestCoalescer.getPermitsSaved()).isEqualTo(4);
+    }
+
+    @Test
+    void execute_ShouldReuseResult_OnlyWithinTtl() throws Exception {
+        // Given
+        kisConfig.setRequestCoalescingTtlMillis(60_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        kisRequestCoalescer.execute("005930", calls::incrementAndGet);
+        Integer cached = kisRequestCoalescer.execute("005930", calls::incrementAndGet);
+        Integer otherKey = kisRequestCoalescer.execute("000660", calls::incrementAndGet);
+
+        // Then
+        assertThat(cached).isEqualTo(1);
+        assertThat(otherKey).isEqualTo(2);
+        assertThat(kisRequestCoalescer.getCachedHitCount()).isEqualTo(1);
+
+        // TTL 이 0 이면 끝난 결과는 다시 쓰지 않는다
+        kisConfig.setRequestCoalescingTtlMillis(0);
+        KisRequestCoalescer noTtl = new KisRequestCoalescer(kisConfig);
+        noTtl.execute("005930", calls::incrementAndGet);
+        assertThat(noTtl.execute("005930", calls::incrementAndGet)).isEqualTo(4);
+    }
+
+    @Test
+    void execute_ShouldNotKeepFailure() throws Exception {
+        // Given
+        kisConfig.setRequestCoalescingTtlMillis(60_000);
+
+        // When & Then
+        assertThatThrownBy(() -> kisRequestCoalescer.execute("005930", () -> {
+            throw new KisApiException("EGW00201", "초당 거래건수를 초과하였습니다.");
+        })).isInstanceOf(KisApiException.class);
+        assertThat(kisRequestCoalescer.execute("005930", () -> "retried")).isEqualTo("retried");
+        assertThat(kisRequestCoalescer.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_ShouldCallEveryTime_WhenDisabled() throws Exception {
+        // Given
+        kisConfig.setRequestCoalescing(false);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        kisRequestCoalescer.execute("005930", calls::incrementAndGet);
+        kisRequestCoalescer.execute("005930", calls::incrementAndGet);
+
+        // Then
+        assertThat(calls).hasValue(2);
+        assertThat(kisRequestCoalescer.getMissCount()).isZero();
+    }
+}
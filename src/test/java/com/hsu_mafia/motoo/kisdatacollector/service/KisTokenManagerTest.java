@@ -0,0 +1,268 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsu_mafia.motoo.kisdatacollector.KisConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.AccessToken;
+import com.hsu_mafia.motoo.kisdatacollector.repository.AccessTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KisTokenManagerTest {
+
+    @Mock
+    private RateLimitManager rateLimitManager;
+    
+    @Mock
+    private KisApiKeyPool kisApiKeyPool;
+    
+    @Mock
+    private RestTemplate restTemplate;
+    
+    @Mock
+    private AccessTokenRepository accessTokenRepository;
+    
+    private KisConfig kisConfig;
+    
+    private KisApiKey apiKey;
+    
+    private KisTokenManager kisTokenManager;
+    
+    @BeforeEach
+    void setUp() {
+        kisConfig = new KisConfig();
+        kisConfig.setBaseUrl("https://api.example.com");
+        apiKey = new KisApiKey("default", "app-key", "app-secret", rateLimitManager);
+        lenient().when(kisApiKeyPool.getKeys()).thenAnswer(invocation -> List.of(apiKey));
+        kisTokenManager = newTokenManager();
+    }
+    
+    @Test
+    void getAccessToken_ShouldIssueOnce_AndReuseCachedToken() {
+        // Given
+        stubTokenResponse("token-1", 86400);
+        
+        // When
+        String first = kisTokenManager.getAccessToken(apiKey);
+        String second = kisTokenManager.getAccessToken(apiKey);
+        
+        // Then
+        assertThat(first).isEqualTo("token-1");
+        assertThat(second).isEqualTo("token-1");
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+        verify(rateLimitManager, times(1)).waitForRateLimit();
+        assertThat(kisTokenManager.getIssuedCount()).isEqualTo(1);
+    }
+    
+    @Test
+    void getAccessToken_ShouldIssueOnlyOnce_WhenCalledConcurrently() throws Exception {
+        // Given
+        CountDownLatch start = new CountDownLatch(1);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(100);
+                    return new ResponseEntity<>(tokenJson("token-1", 86400), HttpStatus.OK);
+                });
+        
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<>();
+        
+        // When
+        for (int i = 0; i < 8; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return kisTokenManager.getAccessToken(apiKey);
+            }));
+        }
+        start.countDown();
+        
+        // Then
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("token-1");
+        }
+        executorService.shutdown();
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+    }
+    
+    @Test
+    void getAccessToken_ShouldIssueSeparateTokens_PerAppKey() {
+        // Given
+        RateLimitManager otherRateLimitManager = mock(RateLimitManager.class);
+        KisApiKey otherKey = new KisApiKey("second", "other-app-key", "other-app-secret", otherRateLimitManager);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(tokenJson("token-1", 86400), HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(tokenJson("token-2", 86400), HttpStatus.OK));
+        
+        // When
+        String first = kisTokenManager.getAccessToken(apiKey);
+        String second = kisTokenManager.getAccessToken(otherKey);
+        
+        // Then - 토큰 발급도 각 키의 호출 한도에서 차감된다
+        assertThat(first).isEqualTo("token-1");
+        assertThat(second).isEqualTo("token-2");
+        assertThat(kisTokenManager.getAccessToken(apiKey)).isEqualTo("token-1");
+        verify(rateLimitManager, times(1)).waitForRateLimit();
+        verify(otherRateLimitManager, times(1)).waitForRateLimit();
+        
+        ArgumentCaptor<AccessToken> savedCaptor = ArgumentCaptor.forClass(AccessToken.class);
+        verify(accessTokenRepository, times(2)).save(savedCaptor.capture());
+        assertThat(savedCaptor.getAllValues()).extracting(AccessToken::getAppKeyHash).doesNotHaveDuplicates();
+    }
+    
+    @Test
+    void getAccessToken_ShouldReusePersistedToken_AfterRestart() {
+        // Given - 첫 프로세스가 발급한 토큰을 암호화해 저장
+        stubTokenResponse("token-1", 86400);
+        kisTokenManager.getAccessToken(apiKey);
+        
+        ArgumentCaptor<AccessToken> savedCaptor = ArgumentCaptor.forClass(AccessToken.class);
+        verify(accessTokenRepository).save(savedCaptor.capture());
+        AccessToken saved = savedCaptor.getValue();
+        assertThat(saved.getEncryptedToken()).doesNotContain("token-1");
+        assertThat(saved.getAppKeyHash()).hasSize(64).doesNotContain("app-key");
+        
+        // When - 재기동
+        reset(restTemplate);
+        when(accessTokenRepository.findByAppKeyHash(saved.getAppKeyHash())).thenReturn(Optional.of(saved));
+        KisTokenManager restarted = newTokenManager();
+        String token = restarted.getAccessToken(apiKey);
+        
+        // Then
+        assertThat(token).isEqualTo("token-1");
+        verifyNoInteractions(restTemplate);
+        assertThat(restarted.getIssuedCount()).isZero();
+    }
+    
+    @Test
+    void getAccessToken_ShouldIssueNewToken_WhenPersistedTokenIsExpiring() {
+        // Given
+        stubTokenResponse("token-1", 86400);
+        kisTokenManager.getAccessToken(apiKey);
+        ArgumentCaptor<AccessToken> savedCaptor = ArgumentCaptor.forClass(AccessToken.class);
+        verify(accessTokenRepository).save(savedCaptor.capture());
+        AccessToken saved = savedCaptor.getValue();
+        saved.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        
+        when(accessTokenRepository.findByAppKeyHash(saved.getAppKeyHash())).thenReturn(Optional.of(saved));
+        stubTokenResponse("token-2", 86400);
+        
+        // When
+        String token = newTokenManager().getAccessToken(apiKey);
+        
+        // Then
+        assertThat(token).isEqualTo("token-2");
+    }
+    
+    @Test
+    void getAccessToken_ShouldIgnorePersistedToken_WhenSecretChanged() {
+        // Given
+        stubTokenResponse("token-1", 86400);
+        kisTokenManager.getAccessToken(apiKey);
+        ArgumentCaptor<AccessToken> savedCaptor = ArgumentCaptor.forClass(AccessToken.class);
+        verify(accessTokenRepository).save(savedCaptor.capture());
+        AccessToken saved = savedCaptor.getValue();
+        
+        when(accessTokenRepository.findByAppKeyHash(saved.getAppKeyHash())).thenReturn(Optional.of(saved));
+        stubTokenResponse("token-2", 86400);
+        apiKey = new KisApiKey("default", "app-key", "rotated-secret", rateLimitManager);
+        
+        // When
+        String token = newTokenManager().getAccessToken(apiKey);
+        
+        // Then
+        assertThat(token).isEqualTo("token-2");
+    }
+    
+    @Test
+    void refreshIfExpiringSoon_ShouldRefreshInBackground_BeforeExpiry() {
+        // Given - 30분 뒤 만료, 60분 전부터 사전 갱신
+        kisConfig.setTokenRefreshAheadMinutes(60);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(tokenJson("token-1", 1800), HttpStatus.OK))
+                .thenReturn(new ResponseEntity<>(tokenJson("token-2", 86400), HttpStatus.OK));
+        kisTokenManager.getAccessToken(apiKey);
+        
+        // When
+        kisTokenManager.refreshIfExpiringSoon();
+        
+        // Then
+        assertThat(kisTokenManager.getAccessToken(apiKey)).isEqualTo("token-2");
+        assertThat(kisTokenManager.getExpiresAt(apiKey)).isAfter(LocalDateTime.now().plusHours(23));
+    }
+    
+    @Test
+    void refreshIfExpiringSoon_ShouldKeepCurrentToken_WhenRefreshFails() {
+        // Given
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(tokenJson("token-1", 1800), HttpStatus.OK))
+                .thenThrow(new RuntimeException("EGW00133 접근토큰 발급 잠시 후 다시 시도하세요(1분당 1회)"));
+        kisTokenManager.getAccessToken(apiKey);
+        
+        // When
+        kisTokenManager.refreshIfExpiringSoon();
+        
+        // Then
+        assertThat(kisTokenManager.getAccessToken(apiKey)).isEqualTo("token-1");
+    }
+    
+    @Test
+    void refreshIfExpiringSoon_ShouldDoNothing_WhenTokenIsFresh() {
+        // Given
+        stubTokenResponse("token-1", 86400);
+        kisTokenManager.getAccessToken(apiKey);
+        
+        // When
+        kisTokenManager.refreshIfExpiringSoon();
+        
+        // Then
+        verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+    }
+    
+    @Test
+    void getAccessToken_ShouldThrow_WhenResponseHasNoToken() {
+        // Given
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>("{\"error_code\": \"EGW00103\"}", HttpStatus.OK));
+        
+        // When & Then
+        assertThatThrownBy(() -> kisTokenManager.getAccessToken(apiKey))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    private KisTokenManager newTokenManager() {
+        return new KisTokenManager(kisConfig, kisApiKeyPool, restTemplate, new ObjectMapper(), accessTokenRepository);
+    }
+    
+    private void stubTokenResponse(String token, long expiresIn) {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(new ResponseEntity<>(tokenJson(token, expiresIn), HttpStatus.OK));
+    }
+    
+    private String tokenJson(String token, long expiresIn) {
+        return """
+            {"access_token": "%s", "token_type": "Bearer", "expires_in": %d}
+            """.formatted(token, expiresIn);
+    }
+}
@@ -0,0 +1,157 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MinuteBarAggregatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 2);
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+
+    @Mock
+    private StockPriceBulkRepository stockPriceBulkRepository;
+
+    private final List<StockPrice> storedMinutes = new ArrayList<>();
+
+    private MinuteBarAggregator minuteBarAggregator;
+
+    @BeforeEach
+    void setUp() {
+        BatchConfig batchConfig = new BatchConfig();
+        batchConfig.setMinuteBarCachedIntervals(List.of(5));
+        minuteBarAggregator = new MinuteBarAggregator(stockPriceRepository, stockPriceBulkRepository, batchConfig);
+
+        // stock_prices 처럼 구간 안의 1분봉을 시각 순으로 넘기고 날짜별 수를 센다
+        lenient().doAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(2);
+            LocalDateTime end = invocation.getArgument(3);
+            Consumer<StockPrice> consumer = invocation.getArgument(4);
+            storedMinutes.stream()
+                    .filter(minute -> !minute.getCandleDateTime().isBefore(start) && minute.getCandleDateTime().isBefore(end))
+                    .forEach(consumer);
+            return null;
+        }).when(stockPriceBulkRepository).streamCandles(eq("005930"), eq(PeriodType.MINUTE), any(), any(), any());
+        lenient().when(stockPriceRepository.countCandlesByDate(eq("005930"), eq(PeriodType.MINUTE), any(), any()))
+                .thenAnswer(invocation -> {
+                    Map<LocalDate, Long> counts = new TreeMap<>();
+                    storedMinutes.forEach(minute -> counts.merge(minute.getCandleDateTime().toLocalDate(), 1L, Long::sum));
+                    return counts.entrySet().stream().map(e -> new Object[]{e.getKey(), e.getValue()}).toList();
+                });
+    }
+
+    @Test
+    void aggregate_ShouldMergeMinutesIntoBars_AlignedToSessionOpen() {
+        // Given - 09:00 ~ 09:09 의 1분봉 (캐시하지 않는 간격)
+        for (int i = 0; i < 10; i++) {
+            storedMinutes.add(minute(DAY.atTime(9, i), 75000L + i * 100, 100L));
+        }
+
+        // When
+        List<StockPrice> bars = minuteBarAggregator.aggregate("005930", DAY, DAY, 7);
+
+        // Then
+        assertThat(bars).extracting(StockPrice::getCandleDateTime)
+                .containsExactly(DAY.atTime(9, 0), DAY.atTime(9, 7));
+
+        StockPrice first = bars.get(0);
+        assertThat(first.getPeriodType()).isEqualTo(PeriodType.MINUTE);
+        assertThat(first.getOpenPrice()).isEqualTo(75000L - 50);
+        assertThat(first.getHighPrice()).isEqualTo(75600L + 50);
+        assertThat(first.getLowPrice()).isEqualTo(75000L - 100);
+        assertThat(first.getClosePrice()).isEqualTo(75600L);
+        assertThat(first.getVolume()).isEqualTo(700L);
+        assertThat(first.getTradeAmount()).isEqualByComparingTo("700000");
+        verifyNoInteractions(stockPriceRepository);
+    }
+
+    @Test
+    void aggregate_ShouldReduceMonthOfMinutes_ToFiveMinuteBars() {
+        // Given - 20거래일 x (09:00 ~ 15:19 + 15:30 종가) = 7,620개의 1분봉
+        for (int d = 0; d < 20; d++) {
+            LocalDate day = DAY.plusDays(d);
+            for (int m = 0; m < 380; m++) {
+                storedMinutes.add(minute(day.atTime(9, 0).plusMinutes(m), 75000L, 10L));
+            }
+            storedMinutes.add(minute(day.atTime(15, 30), 75000L, 10L));
+        }
+
+        // When
+        List<StockPrice> bars = minuteBarAggregator.aggregate("005930", DAY, DAY.plusDays(19), 5);
+
+        // Then - 하루 77개 (09:00 ~ 15:15 의 76개 + 15:30)
+        assertThat(storedMinutes).hasSize(7620);
+        assertThat(bars).hasSize(20 * 77);
+        assertThat(bars.get(76).getCandleDateTime()).isEqualTo(DAY.atTime(15, 30));
+        assertThat(bars.get(75).getVolume()).isEqualTo(50L);
+    }
+
+    @Test
+    void aggregate_ShouldReuseCachedDays_UntilMinuteCountChanges() {
+        // Given
+        LocalDate nextDay = DAY.plusDays(1);
+        storedMinutes.add(minute(DAY.atTime(9, 0), 75000L, 100L));
+        storedMinutes.add(minute(nextDay.atTime(9, 0), 75000L, 100L));
+        minuteBarAggregator.aggregate("005930", DAY, nextDay, 5);
+
+        // When - 같은 조회를 반복한 뒤 다음 날에 1분봉이 추가됨
+        List<StockPrice> cached = minuteBarAggregator.aggregate("005930", DAY, nextDay, 5);
+        storedMinutes.add(minute(nextDay.atTime(9, 1), 75100L, 100L));
+        List<StockPrice> refreshed = minuteBarAggregator.aggregate("005930", DAY, nextDay, 5);
+
+        // Then - 처음 한 번은 두 날을 함께 읽고, 그 뒤에는 바뀐 날만 다시 읽는다
+        assertThat(cached).hasSize(2);
+        assertThat(refreshed).hasSize(2);
+        assertThat(refreshed.get(1).getVolume()).isEqualTo(200L);
+        verify(stockPriceBulkRepository).streamCandles(eq("005930"), eq(PeriodType.MINUTE),
+                eq(DAY.atStartOfDay()), eq(nextDay.plusDays(1).atStartOfDay()), any());
+        verify(stockPriceBulkRepository).streamCandles(eq("005930"), eq(PeriodType.MINUTE),
+                eq(nextDay.atStartOfDay()), eq(nextDay.plusDays(1).atStartOfDay()), any());
+        verifyNoMoreInteractions(stockPriceBulkRepository);
+    }
+
+    @Test
+    void aggregate_ShouldRejectIntervalOutsideSession() {
+        assertThatThrownBy(() -> minuteBarAggregator.aggregate("005930", DAY, DAY, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> minuteBarAggregator.aggregate("005930", DAY, DAY, 391))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private StockPrice minute(LocalDateTime candleDateTime, long closePrice, long volume) {
+        return StockPrice.builder()
+                .stockCode("005930")
+                .candleDateTime(candleDateTime)
+                .periodType(PeriodType.MINUTE)
+                .openPrice(closePrice - 50)
+                .highPrice(closePrice + 50)
+                .lowPrice(closePrice - 100)
+                .closePrice(closePrice)
+                .volume(volume)
+                .tradeAmount(BigDecimal.valueOf(volume * 1000))
+                .build();
+    }
+}
@@ -1,255 +1,514 @@
 package com.hsu_mafia.motoo.kisdatacollector.service;
 
+import com.hsu_mafia.motoo.kisdatacollector.domain.RequestPriority;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.assertj.core.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class RateLimitManagerTest {
 
     private RateLimitManager rateLimitManager;
-    
+
     @BeforeEach
     void setUp() {
         rateLimitManager = new RateLimitManager();
     }
-    
+
+    @Test
+    void constructor_ShouldUseIntervalOfStricterLimit() {
+        // 초당 2회 = 500ms 간격, 분당 20회 = 3000ms 간격
+        assertThat(rateLimitManager.getPermitIntervalMillis()).isEqualTo(3000);
+        assertThat(new RateLimitManager(20, 6000).getPermitIntervalMillis()).isEqualTo(50);
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveLimits() {
+        assertThatThrownBy(() -> new RateLimitManager(0, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void waitForRateLimit_ShouldNotWait_WhenNoRequestsYet() {
         // Given
         long startTime = System.currentTimeMillis();
-        
+
         // When
         rateLimitManager.waitForRateLimit();
-        
+
         // Then
         long endTime = System.currentTimeMillis();
         assertThat(endTime - startTime).isLessThan(100); // 거의 즉시 완료
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(1);
-        assertThat(rateLimitManager.getCurrentSecondRequestCount()).isEqualTo(1);
+        assertThat(rateLimitManager.getGrantedCount()).isEqualTo(1);
     }
-    
+
     @Test
-    void waitForRateLimit_ShouldAllowRequestsWithinSecondLimit() {
-        // Given & When
-        long startTime = System.currentTimeMillis();
-        rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        long endTime = System.currentTimeMillis();
-        
-        // Then
-        assertThat(endTime - startTime).isLessThan(500); // 초당 2회 허용이므로 빠르게 완료
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(2);
-        assertThat(rateLimitManager.getCurrentSecondRequestCount()).isEqualTo(2);
+    void acquire_ShouldGrantWithoutQueueLock_WhenNoOneIsWaiting() throws Exception {
+        // Given - 다른 스레드가 대기열 락을 잡고 있음
+        RateLimitManager limiter = new RateLimitManager(5, 300); // 200ms 간격
+        ReentrantLock queueLock = (ReentrantLock) ReflectionTestUtils.getField(limiter, "queueLock");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            queueLock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queueLock.unlock();
+            }
+        });
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then - 줄 선 호출이 없으면 락 없이 허가하고, 다음 허가 시각 전에는 대기열로 간다
+        try {
+            assertThat(limiter.acquireAsync(RequestPriority.BACKFILL)).isCompleted();
+            assertThat(limiter.getGrantedCount(RequestPriority.BACKFILL)).isEqualTo(1);
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> limiter.tryAcquire(RequestPriority.BACKFILL));
+            Thread.sleep(100);
+            assertThat(queued).isNotDone();
+        } finally {
+            release.countDown();
+            holder.join();
+        }
     }
-    
+
     @Test
-    void waitForRateLimit_ShouldWait_WhenSecondLimitExceeded() {
+    void waitForRateLimit_ShouldWait_WhenLimitExceeded() {
         // Given
-        rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        
+        RateLimitManager limiter = new RateLimitManager(5, 300); // 200ms 간격
+        limiter.waitForRateLimit();
+
         // When
-        long startTime = System.currentTimeMillis();
-        rateLimitManager.waitForRateLimit(); // 세 번째 요청 - 초당 제한 초과
-        long endTime = System.currentTimeMillis();
-        
+        long startTime = System.nanoTime();
+        limiter.waitForRateLimit();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
         // Then
-        assertThat(endTime - startTime).isGreaterThan(900); // 최소 1초 대기
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(3);
-    }
-    
-    @Test
-    void waitForRateLimit_ShouldWait_WhenMinuteLimitExceeded() throws InterruptedException {
-        // Given - 분당 제한(20회)에 도달하도록 요청 시간 설정
-        Queue<Long> requestTimes = (Queue<Long>) ReflectionTestUtils.getField(rateLimitManager, "requestTimes");
-        long currentTime = System.currentTimeMillis();
-        
-        // 20개의 요청을 1분 내에 배치
-        for (int i = 0; i < 20; i++) {
-            requestTimes.offer(currentTime - 30000 + (i * 1000)); // 30초 전부터 시작
-        }
-        
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+        assertThat(limiter.getTotalWaitMillis()).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    void tryAcquire_ShouldFailWithoutWaiting_WhenNoPermitAvailable() {
+        // Given
+        assertThat(rateLimitManager.tryAcquire()).isTrue();
+
         // When
         long startTime = System.currentTimeMillis();
-        rateLimitManager.waitForRateLimit();
-        long endTime = System.currentTimeMillis();
-        
+        boolean acquired = rateLimitManager.tryAcquire();
+
         // Then
-        assertThat(endTime - startTime).isGreaterThan(20000); // 최소 20초 대기 (분당 제한 때문에)
+        assertThat(acquired).isFalse();
+        assertThat(System.currentTimeMillis() - startTime).isLessThan(100);
+        assertThat(rateLimitManager.getGrantedCount()).isEqualTo(1);
+        assertThat(rateLimitManager.getNextPermitDelayMillis()).isGreaterThan(2000);
     }
-    
+
     @Test
-    void getCurrentRequestCount_ShouldReturnCorrectCount() {
+    void tryAcquireWithTimeout_ShouldFail_WhenWaitExceedsTimeout() throws InterruptedException {
         // Given
         rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        
+
         // When
-        int count = rateLimitManager.getCurrentRequestCount();
-        
+        boolean acquired = rateLimitManager.tryAcquire(100, TimeUnit.MILLISECONDS);
+
         // Then
-        assertThat(count).isEqualTo(2);
+        assertThat(acquired).isFalse();
+        assertThat(rateLimitManager.getGrantedCount()).isEqualTo(1);
     }
-    
+
     @Test
-    void getCurrentSecondRequestCount_ShouldReturnCorrectCount() {
+    void tryAcquireWithTimeout_ShouldWaitForPermit_WhenWithinTimeout() throws InterruptedException {
         // Given
-        rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        
+        RateLimitManager limiter = new RateLimitManager(10, 600); // 100ms 간격
+        limiter.waitForRateLimit();
+
         // When
-        int count = rateLimitManager.getCurrentSecondRequestCount();
-        
+        long startTime = System.nanoTime();
+        boolean acquired = limiter.tryAcquire(1, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
         // Then
-        assertThat(count).isEqualTo(2);
+        assertThat(acquired).isTrue();
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(90);
     }
-    
+
     @Test
-    void cleanupOldRequests_ShouldRemoveExpiredRequests() throws InterruptedException {
+    void acquireAsync_ShouldCompleteAtGrantTime_WithoutBlockingCaller() {
         // Given
-        Queue<Long> requestTimes = (Queue<Long>) ReflectionTestUtils.getField(rateLimitManager, "requestTimes");
-        long currentTime = System.currentTimeMillis();
-        
-        // 오래된 요청들을 큐에 추가
-        requestTimes.offer(currentTime - 70000); // 70초 전
-        requestTimes.offer(currentTime - 65000); // 65초 전
-        requestTimes.offer(currentTime - 30000); // 30초 전
-        
+        RateLimitManager limiter = new RateLimitManager(10, 600); // 100ms 간격
+
         // When
-        rateLimitManager.waitForRateLimit();
-        
+        long startTime = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(limiter.acquireAsync());
+        }
+        long callMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
         // Then
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(2); // 30초 전 요청 + 현재 요청
+        assertThat(callMillis).isLessThan(50);
+        assertThat(futures.get(0)).isCompleted();
+        assertThat(totalMillis).isGreaterThanOrEqualTo(390);
     }
-    
+
     @Test
-    void cleanupSecondRequests_ShouldRemoveExpiredRequests() throws InterruptedException {
-        // Given
-        Queue<Long> secondRequestTimes = (Queue<Long>) ReflectionTestUtils.getField(rateLimitManager, "secondRequestTimes");
-        long currentTime = System.currentTimeMillis();
-        
-        // 오래된 요청들을 큐에 추가
-        secondRequestTimes.offer(currentTime - 2000); // 2초 전
-        secondRequestTimes.offer(currentTime - 1500); // 1.5초 전
-        secondRequestTimes.offer(currentTime - 500);  // 0.5초 전
-        
-        // When
-        rateLimitManager.waitForRateLimit();
-        
+    void acquireAsyncAndTryAcquire_ShouldNotJumpAheadOfQueuedHigherPriority() throws Exception {
+        // Given - 100ms 간격, 백필이 방금 허가를 받았고 즉시 실행 호출 하나가 다음 허가를 기다리는 중
+        RateLimitManager limiter = new RateLimitManager(10, 600);
+        limiter.waitForRateLimit(RequestPriority.BACKFILL);
+        List<RequestPriority> grantOrder = Collections.synchronizedList(new ArrayList<>());
+        Thread interactive = new Thread(() -> {
+            limiter.waitForRateLimit(RequestPriority.INTERACTIVE);
+            grantOrder.add(RequestPriority.INTERACTIVE);
+        });
+        interactive.start();
+        Thread.sleep(30);
+
+        // When - 백필 호출이 기다리지 않는 방식으로 끼어든다
+        CompletableFuture<Void> backfill = limiter.acquireAsync(RequestPriority.BACKFILL)
+                .thenRun(() -> grantOrder.add(RequestPriority.BACKFILL));
+        boolean tried = limiter.tryAcquire(RequestPriority.BACKFILL);
+        backfill.get(5, TimeUnit.SECONDS);
+        interactive.join(5000);
+
         // Then
-        assertThat(rateLimitManager.getCurrentSecondRequestCount()).isEqualTo(2); // 0.5초 전 요청 + 현재 요청
+        assertThat(tried).isFalse();
+        assertThat(grantOrder).containsExactly(RequestPriority.INTERACTIVE, RequestPriority.BACKFILL);
+        assertThat(limiter.getQueuedCount()).isZero();
     }
-    
+
     @Test
-    void concurrentRequests_ShouldHandleMultipleThreads() throws InterruptedException {
+    void concurrentRequests_ShouldNeverGrantFasterThanInterval() throws InterruptedException {
         // Given
-        int threadCount = 5;
-        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        RateLimitManager limiter = new RateLimitManager(20, 1200); // 50ms 간격
+        int threadCount = 8;
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
         CountDownLatch latch = new CountDownLatch(threadCount);
-        AtomicInteger completedRequests = new AtomicInteger(0);
-        
+        List<Long> grantTimes = Collections.synchronizedList(new ArrayList<>());
+
         // When
         for (int i = 0; i < threadCount; i++) {
             executor.submit(() -> {
                 try {
-                    rateLimitManager.waitForRateLimit();
-                    completedRequests.incrementAndGet();
+                    limiter.waitForRateLimit();
+                    grantTimes.add(System.nanoTime());
                 } finally {
                     latch.countDown();
                 }
             });
         }
-        
+
         // Then
         boolean finished = latch.await(30, TimeUnit.SECONDS);
         assertThat(finished).isTrue();
-        assertThat(completedRequests.get()).isEqualTo(threadCount);
-        
+        assertThat(limiter.getGrantedCount()).isEqualTo(threadCount);
+
+        List<Long> sorted = new ArrayList<>(grantTimes);
+        Collections.sort(sorted);
+        long spanMillis = TimeUnit.NANOSECONDS.toMillis(sorted.get(sorted.size() - 1) - sorted.get(0));
+        assertThat(spanMillis).isGreaterThanOrEqualTo((threadCount - 1) * 50L - 10);
+
         executor.shutdown();
     }
-    
+
     @Test
-    void waitForRateLimit_ShouldHandleInterruption() throws InterruptedException {
+    void concurrentTryAcquire_ShouldGrantExactlyOnePermit() throws InterruptedException {
         // Given
-        rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        
+        int threadCount = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        AtomicInteger acquired = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    if (rateLimitManager.tryAcquire()) {
+                        acquired.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+
+        // Then
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(acquired.get()).isEqualTo(1);
+
+        executor.shutdown();
+    }
+
+    @Test
+    void waitForRateLimit_ShouldRestoreInterruptFlag_AfterWaiting() throws InterruptedException {
+        // Given
+        RateLimitManager limiter = new RateLimitManager(5, 300); // 200ms 간격
+        limiter.waitForRateLimit();
+        AtomicInteger interruptedAfterWait = new AtomicInteger();
+
         Thread testThread = new Thread(() -> {
-            rateLimitManager.waitForRateLimit(); // 이 호출은 대기하게 됨
+            limiter.waitForRateLimit(); // 이 호출은 대기하게 됨
+            if (Thread.currentThread().isInterrupted()) {
+                interruptedAfterWait.incrementAndGet();
+            }
         });
-        
+
         // When
         testThread.start();
-        Thread.sleep(100); // 스레드가 대기 상태에 들어가도록 잠시 대기
+        Thread.sleep(50); // 스레드가 대기 상태에 들어가도록 잠시 대기
         testThread.interrupt();
-        
+
         // Then
         testThread.join(5000); // 5초 내에 종료되어야 함
         assertThat(testThread.isAlive()).isFalse();
+        assertThat(interruptedAfterWait.get()).isEqualTo(1);
     }
-    
+
     @Test
-    void rateLimitManager_ShouldMaintainCorrectState_WithVariousOperations() {
+    void getNextPermitDelayMillis_ShouldReturnZero_AfterIntervalElapsed() throws InterruptedException {
         // Given
-        rateLimitManager.waitForRateLimit();
-        rateLimitManager.waitForRateLimit();
-        
+        RateLimitManager limiter = new RateLimitManager(10, 600); // 100ms 간격
+        limiter.waitForRateLimit();
+
         // When
-        int initialCount = rateLimitManager.getCurrentRequestCount();
-        int initialSecondCount = rateLimitManager.getCurrentSecondRequestCount();
-        
-        // Then
-        assertThat(initialCount).isEqualTo(2);
-        assertThat(initialSecondCount).isEqualTo(2);
-        
-        // When - 시간이 지나면서 정리됨
-        try {
-            Thread.sleep(1100); // 1.1초 대기
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        int afterDelaySecondCount = rateLimitManager.getCurrentSecondRequestCount();
-        
+        Thread.sleep(150);
+
         // Then
-        assertThat(afterDelaySecondCount).isEqualTo(0); // 1초 후엔 초단위 카운트가 0이 됨
+        assertThat(limiter.getNextPermitDelayMillis()).isZero();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void onBackoff_ShouldDecreaseRateMultiplicatively_DownToMinimum() {
+        // Given - 상한 분당 60회, 하한 분당 10회
+        RateLimitManager limiter = new RateLimitManager(1, 60, new RateLimitManager.AdaptivePolicy(10, 1, 0.5));
+
+        // When & Then
+        assertThat(limiter.getRequestsPerMinute()).isEqualTo(60.0);
+        assertThat(limiter.onBackoff()).isTrue();
+        assertThat(limiter.getRequestsPerMinute()).isCloseTo(30.0, within(0.01));
+        assertThat(limiter.getPermitIntervalMillis()).isEqualTo(2000);
+        assertThat(limiter.getBackoffCount()).isEqualTo(1);
     }
-    
+
     @Test
-    void rateLimitManager_ShouldHandleEdgeCases() {
+    void onBackoff_ShouldIgnoreRepeatedFailures_FromRequestsReservedBeforeBackoff() {
         // Given
-        Queue<Long> requestTimes = (Queue<Long>) ReflectionTestUtils.getField(rateLimitManager, "requestTimes");
-        
-        // When - 큐가 비어있을 때
-        rateLimitManager.waitForRateLimit();
-        
+        RateLimitManager limiter = new RateLimitManager(1, 60, new RateLimitManager.AdaptivePolicy(10, 1, 0.5));
+        limiter.onBackoff();
+
+        // When - 같은 시점에 나갔던 호출들의 실패가 연달아 도착
+        boolean second = limiter.onBackoff();
+        boolean third = limiter.onBackoff();
+
         // Then
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(1);
-        
-        // When - 큐에 null이 없는지 확인
-        assertThat(requestTimes.peek()).isNotNull();
-        
-        // When - 매우 많은 요청이 있을 때
-        for (int i = 0; i < 100; i++) {
-            requestTimes.offer(System.currentTimeMillis() - 70000); // 모두 만료된 요청
+        assertThat(second).isFalse();
+        assertThat(third).isFalse();
+        assertThat(limiter.getRequestsPerMinute()).isCloseTo(30.0, within(0.01));
+        assertThat(limiter.getBackoffCount()).isEqualTo(1);
+    }
+
+    @Test
+    void onBackoff_ShouldNotGoBelowMinimumRate() throws InterruptedException {
+        // Given - 상한 분당 6000회(10ms), 하한 분당 3000회(20ms)
+        RateLimitManager limiter = new RateLimitManager(100, 6000, new RateLimitManager.AdaptivePolicy(3000, 100, 0.25));
+
+        // When
+        limiter.onBackoff();
+        Thread.sleep(50);
+        boolean atFloor = limiter.onBackoff();
+
+        // Then
+        assertThat(limiter.getRequestsPerMinute()).isCloseTo(3000.0, within(0.01));
+        assertThat(atFloor).isFalse();
+    }
+
+    @Test
+    void onSuccess_ShouldIncreaseRateAdditively_UpToCeiling() throws InterruptedException {
+        // Given - 상한 분당 6000회(10ms), 감속 후 분당 3000회
+        RateLimitManager limiter = new RateLimitManager(100, 6000, new RateLimitManager.AdaptivePolicy(100, 1000, 0.5));
+        limiter.onBackoff();
+        Thread.sleep(50); // 감속 직후 유예 시간이 지나도록
+
+        // When & Then
+        limiter.onSuccess();
+        assertThat(limiter.getRequestsPerMinute()).isCloseTo(4000.0, within(1.0));
+        limiter.onSuccess();
+        assertThat(limiter.getRequestsPerMinute()).isCloseTo(5000.0, within(1.0));
+        limiter.onSuccess();
+        limiter.onSuccess();
+        assertThat(limiter.getRequestsPerMinute()).isEqualTo(6000.0);
+    }
+
+    @Test
+    void onBackoff_ShouldDoNothing_WithoutAdaptivePolicy() {
+        // When
+        boolean decreased = rateLimitManager.onBackoff();
+        rateLimitManager.onSuccess();
+
+        // Then
+        assertThat(decreased).isFalse();
+        assertThat(rateLimitManager.getPermitIntervalMillis()).isEqualTo(3000);
+    }
+
+    @Test
+    void adaptivePolicy_ShouldRejectInvalidDecreaseFactor() {
+        assertThatThrownBy(() -> new RateLimitManager.AdaptivePolicy(4, 0.5, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sharedLimit_ShouldLeaseNextWindowAhead_BeforeCurrentWindowRunsOut() throws Exception {
+        // Given - 10ms 간격, 허가 5개(50ms)씩 임대
+        AtomicInteger leaseCalls = new AtomicInteger();
+        RateLimitManager limiter = new RateLimitManager(100, 6000, null, durationNanos -> {
+            leaseCalls.incrementAndGet();
+            return System.nanoTime();
+        }, 5);
+
+        // When - 첫 구간의 허가 5개를 모두 쓴다
+        for (int i = 0; i < 5; i++) {
+            limiter.waitForRateLimit();
         }
-        
-        rateLimitManager.waitForRateLimit();
-        
-        // Then - 만료된 요청들은 정리되어야 함
-        assertThat(rateLimitManager.getCurrentRequestCount()).isEqualTo(1);
+        Thread.sleep(50);
+
+        // Then - 구간을 절반 넘게 쓴 시점에 다음 구간을 받아 두었다
+        assertThat(leaseCalls.get()).isEqualTo(2);
+        assertThat(limiter.getLeaseCount()).isEqualTo(2);
+        assertThat(limiter.getGrantedCount()).isEqualTo(5);
+    }
+
+    @Test
+    void sharedLimit_ShouldNotGrant_UntilLeaseSucceeds() throws Exception {
+        // Given - 공유 저장소가 응답하지 않는다
+        AtomicBoolean available = new AtomicBoolean(false);
+        AtomicInteger leaseCalls = new AtomicInteger();
+        RateLimitManager limiter = new RateLimitManager(100, 6000, null, durationNanos -> {
+            leaseCalls.incrementAndGet();
+            if (!available.get()) {
+                throw new IllegalStateException("DB 연결 실패");
+            }
+            return System.nanoTime();
+        }, 5);
+        Thread caller = new Thread(limiter::waitForRateLimit);
+
+        // When
+        caller.start();
+        Thread.sleep(200);
+
+        // Then - 로컬 한도로 허가하지 않고 간격을 늘려 가며 다시 임대한다
+        assertThat(caller.isAlive()).isTrue();
+        assertThat(limiter.getGrantedCount()).isZero();
+        assertThat(leaseCalls.get()).isBetween(2, 10);
+
+        available.set(true);
+        caller.join(5000);
+        assertThat(caller.isAlive()).isFalse();
+        assertThat(limiter.getGrantedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_ShouldNotStartLease_WithSharedLimit() throws Exception {
+        // Given
+        AtomicInteger leaseCalls = new AtomicInteger();
+        RateLimitManager limiter = new RateLimitManager(100, 6000, null, durationNanos -> {
+            leaseCalls.incrementAndGet();
+            return System.nanoTime();
+        }, 5);
+
+        // When
+        boolean acquired = limiter.tryAcquire();
+        Thread.sleep(50);
+
+        // Then - 임대해 둔 구간이 없으므로 허가하지 않고, 임대도 시작하지 않는다
+        assertThat(acquired).isFalse();
+        assertThat(leaseCalls.get()).isZero();
+    }
+
+    @Test
+    void waitForRateLimit_ShouldKeepInteractiveLatencyLow_WhileBackfillIsRunning() throws Exception {
+        // Given - 50ms 간격에 백필 호출 6개가 계속 줄을 서 있다
+        RateLimitManager limiter = new RateLimitManager(20, 1200);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicBoolean running = new AtomicBoolean(true);
+        for (int i = 0; i < 6; i++) {
+            executor.submit(() -> {
+                while (running.get()) {
+                    limiter.waitForRateLimit(RequestPriority.BACKFILL);
+                }
+            });
+        }
+        Thread.sleep(300);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.waitForRateLimit(RequestPriority.INTERACTIVE);
+            Thread.sleep(20);
+        }
+        running.set(false);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // Then - 즉시 실행 호출은 지금 나가는 허가 하나만 기다리고, 백필은 줄 선 호출 수만큼 기다린다
+        assertThat(limiter.getGrantedCount(RequestPriority.INTERACTIVE)).isEqualTo(5);
+        assertThat(limiter.getMaxWaitMillis(RequestPriority.INTERACTIVE)).isLessThanOrEqualTo(80);
+        double backfillAverageWait = (double) limiter.getTotalWaitMillis(RequestPriority.BACKFILL)
+                / limiter.getGrantedCount(RequestPriority.BACKFILL);
+        assertThat(backfillAverageWait).isGreaterThan(150);
+    }
+
+    @Test
+    void waitForRateLimit_ShouldSharePermitsByWeight_WhenAllClassesAreWaiting() throws Exception {
+        // Given - 10ms 간격, 등급마다 호출 4개가 계속 줄을 서 있다
+        RateLimitManager limiter = new RateLimitManager(100, 6000);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        AtomicBoolean running = new AtomicBoolean(true);
+        for (RequestPriority priority : RequestPriority.values()) {
+            for (int i = 0; i < 4; i++) {
+                executor.submit(() -> {
+                    while (running.get()) {
+                        limiter.waitForRateLimit(priority);
+                    }
+                });
+            }
+        }
+
+        // When
+        Thread.sleep(1200);
+        running.set(false);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        // Then - 8:3:1 비율. 백필도 굶지 않는다
+        long interactive = limiter.getGrantedCount(RequestPriority.INTERACTIVE);
+        long incremental = limiter.getGrantedCount(RequestPriority.INCREMENTAL);
+        long backfill = limiter.getGrantedCount(RequestPriority.BACKFILL);
+        assertThat(backfill).isPositive();
+        assertThat((double) interactive / backfill).isBetween(5.0, 11.0);
+        assertThat((double) incremental / backfill).isBetween(2.0, 4.5);
     }
-}
\ No newline at end of file
+}
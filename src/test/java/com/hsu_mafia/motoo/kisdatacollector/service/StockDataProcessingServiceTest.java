@@ -3,7 +3,7 @@ package com.hsu_mafia.motoo.kisdatacollector.service;
 import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
 import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
 import com.hsu_mafia.motoo.kisdatacollector.dto.StockDataResponse;
-import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceBulkRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,17 +24,24 @@ import static org.mockito.Mockito.*;
 class StockDataProcessingServiceTest {
 
     @Mock
-    private StockPriceRepository stockPriceRepository;
+    private StockPriceBulkRepository stockPriceBulkRepository;
+    
+    @Mock
+    private StockPricePartitionManager stockPricePartitionManager;
+    
+    @Mock
+    private CandleRollupService candleRollupService;
     
     private StockDataProcessingService stockDataProcessingService;
     
     @BeforeEach
     void setUp() {
-        stockDataProcessingService = new StockDataProcessingService(stockPriceRepository);
+        stockDataProcessingService = new StockDataProcessingService(stockPriceBulkRepository, stockPricePartitionManager,
+                candleRollupService);
     }
     
     @Test
-    void processAndSaveStockData_ShouldSaveNewData_WhenDataDoesNotExist() {
+    void processAndSaveStockData_ShouldInsertParsedBatch_InSingleCall() {
         // Given
         List<StockDataResponse> dataList = Arrays.asList(
                 StockDataResponse.builder()
@@ -47,82 +54,125 @@ class StockDataProcessingServiceTest {
                         .volume("1000000")
                         .tradeAmount("75200000000")
                         .periodType(PeriodType.DAILY)
+                        .build(),
+                StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime("202401020000")
+                        .openPrice("75100")
+                        .periodType(PeriodType.DAILY)
                         .build()
         );
         
-        when(stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
-                anyString(), any(LocalDateTime.class), any(PeriodType.class)))
-                .thenReturn(false);
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(2);
         
         // When
-        stockDataProcessingService.processAndSaveStockData(dataList);
+        int savedCount = stockDataProcessingService.processAndSaveStockData(dataList);
         
         // Then
-        ArgumentCaptor<StockPrice> stockPriceCaptor = ArgumentCaptor.forClass(StockPrice.class);
-        verify(stockPriceRepository).save(stockPriceCaptor.capture());
+        assertThat(savedCount).isEqualTo(2);
+        
+        ArgumentCaptor<List<StockPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockPriceBulkRepository, times(1)).insertIgnoringConflicts(captor.capture());
         
-        StockPrice savedStockPrice = stockPriceCaptor.getValue();
+        List<StockPrice> stockPrices = captor.getValue();
+        assertThat(stockPrices).hasSize(2);
+        StockPrice savedStockPrice = stockPrices.get(0);
         assertThat(savedStockPrice.getStockCode()).isEqualTo("005930");
-        assertThat(savedStockPrice.getOpenPrice()).isEqualTo("75000");
-        assertThat(savedStockPrice.getHighPrice()).isEqualTo("75500");
-        assertThat(savedStockPrice.getLowPrice()).isEqualTo("74500");
-        assertThat(savedStockPrice.getClosePrice()).isEqualTo("75200");
-        assertThat(savedStockPrice.getVolume()).isEqualTo("1000000");
-        assertThat(savedStockPrice.getTradeAmount()).isEqualTo("75200000000");
+        assertThat(savedStockPrice.getCandleDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+        assertThat(savedStockPrice.getOpenPrice()).isEqualTo(75000L);
+        assertThat(savedStockPrice.getHighPrice()).isEqualTo(75500L);
+        assertThat(savedStockPrice.getLowPrice()).isEqualTo(74500L);
+        assertThat(savedStockPrice.getClosePrice()).isEqualTo(75200L);
+        assertThat(savedStockPrice.getVolume()).isEqualTo(1000000L);
+        assertThat(savedStockPrice.getTradeAmount()).isEqualByComparingTo("75200000000");
         assertThat(savedStockPrice.getPeriodType()).isEqualTo(PeriodType.DAILY);
     }
     
     @Test
-    void processAndSaveStockData_ShouldSkipExistingData_WhenDataAlreadyExists() {
+    void processAndSaveStockData_ShouldRollUpDailies_OnlyWhenNewCandlesSaved() {
+        // Given
+        List<StockDataResponse> dataList = List.of(StockDataResponse.builder()
+                .stockCode("005930")
+                .candleDateTime("202401020000")
+                .closePrice("75200")
+                .periodType(PeriodType.DAILY)
+                .build());
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(1, 0);
+        
+        // When - 두 번째는 이미 저장된 일봉
+        stockDataProcessingService.processAndSaveStockData(dataList);
+        stockDataProcessingService.processAndSaveStockData(dataList);
+        
+        // Then
+        verify(candleRollupService, times(1)).rollup(anyList());
+    }
+    
+    @Test
+    void processAndSaveStockData_ShouldSkipRow_WhenPriceIsNotWholeNumber() {
         // Given
         List<StockDataResponse> dataList = Arrays.asList(
                 StockDataResponse.builder()
                         .stockCode("005930")
                         .candleDateTime("202401010000")
-                        .openPrice("75000")
-                        .highPrice("75500")
-                        .lowPrice("74500")
-                        .closePrice("75200")
-                        .volume("1000000")
-                        .tradeAmount("75200000000")
+                        .openPrice(" 75000 ")
+                        .volume("")
+                        .periodType(PeriodType.DAILY)
+                        .build(),
+                StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime("202401020000")
+                        .openPrice("75000.5")
+                        .periodType(PeriodType.DAILY)
+                        .build(),
+                StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime("202401030000")
+                        .closePrice("N/A")
                         .periodType(PeriodType.DAILY)
                         .build()
         );
         
-        when(stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
-                anyString(), any(LocalDateTime.class), any(PeriodType.class)))
-                .thenReturn(true);
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(1);
         
         // When
         stockDataProcessingService.processAndSaveStockData(dataList);
         
-        // Then
-        verify(stockPriceRepository, never()).save(any(StockPrice.class));
+        // Then - 공백은 잘라내고 빈 값은 null
+        ArgumentCaptor<List<StockPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockPriceBulkRepository).insertIgnoringConflicts(captor.capture());
+        assertThat(captor.getValue()).singleElement().satisfies(stockPrice -> {
+            assertThat(stockPrice.getOpenPrice()).isEqualTo(75000L);
+            assertThat(stockPrice.getVolume()).isNull();
+        });
     }
     
     @Test
-    void processAndSaveStockData_ShouldSkipInvalidData_WhenCandleDateTimeIsInvalid() {
+    void processAndSaveStockData_ShouldReportOnlyInsertedRows_WhenSomeAlreadyExist() {
         // Given
         List<StockDataResponse> dataList = Arrays.asList(
                 StockDataResponse.builder()
                         .stockCode("005930")
-                        .candleDateTime("invalid-date")
-                        .openPrice("75000")
+                        .candleDateTime("202401010000")
+                        .periodType(PeriodType.DAILY)
+                        .build(),
+                StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime("202401020000")
                         .periodType(PeriodType.DAILY)
                         .build()
         );
         
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(1);
+        
         // When
-        stockDataProcessingService.processAndSaveStockData(dataList);
+        int savedCount = stockDataProcessingService.processAndSaveStockData(dataList);
         
         // Then
-        verify(stockPriceRepository, never()).existsByStockCodeAndCandleDateTimeAndPeriodType(
-                anyString(), any(LocalDateTime.class), any(PeriodType.class));
-        verify(stockPriceRepository, never()).save(any(StockPrice.class));
+        assertThat(savedCount).isEqualTo(1);
     }
     
     @Test
-    void processAndSaveStockData_ShouldHandleException_WhenSaveThrowsException() {
+    void processAndSaveStockData_ShouldSkipInvalidData_WhenCandleDateTimeIsInvalid() {
         // Given
         List<StockDataResponse> dataList = Arrays.asList(
                 StockDataResponse.builder()
@@ -130,58 +180,45 @@ class StockDataProcessingServiceTest {
                         .candleDateTime("202401010000")
                         .openPrice("75000")
                         .periodType(PeriodType.DAILY)
+                        .build(),
+                StockDataResponse.builder()
+                        .stockCode("005930")
+                        .candleDateTime("invalid-date")
+                        .openPrice("75200")
+                        .periodType(PeriodType.DAILY)
                         .build()
         );
         
-        when(stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
-                anyString(), any(LocalDateTime.class), any(PeriodType.class)))
-                .thenReturn(false);
-        when(stockPriceRepository.save(any(StockPrice.class)))
-                .thenThrow(new RuntimeException("Database error"));
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList())).thenReturn(1);
         
         // When
         stockDataProcessingService.processAndSaveStockData(dataList);
         
         // Then
-        verify(stockPriceRepository).save(any(StockPrice.class));
+        ArgumentCaptor<List<StockPrice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockPriceBulkRepository).insertIgnoringConflicts(captor.capture());
+        assertThat(captor.getValue()).hasSize(1);
     }
     
     @Test
-    void processAndSaveStockData_ShouldProcessMultipleData_WithMixedConditions() {
+    void processAndSaveStockData_ShouldPropagateException_WhenBatchInsertFails() {
         // Given
         List<StockDataResponse> dataList = Arrays.asList(
-                // 신규 데이터 (저장됨)
                 StockDataResponse.builder()
                         .stockCode("005930")
                         .candleDateTime("202401010000")
                         .openPrice("75000")
                         .periodType(PeriodType.DAILY)
-                        .build(),
-                // 기존 데이터 (건너뜀)
-                StockDataResponse.builder()
-                        .stockCode("005930")
-                        .candleDateTime("202401020000")
-                        .openPrice("75100")
-                        .periodType(PeriodType.DAILY)
-                        .build(),
-                // 잘못된 날짜 (건너뜀)
-                StockDataResponse.builder()
-                        .stockCode("005930")
-                        .candleDateTime("invalid")
-                        .openPrice("75200")
-                        .periodType(PeriodType.DAILY)
                         .build()
         );
         
-        when(stockPriceRepository.existsByStockCodeAndCandleDateTimeAndPeriodType(
-                eq("005930"), any(LocalDateTime.class), eq(PeriodType.DAILY)))
-                .thenReturn(false, true);
-        
-        // When
-        stockDataProcessingService.processAndSaveStockData(dataList);
+        when(stockPriceBulkRepository.insertIgnoringConflicts(anyList()))
+                .thenThrow(new RuntimeException("Database error"));
         
-        // Then
-        verify(stockPriceRepository, times(1)).save(any(StockPrice.class));
+        // When & Then - 배치 작업이 해당 구간을 실패로 집계할 수 있도록 예외를 전달
+        assertThatThrownBy(() -> stockDataProcessingService.processAndSaveStockData(dataList))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Database error");
     }
     
     @Test
@@ -198,6 +235,19 @@ class StockDataProcessingServiceTest {
         assertThat(result).isEqualTo(LocalDateTime.of(2024, 1, 1, 10, 30));
     }
     
+    @Test
+    void parseCandleDateTime_ShouldKeepMinute_WhenKisResponseIncludesSeconds() {
+        // Given - KisChartResponseParser 는 분봉에 stck_cntg_hour(HHMMSS)를 그대로 붙인다
+        String candleDateTime = "20240102090100";
+        
+        // When
+        LocalDateTime result = ReflectionTestUtils.invokeMethod(
+                stockDataProcessingService, "parseCandleDateTime", candleDateTime, PeriodType.MINUTE);
+        
+        // Then
+        assertThat(result).isEqualTo(LocalDateTime.of(2024, 1, 2, 9, 1));
+    }
+    
     @Test
     void parseCandleDateTime_ShouldParseDailyData_WhenValidDailyFormat() {
         // Given
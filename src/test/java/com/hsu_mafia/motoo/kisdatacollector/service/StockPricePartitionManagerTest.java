@@ -0,0 +1,116 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.domain.StockPrice;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPricePartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockPricePartitionManagerTest {
+
+    @Mock
+    private StockPricePartitionRepository stockPricePartitionRepository;
+
+    private BatchConfig batchConfig;
+
+    private StockPricePartitionManager stockPricePartitionManager;
+
+    @BeforeEach
+    void setUp() {
+        batchConfig = new BatchConfig();
+        batchConfig.setPartitionMonthsAhead(2);
+        stockPricePartitionManager = new StockPricePartitionManager(stockPricePartitionRepository, batchConfig);
+    }
+
+    @Test
+    void initialize_ShouldCreateOnlyMissingUpcomingPartitions() {
+        // Given - 이번 달 파티션만 있음
+        YearMonth current = YearMonth.now();
+        when(stockPricePartitionRepository.isMinutePartitioned()).thenReturn(true);
+        when(stockPricePartitionRepository.findMinutePartitionMonths()).thenReturn(Set.of(current));
+
+        // When
+        stockPricePartitionManager.initialize();
+
+        // Then
+        verify(stockPricePartitionRepository, never()).createMinutePartition(current);
+        verify(stockPricePartitionRepository).createMinutePartition(current.plusMonths(1));
+        verify(stockPricePartitionRepository).createMinutePartition(current.plusMonths(2));
+    }
+
+    @Test
+    void ensurePartitions_ShouldCreateEachMinuteMonthOnce() {
+        // Given
+        givenPartitioned();
+
+        // When - 같은 달이 반복되고 일봉이 섞여 있어도 분봉 달마다 한 번만 만든다
+        stockPricePartitionManager.ensurePartitions(List.of(
+                candle(PeriodType.MINUTE, LocalDateTime.of(2019, 3, 4, 9, 0)),
+                candle(PeriodType.MINUTE, LocalDateTime.of(2019, 3, 5, 9, 0)),
+                candle(PeriodType.DAILY, LocalDateTime.of(2018, 1, 2, 0, 0))));
+        stockPricePartitionManager.ensurePartitions(List.of(
+                candle(PeriodType.MINUTE, LocalDateTime.of(2019, 3, 6, 9, 0))));
+
+        // Then
+        verify(stockPricePartitionRepository, times(1)).createMinutePartition(YearMonth.of(2019, 3));
+        verify(stockPricePartitionRepository, never()).createMinutePartition(YearMonth.of(2018, 1));
+    }
+
+    @Test
+    void ensurePartitions_ShouldAcceptPartition_CreatedConcurrentlyByAnotherNode() {
+        // Given
+        givenPartitioned();
+        YearMonth month = YearMonth.of(2019, 3);
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(stockPricePartitionRepository).createMinutePartition(month);
+        when(stockPricePartitionRepository.findMinutePartitionMonths()).thenReturn(Set.of(month));
+
+        // When & Then
+        assertThatCode(() -> stockPricePartitionManager.ensurePartitions(List.of(
+                candle(PeriodType.MINUTE, LocalDateTime.of(2019, 3, 4, 9, 0)))))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void ensurePartitions_ShouldDoNothing_WhenTableIsNotPartitioned() {
+        // Given
+        when(stockPricePartitionRepository.isMinutePartitioned()).thenReturn(false);
+        stockPricePartitionManager.initialize();
+
+        // When
+        stockPricePartitionManager.ensurePartitions(List.of(
+                candle(PeriodType.MINUTE, LocalDateTime.of(2019, 3, 4, 9, 0))));
+
+        // Then
+        verify(stockPricePartitionRepository, never()).createMinutePartition(any());
+    }
+
+    private void givenPartitioned() {
+        when(stockPricePartitionRepository.isMinutePartitioned()).thenReturn(true);
+        when(stockPricePartitionRepository.findMinutePartitionMonths()).thenReturn(Set.of());
+        stockPricePartitionManager.initialize();
+    }
+
+    private StockPrice candle(PeriodType periodType, LocalDateTime candleDateTime) {
+        return StockPrice.builder()
+                .stockCode("005930")
+                .candleDateTime(candleDateTime)
+                .periodType(periodType)
+                .build();
+    }
+}
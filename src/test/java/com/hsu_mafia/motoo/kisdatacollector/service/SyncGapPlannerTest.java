@@ -0,0 +1,148 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import com.hsu_mafia.motoo.kisdatacollector.domain.PeriodType;
+import com.hsu_mafia.motoo.kisdatacollector.repository.StockPriceRepository;
+import com.hsu_mafia.motoo.kisdatacollector.service.SyncGapPlanner.SyncGap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncGapPlannerTest {
+
+    @Mock
+    private StockPriceRepository stockPriceRepository;
+    
+    private SyncGapPlanner syncGapPlanner;
+    
+    @BeforeEach
+    void setUp() {
+        syncGapPlanner = new SyncGapPlanner(stockPriceRepository, new TradingCalendar(new BatchConfig()));
+    }
+    
+    @Test
+    void findGaps_ShouldReturnNothing_WhenRangeIsFullyCovered() {
+        // Given - 2024-01-08(월) ~ 2024-01-14(일)
+        storedRange("005930", LocalDate.of(2023, 1, 2), LocalDate.of(2024, 1, 12));
+        when(stockPriceRepository.findCandleDates(eq("005930"), eq(PeriodType.DAILY), any(), any()))
+                .thenReturn(dates(8, 9, 10, 11, 12));
+        
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 14));
+        
+        // Then
+        assertThat(gaps).isEmpty();
+    }
+    
+    @Test
+    void findGaps_ShouldReturnHoles_AsSeparateRanges() {
+        // Given
+        storedRange("005930", LocalDate.of(2023, 1, 2), LocalDate.of(2024, 1, 12));
+        when(stockPriceRepository.findCandleDates(eq("005930"), eq(PeriodType.DAILY), any(), any()))
+                .thenReturn(dates(8, 11));
+        
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 14));
+        
+        // Then
+        assertThat(gaps).containsExactly(
+                new SyncGap(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 10)),
+                new SyncGap(LocalDate.of(2024, 1, 12), LocalDate.of(2024, 1, 12)));
+    }
+    
+    @Test
+    void findGaps_ShouldMergeMissingDays_AcrossWeekendsAndHolidays() {
+        // Given - 2024-02-08(목) 이후 비어 있음. 2/9 ~ 2/12 설 연휴, 2/10 ~ 2/11 주말
+        storedRange("005930", LocalDate.of(2023, 1, 2), LocalDate.of(2024, 2, 8));
+        when(stockPriceRepository.findCandleDates(eq("005930"), eq(PeriodType.DAILY), any(), any()))
+                .thenReturn(List.of(LocalDate.of(2024, 2, 8)));
+        
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 2, 8), LocalDate.of(2024, 2, 14));
+        
+        // Then
+        assertThat(gaps).containsExactly(new SyncGap(LocalDate.of(2024, 2, 13), LocalDate.of(2024, 2, 14)));
+    }
+    
+    @Test
+    void findGaps_ShouldReturnWholeRange_WithoutListingDates_WhenNothingStored() {
+        // Given
+        when(stockPriceRepository.findLatestCandleDateTime("005930", PeriodType.DAILY)).thenReturn(Optional.empty());
+        
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 14));
+        
+        // Then - 구간 양 끝의 주말은 제외
+        assertThat(gaps).containsExactly(new SyncGap(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12)));
+        verify(stockPriceRepository, never()).findCandleDates(any(), any(), any(), any());
+    }
+    
+    @Test
+    void findGaps_ShouldReturnWholeRange_WithoutListingDates_WhenStoredDataEndsBeforeRange() {
+        // Given
+        when(stockPriceRepository.findLatestCandleDateTime("005930", PeriodType.DAILY))
+                .thenReturn(Optional.of(LocalDateTime.of(2023, 12, 28, 0, 0)));
+        
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12));
+        
+        // Then
+        assertThat(gaps).containsExactly(new SyncGap(LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 12)));
+        verify(stockPriceRepository, never()).findCandleDates(any(), any(), any(), any());
+    }
+    
+    @Test
+    void findGaps_ShouldReturnNothing_WhenRangeHasNoTradingDays() {
+        // When
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.DAILY,
+                LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 7));
+        
+        // Then
+        assertThat(gaps).isEmpty();
+        verifyNoInteractions(stockPriceRepository);
+    }
+    
+    @Test
+    void findGaps_ShouldTreatWeekAsCovered_WhenWeeklyCandleExists() {
+        // Given - 주봉 캔들은 주 중 하루의 날짜를 가진다
+        storedRange("005930", LocalDate.of(2023, 1, 2), LocalDate.of(2024, 1, 8));
+        when(stockPriceRepository.findCandleDates(eq("005930"), eq(PeriodType.WEEKLY), any(), any()))
+                .thenReturn(List.of(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 8)));
+        
+        // When - 2024-01-03(수) ~ 2024-01-19(금)
+        List<SyncGap> gaps = syncGapPlanner.findGaps("005930", PeriodType.WEEKLY,
+                LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 19));
+        
+        // Then
+        assertThat(gaps).containsExactly(new SyncGap(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 19)));
+    }
+    
+    private void storedRange(String stockCode, LocalDate earliest, LocalDate latest) {
+        lenient().when(stockPriceRepository.findEarliestCandleDateTime(eq(stockCode), any()))
+                .thenReturn(Optional.of(earliest.atStartOfDay()));
+        lenient().when(stockPriceRepository.findLatestCandleDateTime(eq(stockCode), any()))
+                .thenReturn(Optional.of(latest.atStartOfDay()));
+    }
+    
+    private List<LocalDate> dates(int... januaryDays) {
+        return Arrays.stream(januaryDays).mapToObj(day -> LocalDate.of(2024, 1, day)).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.hsu_mafia.motoo.kisdatacollector.service;
+
+import com.hsu_mafia.motoo.kisdatacollector.BatchConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TradingCalendarTest {
+
+    private TradingCalendar tradingCalendar;
+    
+    @BeforeEach
+    void setUp() {
+        tradingCalendar = new TradingCalendar(new BatchConfig());
+    }
+    
+    @Test
+    void constructor_ShouldLoadBundledHolidays() {
+        assertThat(tradingCalendar.getSeededHolidayCount()).isGreaterThan(50);
+        assertThat(tradingCalendar.isHoliday(LocalDate.of(2023, 9, 28))).isTrue();  // 추석
+        assertThat(tradingCalendar.isHoliday(LocalDate.of(2022, 3, 9))).isTrue();   // 대통령선거일
+    }
+    
+    @Test
+    void isTradingDay_ShouldReturnTrue_ForRegularWeekday() {
+        assertThat(tradingCalendar.isTradingDay(LocalDate.of(2024, 1, 2))).isTrue();
+    }
+    
+    @Test
+    void isTradingDay_ShouldReturnFalse_ForKrxHolidays() {
+        assertThat(tradingCalendar.isTradingDay(LocalDate.of(2024, 1, 1))).isFalse();  // 신정
+        assertThat(tradingCalendar.isTradingDay(LocalDate.of(2024, 2, 9))).isFalse();  // 설날
+        assertThat(tradingCalendar.isTradingDay(LocalDate.of(2024, 4, 10))).isFalse(); // 국회의원선거일
+        assertThat(tradingCalendar.isTradingDay(LocalDate.of(2024, 12, 31))).isFalse(); // 연말휴장일
+    }
+    
+    @Test
+    void isTradingDay_ShouldReturnFalse_ForWeekends() {
+        // Given
+        LocalDate saturday = LocalDate.of(2024, 1, 6);
+        LocalDate sunday = LocalDate.of(2024, 1, 7);
+        
+        // When & Then
+        assertThat(tradingCalendar.isTradingDay(saturday)).isFalse();
+        assertThat(tradingCalendar.isTradingDay(sunday)).isFalse();
+    }
+    
+    @Test
+    void recordMissingDay_ShouldLearnHoliday_WhenMissingForEnoughStocks() {
+        // Given - 번들 표에 없는 평일
+        LocalDate date = LocalDate.of(2019, 10, 9);
+        
+        // When
+        tradingCalendar.recordMissingDay(date, "005930");
+        
+        // Then - 한 종목만 빠진 경우는 거래정지일 수 있으므로 아직 거래일
+        assertThat(tradingCalendar.isTradingDay(date)).isTrue();
+        
+        // When
+        tradingCalendar.recordMissingDay(date, "000660");
+        
+        // Then
+        assertThat(tradingCalendar.isTradingDay(date)).isFalse();
+        assertThat(tradingCalendar.getLearnedHolidays()).containsExactly(date);
+    }
+    
+    @Test
+    void recordMissingDay_ShouldIgnoreRepeatedReportsFromSameStock() {
+        // Given
+        LocalDate date = LocalDate.of(2019, 10, 9);
+        
+        // When
+        tradingCalendar.recordMissingDay(date, "005930");
+        tradingCalendar.recordMissingDay(date, "005930");
+        
+        // Then
+        assertThat(tradingCalendar.isTradingDay(date)).isTrue();
+    }
+    
+    @Test
+    void recordMissingDay_ShouldNotLearn_WhenDayWasConfirmedAsTradingDay() {
+        // Given
+        LocalDate date = LocalDate.of(2019, 10, 10);
+        tradingCalendar.recordTradingDay(date);
+        
+        // When
+        tradingCalendar.recordMissingDay(date, "005930");
+        tradingCalendar.recordMissingDay(date, "000660");
+        
+        // Then
+        assertThat(tradingCalendar.isTradingDay(date)).isTrue();
+    }
+    
+    @Test
+    void recordMissingDay_ShouldNotLearn_ForTodayOrFuture() {
+        // Given
+        LocalDate today = LocalDate.now();
+        
+        // When
+        tradingCalendar.recordMissingDay(today, "005930");
+        tradingCalendar.recordMissingDay(today, "000660");
+        
+        // Then
+        assertThat(tradingCalendar.getLearnedHolidayCount()).isZero();
+    }
+    
+    @Test
+    void recordTradingDay_ShouldRevertLearnedHoliday() {
+        // Given
+        LocalDate date = LocalDate.of(2019, 10, 11);
+        tradingCalendar.recordMissingDay(date, "005930");
+        tradingCalendar.recordMissingDay(date, "000660");
+        
+        // When
+        tradingCalendar.recordTradingDay(date);
+        
+        // Then
+        assertThat(tradingCalendar.isTradingDay(date)).isTrue();
+        assertThat(tradingCalendar.getLearnedHolidayCount()).isZero();
+    }
+}